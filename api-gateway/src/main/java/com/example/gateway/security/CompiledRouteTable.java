@@ -0,0 +1,356 @@
+package com.example.gateway.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.http.HttpMethod;
+import org.springframework.util.AntPathMatcher;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Route rules compiled once from {@link SecurityPolicyProperties}. Literal patterns are looked up by exact path,
+ * patterns made of literal, {@code *}, {@code {var}} and trailing {@code **} segments live in a segment trie, and
+ * anything else falls back to {@link AntPathMatcher}. Rules keep their configured order: the first rule whose
+ * path and method match wins, as with the linear scan this replaces. Paths with empty segments or a trailing
+ * slash are matched with {@link AntPathMatcher} against every rule so its tokenising rules still apply.
+ * Resolutions are memoised per method and path in a bounded cache.
+ */
+final class CompiledRouteTable {
+
+    private static final Pattern WHOLE_SEGMENT_VARIABLE = Pattern.compile("\\{([^{}:]+)}");
+    private static final int MAX_MEMOISED_PATH_LENGTH = 256;
+
+    private static final Rule NO_MATCH = new Rule(
+            Integer.MAX_VALUE, "", Set.of(), Set.of(), false, null, -1, false, null, null
+    );
+
+    private final List<Rule> rules;
+    private final Map<String, List<Rule>> exactRules;
+    private final Node trie;
+    private final List<Rule> antRules;
+    private final Map<String, Cache<String, Rule>> memo;
+
+    private CompiledRouteTable(List<Rule> rules, long memoMaximumSize) {
+        this.rules = List.copyOf(rules);
+
+        Map<String, List<Rule>> exact = new HashMap<>();
+        Node root = new Node();
+        List<Rule> ant = new ArrayList<>();
+        for (Rule rule : this.rules) {
+            if (rule.segments() == null) {
+                ant.add(rule);
+            } else if (rule.literal()) {
+                exact.computeIfAbsent(rule.pathPattern(), ignored -> new ArrayList<>()).add(rule);
+            } else {
+                root.insert(rule, 0);
+            }
+        }
+        exact.replaceAll((path, matching) -> List.copyOf(matching));
+        this.exactRules = Map.copyOf(exact);
+        this.trie = root.freeze();
+        this.antRules = List.copyOf(ant);
+
+        Map<String, Cache<String, Rule>> caches = new HashMap<>();
+        if (memoMaximumSize > 0) {
+            for (HttpMethod method : HttpMethod.values()) {
+                caches.put(method.name(), Caffeine.newBuilder().maximumSize(memoMaximumSize).build());
+            }
+        }
+        this.memo = Map.copyOf(caches);
+    }
+
+    static CompiledRouteTable compile(
+            List<SecurityPolicyProperties.RouteRule> routeRules,
+            AntPathMatcher pathMatcher,
+            long memoMaximumSize
+    ) {
+        List<Rule> compiled = new ArrayList<>();
+        if (routeRules != null) {
+            for (SecurityPolicyProperties.RouteRule routeRule : routeRules) {
+                if (routeRule == null || routeRule.getPathPattern() == null || routeRule.getPathPattern().isBlank()) {
+                    continue;
+                }
+                compiled.add(Rule.of(compiled.size(), routeRule, pathMatcher));
+            }
+        }
+        return new CompiledRouteTable(compiled, memoMaximumSize);
+    }
+
+    /**
+     * The first rule matching the path and method, or {@code null}.
+     */
+    Rule find(String path, HttpMethod method) {
+        String methodName = method == null ? "" : method.name();
+        Cache<String, Rule> cache = path.length() <= MAX_MEMOISED_PATH_LENGTH ? memo.get(methodName) : null;
+        if (cache == null) {
+            return resolve(path, methodName);
+        }
+
+        Rule cached = cache.getIfPresent(path);
+        if (cached == null) {
+            Rule resolved = resolve(path, methodName);
+            cached = resolved == null ? NO_MATCH : resolved;
+            cache.put(path, cached);
+        }
+        return cached == NO_MATCH ? null : cached;
+    }
+
+    private Rule resolve(String path, String methodName) {
+        if (!isCanonical(path)) {
+            for (Rule rule : rules) {
+                if (rule.allowsMethod(methodName) && rule.antMatches(path)) {
+                    return rule;
+                }
+            }
+            return null;
+        }
+
+        Rule best = null;
+        List<Rule> exact = exactRules.get(path);
+        if (exact != null) {
+            best = firstAllowing(exact, methodName, null);
+        }
+        best = trie.match(path, 1, methodName, best);
+        for (Rule rule : antRules) {
+            if (best != null && rule.index() > best.index()) {
+                break;
+            }
+            if (rule.allowsMethod(methodName) && rule.antMatches(path)) {
+                best = rule;
+                break;
+            }
+        }
+        return best;
+    }
+
+    private static Rule firstAllowing(List<Rule> candidates, String methodName, Rule best) {
+        for (Rule rule : candidates) {
+            if (best != null && rule.index() > best.index()) {
+                break;
+            }
+            if (rule.allowsMethod(methodName)) {
+                return rule;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Starts with a slash, has no empty segment and no trailing slash: the shape the trie and exact map assume.
+     */
+    private static boolean isCanonical(String path) {
+        int length = path.length();
+        if (length < 2 || path.charAt(0) != '/' || path.charAt(length - 1) == '/') {
+            return false;
+        }
+        return path.indexOf("//") < 0;
+    }
+
+    /**
+     * Splits a pattern into trie segments, or returns {@code null} if it needs {@link AntPathMatcher}.
+     */
+    private static List<String> segmentsOf(String pattern) {
+        if (!isCanonical(pattern)) {
+            return null;
+        }
+        String[] parts = pattern.substring(1).split("/");
+        List<String> segments = new ArrayList<>(parts.length);
+        for (int i = 0; i < parts.length; i++) {
+            String part = parts[i];
+            boolean last = i == parts.length - 1;
+            if (part.equals("**")) {
+                if (!last) {
+                    return null;
+                }
+            } else if (!part.equals("*") && !WHOLE_SEGMENT_VARIABLE.matcher(part).matches()
+                    && (part.indexOf('*') >= 0 || part.indexOf('?') >= 0
+                    || part.indexOf('{') >= 0 || part.indexOf('}') >= 0)) {
+                return null;
+            }
+            segments.add(part);
+        }
+        return segments;
+    }
+
+    static String normalize(String value) {
+        if (value == null) {
+            return "";
+        }
+        return value.trim().toUpperCase(Locale.ROOT);
+    }
+
+    record Rule(
+            int index,
+            String pathPattern,
+            Set<String> methods,
+            Set<String> roles,
+            boolean ownerCheck,
+            String ownerPathVariable,
+            int ownerSegment,
+            boolean literal,
+            List<String> segments,
+            AntPathMatcher pathMatcher
+    ) {
+
+        static Rule of(int index, SecurityPolicyProperties.RouteRule routeRule, AntPathMatcher pathMatcher) {
+            String pattern = routeRule.getPathPattern();
+            List<String> segments = segmentsOf(pattern);
+            String ownerVariable = routeRule.getOwnerPathVariable() == null || routeRule.getOwnerPathVariable().isBlank()
+                    ? "id"
+                    : routeRule.getOwnerPathVariable();
+            int ownerSegment = -1;
+            boolean literal = segments != null;
+            if (segments != null) {
+                for (int i = 0; i < segments.size(); i++) {
+                    String segment = segments.get(i);
+                    if (segment.equals("*") || segment.equals("**") || segment.startsWith("{")) {
+                        literal = false;
+                    }
+                    if (segment.equals("{" + ownerVariable + "}")) {
+                        ownerSegment = i;
+                    }
+                }
+            }
+            return new Rule(
+                    index,
+                    pattern,
+                    normalizeSet(routeRule.getMethods()),
+                    normalizeSet(routeRule.getRoles()),
+                    routeRule.isOwnerCheck(),
+                    ownerVariable,
+                    ownerSegment,
+                    literal,
+                    segments == null ? null : List.copyOf(segments),
+                    pathMatcher
+            );
+        }
+
+        boolean allowsMethod(String methodName) {
+            return methods.isEmpty() || methods.contains(methodName);
+        }
+
+        boolean allowsRole(String role) {
+            return (role != null && roles.contains(role)) || roles.contains(normalize(role));
+        }
+
+        boolean antMatches(String path) {
+            return pathMatcher.match(pathPattern, path);
+        }
+
+        /**
+         * Whether the owner path variable equals the user id. Trie rules compare the segment in place.
+         */
+        boolean isOwnedBy(String path, String userId) {
+            if (userId == null) {
+                return false;
+            }
+            if (segments == null || !isCanonical(path)) {
+                Map<String, String> variables;
+                try {
+                    variables = pathMatcher.extractUriTemplateVariables(pathPattern, path);
+                } catch (IllegalStateException ex) {
+                    return false;
+                }
+                return userId.equals(variables.get(ownerPathVariable));
+            }
+            if (ownerSegment < 0) {
+                return false;
+            }
+
+            int start = 1;
+            for (int i = 0; i < ownerSegment; i++) {
+                start = path.indexOf('/', start) + 1;
+                if (start == 0) {
+                    return false;
+                }
+            }
+            int end = path.indexOf('/', start);
+            if (end < 0) {
+                end = path.length();
+            }
+            return end - start == userId.length() && path.regionMatches(start, userId, 0, userId.length());
+        }
+
+        private static Set<String> normalizeSet(List<String> values) {
+            if (values == null) {
+                return Set.of();
+            }
+            return values.stream()
+                    .filter(Objects::nonNull)
+                    .map(CompiledRouteTable::normalize)
+                    .collect(Collectors.toUnmodifiableSet());
+        }
+    }
+
+    private static final class Node {
+
+        private Map<String, Node> literals = new HashMap<>();
+        private Node wildcard;
+        private List<Rule> terminal = new ArrayList<>();
+        private List<Rule> remainder = new ArrayList<>();
+
+        void insert(Rule rule, int depth) {
+            List<String> segments = rule.segments();
+            if (depth == segments.size()) {
+                terminal.add(rule);
+                return;
+            }
+            String segment = segments.get(depth);
+            if (segment.equals("**")) {
+                remainder.add(rule);
+            } else if (segment.equals("*") || segment.startsWith("{")) {
+                if (wildcard == null) {
+                    wildcard = new Node();
+                }
+                wildcard.insert(rule, depth + 1);
+            } else {
+                literals.computeIfAbsent(segment, ignored -> new Node()).insert(rule, depth + 1);
+            }
+        }
+
+        Node freeze() {
+            literals.replaceAll((segment, child) -> child.freeze());
+            literals = literals.isEmpty() ? Collections.emptyMap() : Map.copyOf(literals);
+            if (wildcard != null) {
+                wildcard.freeze();
+            }
+            terminal = List.copyOf(terminal);
+            remainder = List.copyOf(remainder);
+            return this;
+        }
+
+        /**
+         * Walks the segment starting at {@code start}; returns the lowest-index rule matching so far.
+         */
+        Rule match(String path, int start, String methodName, Rule best) {
+            best = firstAllowing(remainder, methodName, best);
+            if (start > path.length()) {
+                return firstAllowing(terminal, methodName, best);
+            }
+
+            int end = path.indexOf('/', start);
+            if (end < 0) {
+                end = path.length();
+            }
+            if (!literals.isEmpty()) {
+                Node child = literals.get(path.substring(start, end));
+                if (child != null) {
+                    best = child.match(path, end + 1, methodName, best);
+                }
+            }
+            if (wildcard != null) {
+                best = wildcard.match(path, end + 1, methodName, best);
+            }
+            return best;
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package com.example.gateway.security;
 
+import com.example.gateway.util.UuidV7;
 import org.springframework.core.Ordered;
 import org.springframework.http.server.reactive.ServerHttpRequest;
 import org.springframework.stereotype.Component;
@@ -8,7 +9,6 @@ import org.springframework.web.server.WebFilter;
 import org.springframework.web.server.WebFilterChain;
 import reactor.core.publisher.Mono;
 
-import java.util.UUID;
 
 @Component
 public class CorrelationIdFilter implements WebFilter, Ordered {
@@ -45,6 +45,6 @@ public class CorrelationIdFilter implements WebFilter, Ordered {
             return fromRequest.trim();
         }
 
-        return UUID.randomUUID().toString();
+        return UuidV7.next().toString();
     }
 }
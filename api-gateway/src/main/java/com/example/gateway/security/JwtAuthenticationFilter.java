@@ -1,9 +1,6 @@
 package com.example.gateway.security;
 
-import io.jsonwebtoken.Claims;
-import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.JwtException;
-import io.jsonwebtoken.security.Keys;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.cloud.gateway.filter.GatewayFilterChain;
 import org.springframework.cloud.gateway.filter.GlobalFilter;
@@ -16,25 +13,22 @@ import org.springframework.stereotype.Component;
 import org.springframework.web.server.ServerWebExchange;
 import reactor.core.publisher.Mono;
 
-import javax.crypto.SecretKey;
-import java.nio.charset.StandardCharsets;
-
 @Component
 public class JwtAuthenticationFilter implements GlobalFilter, Ordered {
 
     private final boolean jwtEnabled;
-    private final SecretKey jwtSecretKey;
+    private final JwtTokenVerifier tokenVerifier;
     private final RouteAuthorizationEvaluator authorizationEvaluator;
     private final GatewayErrorResponseWriter errorWriter;
 
     public JwtAuthenticationFilter(
             @Value("${security.jwt.enabled:true}") boolean jwtEnabled,
-            @Value("${security.jwt.secret}") String jwtSecret,
+            JwtTokenVerifier tokenVerifier,
             RouteAuthorizationEvaluator authorizationEvaluator,
             GatewayErrorResponseWriter errorWriter
     ) {
         this.jwtEnabled = jwtEnabled;
-        this.jwtSecretKey = Keys.hmacShaKeyFor(jwtSecret.getBytes(StandardCharsets.UTF_8));
+        this.tokenVerifier = tokenVerifier;
         this.authorizationEvaluator = authorizationEvaluator;
         this.errorWriter = errorWriter;
     }
@@ -55,20 +49,16 @@ public class JwtAuthenticationFilter implements GlobalFilter, Ordered {
         }
 
         String token = authorization.substring("Bearer ".length()).trim();
-        Claims claims;
+        JwtTokenVerifier.VerifiedToken verified;
 
         try {
-            claims = Jwts.parser()
-                    .verifyWith(jwtSecretKey)
-                    .build()
-                    .parseSignedClaims(token)
-                    .getPayload();
+            verified = tokenVerifier.verify(token);
         } catch (JwtException | IllegalArgumentException ex) {
             return reject(exchange, HttpStatus.UNAUTHORIZED, "UNAUTHORIZED", "Invalid or expired token");
         }
 
-        String userId = claims.getSubject();
-        String role = claims.get("role", String.class);
+        String userId = verified.userId();
+        String role = verified.role();
 
         if (userId == null || userId.isBlank() || role == null || role.isBlank()) {
             return reject(exchange, HttpStatus.UNAUTHORIZED, "UNAUTHORIZED", "Token missing required claims");
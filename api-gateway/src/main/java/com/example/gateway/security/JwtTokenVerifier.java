@@ -0,0 +1,148 @@
+package com.example.gateway.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Date;
+import java.util.HexFormat;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Verifies bearer tokens with one shared parser and remembers the claims the gateway needs.
+ * Entries are keyed by the SHA-256 of the token, so raw tokens are never held, and expire at the
+ * configured TTL or the token's own {@code exp}, whichever comes first. Failed verifications are not cached.
+ */
+@Component
+public class JwtTokenVerifier {
+
+    private final JwtParser parser;
+    private final boolean cacheEnabled;
+    private final Cache<String, VerifiedToken> cache;
+    private final Clock clock;
+    private final Timer validTimer;
+    private final Timer invalidTimer;
+
+    public JwtTokenVerifier(
+            MeterRegistry meterRegistry,
+            @Value("${security.jwt.secret}") String jwtSecret,
+            @Value("${security.jwt.cache.enabled:true}") boolean cacheEnabled,
+            @Value("${security.jwt.cache.maximum-size:50000}") long maximumSize,
+            @Value("${security.jwt.cache.ttl-ms:300000}") long ttlMs
+    ) {
+        this(meterRegistry, jwtSecret, cacheEnabled, maximumSize, ttlMs, Clock.systemUTC());
+    }
+
+    JwtTokenVerifier(
+            MeterRegistry meterRegistry,
+            String jwtSecret,
+            boolean cacheEnabled,
+            long maximumSize,
+            long ttlMs,
+            Clock clock
+    ) {
+        this.parser = Jwts.parser()
+                .verifyWith(Keys.hmacShaKeyFor(jwtSecret.getBytes(StandardCharsets.UTF_8)))
+                .clock(() -> Date.from(clock.instant()))
+                .build();
+        this.cacheEnabled = cacheEnabled;
+        this.clock = clock;
+
+        Duration ttl = Duration.ofMillis(Math.max(1, ttlMs));
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(Math.max(1, maximumSize))
+                .expireAfter(Expiry.creating((String key, VerifiedToken token) -> lifetime(token, ttl)))
+                .ticker(() -> clock.millis() * 1_000_000L)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "gateway.jwt.claims");
+
+        this.validTimer = Timer.builder("gateway.jwt.verification")
+                .tag("result", "valid")
+                .register(meterRegistry);
+        this.invalidTimer = Timer.builder("gateway.jwt.verification")
+                .tag("result", "invalid")
+                .register(meterRegistry);
+    }
+
+    /**
+     * @throws JwtException             if the signature, format or expiry is not acceptable
+     * @throws IllegalArgumentException if the token is blank
+     */
+    public VerifiedToken verify(String token) {
+        if (!cacheEnabled) {
+            return parse(token);
+        }
+
+        String key = hash(token);
+        VerifiedToken cached = cache.getIfPresent(key);
+        if (cached != null && !cached.isExpired(clock.instant())) {
+            return cached;
+        }
+
+        VerifiedToken verified = parse(token);
+        cache.put(key, verified);
+        return verified;
+    }
+
+    private VerifiedToken parse(String token) {
+        long start = System.nanoTime();
+        try {
+            Claims claims = parser.parseSignedClaims(token).getPayload();
+            Date expiration = claims.getExpiration();
+            VerifiedToken verified = new VerifiedToken(
+                    claims.getSubject(),
+                    claims.get("role", String.class),
+                    expiration == null ? null : expiration.toInstant()
+            );
+            validTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            return verified;
+        } catch (JwtException | IllegalArgumentException ex) {
+            invalidTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            throw ex;
+        }
+    }
+
+    private Duration lifetime(VerifiedToken token, Duration ttl) {
+        if (token.expiresAt() == null) {
+            return ttl;
+        }
+        Duration untilExpiry = Duration.between(clock.instant(), token.expiresAt());
+        if (untilExpiry.isNegative()) {
+            return Duration.ZERO;
+        }
+        return untilExpiry.compareTo(ttl) < 0 ? untilExpiry : ttl;
+    }
+
+    private static String hash(String token) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException("SHA-256 is not available", ex);
+        }
+    }
+
+    public record VerifiedToken(String userId, String role, Instant expiresAt) {
+
+        boolean isExpired(Instant now) {
+            return expiresAt != null && !now.isBefore(expiresAt);
+        }
+    }
+}
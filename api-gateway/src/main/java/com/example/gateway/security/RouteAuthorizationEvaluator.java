@@ -4,35 +4,44 @@ import org.springframework.http.HttpMethod;
 import org.springframework.stereotype.Component;
 import org.springframework.util.AntPathMatcher;
 
-import java.util.Collections;
-import java.util.List;
-import java.util.Locale;
-import java.util.Map;
-import java.util.Objects;
-import java.util.Set;
-import java.util.stream.Collectors;
-
+/**
+ * Answers route access from rules compiled once at startup; see {@link CompiledRouteTable}.
+ */
 @Component
 public class RouteAuthorizationEvaluator {
 
-    private final SecurityPolicyProperties properties;
-    private final AntPathMatcher pathMatcher = new AntPathMatcher();
+    private static final AuthorizationDecision ALLOWED = new AuthorizationDecision(true, null, null);
+    private static final AuthorizationDecision FORBIDDEN = new AuthorizationDecision(false, "FORBIDDEN", "Forbidden");
+
+    private final boolean enforceVersionPrefix;
+    private final String requiredPrefix;
+    private final String requiredPrefixPath;
+    private final CompiledRouteTable publicRoutes;
+    private final CompiledRouteTable policies;
 
     public RouteAuthorizationEvaluator(SecurityPolicyProperties properties) {
-        this.properties = properties;
+        AntPathMatcher pathMatcher = new AntPathMatcher();
+        this.enforceVersionPrefix = properties.isEnforceVersionPrefix();
+        this.requiredPrefix = normalizePrefix(properties.getRequiredPrefix());
+        this.requiredPrefixPath = requiredPrefix + "/";
+        this.publicRoutes = CompiledRouteTable.compile(
+                properties.getPublicRoutes(), pathMatcher, properties.getMatchCacheMaximumSize()
+        );
+        this.policies = CompiledRouteTable.compile(
+                properties.getPolicies(), pathMatcher, properties.getMatchCacheMaximumSize()
+        );
     }
 
     public boolean isVersionPrefixRequired() {
-        return properties.isEnforceVersionPrefix();
+        return enforceVersionPrefix;
     }
 
     public String requiredPrefix() {
-        return normalizePrefix(properties.getRequiredPrefix());
+        return requiredPrefix;
     }
 
     public boolean isVersionedApiPath(String path) {
-        String prefix = requiredPrefix();
-        return path.equals(prefix) || path.startsWith(prefix + "/");
+        return path.equals(requiredPrefix) || path.startsWith(requiredPrefixPath);
     }
 
     public boolean isApiPath(String path) {
@@ -40,86 +49,26 @@ public class RouteAuthorizationEvaluator {
     }
 
     public boolean isPublicRoute(String path, HttpMethod method) {
-        for (SecurityPolicyProperties.RouteRule rule : safeRules(properties.getPublicRoutes())) {
-            if (matches(rule, path, method)) {
-                return true;
-            }
-        }
-        return false;
+        return publicRoutes.find(path, method) != null;
     }
 
     public AuthorizationDecision authorize(String path, HttpMethod method, String role, String userId) {
-        for (SecurityPolicyProperties.RouteRule rule : safeRules(properties.getPolicies())) {
-            if (!matches(rule, path, method)) {
-                continue;
-            }
-
-            Set<String> allowedRoles = normalizeSet(rule.getRoles());
-            String normalizedRole = normalize(role);
-            if (!allowedRoles.contains(normalizedRole)) {
-                return AuthorizationDecision.deny("FORBIDDEN", "Forbidden");
-            }
-
-            if (rule.isOwnerCheck() && !"ADMIN".equals(normalizedRole)) {
-                Map<String, String> vars = extractPathVariables(rule.getPathPattern(), path);
-                String ownerPathVariable = rule.getOwnerPathVariable() == null || rule.getOwnerPathVariable().isBlank()
-                        ? "id"
-                        : rule.getOwnerPathVariable();
-                String ownerId = vars.get(ownerPathVariable);
-                if (ownerId == null || !ownerId.equals(userId)) {
-                    return AuthorizationDecision.deny("FORBIDDEN", "Forbidden");
-                }
-            }
-
-            return AuthorizationDecision.allow();
-        }
-
-        if (isVersionedApiPath(path)) {
-            return AuthorizationDecision.deny("FORBIDDEN", "Forbidden");
-        }
-
-        return AuthorizationDecision.allow();
-    }
-
-    private boolean matches(SecurityPolicyProperties.RouteRule rule, String path, HttpMethod method) {
-        if (rule == null || rule.getPathPattern() == null || rule.getPathPattern().isBlank()) {
-            return false;
-        }
-        if (!pathMatcher.match(rule.getPathPattern(), path)) {
-            return false;
+        CompiledRouteTable.Rule rule = policies.find(path, method);
+        if (rule == null) {
+            return isVersionedApiPath(path) ? FORBIDDEN : ALLOWED;
         }
 
-        List<String> methods = rule.getMethods();
-        if (methods == null || methods.isEmpty()) {
-            return true;
+        if (!rule.allowsRole(role)) {
+            return FORBIDDEN;
         }
-        String requestMethod = method == null ? "" : method.name();
-        return methods.stream()
-                .filter(Objects::nonNull)
-                .map(this::normalize)
-                .anyMatch(requestMethod::equals);
-    }
-
-    private Map<String, String> extractPathVariables(String pattern, String path) {
-        try {
-            return pathMatcher.extractUriTemplateVariables(pattern, path);
-        } catch (IllegalStateException ex) {
-            return Collections.emptyMap();
+        if (rule.ownerCheck() && !isAdmin(role) && !rule.isOwnedBy(path, userId)) {
+            return FORBIDDEN;
         }
+        return ALLOWED;
     }
 
-    private List<SecurityPolicyProperties.RouteRule> safeRules(List<SecurityPolicyProperties.RouteRule> rules) {
-        return rules == null ? Collections.emptyList() : rules;
-    }
-
-    private Set<String> normalizeSet(List<String> values) {
-        if (values == null) {
-            return Collections.emptySet();
-        }
-        return values.stream()
-                .filter(Objects::nonNull)
-                .map(this::normalize)
-                .collect(Collectors.toSet());
+    private boolean isAdmin(String role) {
+        return "ADMIN".equals(role) || "ADMIN".equals(CompiledRouteTable.normalize(role));
     }
 
     private String normalizePrefix(String value) {
@@ -133,16 +82,9 @@ public class RouteAuthorizationEvaluator {
         return trimmed;
     }
 
-    private String normalize(String value) {
-        if (value == null) {
-            return "";
-        }
-        return value.trim().toUpperCase(Locale.ROOT);
-    }
-
     public record AuthorizationDecision(boolean allowed, String code, String message) {
         public static AuthorizationDecision allow() {
-            return new AuthorizationDecision(true, null, null);
+            return ALLOWED;
         }
 
         public static AuthorizationDecision deny(String code, String message) {
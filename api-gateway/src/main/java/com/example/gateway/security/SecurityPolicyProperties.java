@@ -14,6 +14,7 @@ public class SecurityPolicyProperties {
     private String requiredPrefix = "/api/v1";
     private List<RouteRule> publicRoutes = new ArrayList<>();
     private List<RouteRule> policies = new ArrayList<>();
+    private long matchCacheMaximumSize = 10000;
 
     public boolean isEnforceVersionPrefix() {
         return enforceVersionPrefix;
@@ -47,6 +48,14 @@ public class SecurityPolicyProperties {
         this.policies = policies;
     }
 
+    public long getMatchCacheMaximumSize() {
+        return matchCacheMaximumSize;
+    }
+
+    public void setMatchCacheMaximumSize(long matchCacheMaximumSize) {
+        this.matchCacheMaximumSize = matchCacheMaximumSize;
+    }
+
     public static class RouteRule {
         private String id;
         private String pathPattern;
@@ -0,0 +1,105 @@
+package com.example.gateway.security;
+
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.Date;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class JwtTokenVerifierTest {
+
+    private static final String SECRET = "test-secret-key-for-gateway-jwt-signing-2026-very-long";
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final MutableClock clock = new MutableClock(Instant.parse("2026-01-01T00:00:00Z"));
+
+    @Test
+    void repeatedTokenIsVerifiedOnce() {
+        JwtTokenVerifier verifier = new JwtTokenVerifier(meterRegistry, SECRET, true, 100, 300_000, clock);
+        String token = token("u-1", "CUSTOMER", Duration.ofMinutes(15));
+
+        for (int i = 0; i < 20; i++) {
+            JwtTokenVerifier.VerifiedToken verified = verifier.verify(token);
+            assertThat(verified.userId()).isEqualTo("u-1");
+            assertThat(verified.role()).isEqualTo("CUSTOMER");
+        }
+
+        assertThat(verifications("valid")).isEqualTo(1);
+    }
+
+    @Test
+    void cachedClaimsAreNotServedPastTokenExpiry() {
+        JwtTokenVerifier verifier = new JwtTokenVerifier(meterRegistry, SECRET, true, 100, 300_000, clock);
+        String token = token("u-1", "CUSTOMER", Duration.ofSeconds(30));
+        verifier.verify(token);
+
+        clock.advance(Duration.ofSeconds(31));
+
+        assertThatThrownBy(() -> verifier.verify(token)).isInstanceOf(JwtException.class);
+        assertThat(verifications("invalid")).isEqualTo(1);
+    }
+
+    @Test
+    void tamperedTokenIsRejectedEvenAfterTheOriginalWasCached() {
+        JwtTokenVerifier verifier = new JwtTokenVerifier(meterRegistry, SECRET, true, 100, 300_000, clock);
+        String token = token("u-1", "CUSTOMER", Duration.ofMinutes(15));
+        verifier.verify(token);
+
+        String tampered = token.substring(0, token.length() - 2) + (token.endsWith("AA") ? "BB" : "AA");
+
+        assertThatThrownBy(() -> verifier.verify(tampered)).isInstanceOf(JwtException.class);
+    }
+
+    private long verifications(String result) {
+        return meterRegistry.get("gateway.jwt.verification").tag("result", result).timer().count();
+    }
+
+    private String token(String userId, String role, Duration lifetime) {
+        return Jwts.builder()
+                .subject(userId)
+                .claim("role", role)
+                .issuedAt(Date.from(clock.instant()))
+                .expiration(Date.from(clock.instant().plus(lifetime)))
+                .signWith(Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8)))
+                .compact();
+    }
+
+    private static final class MutableClock extends Clock {
+
+        private Instant now;
+
+        private MutableClock(Instant now) {
+            this.now = now;
+        }
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
@@ -5,6 +5,8 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.http.HttpMethod;
 
+import java.util.List;
+
 import static org.assertj.core.api.Assertions.assertThat;
 
 @SpringBootTest(
@@ -65,10 +67,50 @@ class RouteAuthorizationEvaluatorTest {
         assertThat(evaluator.authorize("/api/v1/users/abc-1", HttpMethod.GET, "ADMIN", "admin-id").allowed()).isTrue();
     }
 
+    @Test
+    void ownerCheckComparesTheWholePathSegment() {
+        assertThat(evaluator.authorize("/api/v1/users/abc-10", HttpMethod.GET, "CUSTOMER", "abc-1").allowed()).isFalse();
+        assertThat(evaluator.authorize("/api/v1/users/abc-1/", HttpMethod.GET, "CUSTOMER", "abc-1").allowed()).isFalse();
+    }
+
+    @Test
+    void trailingDoubleWildcardAlsoMatchesItsBasePath() {
+        for (int i = 0; i < 3; i++) {
+            assertThat(evaluator.isPublicRoute("/api/v1/products", HttpMethod.GET)).isTrue();
+            assertThat(evaluator.isPublicRoute("/api/v1/products/p-1", HttpMethod.GET)).isTrue();
+            assertThat(evaluator.isPublicRoute("/api/v1/products/p-1", HttpMethod.DELETE)).isFalse();
+            assertThat(evaluator.isPublicRoute("/api/v1/productsx", HttpMethod.GET)).isFalse();
+        }
+    }
+
+    @Test
+    void firstConfiguredRuleWinsOverMoreSpecificLaterRules() {
+        SecurityPolicyProperties properties = new SecurityPolicyProperties();
+        properties.setPolicies(List.of(
+                rule("/api/v1/reports/**", List.of(), List.of("ADMIN")),
+                rule("/api/v1/reports/{id}", List.of("GET"), List.of("CUSTOMER")),
+                rule("/api/v1/re*/summary", List.of("GET"), List.of("SELLER"))
+        ));
+        RouteAuthorizationEvaluator ordered = new RouteAuthorizationEvaluator(properties);
+
+        assertThat(ordered.authorize("/api/v1/reports/r-1", HttpMethod.GET, "CUSTOMER", "u-1").allowed()).isFalse();
+        assertThat(ordered.authorize("/api/v1/reports/r-1", HttpMethod.GET, "ADMIN", "u-1").allowed()).isTrue();
+        assertThat(ordered.authorize("/api/v1/results/summary", HttpMethod.GET, "SELLER", "u-1").allowed()).isTrue();
+        assertThat(ordered.authorize("/api/v1/unlisted", HttpMethod.GET, "ADMIN", "u-1").allowed()).isFalse();
+    }
+
     @Test
     void apiVersionPrefixIsMandatory() {
         assertThat(evaluator.isApiPath("/api/users")).isTrue();
         assertThat(evaluator.isVersionedApiPath("/api/users")).isFalse();
         assertThat(evaluator.isVersionedApiPath("/api/v1/users")).isTrue();
     }
+
+    private static SecurityPolicyProperties.RouteRule rule(String pathPattern, List<String> methods, List<String> roles) {
+        SecurityPolicyProperties.RouteRule rule = new SecurityPolicyProperties.RouteRule();
+        rule.setPathPattern(pathPattern);
+        rule.setMethods(methods);
+        rule.setRoles(roles);
+        return rule;
+    }
 }
@@ -5,8 +5,6 @@ import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.EnumType;
 import jakarta.persistence.Enumerated;
-import jakarta.persistence.GeneratedValue;
-import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.Index;
 import jakarta.persistence.PrePersist;
@@ -19,13 +17,14 @@ import java.util.UUID;
         name = "orders",
         indexes = {
                 @Index(name = "idx_orders_user_id_created_at", columnList = "user_id, created_at"),
-                @Index(name = "idx_orders_idempotency_key", columnList = "idempotency_key")
+                @Index(name = "idx_orders_idempotency_key", columnList = "idempotency_key"),
+                @Index(name = "idx_orders_status_created_at", columnList = "status, created_at")
         }
 )
 public class Order {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.AUTO)
+    @UuidV7Id
     private UUID id;
 
     @Column(name = "user_id", nullable = false)
@@ -69,6 +68,17 @@ public class Order {
         }
     }
 
+    /**
+     * A detached order carrying a stored identity, for responses rebuilt without loading the row.
+     * Never pass the result to a repository.
+     */
+    public static Order detached(UUID id, Instant createdAt) {
+        Order order = new Order();
+        order.id = id;
+        order.createdAt = createdAt;
+        return order;
+    }
+
     public UUID getId() {
         return id;
     }
@@ -3,5 +3,9 @@ package com.example.order.model;
 public enum OrderEventType {
     ORDER_CONFIRMED,
     ORDER_FAILED,
-    ORDER_CANCELLED
+    ORDER_CANCELLED,
+    PAYMENT_REQUESTED,
+    // Compensations queued by the event-driven saga; run by the outbox worker, never published.
+    PAYMENT_REFUND_REQUESTED,
+    INVENTORY_RELEASE_REQUESTED
 }
@@ -15,7 +15,7 @@ import java.util.UUID;
 public class SagaStep {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.AUTO)
+    @UuidV7Id
     private UUID id;
 
     @Column(name = "order_id", nullable = false)
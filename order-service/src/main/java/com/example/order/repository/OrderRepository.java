@@ -1,8 +1,15 @@
 package com.example.order.repository;
 
 import com.example.order.model.Order;
+import com.example.order.model.OrderStatus;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.time.Instant;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -13,4 +20,15 @@ public interface OrderRepository extends JpaRepository<Order, UUID> {
     List<Order> findByUserIdOrderByCreatedAtDesc(UUID userId);
 
     List<Order> findAllByOrderByCreatedAtDesc();
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select o from Order o where o.id = :id")
+    Optional<Order> findByIdForUpdate(@Param("id") UUID id);
+
+    @Query("select o.id from Order o where o.status = :status and o.createdAt < :cutoff order by o.createdAt")
+    List<UUID> findIdsByStatusCreatedBefore(
+            @Param("status") OrderStatus status,
+            @Param("cutoff") Instant cutoff,
+            Pageable pageable
+    );
 }
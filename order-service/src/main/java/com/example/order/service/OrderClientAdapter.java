@@ -179,7 +179,7 @@ public class OrderClientAdapter {
                 false,
                 paymentCircuitBreaker,
                 () -> {
-                    HttpHeaders headers = buildServiceHeaders(correlationId, order.getIdempotencyKey() + ":payment:pay");
+                    HttpHeaders headers = buildServiceHeaders(correlationId, paymentIdempotencyKey(order));
                     HttpEntity<Map<String, Object>> requestEntity = new HttpEntity<>(payload, headers);
                     restTemplate.exchange(endpoint, HttpMethod.POST, requestEntity, Map.class);
                     return true;
@@ -209,6 +209,13 @@ public class OrderClientAdapter {
         );
     }
 
+    /**
+     * Shared by the HTTP call and the PAYMENT_REQUESTED event, so switching modes never charges an order twice.
+     */
+    public static String paymentIdempotencyKey(Order order) {
+        return order.getIdempotencyKey() + ":payment:pay";
+    }
+
     public String extractFailureReason(Exception ex) {
         if (ex == null) {
             return "Unknown error";
@@ -338,6 +345,9 @@ public class OrderClientAdapter {
             if (status == 409) {
                 return new OrderWorkflowException(400, "OUT_OF_STOCK", message);
             }
+            if (status == 404 && "PAYMENT_REFUND".equals(stepName)) {
+                return new OrderWorkflowException(404, "PAYMENT_NOT_FOUND", message);
+            }
             return new OrderWorkflowException(502, code, message);
         }
 
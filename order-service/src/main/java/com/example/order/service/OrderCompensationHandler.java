@@ -1,17 +1,23 @@
 package com.example.order.service;
 
 import com.example.order.model.Order;
+import com.example.order.model.OrderEventType;
+import com.example.order.model.OutboxEvent;
+import com.example.order.repository.OrderRepository;
 import org.springframework.stereotype.Component;
 
 @Component
 public class OrderCompensationHandler {
 
     private final OrderClientAdapter orderClientAdapter;
+    private final OrderRepository orderRepository;
 
     public OrderCompensationHandler(
-            OrderClientAdapter orderClientAdapter
+            OrderClientAdapter orderClientAdapter,
+            OrderRepository orderRepository
     ) {
         this.orderClientAdapter = orderClientAdapter;
+        this.orderRepository = orderRepository;
     }
 
     public void compensateAfterCreateFailure(
@@ -51,6 +57,30 @@ public class OrderCompensationHandler {
         }
     }
 
+    /**
+     * Runs a compensation the event-driven saga queued in the outbox, after the order change committed.
+     * Returns false when it should be retried; the idempotency keys make repeats harmless.
+     */
+    public boolean runQueued(OutboxEvent event) {
+        Order order = orderRepository.findById(event.getAggregateId()).orElse(null);
+        if (order == null) {
+            return true;
+        }
+        try {
+            if (OrderEventType.PAYMENT_REFUND_REQUESTED.name().equals(event.getEventType())) {
+                orderClientAdapter.refundPayment(order, event.getCorrelationId(), true);
+            } else {
+                orderClientAdapter.releaseInventory(order, event.getCorrelationId(), true);
+            }
+            return true;
+        } catch (OrderWorkflowException ex) {
+            // Nothing was captured, e.g. an order that timed out before payment-service saw the request.
+            return "PAYMENT_NOT_FOUND".equals(ex.getCode());
+        } catch (RuntimeException ex) {
+            return false;
+        }
+    }
+
     public void releaseInventoryBeforeCancel(Order order, String correlationId) {
         try {
             orderClientAdapter.releaseInventory(order, correlationId, true);
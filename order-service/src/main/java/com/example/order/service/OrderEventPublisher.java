@@ -2,6 +2,9 @@ package com.example.order.service;
 
 import com.example.order.util.StructuredLogger;
 import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.RedisStreamCommands.XAddOptions;
+import org.springframework.data.redis.connection.stream.StreamRecords;
 import org.springframework.data.redis.core.StringRedisTemplate;
 import org.springframework.stereotype.Component;
 
@@ -13,13 +16,18 @@ public class OrderEventPublisher {
 
     private final StringRedisTemplate redisTemplate;
     private final StructuredLogger structuredLogger;
+    private final XAddOptions streamAddOptions;
 
     public OrderEventPublisher(
             ObjectProvider<StringRedisTemplate> redisTemplateProvider,
-            StructuredLogger structuredLogger
+            StructuredLogger structuredLogger,
+            @Value("${outbox.publisher.stream-maxlen:100000}") long streamMaxlen
     ) {
         this.redisTemplate = redisTemplateProvider.getIfAvailable();
         this.structuredLogger = structuredLogger;
+        this.streamAddOptions = streamMaxlen > 0
+                ? XAddOptions.maxlen(streamMaxlen).approximateTrimming(true)
+                : XAddOptions.none();
     }
 
     public boolean publish(String channel, String payload, String correlationId) {
@@ -43,4 +51,31 @@ public class OrderEventPublisher {
             return false;
         }
     }
+
+    /**
+     * Appends the payload to a Redis stream, where consumer groups share and acknowledge the records.
+     * The stream is capped with {@code MAXLEN ~ stream-maxlen}; trimmed records are dropped even if unread.
+     */
+    public boolean publishToStream(String stream, String payload, String correlationId) {
+        if (redisTemplate == null) {
+            return true;
+        }
+
+        try {
+            redisTemplate.opsForStream().add(
+                    StreamRecords.string(Map.of("payload", payload)).withStreamKey(stream), streamAddOptions);
+            structuredLogger.info("order.event.published", Map.of(
+                    "stream", stream,
+                    "correlation_id", correlationId
+            ));
+            return true;
+        } catch (Exception e) {
+            Map<String, Object> fields = new LinkedHashMap<>();
+            fields.put("stream", stream);
+            fields.put("correlation_id", correlationId);
+            fields.put("error", e.getMessage());
+            structuredLogger.warn("order.event.publish_failed", fields);
+            return false;
+        }
+    }
 }
@@ -57,6 +57,11 @@ public class OrderOutboxService {
         payload.put("status", order.getStatus());
         payload.put("failureReason", order.getFailureReason());
         payload.put("correlationId", correlationId);
+        if (eventType == OrderEventType.PAYMENT_REQUESTED) {
+            payload.put("amount", order.getTotalAmount());
+            payload.put("currency", "USD");
+            payload.put("idempotencyKey", OrderClientAdapter.paymentIdempotencyKey(order));
+        }
 
         try {
             return objectMapper.writeValueAsString(payload);
@@ -0,0 +1,171 @@
+package com.example.order.service;
+
+import com.example.order.model.OrderStatus;
+import com.example.order.util.StructuredLogger;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Base64;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Completed create-order responses by idempotency key, so a replay is answered without loading the order
+ * or its saga steps. Entries are encoded {@link OrderReplaySnapshot}s held in a Caffeine tier bounded by
+ * bytes and, when enabled, a shared Redis tier.
+ * A cancellation evicts its entry from this instance and from Redis; another instance's local copy
+ * lives at most ttl-ms longer, which is why the local TTL is kept short.
+ */
+@Component
+public class OrderReplayCache {
+
+    private static final Set<OrderStatus> COMPLETED = EnumSet.of(
+            OrderStatus.CONFIRMED,
+            OrderStatus.FAILED,
+            OrderStatus.CANCELLED
+    );
+
+    private final StringRedisTemplate redisTemplate;
+    private final StructuredLogger structuredLogger;
+    private final boolean enabled;
+    private final boolean redisEnabled;
+    private final String redisKeyPrefix;
+    private final Duration redisTtl;
+    private final Cache<String, byte[]> local;
+    private final Counter redisHitCounter;
+    private final Counter redisMissCounter;
+    private final Counter redisErrorCounter;
+
+    public OrderReplayCache(
+            MeterRegistry meterRegistry,
+            StringRedisTemplate redisTemplate,
+            StructuredLogger structuredLogger,
+            @Value("${order.replay-cache.enabled:true}") boolean enabled,
+            @Value("${order.replay-cache.maximum-bytes:16777216}") long maximumBytes,
+            @Value("${order.replay-cache.ttl-ms:60000}") long ttlMs,
+            @Value("${order.replay-cache.redis.enabled:false}") boolean redisEnabled,
+            @Value("${order.replay-cache.redis.key-prefix:order:replay:}") String redisKeyPrefix,
+            @Value("${order.replay-cache.redis.ttl-ms:600000}") long redisTtlMs
+    ) {
+        this.redisTemplate = redisTemplate;
+        this.structuredLogger = structuredLogger;
+        this.enabled = enabled;
+        this.redisEnabled = enabled && redisEnabled && redisTemplate != null;
+        this.redisKeyPrefix = redisKeyPrefix;
+        this.redisTtl = Duration.ofMillis(Math.max(1, redisTtlMs));
+        this.local = Caffeine.newBuilder()
+                .maximumWeight(Math.max(1, maximumBytes))
+                .weigher((String key, byte[] value) -> key.length() * 2 + value.length)
+                .expireAfterWrite(Duration.ofMillis(Math.max(1, ttlMs)))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, local, "order.replay");
+        this.redisHitCounter = Counter.builder("order.replay.redis")
+                .tag("result", "hit")
+                .register(meterRegistry);
+        this.redisMissCounter = Counter.builder("order.replay.redis")
+                .tag("result", "miss")
+                .register(meterRegistry);
+        this.redisErrorCounter = Counter.builder("order.replay.redis")
+                .tag("result", "error")
+                .register(meterRegistry);
+    }
+
+    public Optional<OrderReplaySnapshot> find(String idempotencyKey) {
+        if (!enabled) {
+            return Optional.empty();
+        }
+
+        byte[] encoded = local.getIfPresent(idempotencyKey);
+        if (encoded == null && redisEnabled) {
+            encoded = readShared(idempotencyKey);
+            if (encoded != null) {
+                local.put(idempotencyKey, encoded);
+            }
+        }
+        if (encoded == null) {
+            return Optional.empty();
+        }
+
+        try {
+            return Optional.of(OrderReplaySnapshot.decode(encoded));
+        } catch (IllegalArgumentException ex) {
+            // Written by an incompatible version; fall back to the database and overwrite it from there.
+            local.invalidate(idempotencyKey);
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Stores a committed result once its saga has finished; in-flight orders are left to the database.
+     */
+    public void remember(OrderCreationResult result) {
+        String idempotencyKey = result.getOrder().getIdempotencyKey();
+        if (!enabled || idempotencyKey == null || !COMPLETED.contains(result.getOrder().getStatus())) {
+            return;
+        }
+
+        byte[] encoded = OrderReplaySnapshot.of(result).encode();
+        local.put(idempotencyKey, encoded);
+        if (redisEnabled) {
+            try {
+                redisTemplate.opsForValue().set(
+                        redisKeyPrefix + idempotencyKey,
+                        Base64.getEncoder().encodeToString(encoded),
+                        redisTtl
+                );
+            } catch (RuntimeException ex) {
+                redisErrorCounter.increment();
+                structuredLogger.warn("order.replay_cache.redis_write_failed", Map.of(
+                        "error", ex.getClass().getSimpleName()
+                ));
+            }
+        }
+    }
+
+    public void evict(String idempotencyKey) {
+        if (!enabled || idempotencyKey == null) {
+            return;
+        }
+
+        local.invalidate(idempotencyKey);
+        if (redisEnabled) {
+            try {
+                redisTemplate.delete(redisKeyPrefix + idempotencyKey);
+            } catch (RuntimeException ex) {
+                redisErrorCounter.increment();
+                structuredLogger.warn("order.replay_cache.redis_evict_failed", Map.of(
+                        "error", ex.getClass().getSimpleName()
+                ));
+            }
+        }
+    }
+
+    private byte[] readShared(String idempotencyKey) {
+        try {
+            String value = redisTemplate.opsForValue().get(redisKeyPrefix + idempotencyKey);
+            if (value == null) {
+                redisMissCounter.increment();
+                return null;
+            }
+            redisHitCounter.increment();
+            return Base64.getDecoder().decode(value);
+        } catch (RuntimeException ex) {
+            // A shared tier outage only costs the database reads it was meant to save.
+            redisErrorCounter.increment();
+            structuredLogger.warn("order.replay_cache.redis_read_failed", Map.of(
+                    "error", ex.getClass().getSimpleName()
+            ));
+            return null;
+        }
+    }
+}
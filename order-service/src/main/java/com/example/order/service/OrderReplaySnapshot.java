@@ -0,0 +1,203 @@
+package com.example.order.service;
+
+import com.example.order.dto.CreateOrderRequest;
+import com.example.order.dto.OrderSagaStepView;
+import com.example.order.model.Order;
+import com.example.order.model.OrderStatus;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * A completed create-order response in binary form: the payload hash a replay is checked against, the
+ * order and its saga steps. Every decode yields fresh objects, so callers may hand them out directly.
+ */
+public record OrderReplaySnapshot(byte[] payloadHash, Order order, List<OrderSagaStepView> sagaSteps) {
+
+    private static final byte FORMAT_VERSION = 1;
+
+    static OrderReplaySnapshot of(OrderCreationResult result) {
+        Order order = result.getOrder();
+        return new OrderReplaySnapshot(
+                payloadHash(order.getProductId(), order.getQuantity()),
+                order,
+                result.getSagaSteps()
+        );
+    }
+
+    /**
+     * The user is compared separately, since a key owned by another user is a different error.
+     */
+    static byte[] payloadHash(CreateOrderRequest request) {
+        return payloadHash(request.getProductId(), request.getQuantity());
+    }
+
+    private static byte[] payloadHash(UUID productId, Integer quantity) {
+        try {
+            return MessageDigest.getInstance("SHA-256")
+                    .digest((productId + "|" + quantity).getBytes(StandardCharsets.UTF_8));
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException("SHA-256 is not available", ex);
+        }
+    }
+
+    boolean matches(byte[] requestPayloadHash) {
+        return MessageDigest.isEqual(payloadHash, requestPayloadHash);
+    }
+
+    byte[] encode() {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(256 + sagaSteps.size() * 128);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeByte(FORMAT_VERSION);
+            out.writeByte(payloadHash.length);
+            out.write(payloadHash);
+
+            writeUuid(out, order.getId());
+            writeUuid(out, order.getUserId());
+            writeUuid(out, order.getProductId());
+            writeInteger(out, order.getQuantity());
+            writeDouble(out, order.getUnitPrice());
+            writeDouble(out, order.getTotalAmount());
+            writeString(out, order.getStatus() == null ? null : order.getStatus().name());
+            writeInstant(out, order.getCreatedAt());
+            writeInstant(out, order.getCancelledAt());
+            writeString(out, order.getIdempotencyKey());
+            writeString(out, order.getFailureReason());
+
+            out.writeShort(sagaSteps.size());
+            for (OrderSagaStepView step : sagaSteps) {
+                writeUuid(out, step.getId());
+                writeString(out, step.getStepName());
+                writeString(out, step.getStepStatus());
+                writeInteger(out, step.getRetryCount());
+                out.writeBoolean(step.isCompensation());
+                writeString(out, step.getDetail());
+                writeString(out, step.getCorrelationId());
+                writeInstant(out, step.getCreatedAt());
+            }
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Throws {@link IllegalArgumentException} for bytes written by another format version or cut short.
+     */
+    static OrderReplaySnapshot decode(byte[] encoded) {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(encoded))) {
+            if (in.readByte() != FORMAT_VERSION) {
+                throw new IllegalArgumentException("Unsupported replay snapshot version");
+            }
+            byte[] payloadHash = new byte[in.readUnsignedByte()];
+            in.readFully(payloadHash);
+
+            UUID orderId = readUuid(in);
+            UUID userId = readUuid(in);
+            UUID productId = readUuid(in);
+            Integer quantity = readInteger(in);
+            Double unitPrice = readDouble(in);
+            Double totalAmount = readDouble(in);
+            String status = readString(in);
+            Instant createdAt = readInstant(in);
+
+            Order order = Order.detached(orderId, createdAt);
+            order.setUserId(userId);
+            order.setProductId(productId);
+            order.setQuantity(quantity);
+            order.setUnitPrice(unitPrice);
+            order.setTotalAmount(totalAmount);
+            order.setStatus(status == null ? null : OrderStatus.valueOf(status));
+            order.setCancelledAt(readInstant(in));
+            order.setIdempotencyKey(readString(in));
+            order.setFailureReason(readString(in));
+
+            int stepCount = in.readUnsignedShort();
+            List<OrderSagaStepView> steps = new ArrayList<>(stepCount);
+            for (int i = 0; i < stepCount; i++) {
+                OrderSagaStepView step = new OrderSagaStepView();
+                step.setId(readUuid(in));
+                step.setOrderId(orderId);
+                step.setStepName(readString(in));
+                step.setStepStatus(readString(in));
+                step.setRetryCount(readInteger(in));
+                step.setCompensation(in.readBoolean());
+                step.setDetail(readString(in));
+                step.setCorrelationId(readString(in));
+                step.setCreatedAt(readInstant(in));
+                steps.add(step);
+            }
+            return new OrderReplaySnapshot(payloadHash, order, steps);
+        } catch (IOException ex) {
+            throw new IllegalArgumentException("Truncated replay snapshot", ex);
+        }
+    }
+
+    private static void writeUuid(DataOutputStream out, UUID value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeLong(value.getMostSignificantBits());
+            out.writeLong(value.getLeastSignificantBits());
+        }
+    }
+
+    private static UUID readUuid(DataInputStream in) throws IOException {
+        return in.readBoolean() ? new UUID(in.readLong(), in.readLong()) : null;
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeUTF(value);
+        }
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+
+    private static void writeInteger(DataOutputStream out, Integer value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeInt(value);
+        }
+    }
+
+    private static Integer readInteger(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readInt() : null;
+    }
+
+    private static void writeDouble(DataOutputStream out, Double value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeDouble(value);
+        }
+    }
+
+    private static Double readDouble(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readDouble() : null;
+    }
+
+    private static void writeInstant(DataOutputStream out, Instant value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeLong(value.getEpochSecond());
+            out.writeInt(value.getNano());
+        }
+    }
+
+    private static Instant readInstant(DataInputStream in) throws IOException {
+        return in.readBoolean() ? Instant.ofEpochSecond(in.readLong(), in.readInt()) : null;
+    }
+}
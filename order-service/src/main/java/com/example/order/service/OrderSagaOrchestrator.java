@@ -6,7 +6,9 @@ import com.example.order.model.OrderEventType;
 import com.example.order.model.OrderStatus;
 import com.example.order.repository.OrderRepository;
 import com.example.order.util.StructuredLogger;
+import com.example.order.util.UuidV7;
 import jakarta.transaction.Transactional;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Component;
 
@@ -24,6 +26,7 @@ public class OrderSagaOrchestrator {
     private final SagaStepRecorder sagaStepRecorder;
     private final OrderOutboxService orderOutboxService;
     private final StructuredLogger structuredLogger;
+    private final boolean paymentViaEvents;
 
     public OrderSagaOrchestrator(
             OrderRepository orderRepository,
@@ -32,7 +35,8 @@ public class OrderSagaOrchestrator {
             OrderStatePolicy orderStatePolicy,
             SagaStepRecorder sagaStepRecorder,
             OrderOutboxService orderOutboxService,
-            StructuredLogger structuredLogger
+            StructuredLogger structuredLogger,
+            @Value("${saga.payment.mode:sync}") String paymentMode
     ) {
         this.orderRepository = orderRepository;
         this.orderClientAdapter = orderClientAdapter;
@@ -41,6 +45,7 @@ public class OrderSagaOrchestrator {
         this.sagaStepRecorder = sagaStepRecorder;
         this.orderOutboxService = orderOutboxService;
         this.structuredLogger = structuredLogger;
+        this.paymentViaEvents = "event".equalsIgnoreCase(paymentMode == null ? "" : paymentMode.trim());
     }
 
     @Transactional(dontRollbackOn = OrderWorkflowException.class)
@@ -112,6 +117,23 @@ public class OrderSagaOrchestrator {
             orderStatePolicy.transition(savedOrder, OrderStatus.PAYMENT_PENDING, null);
             savedOrder = orderRepository.save(savedOrder);
 
+            if (paymentViaEvents) {
+                // Committed with the state change; PaymentResultHandler finishes the saga on the result event.
+                orderOutboxService.enqueueOrderEvent(OrderEventType.PAYMENT_REQUESTED, savedOrder, authenticatedUserId, normalizedCorrelationId);
+                sagaStepRecorder.record(savedOrder.getId(), "PAYMENT_REQUESTED", "SUCCESS", 0, false,
+                        "Awaiting payment result event", normalizedCorrelationId);
+                structuredLogger.info("order.saga.payment_requested", Map.of(
+                        "order_id", savedOrder.getId().toString(),
+                        "correlation_id", normalizedCorrelationId
+                ));
+                return new OrderCreationResult(
+                        savedOrder,
+                        false,
+                        normalizedCorrelationId,
+                        sagaStepRecorder.toViews(savedOrder.getId())
+                );
+            }
+
             orderClientAdapter.capturePayment(savedOrder, normalizedCorrelationId);
             paymentCaptured = true;
 
@@ -159,7 +181,8 @@ public class OrderSagaOrchestrator {
         validateAuthentication(authenticatedUserId, authenticatedRole);
         String normalizedCorrelationId = normalizeCorrelationId(correlationId);
 
-        Order order = orderRepository.findById(orderId)
+        // Same row lock as PaymentResultHandler, so a payment result and a cancel cannot overwrite each other.
+        Order order = orderRepository.findByIdForUpdate(orderId)
                 .orElseThrow(() -> new OrderWorkflowException(404, "ORDER_NOT_FOUND", "Order not found"));
 
         boolean isAdmin = "ADMIN".equalsIgnoreCase(authenticatedRole);
@@ -178,6 +201,12 @@ public class OrderSagaOrchestrator {
             throw new OrderWorkflowException(409, "ORDER_NOT_CANCELLABLE", "Order cannot be cancelled from state " + order.getStatus());
         }
 
+        if (paymentViaEvents && order.getStatus() == OrderStatus.PAYMENT_PENDING) {
+            // payment-service has not recorded the capture yet, so there is nothing to refund.
+            throw new OrderWorkflowException(409, "ORDER_PAYMENT_IN_PROGRESS",
+                    "Order payment is still being processed; retry the cancel once it completes");
+        }
+
         if (order.getStatus() == OrderStatus.CONFIRMED || order.getStatus() == OrderStatus.PAYMENT_PENDING) {
             compensationHandler.compensateBeforeCancel(order, normalizedCorrelationId);
         } else if (order.getStatus() == OrderStatus.INVENTORY_RESERVED) {
@@ -252,9 +281,9 @@ public class OrderSagaOrchestrator {
         }
     }
 
-    private String normalizeCorrelationId(String correlationId) {
+    static String normalizeCorrelationId(String correlationId) {
         if (correlationId == null || correlationId.isBlank()) {
-            return UUID.randomUUID().toString();
+            return UuidV7.next().toString();
         }
         return correlationId.trim();
     }
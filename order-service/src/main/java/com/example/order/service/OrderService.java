@@ -10,6 +10,7 @@ import com.example.order.repository.OutboxEventRepository;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 
 @Service
@@ -19,17 +20,20 @@ public class OrderService {
     private final OutboxEventRepository outboxEventRepository;
     private final OrderSagaOrchestrator orderSagaOrchestrator;
     private final SagaStepRecorder sagaStepRecorder;
+    private final OrderReplayCache orderReplayCache;
 
     public OrderService(
             OrderRepository orderRepository,
             OutboxEventRepository outboxEventRepository,
             OrderSagaOrchestrator orderSagaOrchestrator,
-            SagaStepRecorder sagaStepRecorder
+            SagaStepRecorder sagaStepRecorder,
+            OrderReplayCache orderReplayCache
     ) {
         this.orderRepository = orderRepository;
         this.outboxEventRepository = outboxEventRepository;
         this.orderSagaOrchestrator = orderSagaOrchestrator;
         this.sagaStepRecorder = sagaStepRecorder;
+        this.orderReplayCache = orderReplayCache;
     }
 
     public OrderCreationResult createOrder(
@@ -39,13 +43,65 @@ public class OrderService {
             String correlationId,
             CreateOrderRequest request
     ) {
-        return orderSagaOrchestrator.createOrder(
+        Optional<OrderCreationResult> cached = replayFromCache(
                 authenticatedUserId,
                 authenticatedRole,
                 idempotencyKey,
                 correlationId,
                 request
         );
+        if (cached.isPresent()) {
+            return cached.get();
+        }
+
+        // Called outside the saga transaction, so only committed results are cached.
+        OrderCreationResult result = orderSagaOrchestrator.createOrder(
+                authenticatedUserId,
+                authenticatedRole,
+                idempotencyKey,
+                correlationId,
+                request
+        );
+        orderReplayCache.remember(result);
+        return result;
+    }
+
+    /**
+     * Answers a replay of a finished order with the same checks as the saga's database path, before any
+     * transaction is opened. Requests the saga would reject as malformed are left to it.
+     */
+    private Optional<OrderCreationResult> replayFromCache(
+            UUID authenticatedUserId,
+            String authenticatedRole,
+            String idempotencyKey,
+            String correlationId,
+            CreateOrderRequest request
+    ) {
+        if (authenticatedUserId == null || authenticatedRole == null || authenticatedRole.isBlank()
+                || idempotencyKey == null || idempotencyKey.isBlank()
+                || request == null || request.getProductId() == null
+                || request.getQuantity() == null || request.getQuantity() <= 0) {
+            return Optional.empty();
+        }
+
+        Optional<OrderReplaySnapshot> snapshot = orderReplayCache.find(idempotencyKey.trim());
+        if (snapshot.isEmpty()) {
+            return Optional.empty();
+        }
+
+        OrderReplaySnapshot replay = snapshot.get();
+        if (!replay.order().getUserId().equals(authenticatedUserId)) {
+            throw new SecurityException("Idempotency key belongs to another user");
+        }
+        if (!replay.matches(OrderReplaySnapshot.payloadHash(request))) {
+            throw new IdempotencyConflictException("Idempotency key already used with different payload");
+        }
+        return Optional.of(new OrderCreationResult(
+                replay.order(),
+                true,
+                OrderSagaOrchestrator.normalizeCorrelationId(correlationId),
+                replay.sagaSteps()
+        ));
     }
 
     public List<Order> getOrders(UUID authenticatedUserId, String authenticatedRole, UUID requestedUserId) {
@@ -77,7 +133,9 @@ public class OrderService {
     }
 
     public Order cancelOrder(UUID orderId, UUID authenticatedUserId, String authenticatedRole, String correlationId) {
-        return orderSagaOrchestrator.cancelOrder(orderId, authenticatedUserId, authenticatedRole, correlationId);
+        Order cancelledOrder = orderSagaOrchestrator.cancelOrder(orderId, authenticatedUserId, authenticatedRole, correlationId);
+        orderReplayCache.evict(cancelledOrder.getIdempotencyKey());
+        return cancelledOrder;
     }
 
     public List<PendingOutboxEventView> getPendingOutboxEvents(int limit) {
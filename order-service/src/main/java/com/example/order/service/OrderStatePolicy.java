@@ -53,6 +53,18 @@ public class OrderStatePolicy {
         }
     }
 
+    /**
+     * Advances an order waiting on an event-driven payment. Returns false when the order is no longer
+     * waiting, e.g. for a redelivered result, so the caller can ignore it.
+     */
+    public boolean applyPaymentResult(Order order, boolean captured, String failureReason) {
+        if (order.getStatus() != OrderStatus.PAYMENT_PENDING) {
+            return false;
+        }
+        transition(order, captured ? OrderStatus.CONFIRMED : OrderStatus.FAILED, captured ? null : failureReason);
+        return true;
+    }
+
     public boolean canCancel(OrderStatus status) {
         return status != null && status != OrderStatus.FAILED && status != OrderStatus.CANCELLED;
     }
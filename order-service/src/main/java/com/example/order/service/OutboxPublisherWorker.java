@@ -1,5 +1,6 @@
 package com.example.order.service;
 
+import com.example.order.model.OrderEventType;
 import com.example.order.model.OutboxEvent;
 import com.example.order.model.OutboxStatus;
 import com.example.order.repository.OutboxEventRepository;
@@ -23,8 +24,10 @@ public class OutboxPublisherWorker {
 
     private final OutboxEventRepository outboxEventRepository;
     private final OrderEventPublisher orderEventPublisher;
+    private final OrderCompensationHandler compensationHandler;
     private final StructuredLogger structuredLogger;
     private final String outboxChannel;
+    private final String paymentRequestsStream;
     private final int outboxBatchSize;
     private final int maxRetryAttempts;
     private final long initialBackoffMs;
@@ -32,16 +35,20 @@ public class OutboxPublisherWorker {
     public OutboxPublisherWorker(
             OutboxEventRepository outboxEventRepository,
             OrderEventPublisher orderEventPublisher,
+            OrderCompensationHandler compensationHandler,
             StructuredLogger structuredLogger,
             @Value("${outbox.publisher.channel:orders.events}") String outboxChannel,
+            @Value("${outbox.publisher.payment-requests-stream:payments.requests}") String paymentRequestsStream,
             @Value("${outbox.publisher.batch-size:50}") int outboxBatchSize,
             @Value("${outbox.publisher.max-retry-attempts:8}") int maxRetryAttempts,
             @Value("${outbox.publisher.initial-backoff-ms:500}") long initialBackoffMs
     ) {
         this.outboxEventRepository = outboxEventRepository;
         this.orderEventPublisher = orderEventPublisher;
+        this.compensationHandler = compensationHandler;
         this.structuredLogger = structuredLogger;
         this.outboxChannel = outboxChannel;
+        this.paymentRequestsStream = paymentRequestsStream;
         this.outboxBatchSize = Math.max(1, outboxBatchSize);
         this.maxRetryAttempts = Math.max(1, maxRetryAttempts);
         this.initialBackoffMs = Math.max(100, initialBackoffMs);
@@ -65,7 +72,18 @@ public class OutboxPublisherWorker {
         int processedCount = 0;
         for (OutboxEvent event : readyEvents) {
             processedCount++;
-            boolean published = orderEventPublisher.publish(outboxChannel, event.getPayload(), event.getCorrelationId());
+            if (isCompensation(event)) {
+                if (compensationHandler.runQueued(event)) {
+                    markPublished(event);
+                } else {
+                    markFailed(event, "Compensation did not complete");
+                }
+                continue;
+            }
+            // Payment requests need one consumer each, so they go to a stream rather than the broadcast channel.
+            boolean published = OrderEventType.PAYMENT_REQUESTED.name().equals(event.getEventType())
+                    ? orderEventPublisher.publishToStream(paymentRequestsStream, event.getPayload(), event.getCorrelationId())
+                    : orderEventPublisher.publish(outboxChannel, event.getPayload(), event.getCorrelationId());
             if (published) {
                 markPublished(event);
             } else {
@@ -75,6 +93,11 @@ public class OutboxPublisherWorker {
         return processedCount;
     }
 
+    private static boolean isCompensation(OutboxEvent event) {
+        return OrderEventType.PAYMENT_REFUND_REQUESTED.name().equals(event.getEventType())
+                || OrderEventType.INVENTORY_RELEASE_REQUESTED.name().equals(event.getEventType());
+    }
+
     private void markPublished(OutboxEvent event) {
         event.setStatus(OutboxStatus.PUBLISHED);
         event.setPublishedAt(Instant.now());
@@ -0,0 +1,80 @@
+package com.example.order.service;
+
+import com.example.order.model.OrderStatus;
+import com.example.order.repository.OrderRepository;
+import com.example.order.util.StructuredLogger;
+import com.example.order.util.UuidV7;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Fails orders that have waited in {@code PAYMENT_PENDING} longer than {@code pending-timeout-ms}: the
+ * {@code PAYMENT_REQUESTED} event may have exhausted its outbox retries, or the result record may be lost.
+ * The inventory release and a refund of any capture are queued in the outbox; a capture that still arrives
+ * later is refunded too.
+ */
+@Component
+@ConditionalOnProperty(value = "saga.payment.mode", havingValue = "event")
+public class PaymentPendingSweeper {
+
+    private final OrderRepository orderRepository;
+    private final PaymentResultHandler paymentResultHandler;
+    private final StructuredLogger structuredLogger;
+    private final long pendingTimeoutMs;
+    private final int batchSize;
+
+    public PaymentPendingSweeper(
+            OrderRepository orderRepository,
+            PaymentResultHandler paymentResultHandler,
+            StructuredLogger structuredLogger,
+            @Value("${saga.payment.pending-timeout-ms:300000}") long pendingTimeoutMs,
+            @Value("${saga.payment.pending-sweep.batch-size:100}") int batchSize
+    ) {
+        this.orderRepository = orderRepository;
+        this.paymentResultHandler = paymentResultHandler;
+        this.structuredLogger = structuredLogger;
+        this.pendingTimeoutMs = Math.max(1, pendingTimeoutMs);
+        this.batchSize = Math.max(1, batchSize);
+    }
+
+    @Scheduled(fixedDelayString = "${saga.payment.pending-sweep.interval-ms:30000}")
+    public void sweepScheduled() {
+        try {
+            sweep();
+        } catch (RuntimeException ex) {
+            structuredLogger.warn("order.payment_pending.sweep_failed", Map.of("error", String.valueOf(ex.getMessage())));
+        }
+    }
+
+    /**
+     * Expires one batch of overdue orders. Returns the number failed.
+     */
+    public int sweep() {
+        Instant cutoff = Instant.now().minusMillis(pendingTimeoutMs);
+        List<UUID> overdue = orderRepository.findIdsByStatusCreatedBefore(
+                OrderStatus.PAYMENT_PENDING, cutoff, PageRequest.of(0, batchSize));
+
+        int expired = 0;
+        for (UUID orderId : overdue) {
+            try {
+                if (paymentResultHandler.expire(orderId, "Payment result not received in time", UuidV7.next().toString())) {
+                    expired++;
+                }
+            } catch (RuntimeException ex) {
+                structuredLogger.warn("order.payment_pending.expire_failed", Map.of(
+                        "order_id", orderId.toString(),
+                        "error", String.valueOf(ex.getMessage())
+                ));
+            }
+        }
+        return expired;
+    }
+}
@@ -0,0 +1,220 @@
+package com.example.order.service;
+
+import com.example.order.util.StructuredLogger;
+import com.example.order.util.UuidV7;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Range;
+import org.springframework.data.redis.connection.stream.Consumer;
+import org.springframework.data.redis.connection.stream.MapRecord;
+import org.springframework.data.redis.connection.stream.PendingMessage;
+import org.springframework.data.redis.connection.stream.PendingMessages;
+import org.springframework.data.redis.connection.stream.PendingMessagesSummary;
+import org.springframework.data.redis.connection.stream.ReadOffset;
+import org.springframework.data.redis.connection.stream.RecordId;
+import org.springframework.data.redis.connection.stream.StreamOffset;
+import org.springframework.data.redis.connection.stream.StreamReadOptions;
+import org.springframework.data.redis.core.StreamOperations;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Reads payment results from the {@code payments.results} stream as a member of a consumer group, so each
+ * result is handled by one order-service instance. A record is acknowledged once the order was updated;
+ * failed records stay in this consumer's pending list and are read again after {@code retry-interval-ms}.
+ * Records another consumer left pending that long are claimed, so nothing is stranded when an instance goes
+ * away. The consumer name should be stable per instance, so a restarted instance picks up its own list.
+ */
+@Component
+@ConditionalOnProperty(value = "saga.payment.mode", havingValue = "event")
+public class PaymentResultConsumer {
+
+    private final StringRedisTemplate redisTemplate;
+    private final PaymentResultHandler paymentResultHandler;
+    private final ObjectMapper objectMapper;
+    private final StructuredLogger structuredLogger;
+    private final String resultsStream;
+    private final Consumer consumer;
+    private final int batchSize;
+    private final long retryIntervalMs;
+
+    private volatile boolean groupReady;
+    private long lastPendingReadMs;
+
+    public PaymentResultConsumer(
+            StringRedisTemplate redisTemplate,
+            PaymentResultHandler paymentResultHandler,
+            ObjectMapper objectMapper,
+            StructuredLogger structuredLogger,
+            @Value("${saga.payment.results-stream:payments.results}") String resultsStream,
+            @Value("${saga.payment.consumer.group:order-service}") String group,
+            @Value("${saga.payment.consumer.name:order-service-1}") String consumerName,
+            @Value("${saga.payment.consumer.batch-size:50}") int batchSize,
+            @Value("${saga.payment.consumer.retry-interval-ms:5000}") long retryIntervalMs
+    ) {
+        this.redisTemplate = redisTemplate;
+        this.paymentResultHandler = paymentResultHandler;
+        this.objectMapper = objectMapper;
+        this.structuredLogger = structuredLogger;
+        this.resultsStream = resultsStream;
+        this.consumer = Consumer.from(group, consumerName);
+        this.batchSize = Math.max(1, batchSize);
+        this.retryIntervalMs = Math.max(0, retryIntervalMs);
+    }
+
+    @Scheduled(fixedDelayString = "${saga.payment.consumer.poll-interval-ms:200}")
+    public void pollScheduled() {
+        try {
+            poll();
+        } catch (RuntimeException ex) {
+            structuredLogger.warn("order.payment_result.poll_failed", Map.of("error", String.valueOf(ex.getMessage())));
+        }
+    }
+
+    /**
+     * Handles one batch: this consumer's pending results when a retry is due, otherwise new ones.
+     * Returns the number acknowledged.
+     */
+    public int poll() {
+        ensureGroup();
+        List<MapRecord<String, Object, Object>> records = List.of();
+        long now = System.currentTimeMillis();
+        if (now - lastPendingReadMs >= retryIntervalMs) {
+            lastPendingReadMs = now;
+            records = new ArrayList<>(read(ReadOffset.from("0")));
+            records.addAll(claimIdle());
+        }
+        if (records.isEmpty()) {
+            records = read(ReadOffset.lastConsumed());
+        }
+
+        int acknowledged = 0;
+        for (MapRecord<String, Object, Object> record : records) {
+            if (handle(record)) {
+                redisTemplate.opsForStream().acknowledge(resultsStream, consumer.getGroup(), record.getId());
+                acknowledged++;
+            }
+        }
+        return acknowledged;
+    }
+
+    private List<MapRecord<String, Object, Object>> read(ReadOffset offset) {
+        List<MapRecord<String, Object, Object>> records = redisTemplate.opsForStream().read(
+                consumer,
+                StreamReadOptions.empty().count(batchSize),
+                StreamOffset.create(resultsStream, offset)
+        );
+        return records == null ? List.of() : records;
+    }
+
+    /**
+     * Takes over results left pending by other consumers of the group, e.g. a container that was replaced, once
+     * they have been idle for {@code retry-interval-ms}. XCLAIM with a min idle time only moves entries that
+     * are still idle, so a live consumer keeps what it is working on.
+     */
+    private List<MapRecord<String, Object, Object>> claimIdle() {
+        StreamOperations<String, Object, Object> streams = redisTemplate.opsForStream();
+        PendingMessagesSummary summary = streams.pending(resultsStream, consumer.getGroup());
+        if (summary == null || summary.getTotalPendingMessages() == 0) {
+            return List.of();
+        }
+
+        Duration minIdle = Duration.ofMillis(retryIntervalMs);
+        List<MapRecord<String, Object, Object>> claimed = new ArrayList<>();
+        for (Map.Entry<String, Long> owner : summary.getPendingMessagesPerConsumer().entrySet()) {
+            int room = batchSize - claimed.size();
+            if (room <= 0) {
+                break;
+            }
+            if (owner.getKey().equals(consumer.getName()) || owner.getValue() == null || owner.getValue() == 0) {
+                continue;
+            }
+            PendingMessages pending = streams.pending(
+                    resultsStream, Consumer.from(consumer.getGroup(), owner.getKey()), Range.unbounded(), room);
+            RecordId[] idle = pending == null ? new RecordId[0] : pending.stream()
+                    .filter(message -> message.getElapsedTimeSinceLastDelivery().compareTo(minIdle) >= 0)
+                    .map(PendingMessage::getId)
+                    .toArray(RecordId[]::new);
+            if (idle.length > 0) {
+                List<MapRecord<String, Object, Object>> records = streams.claim(
+                        resultsStream, consumer.getGroup(), consumer.getName(), minIdle, idle);
+                if (records != null) {
+                    claimed.addAll(records);
+                }
+            }
+        }
+        return claimed;
+    }
+
+    private void ensureGroup() {
+        if (groupReady) {
+            return;
+        }
+        try {
+            redisTemplate.opsForStream().createGroup(resultsStream, ReadOffset.from("0"), consumer.getGroup());
+        } catch (RuntimeException ex) {
+            Throwable cause = ex;
+            while (cause.getCause() != null) {
+                cause = cause.getCause();
+            }
+            if (!String.valueOf(cause.getMessage()).contains("BUSYGROUP")) {
+                throw ex;
+            }
+        }
+        groupReady = true;
+    }
+
+    private boolean handle(MapRecord<String, Object, Object> record) {
+        JsonNode event;
+        try {
+            Object payload = record.getValue().get("payload");
+            event = payload == null ? null : objectMapper.readTree(payload.toString());
+        } catch (Exception ex) {
+            event = null;
+        }
+        String eventType = event == null ? "" : event.path("eventType").asText("");
+        UUID orderId = event == null ? null : uuid(event.path("orderId"));
+        if (orderId == null || !("PAYMENT_CAPTURED".equals(eventType) || "PAYMENT_DECLINED".equals(eventType))) {
+            structuredLogger.warn("order.payment_result.unreadable", Map.of("record_id", record.getId().getValue()));
+            return true;
+        }
+
+        String correlationId = event.path("correlationId").asText("");
+        if (correlationId.isBlank()) {
+            correlationId = UuidV7.next().toString();
+        }
+        try {
+            paymentResultHandler.apply(
+                    orderId,
+                    "PAYMENT_CAPTURED".equals(eventType),
+                    event.path("failureReason").asText(null),
+                    correlationId
+            );
+            return true;
+        } catch (RuntimeException ex) {
+            structuredLogger.warn("order.payment_result.retry_later", Map.of(
+                    "order_id", orderId.toString(),
+                    "error", String.valueOf(ex.getMessage()),
+                    "correlation_id", correlationId
+            ));
+            return false;
+        }
+    }
+
+    private UUID uuid(JsonNode node) {
+        try {
+            return node.isTextual() ? UUID.fromString(node.asText()) : null;
+        } catch (IllegalArgumentException ex) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package com.example.order.service;
+
+import com.example.order.model.Order;
+import com.example.order.model.OrderEventType;
+import com.example.order.model.OrderStatus;
+import com.example.order.repository.OrderRepository;
+import com.example.order.util.StructuredLogger;
+import jakarta.transaction.Transactional;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Finishes an event-driven saga when payment-service reports {@code PAYMENT_CAPTURED} or
+ * {@code PAYMENT_DECLINED}. Results for orders that are no longer waiting on payment are ignored,
+ * so redelivered events are harmless, except a capture for an order that already failed or was cancelled,
+ * which is refunded.
+ * <p>
+ * The order row is locked only to change its state. Refunds and inventory releases are queued in the outbox
+ * in the same transaction and run by {@link OutboxPublisherWorker} after commit, so a slow payment-service or
+ * inventory-service never holds the lock or a connection per result.
+ */
+@Component
+public class PaymentResultHandler {
+
+    private final OrderRepository orderRepository;
+    private final OrderStatePolicy orderStatePolicy;
+    private final SagaStepRecorder sagaStepRecorder;
+    private final OrderOutboxService orderOutboxService;
+    private final StructuredLogger structuredLogger;
+
+    public PaymentResultHandler(
+            OrderRepository orderRepository,
+            OrderStatePolicy orderStatePolicy,
+            SagaStepRecorder sagaStepRecorder,
+            OrderOutboxService orderOutboxService,
+            StructuredLogger structuredLogger
+    ) {
+        this.orderRepository = orderRepository;
+        this.orderStatePolicy = orderStatePolicy;
+        this.sagaStepRecorder = sagaStepRecorder;
+        this.orderOutboxService = orderOutboxService;
+        this.structuredLogger = structuredLogger;
+    }
+
+    /**
+     * Returns false if the result did not change the order.
+     */
+    @Transactional
+    public boolean apply(UUID orderId, boolean captured, String failureReason, String correlationId) {
+        Order order = orderRepository.findByIdForUpdate(orderId).orElse(null);
+        if (order != null && captured
+                && (order.getStatus() == OrderStatus.FAILED || order.getStatus() == OrderStatus.CANCELLED)) {
+            // E.g. the order timed out in PAYMENT_PENDING before payment-service got to it.
+            orderOutboxService.enqueueOrderEvent(OrderEventType.PAYMENT_REFUND_REQUESTED, order, order.getUserId(), correlationId);
+            structuredLogger.warn("order.payment_result.late_capture_refund_queued", Map.of(
+                    "order_id", orderId.toString(),
+                    "status", order.getStatus().name(),
+                    "correlation_id", correlationId
+            ));
+            return false;
+        }
+        if (order == null || order.getStatus() != OrderStatus.PAYMENT_PENDING) {
+            structuredLogger.info("order.payment_result.ignored", Map.of(
+                    "order_id", orderId.toString(),
+                    "status", order == null ? "NOT_FOUND" : order.getStatus().name(),
+                    "correlation_id", correlationId
+            ));
+            return false;
+        }
+
+        String reason = failureReason == null || failureReason.isBlank() ? "Payment declined" : failureReason;
+        sagaStepRecorder.record(order.getId(), "PAYMENT_PAY", captured ? "SUCCESS" : "FAILED", 0, false,
+                captured ? "completed" : reason, correlationId);
+        if (!captured) {
+            orderOutboxService.enqueueOrderEvent(OrderEventType.INVENTORY_RELEASE_REQUESTED, order, order.getUserId(), correlationId);
+        }
+
+        orderStatePolicy.applyPaymentResult(order, captured, reason);
+        Order savedOrder = orderRepository.save(order);
+
+        if (captured) {
+            sagaStepRecorder.record(savedOrder.getId(), "ORDER_CONFIRMED", "SUCCESS", 0, false,
+                    "Order confirmed", correlationId);
+            orderOutboxService.enqueueOrderEvent(OrderEventType.ORDER_CONFIRMED, savedOrder, savedOrder.getUserId(), correlationId);
+            structuredLogger.info("order.saga.success", Map.of(
+                    "order_id", savedOrder.getId().toString(),
+                    "correlation_id", correlationId
+            ));
+        } else {
+            orderOutboxService.enqueueOrderEvent(OrderEventType.ORDER_FAILED, savedOrder, savedOrder.getUserId(), correlationId);
+            structuredLogger.error("order.saga.failed", Map.of(
+                    "order_id", savedOrder.getId().toString(),
+                    "correlation_id", correlationId,
+                    "error", reason
+            ));
+        }
+        return true;
+    }
+
+    /**
+     * Fails an order that waited in {@code PAYMENT_PENDING} past its deadline, e.g. because the request
+     * never reached payment-service or its result was lost. Returns false if the order moved on meanwhile.
+     */
+    @Transactional
+    public boolean expire(UUID orderId, String reason, String correlationId) {
+        Order order = orderRepository.findByIdForUpdate(orderId).orElse(null);
+        if (order == null || order.getStatus() != OrderStatus.PAYMENT_PENDING) {
+            return false;
+        }
+
+        sagaStepRecorder.record(order.getId(), "PAYMENT_TIMEOUT", "FAILED", 0, false, reason, correlationId);
+        // The payment may have been captured with its result lost; the refund is skipped when it was not.
+        orderOutboxService.enqueueOrderEvent(OrderEventType.PAYMENT_REFUND_REQUESTED, order, order.getUserId(), correlationId);
+        orderOutboxService.enqueueOrderEvent(OrderEventType.INVENTORY_RELEASE_REQUESTED, order, order.getUserId(), correlationId);
+
+        orderStatePolicy.transition(order, OrderStatus.FAILED, reason);
+        Order savedOrder = orderRepository.save(order);
+        orderOutboxService.enqueueOrderEvent(OrderEventType.ORDER_FAILED, savedOrder, savedOrder.getUserId(), correlationId);
+        structuredLogger.error("order.saga.failed", Map.of(
+                "order_id", savedOrder.getId().toString(),
+                "correlation_id", correlationId,
+                "error", reason
+        ));
+        return true;
+    }
+}
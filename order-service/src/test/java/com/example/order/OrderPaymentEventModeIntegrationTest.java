@@ -0,0 +1,290 @@
+package com.example.order;
+
+import com.example.order.dto.CreateOrderRequest;
+import com.example.order.model.Order;
+import com.example.order.model.OrderStatus;
+import com.example.order.model.OutboxEvent;
+import com.example.order.model.OutboxStatus;
+import com.example.order.repository.OrderRepository;
+import com.example.order.repository.OutboxEventRepository;
+import com.example.order.repository.SagaStepRepository;
+import com.example.order.service.OrderCreationResult;
+import com.example.order.service.OrderEventPublisher;
+import com.example.order.service.OrderService;
+import com.example.order.service.OrderWorkflowException;
+import com.example.order.service.OutboxPublisherWorker;
+import com.example.order.service.PaymentPendingSweeper;
+import com.example.order.service.PaymentResultConsumer;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.data.redis.connection.stream.Consumer;
+import org.springframework.data.redis.connection.stream.MapRecord;
+import org.springframework.data.redis.connection.stream.RecordId;
+import org.springframework.data.redis.connection.stream.StreamOffset;
+import org.springframework.data.redis.connection.stream.StreamReadOptions;
+import org.springframework.data.redis.connection.stream.StreamRecords;
+import org.springframework.data.redis.core.StreamOperations;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.client.ExpectedCount;
+import org.springframework.test.web.client.MockRestServiceServer;
+import org.springframework.web.client.RestTemplate;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.method;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.requestTo;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withSuccess;
+
+/**
+ * Choreography mode: payment goes out as a PAYMENT_REQUESTED stream record and the saga finishes when the
+ * result record is consumed. The Redis stream is stood in for by a queue behind a mocked template.
+ */
+@SpringBootTest(properties = "saga.payment.mode=event")
+@ActiveProfiles("test")
+class OrderPaymentEventModeIntegrationTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private RestTemplate restTemplate;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private SagaStepRepository sagaStepRepository;
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @Autowired
+    private OutboxPublisherWorker outboxPublisherWorker;
+
+    @Autowired
+    private PaymentResultConsumer paymentResultConsumer;
+
+    @Autowired
+    private PaymentPendingSweeper paymentPendingSweeper;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @MockBean
+    private OrderEventPublisher orderEventPublisher;
+
+    @MockBean
+    private StringRedisTemplate redisTemplate;
+
+    private StreamOperations<String, Object, Object> streams;
+    private final Deque<MapRecord<String, Object, Object>> resultsStream = new ArrayDeque<>();
+    private MockRestServiceServer mockServer;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setup() {
+        mockServer = MockRestServiceServer.bindTo(restTemplate)
+                .ignoreExpectOrder(true)
+                .build();
+
+        outboxEventRepository.deleteAll();
+        sagaStepRepository.deleteAll();
+        orderRepository.deleteAll();
+        resultsStream.clear();
+
+        streams = mock(StreamOperations.class);
+        when(redisTemplate.opsForStream()).thenReturn(streams);
+        when(streams.read(any(Consumer.class), any(StreamReadOptions.class), any(StreamOffset.class))).thenAnswer(invocation -> {
+            StreamOffset<String> offset = invocation.getArgument(2);
+            // Only new records are handed out; nothing is left pending in these tests.
+            if (!">".equals(offset.getOffset().getOffset()) || resultsStream.isEmpty()) {
+                return List.of();
+            }
+            return List.of(resultsStream.poll());
+        });
+        when(orderEventPublisher.publish(anyString(), anyString(), anyString())).thenReturn(true);
+        when(orderEventPublisher.publishToStream(anyString(), anyString(), anyString())).thenReturn(true);
+    }
+
+    @Test
+    void capturedResultConfirmsOrder() throws Exception {
+        Order order = createPendingOrder("idem-event-captured", "corr-event-captured");
+
+        JsonNode request = publishedPaymentRequest();
+        assertThat(request.path("orderId").asText()).isEqualTo(order.getId().toString());
+        assertThat(request.path("idempotencyKey").asText()).isEqualTo("idem-event-captured:payment:pay");
+        assertThat(request.path("amount").asDouble()).isEqualTo(31.0);
+
+        deliverResult("1-0", "PAYMENT_CAPTURED", request, null);
+        assertThat(paymentResultConsumer.poll()).isEqualTo(1);
+
+        assertThat(orderRepository.findById(order.getId()).orElseThrow().getStatus()).isEqualTo(OrderStatus.CONFIRMED);
+        assertThat(outboxEventRepository.findAll()).extracting(OutboxEvent::getEventType)
+                .contains("PAYMENT_REQUESTED", "ORDER_CONFIRMED");
+        verify(streams, times(1)).acknowledge(eq("payments.results"), eq("order-service"), any(RecordId.class));
+
+        // A redelivered result leaves the confirmed order alone.
+        deliverResult("2-0", "PAYMENT_CAPTURED", request, null);
+        assertThat(paymentResultConsumer.poll()).isEqualTo(1);
+        assertThat(outboxEventRepository.findAll()).filteredOn(event -> "ORDER_CONFIRMED".equals(event.getEventType()))
+                .hasSize(1);
+        mockServer.verify();
+    }
+
+    @Test
+    void declinedResultReleasesInventoryAndFailsOrder() throws Exception {
+        mockServer.expect(requestTo("http://inventory-service:8080/inventory/release"))
+                .andExpect(method(HttpMethod.POST))
+                .andRespond(withSuccess("{}", MediaType.APPLICATION_JSON));
+        Order order = createPendingOrder("idem-event-declined", "corr-event-declined");
+
+        deliverResult("1-0", "PAYMENT_DECLINED", publishedPaymentRequest(), "Payment provider rejected transaction");
+        assertThat(paymentResultConsumer.poll()).isEqualTo(1);
+
+        Order failed = orderRepository.findById(order.getId()).orElseThrow();
+        assertThat(failed.getStatus()).isEqualTo(OrderStatus.FAILED);
+        assertThat(failed.getFailureReason()).isEqualTo("Payment provider rejected transaction");
+        assertThat(outboxEventRepository.findAll()).extracting(OutboxEvent::getEventType)
+                .contains("ORDER_FAILED", "INVENTORY_RELEASE_REQUESTED");
+
+        // The release runs from the outbox once the failure has committed.
+        outboxPublisherWorker.publishAvailableEvents();
+        assertThat(outboxEventRepository.findAll()).filteredOn(event -> "INVENTORY_RELEASE_REQUESTED".equals(event.getEventType()))
+                .extracting(OutboxEvent::getStatus)
+                .containsExactly(OutboxStatus.PUBLISHED);
+        mockServer.verify();
+    }
+
+    @Test
+    void cancelIsRefusedUntilThePaymentResultLands() throws Exception {
+        // Expected once, by the cancel that runs after the capture.
+        mockServer.expect(requestTo("http://payment-service:8080/payments/refund"))
+                .andExpect(method(HttpMethod.POST))
+                .andRespond(withSuccess("{}", MediaType.APPLICATION_JSON));
+        mockServer.expect(requestTo("http://inventory-service:8080/inventory/release"))
+                .andExpect(method(HttpMethod.POST))
+                .andRespond(withSuccess("{}", MediaType.APPLICATION_JSON));
+        Order order = createPendingOrder("idem-event-cancel", "corr-event-cancel");
+        JsonNode request = publishedPaymentRequest();
+
+        assertThatThrownBy(() -> orderService.cancelOrder(order.getId(), order.getUserId(), "USER", "corr-event-cancel"))
+                .isInstanceOfSatisfying(OrderWorkflowException.class, ex -> {
+                    assertThat(ex.getStatus()).isEqualTo(409);
+                    assertThat(ex.getCode()).isEqualTo("ORDER_PAYMENT_IN_PROGRESS");
+                });
+        assertThat(orderRepository.findById(order.getId()).orElseThrow().getStatus()).isEqualTo(OrderStatus.PAYMENT_PENDING);
+
+        deliverResult("1-0", "PAYMENT_CAPTURED", request, null);
+        assertThat(paymentResultConsumer.poll()).isEqualTo(1);
+
+        Order cancelled = orderService.cancelOrder(order.getId(), order.getUserId(), "USER", "corr-event-cancel");
+
+        assertThat(cancelled.getStatus()).isEqualTo(OrderStatus.CANCELLED);
+        assertThat(outboxEventRepository.findAll()).extracting(OutboxEvent::getEventType).contains("ORDER_CANCELLED");
+        mockServer.verify();
+    }
+
+    @Test
+    void overduePendingOrderIsFailedAndALateCaptureIsRefunded() throws Exception {
+        // Once when the order expires, again when the capture shows up after all.
+        mockServer.expect(ExpectedCount.times(2), requestTo("http://payment-service:8080/payments/refund"))
+                .andExpect(method(HttpMethod.POST))
+                .andRespond(withSuccess("{}", MediaType.APPLICATION_JSON));
+        mockServer.expect(requestTo("http://inventory-service:8080/inventory/release"))
+                .andExpect(method(HttpMethod.POST))
+                .andRespond(withSuccess("{}", MediaType.APPLICATION_JSON));
+        Order order = createPendingOrder("idem-event-timeout", "corr-event-timeout");
+        JsonNode request = publishedPaymentRequest();
+        assertThat(paymentPendingSweeper.sweep()).isZero();
+
+        jdbcTemplate.update("update orders set created_at = ? where id = ?",
+                Timestamp.from(Instant.now().minus(Duration.ofHours(1))), order.getId());
+        assertThat(paymentPendingSweeper.sweep()).isEqualTo(1);
+
+        Order failed = orderRepository.findById(order.getId()).orElseThrow();
+        assertThat(failed.getStatus()).isEqualTo(OrderStatus.FAILED);
+        assertThat(failed.getFailureReason()).isEqualTo("Payment result not received in time");
+        assertThat(outboxEventRepository.findAll()).extracting(OutboxEvent::getEventType).contains("ORDER_FAILED");
+        outboxPublisherWorker.publishAvailableEvents();
+
+        deliverResult("1-0", "PAYMENT_CAPTURED", request, null);
+        assertThat(paymentResultConsumer.poll()).isEqualTo(1);
+        outboxPublisherWorker.publishAvailableEvents();
+
+        assertThat(orderRepository.findById(order.getId()).orElseThrow().getStatus()).isEqualTo(OrderStatus.FAILED);
+        assertThat(outboxEventRepository.findAll()).extracting(OutboxEvent::getEventType).doesNotContain("ORDER_CONFIRMED");
+        assertThat(outboxEventRepository.findAll()).filteredOn(event -> "PAYMENT_REFUND_REQUESTED".equals(event.getEventType()))
+                .extracting(OutboxEvent::getStatus)
+                .containsExactly(OutboxStatus.PUBLISHED, OutboxStatus.PUBLISHED);
+        mockServer.verify();
+    }
+
+    private Order createPendingOrder(String idempotencyKey, String correlationId) {
+        UUID productId = UUID.randomUUID();
+        mockServer.expect(requestTo("http://product-service:8080/products/" + productId))
+                .andExpect(method(HttpMethod.GET))
+                .andRespond(withSuccess("{\"price\":15.5}", MediaType.APPLICATION_JSON));
+        mockServer.expect(requestTo("http://inventory-service:8080/inventory/reserve"))
+                .andExpect(method(HttpMethod.POST))
+                .andRespond(withSuccess("{}", MediaType.APPLICATION_JSON));
+
+        CreateOrderRequest request = new CreateOrderRequest();
+        request.setProductId(productId);
+        request.setQuantity(2);
+        OrderCreationResult result = orderService.createOrder(UUID.randomUUID(), "USER", idempotencyKey, correlationId, request);
+
+        // No synchronous call to payment-service: the order waits for the result event.
+        assertThat(result.getOrder().getStatus()).isEqualTo(OrderStatus.PAYMENT_PENDING);
+        return result.getOrder();
+    }
+
+    private JsonNode publishedPaymentRequest() throws Exception {
+        outboxPublisherWorker.publishAvailableEvents();
+        ArgumentCaptor<String> payload = ArgumentCaptor.forClass(String.class);
+        verify(orderEventPublisher).publishToStream(eq("payments.requests"), payload.capture(), anyString());
+        assertThat(outboxEventRepository.findAll()).filteredOn(event -> "PAYMENT_REQUESTED".equals(event.getEventType()))
+                .extracting(OutboxEvent::getStatus)
+                .containsExactly(OutboxStatus.PUBLISHED);
+        return objectMapper.readTree(payload.getValue());
+    }
+
+    private void deliverResult(String id, String eventType, JsonNode request, String failureReason) throws Exception {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("eventType", eventType);
+        result.put("orderId", request.path("orderId").asText());
+        result.put("failureReason", failureReason);
+        result.put("correlationId", request.path("correlationId").asText());
+        resultsStream.add(StreamRecords.<String, Object, Object>mapBacked(Map.of("payload", objectMapper.writeValueAsString(result)))
+                .withStreamKey("payments.results")
+                .withId(RecordId.of(id)));
+    }
+}
@@ -10,6 +10,7 @@ import com.example.order.repository.OrderRepository;
 import com.example.order.repository.OutboxEventRepository;
 import com.example.order.repository.SagaStepRepository;
 import com.example.order.service.OrderCreationResult;
+import com.example.order.service.IdempotencyConflictException;
 import com.example.order.service.OrderEventPublisher;
 import com.example.order.service.OrderService;
 import com.example.order.service.OrderWorkflowException;
@@ -20,6 +21,7 @@ import org.mockito.Mockito;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.boot.test.mock.mockito.SpyBean;
 import org.springframework.http.HttpMethod;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.ActiveProfiles;
@@ -33,7 +35,9 @@ import java.util.UUID;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -53,10 +57,10 @@ class OrderSagaIntegrationTest {
     @Autowired
     private RestTemplate restTemplate;
 
-    @Autowired
+    @SpyBean
     private OrderRepository orderRepository;
 
-    @Autowired
+    @SpyBean
     private SagaStepRepository sagaStepRepository;
 
     @Autowired
@@ -102,6 +106,8 @@ class OrderSagaIntegrationTest {
 
         assertThat(result.isIdempotentReplay()).isFalse();
         assertThat(result.getOrder().getStatus()).isEqualTo(OrderStatus.CONFIRMED);
+        assertThat(result.getOrder().getId().version()).isEqualTo(7);
+        assertThat(result.getSagaSteps()).allSatisfy(step -> assertThat(step.getId().version()).isEqualTo(7));
 
         OutboxEvent outboxEvent = singleOutboxEvent();
         assertThat(outboxEvent.getEventType()).isEqualTo("ORDER_CONFIRMED");
@@ -250,6 +256,72 @@ class OrderSagaIntegrationTest {
         mockServer.verify();
     }
 
+    @Test
+    void replayOfFinishedOrderIsServedFromCacheUntilCancelled() {
+        UUID userId = UUID.randomUUID();
+        UUID productId = UUID.randomUUID();
+
+        expectProduct(productId, 12.0);
+        expectInventoryReserveOk();
+        expectPaymentPayOk();
+        expectPaymentRefundOk();
+        expectInventoryReleaseOk();
+
+        OrderCreationResult created = orderService.createOrder(
+                userId,
+                "USER",
+                "idem-replay-cache",
+                "corr-replay-create",
+                createOrderRequest(productId, 3)
+        );
+        Mockito.clearInvocations(orderRepository, sagaStepRepository);
+
+        OrderCreationResult replay = orderService.createOrder(
+                userId,
+                "USER",
+                "idem-replay-cache",
+                "corr-replay",
+                createOrderRequest(productId, 3)
+        );
+
+        assertThat(replay.isIdempotentReplay()).isTrue();
+        assertThat(replay.getCorrelationId()).isEqualTo("corr-replay");
+        assertThat(replay.getOrder().getId()).isEqualTo(created.getOrder().getId());
+        assertThat(replay.getOrder().getStatus()).isEqualTo(OrderStatus.CONFIRMED);
+        assertThat(replay.getOrder().getTotalAmount()).isEqualTo(36.0);
+        assertThat(replay.getSagaSteps()).extracting("stepName")
+                .containsExactlyElementsOf(created.getSagaSteps().stream().map(step -> step.getStepName()).toList());
+        assertThatThrownBy(() -> orderService.createOrder(
+                userId,
+                "USER",
+                "idem-replay-cache",
+                "corr-replay-conflict",
+                createOrderRequest(productId, 4)
+        )).isInstanceOf(IdempotencyConflictException.class);
+        assertThatThrownBy(() -> orderService.createOrder(
+                UUID.randomUUID(),
+                "USER",
+                "idem-replay-cache",
+                "corr-replay-other-user",
+                createOrderRequest(productId, 3)
+        )).isInstanceOf(SecurityException.class);
+        verify(orderRepository, never()).findByIdempotencyKey(anyString());
+        verify(sagaStepRepository, never()).findByOrderIdOrderByCreatedAtAsc(any(UUID.class));
+
+        orderService.cancelOrder(created.getOrder().getId(), userId, "USER", "corr-replay-cancel");
+        OrderCreationResult afterCancel = orderService.createOrder(
+                userId,
+                "USER",
+                "idem-replay-cache",
+                "corr-replay-after-cancel",
+                createOrderRequest(productId, 3)
+        );
+
+        assertThat(afterCancel.getOrder().getStatus()).isEqualTo(OrderStatus.CANCELLED);
+        verify(orderRepository).findByIdempotencyKey("idem-replay-cache");
+        mockServer.verify();
+    }
+
     private CreateOrderRequest createOrderRequest(UUID productId, int quantity) {
         CreateOrderRequest request = new CreateOrderRequest();
         request.setProductId(productId);
@@ -0,0 +1,16 @@
+-- Provider calls now run outside the database transaction: attempts are recorded as PENDING first
+-- and completed afterwards. This script is idempotent and safe to run multiple times.
+
+ALTER TABLE payment_transactions
+    DROP CONSTRAINT IF EXISTS payment_transactions_status_check;
+
+ALTER TABLE payment_transactions
+    DROP CONSTRAINT IF EXISTS chk_payment_status;
+
+ALTER TABLE payment_transactions
+    ADD CONSTRAINT chk_payment_status
+    CHECK (status IN ('PENDING', 'PAID', 'REFUNDED', 'FAILED'));
+
+-- Recovery scans for attempts left PENDING.
+CREATE INDEX IF NOT EXISTS idx_payment_status_updated
+    ON payment_transactions (status, updated_at);
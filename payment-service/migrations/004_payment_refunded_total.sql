@@ -0,0 +1,25 @@
+-- Running refund total on PAY rows, so refunds are validated with one guarded UPDATE
+-- instead of summing earlier refunds. This script is idempotent and safe to run multiple times.
+
+ALTER TABLE payment_transactions
+    ADD COLUMN IF NOT EXISTS refunded_total NUMERIC(19, 2) NOT NULL DEFAULT 0;
+
+-- Backfill from refunds that succeeded or are still with the provider.
+UPDATE payment_transactions p
+SET refunded_total = totals.refunded
+FROM (
+    SELECT reference_payment_id, SUM(amount) AS refunded
+    FROM payment_transactions
+    WHERE operation_type = 'REFUND'
+      AND status IN ('REFUNDED', 'PENDING')
+    GROUP BY reference_payment_id
+) totals
+WHERE p.id = totals.reference_payment_id
+  AND p.refunded_total <> totals.refunded;
+
+ALTER TABLE payment_transactions
+    DROP CONSTRAINT IF EXISTS chk_payment_refunded_total;
+
+ALTER TABLE payment_transactions
+    ADD CONSTRAINT chk_payment_refunded_total
+    CHECK (refunded_total >= 0 AND refunded_total <= amount);
@@ -0,0 +1,13 @@
+-- Per-order view of order events (orders.events), written in micro-batches by PaymentEventSubscriber.
+-- This script is idempotent and safe to run multiple times.
+
+CREATE TABLE IF NOT EXISTS order_status_projection (
+    order_id UUID PRIMARY KEY,
+    user_id UUID,
+    order_status VARCHAR(32) NOT NULL,
+    last_event_type VARCHAR(64) NOT NULL,
+    total_amount NUMERIC(19, 2),
+    failure_reason VARCHAR(500),
+    occurred_at TIMESTAMPTZ NOT NULL,
+    updated_at TIMESTAMPTZ NOT NULL
+);
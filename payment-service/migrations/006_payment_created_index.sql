@@ -0,0 +1,5 @@
+-- Time-range scans for the reconciliation report. idx_payment_order_created leads with order_id, so it
+-- only serves per-order lookups. This script is idempotent and safe to run multiple times.
+
+CREATE INDEX IF NOT EXISTS idx_payment_created
+    ON payment_transactions (created_at);
@@ -1,5 +1,6 @@
 package com.example.payment.config;
 
+import com.example.payment.util.UuidV7;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -9,7 +10,6 @@ import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
-import java.util.UUID;
 
 @Component
 public class CorrelationIdFilter extends OncePerRequestFilter {
@@ -25,7 +25,7 @@ public class CorrelationIdFilter extends OncePerRequestFilter {
     ) throws ServletException, IOException {
         String correlationId = request.getHeader(CORRELATION_ID_HEADER);
         if (correlationId == null || correlationId.isBlank()) {
-            correlationId = UUID.randomUUID().toString();
+            correlationId = UuidV7.next().toString();
         }
 
         MDC.put(MDC_KEY, correlationId);
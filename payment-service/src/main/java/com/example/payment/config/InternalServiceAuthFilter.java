@@ -1,5 +1,6 @@
 package com.example.payment.config;
 
+import com.example.payment.util.UuidV7;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -39,7 +40,9 @@ public class InternalServiceAuthFilter extends OncePerRequestFilter {
     @Override
     protected boolean shouldNotFilter(HttpServletRequest request) {
         String path = request.getRequestURI();
-        boolean isProtectedPath = "/payments/pay".equals(path) || "/payments/refund".equals(path);
+        boolean isProtectedPath = "/payments/pay".equals(path)
+                || "/payments/refund".equals(path)
+                || "/payments/batch".equals(path);
         return !isProtectedPath || !HttpMethod.POST.matches(request.getMethod());
     }
 
@@ -87,7 +90,7 @@ public class InternalServiceAuthFilter extends OncePerRequestFilter {
     private String resolveCorrelationId(HttpServletRequest request) {
         String correlationId = request.getHeader(CorrelationIdFilter.CORRELATION_ID_HEADER);
         if (correlationId == null || correlationId.isBlank()) {
-            return java.util.UUID.randomUUID().toString();
+            return UuidV7.next().toString();
         }
         return correlationId.trim();
     }
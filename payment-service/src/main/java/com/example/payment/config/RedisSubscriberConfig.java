@@ -1,23 +1,48 @@
 package com.example.payment.config;
 
 import com.example.payment.service.PaymentEventSubscriber;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
 import org.springframework.data.redis.listener.ChannelTopic;
 import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.ThreadPoolExecutor;
 
 @Configuration
 public class RedisSubscriberConfig {
 
+    /**
+     * Dispatches messages to the listener on a fixed, bounded pool instead of a thread per message.
+     * When its queue is full the subscription thread runs the listener itself, which slows reading.
+     */
+    @Bean
+    public ThreadPoolTaskExecutor paymentEventListenerExecutor(
+            @Value("${payment.events.listener-threads:2}") int threads,
+            @Value("${payment.events.listener-queue-capacity:1000}") int queueCapacity
+    ) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(Math.max(threads, 1));
+        executor.setMaxPoolSize(Math.max(threads, 1));
+        executor.setQueueCapacity(Math.max(queueCapacity, 0));
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.setThreadNamePrefix("payment-events-listener-");
+        return executor;
+    }
+
     @Bean
     public RedisMessageListenerContainer redisContainer(
             RedisConnectionFactory connectionFactory,
-            PaymentEventSubscriber paymentEventSubscriber
+            PaymentEventSubscriber paymentEventSubscriber,
+            ThreadPoolTaskExecutor paymentEventListenerExecutor,
+            @Value("${payment.events.channel:orders.events}") String channel
     ) {
         RedisMessageListenerContainer container = new RedisMessageListenerContainer();
         container.setConnectionFactory(connectionFactory);
-        container.addMessageListener(paymentEventSubscriber, new ChannelTopic("orders.events"));
+        container.setTaskExecutor(paymentEventListenerExecutor);
+        container.addMessageListener(paymentEventSubscriber, new ChannelTopic(channel));
         return container;
     }
 }
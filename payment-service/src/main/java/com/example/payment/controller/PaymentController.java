@@ -1,14 +1,29 @@
 package com.example.payment.controller;
 
 import com.example.payment.config.CorrelationIdFilter;
+import com.example.payment.dto.BatchPaymentRequest;
+import com.example.payment.dto.BatchPaymentResponse;
 import com.example.payment.dto.PayRequest;
 import com.example.payment.dto.PaymentResponse;
 import com.example.payment.dto.RefundRequest;
+import com.example.payment.service.PaymentBatchService;
+import com.example.payment.service.PaymentReconciliationService;
 import com.example.payment.service.PaymentService;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
 import java.util.Map;
 import java.util.UUID;
 
@@ -17,9 +32,17 @@ import java.util.UUID;
 public class PaymentController {
 
     private final PaymentService paymentService;
+    private final PaymentBatchService paymentBatchService;
+    private final PaymentReconciliationService reconciliationService;
 
-    public PaymentController(PaymentService paymentService) {
+    public PaymentController(
+            PaymentService paymentService,
+            PaymentBatchService paymentBatchService,
+            PaymentReconciliationService reconciliationService
+    ) {
         this.paymentService = paymentService;
+        this.paymentBatchService = paymentBatchService;
+        this.reconciliationService = reconciliationService;
     }
 
     @PostMapping("/payments/pay")
@@ -40,6 +63,14 @@ public class PaymentController {
         return ResponseEntity.ok(paymentService.refund(request, idempotencyKey, correlationId));
     }
 
+    @PostMapping("/payments/batch")
+    public ResponseEntity<BatchPaymentResponse> batch(
+            @RequestHeader(value = CorrelationIdFilter.CORRELATION_ID_HEADER, required = false) String correlationId,
+            @Valid @RequestBody BatchPaymentRequest request
+    ) {
+        return ResponseEntity.ok(paymentBatchService.process(request, correlationId));
+    }
+
     @GetMapping("/simulate-load")
     public ResponseEntity<Object> simulateLoad(
             @RequestParam(value = "type", defaultValue = "cpu") String type,
@@ -98,4 +129,29 @@ public class PaymentController {
     public ResponseEntity<?> getTransactionsByOrder(@PathVariable UUID orderId) {
         return ResponseEntity.ok(paymentService.getTransactionsByOrder(orderId));
     }
+
+    /**
+     * Reconciliation report for the UTC days from..to (inclusive; default yesterday), written as it is read.
+     */
+    @GetMapping("/payments/reconciliation")
+    public void reconciliation(
+            @RequestParam(value = "from", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(value = "to", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(value = "format", defaultValue = "csv") String format,
+            HttpServletResponse response
+    ) throws IOException {
+        LocalDate firstDay = from != null ? from : LocalDate.now(ZoneOffset.UTC).minusDays(1);
+        LocalDate lastDay = to != null ? to : firstDay;
+        Instant start = firstDay.atStartOfDay(ZoneOffset.UTC).toInstant();
+        Instant end = lastDay.plusDays(1).atStartOfDay(ZoneOffset.UTC).toInstant();
+        PaymentReconciliationService.Format reportFormat = PaymentReconciliationService.Format.parse(format);
+        reconciliationService.validateRange(start, end);
+
+        response.setContentType(reportFormat.contentType() + ";charset=UTF-8");
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"reconciliation-" + firstDay + "_" + lastDay
+                + "." + reportFormat.extension() + "\"");
+        Writer writer = new BufferedWriter(new OutputStreamWriter(response.getOutputStream(), StandardCharsets.UTF_8));
+        reconciliationService.writeReport(start, end, reportFormat, writer);
+        writer.flush();
+    }
 }
@@ -0,0 +1,43 @@
+package com.example.payment.dto;
+
+public class BatchItemResult {
+
+    private final int index;
+    private final int httpStatus;
+    private final PaymentResponse payment;
+    private final ServiceError error;
+
+    private BatchItemResult(int index, int httpStatus, PaymentResponse payment, ServiceError error) {
+        this.index = index;
+        this.httpStatus = httpStatus;
+        this.payment = payment;
+        this.error = error;
+    }
+
+    public static BatchItemResult success(int index, PaymentResponse payment) {
+        return new BatchItemResult(index, 200, payment, null);
+    }
+
+    public static BatchItemResult failure(int index, int httpStatus, ServiceError error) {
+        return new BatchItemResult(index, httpStatus, null, error);
+    }
+
+    public int getIndex() {
+        return index;
+    }
+
+    /**
+     * The status the single-operation endpoint would have answered with.
+     */
+    public int getHttpStatus() {
+        return httpStatus;
+    }
+
+    public PaymentResponse getPayment() {
+        return payment;
+    }
+
+    public ServiceError getError() {
+        return error;
+    }
+}
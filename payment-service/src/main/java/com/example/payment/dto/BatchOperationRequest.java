@@ -0,0 +1,96 @@
+package com.example.payment.dto;
+
+import com.example.payment.model.PaymentOperationType;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+/**
+ * One pay or refund inside a batch. Fields are validated per item, so one bad entry does not reject the batch.
+ */
+public class BatchOperationRequest {
+
+    private PaymentOperationType operation;
+    private UUID orderId;
+    private UUID userId;
+    private UUID paymentId;
+    private BigDecimal amount;
+    private String currency;
+    private String idempotencyKey;
+
+    public PayRequest toPayRequest() {
+        PayRequest request = new PayRequest();
+        request.setOrderId(orderId);
+        request.setUserId(userId);
+        request.setAmount(amount);
+        request.setCurrency(currency);
+        request.setIdempotencyKey(idempotencyKey);
+        return request;
+    }
+
+    public RefundRequest toRefundRequest() {
+        RefundRequest request = new RefundRequest();
+        request.setOrderId(orderId);
+        request.setPaymentId(paymentId);
+        request.setAmount(amount);
+        request.setCurrency(currency);
+        request.setIdempotencyKey(idempotencyKey);
+        return request;
+    }
+
+    public PaymentOperationType getOperation() {
+        return operation;
+    }
+
+    public void setOperation(PaymentOperationType operation) {
+        this.operation = operation;
+    }
+
+    public UUID getOrderId() {
+        return orderId;
+    }
+
+    public void setOrderId(UUID orderId) {
+        this.orderId = orderId;
+    }
+
+    public UUID getUserId() {
+        return userId;
+    }
+
+    public void setUserId(UUID userId) {
+        this.userId = userId;
+    }
+
+    public UUID getPaymentId() {
+        return paymentId;
+    }
+
+    public void setPaymentId(UUID paymentId) {
+        this.paymentId = paymentId;
+    }
+
+    public BigDecimal getAmount() {
+        return amount;
+    }
+
+    public void setAmount(BigDecimal amount) {
+        this.amount = amount;
+    }
+
+    public String getCurrency() {
+        return currency;
+    }
+
+    public void setCurrency(String currency) {
+        this.currency = currency;
+    }
+
+    public String getIdempotencyKey() {
+        return idempotencyKey;
+    }
+
+    public void setIdempotencyKey(String idempotencyKey) {
+        this.idempotencyKey = idempotencyKey;
+    }
+}
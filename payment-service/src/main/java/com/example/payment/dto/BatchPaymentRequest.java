@@ -0,0 +1,19 @@
+package com.example.payment.dto;
+
+import jakarta.validation.constraints.NotEmpty;
+
+import java.util.List;
+
+public class BatchPaymentRequest {
+
+    @NotEmpty(message = "operations are required")
+    private List<BatchOperationRequest> operations;
+
+    public List<BatchOperationRequest> getOperations() {
+        return operations;
+    }
+
+    public void setOperations(List<BatchOperationRequest> operations) {
+        this.operations = operations;
+    }
+}
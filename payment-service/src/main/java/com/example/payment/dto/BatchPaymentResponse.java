@@ -0,0 +1,40 @@
+package com.example.payment.dto;
+
+import java.util.List;
+
+public class BatchPaymentResponse {
+
+    private final int total;
+    private final int succeeded;
+    private final int failed;
+    private final String correlationId;
+    private final List<BatchItemResult> results;
+
+    public BatchPaymentResponse(List<BatchItemResult> results, String correlationId) {
+        this.total = results.size();
+        this.succeeded = (int) results.stream().filter(result -> result.getError() == null).count();
+        this.failed = total - succeeded;
+        this.correlationId = correlationId;
+        this.results = results;
+    }
+
+    public int getTotal() {
+        return total;
+    }
+
+    public int getSucceeded() {
+        return succeeded;
+    }
+
+    public int getFailed() {
+        return failed;
+    }
+
+    public String getCorrelationId() {
+        return correlationId;
+    }
+
+    public List<BatchItemResult> getResults() {
+        return results;
+    }
+}
@@ -0,0 +1,47 @@
+package com.example.payment.model;
+
+import java.util.Currency;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A validated ISO-4217 currency code. Instances are cached, so each code is looked up and upper-cased once
+ * per process rather than once per request. Only valid codes are cached, which bounds the cache.
+ */
+public final class CurrencyUnit {
+
+    private static final Map<String, CurrencyUnit> CACHE = new ConcurrentHashMap<>();
+
+    private final String code;
+
+    private CurrencyUnit(String code) {
+        this.code = code;
+    }
+
+    /**
+     * @throws IllegalArgumentException if {@code code} is not an ISO-4217 currency code
+     */
+    public static CurrencyUnit of(String code) {
+        CurrencyUnit cached = CACHE.get(code);
+        if (cached != null) {
+            return cached;
+        }
+        String normalized = code.trim().toUpperCase(Locale.ROOT);
+        CurrencyUnit unit = CACHE.computeIfAbsent(normalized, key -> new CurrencyUnit(Currency.getInstance(key).getCurrencyCode()));
+        // Also remember the caller's spelling ("usd", " USD") so the next lookup is a single map hit.
+        if (!normalized.equals(code) && CACHE.size() < 4096) {
+            CACHE.putIfAbsent(code, unit);
+        }
+        return unit;
+    }
+
+    public String code() {
+        return code;
+    }
+
+    @Override
+    public String toString() {
+        return code;
+    }
+}
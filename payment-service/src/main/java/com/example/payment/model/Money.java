@@ -0,0 +1,92 @@
+package com.example.payment.model;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * An amount in hundredths of a currency unit. Payments are validated, compared and summed as {@code long}s;
+ * {@link BigDecimal} only appears where amounts enter or leave the service (JSON and the NUMERIC(19, 2) column).
+ */
+public final class Money implements Comparable<Money> {
+
+    public static final int SCALE = 2;
+
+    private final long minorUnits;
+    private final CurrencyUnit currency;
+
+    private Money(long minorUnits, CurrencyUnit currency) {
+        this.minorUnits = minorUnits;
+        this.currency = currency;
+    }
+
+    public static Money ofMinor(long minorUnits, CurrencyUnit currency) {
+        return new Money(minorUnits, currency);
+    }
+
+    /**
+     * Rounds half-up to {@link #SCALE} places.
+     *
+     * @throws ArithmeticException if the amount does not fit in a {@code long} of minor units
+     */
+    public static Money of(BigDecimal amount, CurrencyUnit currency) {
+        BigDecimal scaled = amount.scale() == SCALE ? amount : amount.setScale(SCALE, RoundingMode.HALF_UP);
+        return new Money(scaled.unscaledValue().longValueExact(), currency);
+    }
+
+    public long minorUnits() {
+        return minorUnits;
+    }
+
+    public CurrencyUnit currency() {
+        return currency;
+    }
+
+    public boolean isPositive() {
+        return minorUnits > 0;
+    }
+
+    public Money plus(Money other) {
+        requireSameCurrency(other);
+        return new Money(Math.addExact(minorUnits, other.minorUnits), currency);
+    }
+
+    public Money minus(Money other) {
+        requireSameCurrency(other);
+        return new Money(Math.subtractExact(minorUnits, other.minorUnits), currency);
+    }
+
+    public boolean sameCurrency(Money other) {
+        return currency == other.currency;
+    }
+
+    public BigDecimal toBigDecimal() {
+        return BigDecimal.valueOf(minorUnits, SCALE);
+    }
+
+    @Override
+    public int compareTo(Money other) {
+        requireSameCurrency(other);
+        return Long.compare(minorUnits, other.minorUnits);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof Money other && minorUnits == other.minorUnits && currency == other.currency;
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * Long.hashCode(minorUnits) + currency.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return toBigDecimal().toPlainString() + " " + currency.code();
+    }
+
+    private void requireSameCurrency(Money other) {
+        if (currency != other.currency) {
+            throw new IllegalArgumentException("Currency mismatch: " + currency + " vs " + other.currency);
+        }
+    }
+}
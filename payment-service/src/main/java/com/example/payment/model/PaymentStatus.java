@@ -1,6 +1,7 @@
 package com.example.payment.model;
 
 public enum PaymentStatus {
+    PENDING,
     PAID,
     REFUNDED,
     FAILED
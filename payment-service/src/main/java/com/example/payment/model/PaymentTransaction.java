@@ -11,14 +11,16 @@ import java.util.UUID;
         name = "payment_transactions",
         indexes = {
                 @Index(name = "idx_payment_order_created", columnList = "order_id, created_at"),
+                @Index(name = "idx_payment_created", columnList = "created_at"),
                 @Index(name = "idx_payment_idempotency", columnList = "idempotency_key", unique = true),
-                @Index(name = "idx_payment_refund_lookup", columnList = "reference_payment_id, status")
+                @Index(name = "idx_payment_refund_lookup", columnList = "reference_payment_id, status"),
+                @Index(name = "idx_payment_status_updated", columnList = "status, updated_at")
         }
 )
 public class PaymentTransaction {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.AUTO)
+    @UuidV7Id
     private UUID id;
 
     @Column(name = "order_id", nullable = false)
@@ -56,6 +58,12 @@ public class PaymentTransaction {
     @Column(name = "failure_reason", length = 500)
     private String failureReason;
 
+    /**
+     * On PAY rows: refunds that succeeded or are still with the provider. Only changed by guarded updates.
+     */
+    @Column(name = "refunded_total", nullable = false, precision = 19, scale = 2)
+    private BigDecimal refundedTotal = BigDecimal.ZERO;
+
     @Column(name = "created_at", nullable = false)
     private Instant createdAt;
 
@@ -106,6 +114,13 @@ public class PaymentTransaction {
         this.amount = amount;
     }
 
+    /**
+     * The amount as {@link Money}, for validation and comparison.
+     */
+    public Money toMoney() {
+        return Money.of(amount, CurrencyUnit.of(currency));
+    }
+
     public String getCurrency() {
         return currency;
     }
@@ -170,6 +185,10 @@ public class PaymentTransaction {
         this.failureReason = failureReason;
     }
 
+    public BigDecimal getRefundedTotal() {
+        return refundedTotal;
+    }
+
     public Instant getCreatedAt() {
         return createdAt;
     }
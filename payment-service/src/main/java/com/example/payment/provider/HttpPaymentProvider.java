@@ -0,0 +1,138 @@
+package com.example.payment.provider;
+
+import com.example.payment.config.CorrelationIdFilter;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.ConnectException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpConnectTimeoutException;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * Remote provider over HTTP. One {@link HttpClient} per provider keeps a pool of keep-alive connections and
+ * sends asynchronously, so waiting for the provider does not hold a request thread per call.
+ * Expects {@code POST {base-url}/authorize} and {@code /refund} to answer with a {@link ProviderResult} body;
+ * a 402 carries a decline. {@code GET {base-url}/transactions/{idempotency-key}} answers the same way for an
+ * earlier call, or 404 if the provider never saw it.
+ */
+@Component
+@ConditionalOnProperty(value = "payment.provider.type", havingValue = "http")
+public class HttpPaymentProvider implements PaymentProvider {
+
+    private final HttpClient client;
+    private final ObjectMapper objectMapper;
+    private final URI baseUri;
+    private final Duration timeout;
+
+    public HttpPaymentProvider(
+            ObjectMapper objectMapper,
+            @Value("${payment.provider.http.base-url:}") String baseUrl,
+            @Value("${payment.provider.http.connect-timeout-ms:1000}") long connectTimeoutMs,
+            @Value("${payment.provider.http.timeout-ms:5000}") long timeoutMs
+    ) {
+        if (baseUrl == null || baseUrl.isBlank()) {
+            throw new IllegalStateException("payment.provider.http.base-url is required when payment.provider.type=http");
+        }
+        this.objectMapper = objectMapper;
+        this.baseUri = URI.create(baseUrl.endsWith("/") ? baseUrl : baseUrl + "/");
+        this.timeout = Duration.ofMillis(Math.max(timeoutMs, 1));
+        this.client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofMillis(Math.max(connectTimeoutMs, 1)))
+                .build();
+    }
+
+    @Override
+    public String name() {
+        return "http";
+    }
+
+    @Override
+    public CompletableFuture<ProviderResult> authorize(ProviderRequest request) {
+        return post("authorize", request);
+    }
+
+    @Override
+    public CompletableFuture<ProviderResult> refund(ProviderRequest request) {
+        return post("refund", request);
+    }
+
+    @Override
+    public CompletableFuture<Optional<ProviderResult>> lookup(ProviderRequest request) {
+        String key = URLEncoder.encode(request.idempotencyKey(), StandardCharsets.UTF_8).replace("+", "%20");
+        HttpRequest.Builder httpRequest = HttpRequest.newBuilder(baseUri.resolve("transactions/" + key))
+                .timeout(timeout)
+                .GET();
+        if (request.correlationId() != null) {
+            httpRequest.header(CorrelationIdFilter.CORRELATION_ID_HEADER, request.correlationId());
+        }
+
+        return client.sendAsync(httpRequest.build(), HttpResponse.BodyHandlers.ofByteArray())
+                .thenApply(response -> response.statusCode() == 404
+                        ? Optional.<ProviderResult>empty()
+                        : Optional.of(readResult(response)));
+    }
+
+    @Override
+    public Duration timeout() {
+        return timeout;
+    }
+
+    private CompletableFuture<ProviderResult> post(String operation, ProviderRequest request) {
+        byte[] body;
+        try {
+            body = objectMapper.writeValueAsBytes(request);
+        } catch (JsonProcessingException ex) {
+            return CompletableFuture.failedFuture(new ProviderUnavailableException("Cannot encode provider request", ex));
+        }
+
+        HttpRequest.Builder httpRequest = HttpRequest.newBuilder(baseUri.resolve(operation))
+                .timeout(timeout)
+                .header("Content-Type", "application/json")
+                .header("Idempotency-Key", request.idempotencyKey())
+                .POST(HttpRequest.BodyPublishers.ofByteArray(body));
+        if (request.correlationId() != null) {
+            httpRequest.header(CorrelationIdFilter.CORRELATION_ID_HEADER, request.correlationId());
+        }
+
+        return client.sendAsync(httpRequest.build(), HttpResponse.BodyHandlers.ofByteArray())
+                .handle((response, error) -> {
+                    if (error != null) {
+                        Throwable cause = error instanceof CompletionException && error.getCause() != null
+                                ? error.getCause()
+                                : error;
+                        if (cause instanceof ConnectException || cause instanceof HttpConnectTimeoutException) {
+                            throw new ProviderUnavailableException("Payment provider is unreachable", cause);
+                        }
+                        throw new CompletionException(cause);
+                    }
+                    return readResult(response);
+                });
+    }
+
+    private ProviderResult readResult(HttpResponse<byte[]> response) {
+        int status = response.statusCode();
+        if ((status < 200 || status >= 300) && status != 402) {
+            throw new IllegalStateException("Payment provider answered HTTP " + status);
+        }
+        try {
+            return objectMapper.readValue(response.body(), ProviderResult.class);
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Unreadable payment provider response", ex);
+        }
+    }
+}
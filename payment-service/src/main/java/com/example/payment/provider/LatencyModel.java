@@ -0,0 +1,42 @@
+package com.example.payment.provider;
+
+import java.util.Locale;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Response-time distribution for the stub provider. {@code medianMs} is the typical latency; LOG_NORMAL
+ * adds a long right tail controlled by {@code sigma}, which is what real provider latencies look like.
+ */
+public record LatencyModel(Distribution distribution, double medianMs, double sigma, long maxMs) {
+
+    public enum Distribution {
+        FIXED,
+        UNIFORM,
+        LOG_NORMAL;
+
+        public static Distribution parse(String value) {
+            try {
+                return valueOf(value.trim().toUpperCase(Locale.ROOT).replace('-', '_'));
+            } catch (IllegalArgumentException ex) {
+                throw new IllegalArgumentException("Unknown latency distribution: " + value, ex);
+            }
+        }
+    }
+
+    public static LatencyModel fixed(long latencyMs) {
+        return new LatencyModel(Distribution.FIXED, latencyMs, 0.0, 0);
+    }
+
+    public long sampleMs() {
+        if (medianMs <= 0) {
+            return 0;
+        }
+        double sample = switch (distribution) {
+            case FIXED -> medianMs;
+            case UNIFORM -> ThreadLocalRandom.current().nextDouble(0.0, 2 * medianMs);
+            case LOG_NORMAL -> medianMs * Math.exp(sigma * ThreadLocalRandom.current().nextGaussian());
+        };
+        long millis = Math.round(sample);
+        return maxMs > 0 ? Math.min(millis, maxMs) : millis;
+    }
+}
@@ -0,0 +1,32 @@
+package com.example.payment.provider;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * A payment provider behind a non-blocking contract: calls return at once and complete when the provider
+ * answers, so one thread can keep many calls in flight.
+ * <p>
+ * A call that fails with {@link ProviderUnavailableException} never reached the provider. Any other failure,
+ * including a timeout, leaves the outcome unknown.
+ */
+public interface PaymentProvider {
+
+    String name();
+
+    CompletableFuture<ProviderResult> authorize(ProviderRequest request);
+
+    CompletableFuture<ProviderResult> refund(ProviderRequest request);
+
+    /**
+     * Asks the provider how an earlier authorize or refund with the same idempotency key ended. Completes
+     * empty when the provider has no record of it, and fails when the outcome still cannot be told.
+     */
+    CompletableFuture<Optional<ProviderResult>> lookup(ProviderRequest request);
+
+    /**
+     * How long the service waits for an answer from this provider.
+     */
+    Duration timeout();
+}
@@ -0,0 +1,29 @@
+package com.example.payment.provider;
+
+import com.example.payment.model.PaymentTransaction;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+public record ProviderRequest(
+        UUID attemptId,
+        UUID orderId,
+        UUID referencePaymentId,
+        BigDecimal amount,
+        String currency,
+        String idempotencyKey,
+        String correlationId
+) {
+
+    public static ProviderRequest from(PaymentTransaction attempt) {
+        return new ProviderRequest(
+                attempt.getId(),
+                attempt.getOrderId(),
+                attempt.getReferencePaymentId(),
+                attempt.getAmount(),
+                attempt.getCurrency(),
+                attempt.getIdempotencyKey(),
+                attempt.getCorrelationId()
+        );
+    }
+}
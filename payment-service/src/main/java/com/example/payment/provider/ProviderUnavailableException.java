@@ -0,0 +1,11 @@
+package com.example.payment.provider;
+
+/**
+ * The request was not delivered to the provider, so the attempt can safely be retried from scratch.
+ */
+public class ProviderUnavailableException extends RuntimeException {
+
+    public ProviderUnavailableException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
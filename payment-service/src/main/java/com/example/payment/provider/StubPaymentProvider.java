@@ -0,0 +1,98 @@
+package com.example.payment.provider;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * In-process provider for local runs and load tests: declines with a fixed probability and answers after a
+ * latency drawn from a {@link LatencyModel}. Waiting costs no thread; answers are completed from the JDK's
+ * shared delay scheduler.
+ */
+@Component
+@ConditionalOnProperty(value = "payment.provider.type", havingValue = "stub", matchIfMissing = true)
+public class StubPaymentProvider implements PaymentProvider {
+
+    private static final Executor COMPLETE_ON_TIMER = Runnable::run;
+
+    private final double failureProbability;
+    private final LatencyModel latency;
+    private final Duration timeout;
+
+    @Autowired
+    public StubPaymentProvider(
+            @Value("${payment.failure.probability:0.0}") double failureProbability,
+            @Value("${payment.provider.stub.latency-distribution:fixed}") String distribution,
+            @Value("${payment.delay.ms:200}") long medianMs,
+            @Value("${payment.provider.stub.latency-sigma:0.6}") double sigma,
+            @Value("${payment.provider.stub.latency-max-ms:10000}") long maxMs,
+            @Value("${payment.provider.stub.timeout-ms:5000}") long timeoutMs
+    ) {
+        this(
+                failureProbability,
+                new LatencyModel(LatencyModel.Distribution.parse(distribution), Math.max(medianMs, 0), sigma, maxMs),
+                Duration.ofMillis(Math.max(timeoutMs, 1))
+        );
+    }
+
+    public StubPaymentProvider(double failureProbability, LatencyModel latency, Duration timeout) {
+        this.failureProbability = Math.max(0.0, Math.min(1.0, failureProbability));
+        this.latency = latency;
+        this.timeout = timeout;
+    }
+
+    @Override
+    public String name() {
+        return "stub";
+    }
+
+    @Override
+    public CompletableFuture<ProviderResult> authorize(ProviderRequest request) {
+        return answer("pay", "Provider rejected transaction");
+    }
+
+    @Override
+    public CompletableFuture<ProviderResult> refund(ProviderRequest request) {
+        return answer("refund", "Provider rejected refund");
+    }
+
+    /**
+     * Keeps no record and charges nothing, so an attempt it never answered simply did not happen.
+     */
+    @Override
+    public CompletableFuture<Optional<ProviderResult>> lookup(ProviderRequest request) {
+        return CompletableFuture.completedFuture(Optional.empty());
+    }
+
+    @Override
+    public Duration timeout() {
+        return timeout;
+    }
+
+    private CompletableFuture<ProviderResult> answer(String refPrefix, String declineReason) {
+        long delayMs = latency.sampleMs();
+        if (delayMs <= 0) {
+            return CompletableFuture.completedFuture(decide(refPrefix, declineReason));
+        }
+        return CompletableFuture.supplyAsync(
+                () -> decide(refPrefix, declineReason),
+                CompletableFuture.delayedExecutor(delayMs, TimeUnit.MILLISECONDS, COMPLETE_ON_TIMER)
+        );
+    }
+
+    private ProviderResult decide(String refPrefix, String declineReason) {
+        if (ThreadLocalRandom.current().nextDouble(0.0, 1.0) < failureProbability) {
+            return ProviderResult.declined(declineReason);
+        }
+        return ProviderResult.approved(refPrefix + "-" + UUID.randomUUID());
+    }
+}
@@ -8,24 +8,85 @@ import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
 import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.UUID;
 
 public interface PaymentTransactionRepository extends JpaRepository<PaymentTransaction, UUID> {
     Optional<PaymentTransaction> findByIdempotencyKey(String idempotencyKey);
 
+    List<PaymentTransaction> findByIdempotencyKeyIn(Collection<String> idempotencyKeys);
+
+    /**
+     * Inserts the attempt unless its idempotency key is taken and returns whichever row now owns the key,
+     * in one statement. A conflict does not raise an error, so the surrounding transaction stays usable.
+     * Empty only when the owning row was committed after this statement's snapshot was taken.
+     */
+    default Optional<PaymentTransaction> insertOrFindByIdempotencyKey(UUID id, PaymentTransaction attempt, Instant now) {
+        return insertOrFindByIdempotencyKey(
+                id,
+                attempt.getOrderId(),
+                Objects.toString(attempt.getUserId(), null),
+                attempt.getAmount(),
+                attempt.getCurrency(),
+                attempt.getOperationType().name(),
+                attempt.getStatus().name(),
+                Objects.toString(attempt.getReferencePaymentId(), null),
+                attempt.getIdempotencyKey(),
+                attempt.getCorrelationId(),
+                now
+        ).stream().findFirst();
+    }
+
+    // Nullable UUIDs are bound as text so a null parameter still has a type Postgres can cast.
+    @Query(value = """
+            WITH inserted AS (
+                INSERT INTO payment_transactions (
+                    id, order_id, user_id, amount, currency, operation_type, status,
+                    reference_payment_id, idempotency_key, correlation_id, refunded_total, created_at, updated_at
+                )
+                VALUES (
+                    :id, :orderId, CAST(:userId AS uuid), :amount, :currency, :operationType, :status,
+                    CAST(:referencePaymentId AS uuid), :idempotencyKey, :correlationId, 0, :now, :now
+                )
+                ON CONFLICT (idempotency_key) DO NOTHING
+                RETURNING *
+            )
+            SELECT * FROM inserted
+            UNION ALL
+            SELECT p.*
+            FROM payment_transactions p
+            WHERE p.idempotency_key = :idempotencyKey
+              AND NOT EXISTS (SELECT 1 FROM inserted)
+            """, nativeQuery = true)
+    List<PaymentTransaction> insertOrFindByIdempotencyKey(
+            @Param("id") UUID id,
+            @Param("orderId") UUID orderId,
+            @Param("userId") String userId,
+            @Param("amount") BigDecimal amount,
+            @Param("currency") String currency,
+            @Param("operationType") String operationType,
+            @Param("status") String status,
+            @Param("referencePaymentId") String referencePaymentId,
+            @Param("idempotencyKey") String idempotencyKey,
+            @Param("correlationId") String correlationId,
+            @Param("now") Instant now
+    );
+
     List<PaymentTransaction> findByOrderIdOrderByCreatedAtDesc(UUID orderId);
 
     @Lock(LockModeType.PESSIMISTIC_WRITE)
     @Query("SELECT p FROM PaymentTransaction p WHERE p.id = :id")
     Optional<PaymentTransaction> findByIdForUpdate(@Param("id") UUID id);
 
-    @Lock(LockModeType.PESSIMISTIC_WRITE)
     @Query("""
             SELECT p
             FROM PaymentTransaction p
@@ -34,15 +95,15 @@ public interface PaymentTransactionRepository extends JpaRepository<PaymentTrans
               AND p.status = :status
             ORDER BY p.createdAt DESC
             """)
-    List<PaymentTransaction> findByOrderIdAndOperationTypeAndStatusForUpdate(
+    List<PaymentTransaction> findByOrderIdAndOperationTypeAndStatus(
             @Param("orderId") UUID orderId,
             @Param("operationType") PaymentOperationType operationType,
             @Param("status") PaymentStatus status,
             Pageable pageable
     );
 
-    default Optional<PaymentTransaction> findLatestPaidByOrderIdForUpdate(UUID orderId) {
-        return findByOrderIdAndOperationTypeAndStatusForUpdate(
+    default Optional<PaymentTransaction> findLatestPaidByOrderId(UUID orderId) {
+        return findByOrderIdAndOperationTypeAndStatus(
                 orderId,
                 PaymentOperationType.PAY,
                 PaymentStatus.PAID,
@@ -50,16 +111,43 @@ public interface PaymentTransactionRepository extends JpaRepository<PaymentTrans
         ).stream().findFirst();
     }
 
+    /**
+     * Adds a refund to the payment's running total only if it stays within the captured amount.
+     * Returns 0 when the refund would exceed it or the payment is not PAID.
+     */
+    @Modifying
     @Query("""
-            SELECT COALESCE(SUM(p.amount), 0)
+            UPDATE PaymentTransaction p
+            SET p.refundedTotal = p.refundedTotal + :amount
+            WHERE p.id = :paymentId
+              AND p.operationType = com.example.payment.model.PaymentOperationType.PAY
+              AND p.status = com.example.payment.model.PaymentStatus.PAID
+              AND p.refundedTotal + :amount <= p.amount
+            """)
+    int addToRefundedTotal(@Param("paymentId") UUID paymentId, @Param("amount") BigDecimal amount);
+
+    /**
+     * Gives back the amount of a refund that failed or never reached the provider.
+     */
+    @Modifying
+    @Query("""
+            UPDATE PaymentTransaction p
+            SET p.refundedTotal = p.refundedTotal - :amount
+            WHERE p.id = :paymentId
+              AND p.refundedTotal >= :amount
+            """)
+    int subtractFromRefundedTotal(@Param("paymentId") UUID paymentId, @Param("amount") BigDecimal amount);
+
+    @Query("""
+            SELECT p
             FROM PaymentTransaction p
-            WHERE p.referencePaymentId = :paymentId
-              AND p.operationType = com.example.payment.model.PaymentOperationType.REFUND
-              AND p.status = com.example.payment.model.PaymentStatus.REFUNDED
-              AND p.idempotencyKey <> :idempotencyKey
+            WHERE p.status = :status
+              AND p.updatedAt < :updatedBefore
+            ORDER BY p.updatedAt
             """)
-    BigDecimal sumRefundedAmountByReferencePaymentIdExcludingIdempotencyKey(
-            @Param("paymentId") UUID paymentId,
-            @Param("idempotencyKey") String idempotencyKey
+    List<PaymentTransaction> findByStatusUpdatedBefore(
+            @Param("status") PaymentStatus status,
+            @Param("updatedBefore") Instant updatedBefore,
+            Pageable pageable
     );
 }
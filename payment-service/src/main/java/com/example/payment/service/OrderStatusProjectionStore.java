@@ -0,0 +1,75 @@
+package com.example.payment.service;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Writes the per-order status projection. A row only moves forward in event time, so a late or
+ * redelivered event never overwrites a newer one.
+ */
+@Component
+public class OrderStatusProjectionStore {
+
+    private static final String UPSERT_SQL = """
+            INSERT INTO order_status_projection (
+                order_id, user_id, order_status, last_event_type, total_amount, failure_reason, occurred_at, updated_at
+            )
+            VALUES (?, ?, ?, ?, ?, ?, ?, ?)
+            ON CONFLICT (order_id) DO UPDATE
+            SET user_id = COALESCE(EXCLUDED.user_id, order_status_projection.user_id),
+                order_status = EXCLUDED.order_status,
+                last_event_type = EXCLUDED.last_event_type,
+                total_amount = COALESCE(EXCLUDED.total_amount, order_status_projection.total_amount),
+                failure_reason = EXCLUDED.failure_reason,
+                occurred_at = EXCLUDED.occurred_at,
+                updated_at = EXCLUDED.updated_at
+            WHERE order_status_projection.occurred_at <= EXCLUDED.occurred_at
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public OrderStatusProjectionStore(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Applies one batch with a single JDBC batch; expects at most one update per order.
+     */
+    @Transactional
+    public void apply(List<OrderStatusUpdate> updates) {
+        Timestamp now = Timestamp.from(Instant.now());
+        List<Object[]> rows = new ArrayList<>(updates.size());
+        for (OrderStatusUpdate update : updates) {
+            rows.add(new Object[]{
+                    update.orderId(),
+                    update.userId(),
+                    update.orderStatus(),
+                    update.eventType(),
+                    update.totalAmount(),
+                    update.failureReason(),
+                    Timestamp.from(update.occurredAt()),
+                    now
+            });
+        }
+        jdbcTemplate.batchUpdate(UPSERT_SQL, rows);
+    }
+
+    public record OrderStatusUpdate(
+            UUID orderId,
+            UUID userId,
+            String orderStatus,
+            String eventType,
+            BigDecimal totalAmount,
+            String failureReason,
+            Instant occurredAt
+    ) {
+    }
+}
@@ -0,0 +1,159 @@
+package com.example.payment.service;
+
+import com.example.payment.dto.RefundRequest;
+import com.example.payment.model.PaymentOperationType;
+import com.example.payment.model.PaymentStatus;
+import com.example.payment.model.PaymentTransaction;
+import com.example.payment.repository.PaymentTransactionRepository;
+import com.example.payment.util.UuidV7;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * The short transactions around a provider call: record a PENDING attempt, then complete or release it.
+ * Nothing here waits on the provider, so no connection or row lock is held across provider latency.
+ */
+@Component
+public class PaymentAttemptStore {
+
+    private final PaymentTransactionRepository repository;
+
+    public PaymentAttemptStore(PaymentTransactionRepository repository) {
+        this.repository = repository;
+    }
+
+    public Optional<PaymentTransaction> findByIdempotencyKey(String idempotencyKey) {
+        return repository.findByIdempotencyKey(idempotencyKey);
+    }
+
+    @Transactional
+    public PersistResult insertPending(PaymentTransaction attempt) {
+        attempt.setStatus(PaymentStatus.PENDING);
+        return insertFirstOrReplay(attempt);
+    }
+
+    /**
+     * Records a refund as PENDING and reserves its amount on the payment's running refund total with one
+     * guarded update, so neither an aggregate over earlier refunds nor a long row lock is needed.
+     * A refund that would exceed the captured amount rolls back together with its PENDING row.
+     */
+    @Transactional
+    public RefundReservation reserveRefund(PaymentTransaction attempt, RefundRequest request) {
+        PaymentTransaction paidTransaction = findReferencePayment(request);
+        assertTransitionFromPayToRefund(paidTransaction, request.getOrderId());
+        assertCurrencyMatches(attempt, paidTransaction);
+
+        attempt.setUserId(paidTransaction.getUserId());
+        attempt.setReferencePaymentId(paidTransaction.getId());
+        attempt.setStatus(PaymentStatus.PENDING);
+        PersistResult persisted = insertFirstOrReplay(attempt);
+        if (!persisted.replay()
+                && repository.addToRefundedTotal(paidTransaction.getId(), persisted.transaction().getAmount()) == 0) {
+            throw new PaymentException(409, "REFUND_EXCEEDS_CAPTURED_AMOUNT", "Refund amount exceeds captured payment");
+        }
+        return new RefundReservation(paidTransaction, persisted);
+    }
+
+    /**
+     * Records the provider outcome. If recovery already resolved the attempt, its state is returned unchanged.
+     */
+    @Transactional
+    public PaymentTransaction complete(UUID attemptId, boolean approved, String providerRef, String failureReason) {
+        PaymentTransaction transaction = repository.findByIdForUpdate(attemptId)
+                .orElseThrow(() -> new IllegalStateException("Payment attempt " + attemptId + " disappeared"));
+        if (transaction.getStatus() != PaymentStatus.PENDING) {
+            return transaction;
+        }
+
+        if (approved) {
+            transaction.setStatus(transaction.getOperationType() == PaymentOperationType.PAY
+                    ? PaymentStatus.PAID
+                    : PaymentStatus.REFUNDED);
+            transaction.setProviderRef(providerRef);
+            transaction.setFailureReason(null);
+        } else {
+            transaction.setStatus(PaymentStatus.FAILED);
+            transaction.setFailureReason(failureReason);
+            returnReservedRefund(transaction);
+        }
+        return repository.saveAndFlush(transaction);
+    }
+
+    /**
+     * Drops an attempt whose provider call errored before any outcome, so a retry with the same key starts over.
+     */
+    @Transactional
+    public void release(UUID attemptId) {
+        repository.findByIdForUpdate(attemptId)
+                .filter(transaction -> transaction.getStatus() == PaymentStatus.PENDING)
+                .ifPresent(transaction -> {
+                    returnReservedRefund(transaction);
+                    repository.delete(transaction);
+                });
+    }
+
+    /**
+     * Attempts still PENDING since before {@code updatedBefore}, oldest first. Nothing is locked; each one is
+     * settled through {@link #complete}, which skips attempts that finished meanwhile.
+     */
+    public List<PaymentTransaction> findStalePending(Instant updatedBefore, int limit) {
+        return repository.findByStatusUpdatedBefore(PaymentStatus.PENDING, updatedBefore, PageRequest.of(0, limit));
+    }
+
+    private void returnReservedRefund(PaymentTransaction transaction) {
+        if (transaction.getOperationType() == PaymentOperationType.REFUND) {
+            repository.subtractFromRefundedTotal(transaction.getReferencePaymentId(), transaction.getAmount());
+        }
+    }
+
+    private PaymentTransaction findReferencePayment(RefundRequest request) {
+        if (request.getPaymentId() != null) {
+            return repository.findById(request.getPaymentId())
+                    .orElseThrow(() -> new PaymentException(404, "PAYMENT_NOT_FOUND", "Paid transaction not found"));
+        }
+
+        return repository.findLatestPaidByOrderId(request.getOrderId())
+                .orElseThrow(() -> new PaymentException(404, "PAYMENT_NOT_FOUND", "Paid transaction not found"));
+    }
+
+    /**
+     * One round trip for both a first write and a replay; the follow-up select only runs when the key
+     * was committed by a concurrent request after the insert statement started.
+     */
+    private PersistResult insertFirstOrReplay(PaymentTransaction transaction) {
+        UUID id = UuidV7.next();
+        PaymentTransaction stored = repository.insertOrFindByIdempotencyKey(id, transaction, Instant.now())
+                .or(() -> repository.findByIdempotencyKey(transaction.getIdempotencyKey()))
+                .orElseThrow(() -> new IllegalStateException(
+                        "Idempotency key " + transaction.getIdempotencyKey() + " neither inserted nor found"));
+        return new PersistResult(stored, !id.equals(stored.getId()));
+    }
+
+    void assertTransitionFromPayToRefund(PaymentTransaction payment, UUID orderId) {
+        if (!Objects.equals(payment.getOrderId(), orderId)) {
+            throw new PaymentException(409, "PAYMENT_ORDER_MISMATCH", "Payment does not belong to this order");
+        }
+        if (payment.getOperationType() != PaymentOperationType.PAY || payment.getStatus() != PaymentStatus.PAID) {
+            throw new PaymentException(409, "INVALID_PAYMENT_STATE", "Only PAID transactions can be refunded");
+        }
+    }
+
+    void assertCurrencyMatches(PaymentTransaction refund, PaymentTransaction payment) {
+        if (!refund.toMoney().sameCurrency(payment.toMoney())) {
+            throw new PaymentException(409, "REFUND_CURRENCY_MISMATCH", "Refund currency does not match payment currency");
+        }
+    }
+
+    public record PersistResult(PaymentTransaction transaction, boolean replay) {
+    }
+
+    public record RefundReservation(PaymentTransaction referencePayment, PersistResult persisted) {
+    }
+}
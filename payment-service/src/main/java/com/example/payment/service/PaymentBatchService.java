@@ -0,0 +1,264 @@
+package com.example.payment.service;
+
+import com.example.payment.dto.BatchItemResult;
+import com.example.payment.dto.BatchOperationRequest;
+import com.example.payment.dto.BatchPaymentRequest;
+import com.example.payment.dto.BatchPaymentResponse;
+import com.example.payment.dto.PayRequest;
+import com.example.payment.dto.PaymentResponse;
+import com.example.payment.dto.RefundRequest;
+import com.example.payment.dto.ServiceError;
+import com.example.payment.model.Money;
+import com.example.payment.model.PaymentOperationType;
+import com.example.payment.model.PaymentStatus;
+import com.example.payment.model.PaymentTransaction;
+import com.example.payment.provider.ProviderResult;
+import com.example.payment.util.StructuredLogger;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+/**
+ * Runs many pay/refund operations in chunks of consecutive same-type items. Each chunk costs a handful of
+ * batched statements and one concurrent wave of provider calls; every item keeps its own idempotency key
+ * and result.
+ */
+@Service
+public class PaymentBatchService {
+
+    private final PaymentService paymentService;
+    private final PaymentBatchStore batchStore;
+    private final Validator validator;
+    private final StructuredLogger structuredLogger;
+    private final int maxOperations;
+    private final int chunkSize;
+
+    public PaymentBatchService(
+            PaymentService paymentService,
+            PaymentBatchStore batchStore,
+            Validator validator,
+            StructuredLogger structuredLogger,
+            @Value("${payment.batch.max-operations:1000}") int maxOperations,
+            @Value("${payment.batch.chunk-size:100}") int chunkSize
+    ) {
+        this.paymentService = paymentService;
+        this.batchStore = batchStore;
+        this.validator = validator;
+        this.structuredLogger = structuredLogger;
+        this.maxOperations = Math.max(maxOperations, 1);
+        this.chunkSize = Math.max(chunkSize, 1);
+    }
+
+    public BatchPaymentResponse process(BatchPaymentRequest request, String correlationId) {
+        String batchCorrelationId = paymentService.normalizeCorrelationId(correlationId);
+        List<BatchOperationRequest> operations = request.getOperations();
+        if (operations.size() > maxOperations) {
+            throw new PaymentException(400, "BATCH_TOO_LARGE", "Batch exceeds " + maxOperations + " operations");
+        }
+
+        BatchItemResult[] results = new BatchItemResult[operations.size()];
+        Set<String> seenKeys = new HashSet<>();
+        List<Item> chunk = new ArrayList<>();
+        for (int i = 0; i < operations.size(); i++) {
+            Item item;
+            try {
+                item = prepare(i, operations.get(i), seenKeys, batchCorrelationId);
+            } catch (PaymentException ex) {
+                results[i] = failure(i, ex);
+                continue;
+            }
+            if (!chunk.isEmpty() && (chunk.size() == chunkSize || chunk.get(0).operation() != item.operation())) {
+                runChunk(chunk, results, batchCorrelationId);
+                chunk = new ArrayList<>();
+            }
+            chunk.add(item);
+        }
+        if (!chunk.isEmpty()) {
+            runChunk(chunk, results, batchCorrelationId);
+        }
+
+        BatchPaymentResponse response = new BatchPaymentResponse(Arrays.asList(results), batchCorrelationId);
+        structuredLogger.info("payment.batch.completed", Map.of(
+                "total", response.getTotal(),
+                "succeeded", response.getSucceeded(),
+                "failed", response.getFailed(),
+                "correlation_id", batchCorrelationId
+        ));
+        return response;
+    }
+
+    private Item prepare(int index, BatchOperationRequest operation, Set<String> seenKeys, String correlationId) {
+        if (operation == null || operation.getOperation() == null) {
+            throw new PaymentException(400, "INVALID_REQUEST", "operation is required");
+        }
+        String idempotencyKey = paymentService.normalizeIdempotencyKey(null, operation.getIdempotencyKey());
+        if (!seenKeys.add(idempotencyKey)) {
+            throw new PaymentException(409, "DUPLICATE_IDEMPOTENCY_KEY", "Idempotency key appears more than once in the batch");
+        }
+
+        if (operation.getOperation() == PaymentOperationType.PAY) {
+            PayRequest pay = validated(operation.toPayRequest());
+            Money amount = paymentService.normalizeMoney(pay.getAmount(), pay.getCurrency());
+            return new Item(index, PaymentOperationType.PAY, pay, null, amount,
+                    paymentService.buildPayAttempt(pay, amount, idempotencyKey, correlationId));
+        }
+
+        RefundRequest refund = validated(operation.toRefundRequest());
+        Money amount = paymentService.normalizeMoney(refund.getAmount(), refund.getCurrency());
+        return new Item(index, PaymentOperationType.REFUND, null, refund, amount,
+                paymentService.buildRefundAttempt(refund, amount, idempotencyKey, correlationId));
+    }
+
+    private <T> T validated(T request) {
+        validator.validate(request).stream()
+                .min(Comparator.comparing(violation -> violation.getPropertyPath().toString()))
+                .map(ConstraintViolation::getMessage)
+                .ifPresent(message -> {
+                    throw new PaymentException(400, "INVALID_REQUEST", message);
+                });
+        return request;
+    }
+
+    private void runChunk(List<Item> chunk, BatchItemResult[] results, String correlationId) {
+        List<PaymentTransaction> attempts = chunk.stream().map(Item::attempt).toList();
+        List<Item> fresh = new ArrayList<>();
+        List<PaymentTransaction> freshRows = new ArrayList<>();
+
+        if (chunk.get(0).operation() == PaymentOperationType.PAY) {
+            List<PaymentAttemptStore.PersistResult> persisted = batchStore.insertPending(attempts);
+            for (int i = 0; i < chunk.size(); i++) {
+                Item item = chunk.get(i);
+                PaymentAttemptStore.PersistResult result = persisted.get(i);
+                if (result.replay()) {
+                    results[item.index()] = replay(item, () -> paymentService.replayPay(
+                            result.transaction(), item.pay(), item.amount(), correlationId));
+                } else {
+                    fresh.add(item);
+                    freshRows.add(result.transaction());
+                }
+            }
+        } else {
+            List<PaymentBatchStore.RefundSlot> slots = batchStore.reserveRefunds(
+                    attempts,
+                    chunk.stream().map(Item::refund).toList()
+            );
+            for (int i = 0; i < chunk.size(); i++) {
+                Item item = chunk.get(i);
+                PaymentBatchStore.RefundSlot slot = slots.get(i);
+                if (slot.error() != null) {
+                    results[item.index()] = failure(item.index(), slot.error());
+                    continue;
+                }
+                PaymentAttemptStore.PersistResult result = slot.reservation().persisted();
+                if (result.replay()) {
+                    results[item.index()] = replay(item, () -> {
+                        paymentService.validateRefundReplay(result.transaction(), item.refund(), item.amount());
+                        return paymentService.replayRefund(result.transaction(), correlationId);
+                    });
+                } else {
+                    fresh.add(item);
+                    freshRows.add(result.transaction());
+                }
+            }
+        }
+
+        if (!fresh.isEmpty()) {
+            settle(fresh, freshRows, results, correlationId);
+        }
+    }
+
+    /**
+     * Chaos applies once per chunk; the provider calls themselves are all put in flight before any is awaited.
+     */
+    private void settle(List<Item> items, List<PaymentTransaction> rows, BatchItemResult[] results, String correlationId) {
+        PaymentOperationType operation = items.get(0).operation();
+        try {
+            paymentService.maybeInjectChaos(operation == PaymentOperationType.PAY ? "pay" : "refund", correlationId);
+        } catch (RuntimeException ex) {
+            batchStore.release(rows);
+            for (Item item : items) {
+                results[item.index()] = failure(item.index(), ex);
+            }
+            return;
+        }
+
+        List<CompletableFuture<ProviderResult>> calls = rows.stream().map(paymentService::submitToProvider).toList();
+
+        List<Item> answered = new ArrayList<>();
+        List<PaymentBatchStore.Outcome> outcomes = new ArrayList<>();
+        List<PaymentTransaction> undelivered = new ArrayList<>();
+        for (int i = 0; i < rows.size(); i++) {
+            Item item = items.get(i);
+            try {
+                ProviderResult result = paymentService.awaitProvider(calls.get(i), rows.get(i), correlationId);
+                answered.add(item);
+                outcomes.add(new PaymentBatchStore.Outcome(rows.get(i), result.approved(), result.providerRef(), result.failureReason()));
+            } catch (PaymentException ex) {
+                // Unknown outcomes stay PENDING for recovery, as on the single-operation path.
+                if (PaymentService.neverReachedProvider(ex)) {
+                    undelivered.add(rows.get(i));
+                }
+                results[item.index()] = failure(item.index(), ex);
+            }
+        }
+        if (!undelivered.isEmpty()) {
+            batchStore.release(undelivered);
+        }
+        if (outcomes.isEmpty()) {
+            return;
+        }
+
+        List<PaymentTransaction> completed = batchStore.complete(outcomes);
+        for (int i = 0; i < answered.size(); i++) {
+            int index = answered.get(i).index();
+            PaymentTransaction transaction = completed.get(i);
+            if (transaction.getStatus() == PaymentStatus.FAILED) {
+                results[index] = operation == PaymentOperationType.PAY
+                        ? BatchItemResult.failure(index, 502, new ServiceError("PAYMENT_DECLINED", "Payment provider rejected transaction"))
+                        : BatchItemResult.failure(index, 502, new ServiceError("REFUND_DECLINED", "Payment provider rejected refund"));
+            } else {
+                results[index] = BatchItemResult.success(index, paymentService.toResponse(transaction, false, correlationId));
+            }
+        }
+    }
+
+    private BatchItemResult replay(Item item, Supplier<PaymentResponse> call) {
+        try {
+            return BatchItemResult.success(item.index(), call.get());
+        } catch (PaymentException ex) {
+            return failure(item.index(), ex);
+        }
+    }
+
+    private static BatchItemResult failure(int index, RuntimeException ex) {
+        if (ex instanceof PaymentException paymentException) {
+            return BatchItemResult.failure(
+                    index,
+                    paymentException.getStatus(),
+                    new ServiceError(paymentException.getCode(), paymentException.getMessage())
+            );
+        }
+        return BatchItemResult.failure(index, 500, new ServiceError("INTERNAL_ERROR", "Internal server error"));
+    }
+
+    private record Item(
+            int index,
+            PaymentOperationType operation,
+            PayRequest pay,
+            RefundRequest refund,
+            Money amount,
+            PaymentTransaction attempt
+    ) {
+    }
+}
@@ -0,0 +1,279 @@
+package com.example.payment.service;
+
+import com.example.payment.dto.RefundRequest;
+import com.example.payment.model.PaymentOperationType;
+import com.example.payment.model.PaymentStatus;
+import com.example.payment.model.PaymentTransaction;
+import com.example.payment.repository.PaymentTransactionRepository;
+import com.example.payment.util.UuidV7;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Batch counterpart of {@link PaymentAttemptStore}: each method is one short transaction over a chunk of
+ * attempts, sending its writes as a single JDBC batch instead of one statement and flush per attempt.
+ */
+@Component
+public class PaymentBatchStore {
+
+    private static final String INSERT_PENDING_SQL = """
+            INSERT INTO payment_transactions (
+                id, order_id, user_id, amount, currency, operation_type, status,
+                reference_payment_id, idempotency_key, correlation_id, refunded_total, created_at, updated_at
+            )
+            VALUES (?, ?, ?, ?, ?, ?, 'PENDING', ?, ?, ?, 0, ?, ?)
+            ON CONFLICT (idempotency_key) DO NOTHING
+            """;
+
+    private static final String COMPLETE_SQL = """
+            UPDATE payment_transactions
+            SET status = ?, provider_ref = ?, failure_reason = ?, updated_at = ?
+            WHERE id = ? AND status = 'PENDING'
+            """;
+
+    private static final String DELETE_PENDING_SQL = """
+            DELETE FROM payment_transactions
+            WHERE id = ? AND status = 'PENDING'
+            """;
+
+    private static final String ADD_TO_REFUNDED_TOTAL_SQL = """
+            UPDATE payment_transactions
+            SET refunded_total = refunded_total + ?
+            WHERE id = ?
+              AND operation_type = 'PAY'
+              AND status = 'PAID'
+              AND refunded_total + ? <= amount
+            """;
+
+    private static final String SUBTRACT_FROM_REFUNDED_TOTAL_SQL = """
+            UPDATE payment_transactions
+            SET refunded_total = refunded_total - ?
+            WHERE id = ? AND refunded_total >= ?
+            """;
+
+    private final PaymentTransactionRepository repository;
+    private final PaymentAttemptStore attemptStore;
+    private final JdbcTemplate jdbcTemplate;
+
+    public PaymentBatchStore(
+            PaymentTransactionRepository repository,
+            PaymentAttemptStore attemptStore,
+            JdbcTemplate jdbcTemplate
+    ) {
+        this.repository = repository;
+        this.attemptStore = attemptStore;
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Records the attempts as PENDING; keys that already exist come back as replays, in input order.
+     */
+    @Transactional
+    public List<PaymentAttemptStore.PersistResult> insertPending(List<PaymentTransaction> attempts) {
+        Instant now = Instant.now();
+        List<UUID> ids = new ArrayList<>(attempts.size());
+        List<Object[]> rows = new ArrayList<>(attempts.size());
+        for (PaymentTransaction attempt : attempts) {
+            UUID id = UuidV7.next();
+            ids.add(id);
+            rows.add(new Object[]{
+                    id,
+                    attempt.getOrderId(),
+                    attempt.getUserId(),
+                    attempt.getAmount(),
+                    attempt.getCurrency(),
+                    attempt.getOperationType().name(),
+                    attempt.getReferencePaymentId(),
+                    attempt.getIdempotencyKey(),
+                    attempt.getCorrelationId(),
+                    Timestamp.from(now),
+                    Timestamp.from(now)
+            });
+        }
+        jdbcTemplate.batchUpdate(INSERT_PENDING_SQL, rows);
+
+        // One read for the whole chunk; a row whose id is not the one generated here was already there.
+        Map<String, PaymentTransaction> stored = repository.findByIdempotencyKeyIn(
+                attempts.stream().map(PaymentTransaction::getIdempotencyKey).toList()
+        ).stream().collect(Collectors.toMap(PaymentTransaction::getIdempotencyKey, Function.identity()));
+
+        List<PaymentAttemptStore.PersistResult> results = new ArrayList<>(attempts.size());
+        for (int i = 0; i < attempts.size(); i++) {
+            String key = attempts.get(i).getIdempotencyKey();
+            PaymentTransaction transaction = stored.get(key);
+            if (transaction == null) {
+                throw new IllegalStateException("Idempotency key " + key + " neither inserted nor found");
+            }
+            results.add(new PaymentAttemptStore.PersistResult(transaction, !ids.get(i).equals(transaction.getId())));
+        }
+        return results;
+    }
+
+    /**
+     * Validates each refund against its payment, records the valid ones as PENDING and reserves their amounts
+     * with one batch of guarded updates. Refunds that would exceed the captured amount are removed again.
+     */
+    @Transactional
+    public List<RefundSlot> reserveRefunds(List<PaymentTransaction> attempts, List<RefundRequest> requests) {
+        Map<UUID, PaymentTransaction> paymentsById = repository.findAllById(
+                requests.stream().map(RefundRequest::getPaymentId).filter(Objects::nonNull).distinct().toList()
+        ).stream().collect(Collectors.toMap(PaymentTransaction::getId, Function.identity()));
+
+        RefundSlot[] slots = new RefundSlot[attempts.size()];
+        List<Integer> valid = new ArrayList<>();
+        List<PaymentTransaction> references = new ArrayList<>();
+        for (int i = 0; i < attempts.size(); i++) {
+            PaymentTransaction attempt = attempts.get(i);
+            RefundRequest request = requests.get(i);
+            try {
+                PaymentTransaction paidTransaction = request.getPaymentId() != null
+                        ? paymentsById.get(request.getPaymentId())
+                        : repository.findLatestPaidByOrderId(request.getOrderId()).orElse(null);
+                if (paidTransaction == null) {
+                    throw new PaymentException(404, "PAYMENT_NOT_FOUND", "Paid transaction not found");
+                }
+                attemptStore.assertTransitionFromPayToRefund(paidTransaction, request.getOrderId());
+                attemptStore.assertCurrencyMatches(attempt, paidTransaction);
+                attempt.setUserId(paidTransaction.getUserId());
+                attempt.setReferencePaymentId(paidTransaction.getId());
+                valid.add(i);
+                references.add(paidTransaction);
+            } catch (PaymentException ex) {
+                slots[i] = RefundSlot.rejected(ex);
+            }
+        }
+        if (valid.isEmpty()) {
+            return List.of(slots);
+        }
+
+        List<PaymentAttemptStore.PersistResult> persisted = insertPending(valid.stream().map(attempts::get).toList());
+
+        List<Integer> fresh = new ArrayList<>();
+        List<Object[]> reservations = new ArrayList<>();
+        for (int v = 0; v < valid.size(); v++) {
+            PaymentAttemptStore.PersistResult result = persisted.get(v);
+            slots[valid.get(v)] = RefundSlot.reserved(new PaymentAttemptStore.RefundReservation(references.get(v), result));
+            if (!result.replay()) {
+                PaymentTransaction transaction = result.transaction();
+                fresh.add(valid.get(v));
+                reservations.add(new Object[]{
+                        transaction.getAmount(),
+                        transaction.getReferencePaymentId(),
+                        transaction.getAmount()
+                });
+            }
+        }
+        if (fresh.isEmpty()) {
+            return List.of(slots);
+        }
+
+        // Guarded updates run in order, so several refunds of one payment in a chunk see each other.
+        int[] reserved = jdbcTemplate.batchUpdate(ADD_TO_REFUNDED_TOTAL_SQL, reservations);
+        List<Object[]> rejected = new ArrayList<>();
+        for (int f = 0; f < fresh.size(); f++) {
+            if (reserved[f] == 0) {
+                int index = fresh.get(f);
+                rejected.add(new Object[]{slots[index].reservation().persisted().transaction().getId()});
+                slots[index] = RefundSlot.rejected(new PaymentException(
+                        409,
+                        "REFUND_EXCEEDS_CAPTURED_AMOUNT",
+                        "Refund amount exceeds captured payment"
+                ));
+            }
+        }
+        if (!rejected.isEmpty()) {
+            jdbcTemplate.batchUpdate(DELETE_PENDING_SQL, rejected);
+        }
+        return List.of(slots);
+    }
+
+    /**
+     * Records provider outcomes and returns the stored rows in input order. Attempts that recovery already
+     * expired keep their recorded state.
+     */
+    @Transactional
+    public List<PaymentTransaction> complete(List<Outcome> outcomes) {
+        Timestamp now = Timestamp.from(Instant.now());
+        List<Object[]> rows = new ArrayList<>(outcomes.size());
+        for (Outcome outcome : outcomes) {
+            PaymentTransaction attempt = outcome.attempt();
+            PaymentStatus status = !outcome.approved()
+                    ? PaymentStatus.FAILED
+                    : attempt.getOperationType() == PaymentOperationType.PAY ? PaymentStatus.PAID : PaymentStatus.REFUNDED;
+            rows.add(new Object[]{
+                    status.name(),
+                    outcome.approved() ? outcome.providerRef() : null,
+                    outcome.approved() ? null : outcome.failureReason(),
+                    now,
+                    attempt.getId()
+            });
+        }
+        int[] updated = jdbcTemplate.batchUpdate(COMPLETE_SQL, rows);
+
+        List<PaymentTransaction> declinedRefunds = new ArrayList<>();
+        for (int i = 0; i < outcomes.size(); i++) {
+            if (updated[i] > 0 && !outcomes.get(i).approved()) {
+                declinedRefunds.add(outcomes.get(i).attempt());
+            }
+        }
+        returnReservedRefunds(declinedRefunds);
+
+        Map<UUID, PaymentTransaction> stored = repository.findAllById(
+                outcomes.stream().map(outcome -> outcome.attempt().getId()).toList()
+        ).stream().collect(Collectors.toMap(PaymentTransaction::getId, Function.identity()));
+        return outcomes.stream().map(outcome -> stored.get(outcome.attempt().getId())).toList();
+    }
+
+    /**
+     * Drops attempts whose provider call errored before any outcome, so their keys can be retried.
+     */
+    @Transactional
+    public void release(List<PaymentTransaction> attempts) {
+        int[] deleted = jdbcTemplate.batchUpdate(
+                DELETE_PENDING_SQL,
+                attempts.stream().map(attempt -> new Object[]{attempt.getId()}).toList()
+        );
+        List<PaymentTransaction> released = new ArrayList<>();
+        for (int i = 0; i < attempts.size(); i++) {
+            if (deleted[i] > 0) {
+                released.add(attempts.get(i));
+            }
+        }
+        returnReservedRefunds(released);
+    }
+
+    private void returnReservedRefunds(List<PaymentTransaction> attempts) {
+        List<Object[]> rows = attempts.stream()
+                .filter(attempt -> attempt.getOperationType() == PaymentOperationType.REFUND)
+                .map(attempt -> new Object[]{attempt.getAmount(), attempt.getReferencePaymentId(), attempt.getAmount()})
+                .toList();
+        if (!rows.isEmpty()) {
+            jdbcTemplate.batchUpdate(SUBTRACT_FROM_REFUNDED_TOTAL_SQL, rows);
+        }
+    }
+
+    public record RefundSlot(PaymentAttemptStore.RefundReservation reservation, PaymentException error) {
+
+        static RefundSlot reserved(PaymentAttemptStore.RefundReservation reservation) {
+            return new RefundSlot(reservation, null);
+        }
+
+        static RefundSlot rejected(PaymentException error) {
+            return new RefundSlot(null, error);
+        }
+    }
+
+    public record Outcome(PaymentTransaction attempt, boolean approved, String providerRef, String failureReason) {
+    }
+}
@@ -0,0 +1,346 @@
+package com.example.payment.service;
+
+import com.example.payment.dto.PayRequest;
+import com.example.payment.dto.PaymentResponse;
+import com.example.payment.util.StructuredLogger;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Range;
+import org.springframework.data.redis.connection.RedisStreamCommands.XAddOptions;
+import org.springframework.data.redis.connection.stream.Consumer;
+import org.springframework.data.redis.connection.stream.MapRecord;
+import org.springframework.data.redis.connection.stream.PendingMessage;
+import org.springframework.data.redis.connection.stream.PendingMessages;
+import org.springframework.data.redis.connection.stream.PendingMessagesSummary;
+import org.springframework.data.redis.connection.stream.ReadOffset;
+import org.springframework.data.redis.connection.stream.RecordId;
+import org.springframework.data.redis.connection.stream.StreamOffset;
+import org.springframework.data.redis.connection.stream.StreamReadOptions;
+import org.springframework.data.redis.connection.stream.StreamRecords;
+import org.springframework.data.redis.core.StreamOperations;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Event-driven capture: reads {@code PAYMENT_REQUESTED} events from a Redis stream as a member of a consumer
+ * group, runs each through {@link PaymentService#pay} with the idempotency key carried by the event, and
+ * answers with {@code PAYMENT_CAPTURED} or {@code PAYMENT_DECLINED} on the results stream.
+ * <p>
+ * A request is only acknowledged once its result is published. Transient failures (provider unavailable or
+ * timed out, attempt still in progress) stay in this consumer's pending list and are read again after
+ * {@code retry-interval-ms}; the idempotency key turns the retry into a replay once the outcome is known.
+ * Requests another consumer left pending that long are claimed, so nothing is stranded when an instance goes
+ * away. The consumer name should be stable per instance, so a restarted instance picks up its own list.
+ * <p>
+ * Off by default, like order-service's {@code saga.payment.mode=event}. Polls run on a thread of their own,
+ * since a batch waits for provider calls and must not hold up the shared {@code @Scheduled} thread.
+ * <p>
+ * Results are appended with {@code MAXLEN ~ results-stream-maxlen}, so the stream stays bounded; keep it well
+ * above what order-service can fall behind by, since trimmed records are gone even if unread.
+ */
+@Component
+@ConditionalOnProperty(value = "payment.capture.consumer.enabled", havingValue = "true")
+public class PaymentCaptureConsumer {
+
+    static final String PAYLOAD_FIELD = "payload";
+    static final String PAYMENT_REQUESTED = "PAYMENT_REQUESTED";
+    static final String PAYMENT_CAPTURED = "PAYMENT_CAPTURED";
+    static final String PAYMENT_DECLINED = "PAYMENT_DECLINED";
+
+    private final StringRedisTemplate redisTemplate;
+    private final PaymentService paymentService;
+    private final Validator validator;
+    private final ObjectMapper objectMapper;
+    private final StructuredLogger structuredLogger;
+    private final String requestsStream;
+    private final String resultsStream;
+    private final Consumer consumer;
+    private final int batchSize;
+    private final long pollIntervalMs;
+    private final long retryIntervalMs;
+    private final XAddOptions resultsAddOptions;
+    private final ExecutorService executor;
+    private final ScheduledExecutorService poller;
+
+    private volatile boolean groupReady;
+    private long lastPendingReadMs;
+
+    public PaymentCaptureConsumer(
+            StringRedisTemplate redisTemplate,
+            PaymentService paymentService,
+            Validator validator,
+            ObjectMapper objectMapper,
+            StructuredLogger structuredLogger,
+            @Value("${payment.capture.requests-stream:payments.requests}") String requestsStream,
+            @Value("${payment.capture.results-stream:payments.results}") String resultsStream,
+            @Value("${payment.capture.consumer.group:payment-service}") String group,
+            @Value("${payment.capture.consumer.name:payment-service-1}") String consumerName,
+            @Value("${payment.capture.consumer.batch-size:50}") int batchSize,
+            @Value("${payment.capture.consumer.concurrency:8}") int concurrency,
+            @Value("${payment.capture.consumer.poll-interval-ms:200}") long pollIntervalMs,
+            @Value("${payment.capture.consumer.retry-interval-ms:5000}") long retryIntervalMs,
+            @Value("${payment.capture.results-stream-maxlen:100000}") long resultsStreamMaxlen
+    ) {
+        this.redisTemplate = redisTemplate;
+        this.paymentService = paymentService;
+        this.validator = validator;
+        this.objectMapper = objectMapper;
+        this.structuredLogger = structuredLogger;
+        this.requestsStream = requestsStream;
+        this.resultsStream = resultsStream;
+        this.consumer = Consumer.from(group, consumerName);
+        this.batchSize = Math.max(batchSize, 1);
+        this.pollIntervalMs = Math.max(pollIntervalMs, 1);
+        this.retryIntervalMs = Math.max(retryIntervalMs, 0);
+        this.resultsAddOptions = resultsStreamMaxlen > 0
+                ? XAddOptions.maxlen(resultsStreamMaxlen).approximateTrimming(true)
+                : XAddOptions.none();
+        this.executor = Executors.newFixedThreadPool(Math.max(concurrency, 1));
+        this.poller = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "payment-capture-poller");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PostConstruct
+    public void start() {
+        poller.scheduleWithFixedDelay(this::pollScheduled, pollIntervalMs, pollIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    void pollScheduled() {
+        try {
+            poll();
+        } catch (RuntimeException ex) {
+            structuredLogger.warn("payment.capture.poll_failed", Map.of("error", String.valueOf(ex.getMessage())));
+        }
+    }
+
+    /**
+     * Processes one batch: this consumer's pending requests when a retry is due, otherwise new ones.
+     * Requests in a batch are paid concurrently. Returns the number acknowledged.
+     */
+    public int poll() {
+        ensureGroup();
+        List<MapRecord<String, Object, Object>> records = List.of();
+        long now = System.currentTimeMillis();
+        if (now - lastPendingReadMs >= retryIntervalMs) {
+            lastPendingReadMs = now;
+            records = new ArrayList<>(read(ReadOffset.from("0")));
+            records.addAll(claimIdle());
+        }
+        if (records.isEmpty()) {
+            records = read(ReadOffset.lastConsumed());
+        }
+        if (records.isEmpty()) {
+            return 0;
+        }
+
+        List<CompletableFuture<Boolean>> handled = new ArrayList<>(records.size());
+        for (MapRecord<String, Object, Object> record : records) {
+            handled.add(CompletableFuture.supplyAsync(() -> handle(record), executor));
+        }
+        int acknowledged = 0;
+        for (int i = 0; i < records.size(); i++) {
+            if (handled.get(i).join()) {
+                redisTemplate.opsForStream().acknowledge(requestsStream, consumer.getGroup(), records.get(i).getId());
+                acknowledged++;
+            }
+        }
+        return acknowledged;
+    }
+
+    @PreDestroy
+    public void stop() {
+        poller.shutdown();
+        executor.shutdown();
+    }
+
+    private List<MapRecord<String, Object, Object>> read(ReadOffset offset) {
+        List<MapRecord<String, Object, Object>> records = redisTemplate.opsForStream().read(
+                consumer,
+                StreamReadOptions.empty().count(batchSize),
+                StreamOffset.create(requestsStream, offset)
+        );
+        return records == null ? List.of() : records;
+    }
+
+    /**
+     * Takes over requests left pending by other consumers of the group, e.g. a container that was replaced, once
+     * they have been idle for {@code retry-interval-ms}. XCLAIM with a min idle time only moves entries that
+     * are still idle, so a live consumer keeps what it is working on.
+     */
+    private List<MapRecord<String, Object, Object>> claimIdle() {
+        StreamOperations<String, Object, Object> streams = redisTemplate.opsForStream();
+        PendingMessagesSummary summary = streams.pending(requestsStream, consumer.getGroup());
+        if (summary == null || summary.getTotalPendingMessages() == 0) {
+            return List.of();
+        }
+
+        Duration minIdle = Duration.ofMillis(retryIntervalMs);
+        List<MapRecord<String, Object, Object>> claimed = new ArrayList<>();
+        for (Map.Entry<String, Long> owner : summary.getPendingMessagesPerConsumer().entrySet()) {
+            int room = batchSize - claimed.size();
+            if (room <= 0) {
+                break;
+            }
+            if (owner.getKey().equals(consumer.getName()) || owner.getValue() == null || owner.getValue() == 0) {
+                continue;
+            }
+            PendingMessages pending = streams.pending(
+                    requestsStream, Consumer.from(consumer.getGroup(), owner.getKey()), Range.unbounded(), room);
+            RecordId[] idle = pending == null ? new RecordId[0] : pending.stream()
+                    .filter(message -> message.getElapsedTimeSinceLastDelivery().compareTo(minIdle) >= 0)
+                    .map(PendingMessage::getId)
+                    .toArray(RecordId[]::new);
+            if (idle.length > 0) {
+                List<MapRecord<String, Object, Object>> records = streams.claim(
+                        requestsStream, consumer.getGroup(), consumer.getName(), minIdle, idle);
+                if (records != null) {
+                    claimed.addAll(records);
+                }
+            }
+        }
+        return claimed;
+    }
+
+    private void ensureGroup() {
+        if (groupReady) {
+            return;
+        }
+        try {
+            redisTemplate.opsForStream().createGroup(requestsStream, ReadOffset.from("0"), consumer.getGroup());
+        } catch (RuntimeException ex) {
+            if (!String.valueOf(rootMessage(ex)).contains("BUSYGROUP")) {
+                throw ex;
+            }
+        }
+        groupReady = true;
+    }
+
+    /**
+     * Returns whether the request is settled and can be acknowledged.
+     */
+    private boolean handle(MapRecord<String, Object, Object> record) {
+        Object payload = record.getValue().get(PAYLOAD_FIELD);
+        JsonNode event;
+        try {
+            event = payload == null ? null : objectMapper.readTree(payload.toString());
+        } catch (JsonProcessingException ex) {
+            event = null;
+        }
+        if (event == null || !PAYMENT_REQUESTED.equals(event.path("eventType").asText())) {
+            structuredLogger.warn("payment.capture.ignored", Map.of("record_id", record.getId().getValue()));
+            return true;
+        }
+
+        String correlationId = paymentService.normalizeCorrelationId(event.path("correlationId").asText(null));
+        PayRequest request = new PayRequest();
+        request.setOrderId(uuid(event.path("orderId")));
+        request.setUserId(uuid(event.path("userId")));
+        request.setAmount(event.path("amount").isNumber() ? event.path("amount").decimalValue() : null);
+        request.setCurrency(event.path("currency").asText(null));
+        request.setIdempotencyKey(event.path("idempotencyKey").asText(null));
+
+        try {
+            validator.validate(request).stream()
+                    .min(Comparator.comparing(violation -> violation.getPropertyPath().toString()))
+                    .map(ConstraintViolation::getMessage)
+                    .ifPresent(message -> {
+                        throw new PaymentException(400, "INVALID_REQUEST", message);
+                    });
+            PaymentResponse response = paymentService.pay(request, null, correlationId);
+            publish(PAYMENT_CAPTURED, request, response.getPaymentId(), null, correlationId);
+            return true;
+        } catch (PaymentException ex) {
+            if (isTransient(ex)) {
+                structuredLogger.warn("payment.capture.retry_later", Map.of(
+                        "order_id", String.valueOf(request.getOrderId()),
+                        "code", ex.getCode(),
+                        "correlation_id", correlationId
+                ));
+                return false;
+            }
+            publish(PAYMENT_DECLINED, request, null, ex, correlationId);
+            return true;
+        } catch (RuntimeException ex) {
+            structuredLogger.warn("payment.capture.retry_later", Map.of(
+                    "order_id", String.valueOf(request.getOrderId()),
+                    "error", String.valueOf(ex.getMessage()),
+                    "correlation_id", correlationId
+            ));
+            return false;
+        }
+    }
+
+    static boolean isTransient(PaymentException ex) {
+        if ("PAYMENT_IN_PROGRESS".equals(ex.getCode())) {
+            return true;
+        }
+        return ex.getStatus() >= 500 && !"PAYMENT_DECLINED".equals(ex.getCode());
+    }
+
+    private void publish(String eventType, PayRequest request, UUID paymentId, PaymentException error, String correlationId) {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("eventType", eventType);
+        result.put("occurredAt", Instant.now().toString());
+        result.put("orderId", request.getOrderId());
+        result.put("paymentId", paymentId);
+        result.put("amount", request.getAmount());
+        result.put("currency", request.getCurrency());
+        result.put("failureCode", error == null ? null : error.getCode());
+        result.put("failureReason", error == null ? null : error.getMessage());
+        result.put("correlationId", correlationId);
+
+        String json;
+        try {
+            json = objectMapper.writeValueAsString(result);
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException("Cannot serialize payment result", ex);
+        }
+        redisTemplate.opsForStream().add(
+                StreamRecords.string(Map.of(PAYLOAD_FIELD, json)).withStreamKey(resultsStream), resultsAddOptions);
+        structuredLogger.info("payment.capture.result_published", Map.of(
+                "event_type", eventType,
+                "order_id", String.valueOf(request.getOrderId()),
+                "correlation_id", correlationId
+        ));
+    }
+
+    private static UUID uuid(JsonNode node) {
+        try {
+            return node.isTextual() ? UUID.fromString(node.asText()) : null;
+        } catch (IllegalArgumentException ex) {
+            return null;
+        }
+    }
+
+    private static String rootMessage(Throwable ex) {
+        Throwable cause = ex;
+        while (cause.getCause() != null) {
+            cause = cause.getCause();
+        }
+        return cause.getMessage();
+    }
+}
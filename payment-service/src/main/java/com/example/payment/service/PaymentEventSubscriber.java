@@ -1,28 +1,263 @@
 package com.example.payment.service;
 
 import com.example.payment.util.StructuredLogger;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.redis.connection.Message;
 import org.springframework.data.redis.connection.MessageListener;
 import org.springframework.stereotype.Component;
 
 import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
 
+/**
+ * Consumes {@code orders.events} into the per-order status projection.
+ * <p>
+ * The listener thread only enqueues into a bounded queue. When the queue is full it waits up to
+ * {@code offer-timeout-ms}, which slows the listener executor down, and then drops the event.
+ * A single worker drains the queue in micro-batches, keeps the newest event per order and writes
+ * the batch with one statement batch.
+ */
 @Component
 public class PaymentEventSubscriber implements MessageListener {
 
+    private final OrderStatusProjectionStore projectionStore;
+    private final ObjectMapper objectMapper;
     private final StructuredLogger structuredLogger;
+    private final BlockingQueue<Received> queue;
+    private final int batchSize;
+    private final long batchLingerMs;
+    private final long offerTimeoutMs;
+    private final Counter droppedCounter;
+    private final Counter appliedCounter;
+    private final Counter invalidCounter;
+    private final Counter failedCounter;
+    private final Timer lagTimer;
+    private final DistributionSummary batchSizeSummary;
 
-    public PaymentEventSubscriber(StructuredLogger structuredLogger) {
+    private volatile boolean running;
+    private Thread worker;
+
+    public PaymentEventSubscriber(
+            OrderStatusProjectionStore projectionStore,
+            ObjectMapper objectMapper,
+            StructuredLogger structuredLogger,
+            MeterRegistry meterRegistry,
+            @Value("${payment.events.queue-capacity:10000}") int queueCapacity,
+            @Value("${payment.events.batch-size:200}") int batchSize,
+            @Value("${payment.events.batch-linger-ms:50}") long batchLingerMs,
+            @Value("${payment.events.offer-timeout-ms:100}") long offerTimeoutMs
+    ) {
+        this.projectionStore = projectionStore;
+        this.objectMapper = objectMapper;
         this.structuredLogger = structuredLogger;
+        this.queue = new ArrayBlockingQueue<>(Math.max(queueCapacity, 1));
+        this.batchSize = Math.max(batchSize, 1);
+        this.batchLingerMs = Math.max(batchLingerMs, 0);
+        this.offerTimeoutMs = Math.max(offerTimeoutMs, 0);
+
+        Gauge.builder("payment.events.queue.depth", queue, BlockingQueue::size)
+                .description("Order events waiting to be applied")
+                .register(meterRegistry);
+        this.droppedCounter = Counter.builder("payment.events.dropped")
+                .description("Order events dropped because the queue stayed full")
+                .register(meterRegistry);
+        this.appliedCounter = Counter.builder("payment.events.applied")
+                .description("Order events applied to the status projection")
+                .register(meterRegistry);
+        this.invalidCounter = Counter.builder("payment.events.invalid")
+                .description("Order events ignored as unreadable or incomplete")
+                .register(meterRegistry);
+        this.failedCounter = Counter.builder("payment.events.failed")
+                .description("Order events lost because their batch could not be written")
+                .register(meterRegistry);
+        this.lagTimer = Timer.builder("payment.events.lag")
+                .description("Time from receiving an order event until it was applied")
+                .register(meterRegistry);
+        this.batchSizeSummary = DistributionSummary.builder("payment.events.batch.size")
+                .description("Order events per projection write")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() {
+        running = true;
+        worker = new Thread(this::drainLoop, "payment-events-worker");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        if (worker != null) {
+            worker.interrupt();
+            worker.join(TimeUnit.SECONDS.toMillis(5));
+        }
+        // Whatever is still queued gets one last write.
+        while (!queue.isEmpty()) {
+            drainOnce(0);
+        }
     }
 
     @Override
     public void onMessage(Message message, byte[] pattern) {
-        String payload = new String(message.getBody(), StandardCharsets.UTF_8);
-        structuredLogger.info("payment.event.consumed", Map.of(
-                "channel", "orders.events",
-                "payload", payload
-        ));
+        Received received = new Received(message.getBody(), System.currentTimeMillis());
+        boolean accepted;
+        try {
+            accepted = queue.offer(received, offerTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            accepted = false;
+        }
+        if (!accepted) {
+            droppedCounter.increment();
+        }
+    }
+
+    public int queueDepth() {
+        return queue.size();
+    }
+
+    private void drainLoop() {
+        while (running) {
+            try {
+                drainOnce(batchLingerMs);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException ex) {
+                structuredLogger.warn("payment.events.worker_error", Map.of("error", String.valueOf(ex.getMessage())));
+            }
+        }
+    }
+
+    /**
+     * Waits for one event, then keeps collecting for up to {@code lingerMs} or until the batch is full,
+     * and applies what it has. Returns the number of events taken off the queue.
+     */
+    int drainOnce(long lingerMs) throws InterruptedException {
+        List<Received> batch = new ArrayList<>(batchSize);
+        Received first = lingerMs > 0 ? queue.poll(lingerMs, TimeUnit.MILLISECONDS) : queue.poll();
+        if (first == null) {
+            return 0;
+        }
+        batch.add(first);
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(lingerMs);
+        while (batch.size() < batchSize) {
+            if (queue.drainTo(batch, batchSize - batch.size()) > 0) {
+                continue;
+            }
+            long remaining = deadline - System.nanoTime();
+            Received next = remaining > 0 ? queue.poll(remaining, TimeUnit.NANOSECONDS) : null;
+            if (next == null) {
+                break;
+            }
+            batch.add(next);
+        }
+        apply(batch);
+        return batch.size();
+    }
+
+    private void apply(List<Received> batch) {
+        Map<UUID, OrderStatusProjectionStore.OrderStatusUpdate> latest = new LinkedHashMap<>();
+        for (Received received : batch) {
+            OrderStatusProjectionStore.OrderStatusUpdate update = parse(received);
+            if (update == null) {
+                invalidCounter.increment();
+                continue;
+            }
+            latest.merge(update.orderId(), update,
+                    (current, next) -> next.occurredAt().isBefore(current.occurredAt()) ? current : next);
+        }
+        batchSizeSummary.record(batch.size());
+        if (latest.isEmpty()) {
+            return;
+        }
+
+        try {
+            projectionStore.apply(new ArrayList<>(latest.values()));
+        } catch (RuntimeException ex) {
+            failedCounter.increment(latest.size());
+            structuredLogger.warn("payment.events.apply_failed", Map.of(
+                    "events", batch.size(),
+                    "orders", latest.size(),
+                    "error", String.valueOf(ex.getMessage())
+            ));
+            return;
+        }
+
+        long now = System.currentTimeMillis();
+        for (Received received : batch) {
+            lagTimer.record(Math.max(now - received.receivedAtMs(), 0), TimeUnit.MILLISECONDS);
+        }
+        appliedCounter.increment(latest.size());
+    }
+
+    private OrderStatusProjectionStore.OrderStatusUpdate parse(Received received) {
+        JsonNode event;
+        try {
+            event = objectMapper.readTree(received.body());
+        } catch (Exception ex) {
+            return null;
+        }
+        UUID orderId = uuid(event.path("orderId"));
+        String eventType = event.path("eventType").asText("");
+        String status = event.path("status").asText("");
+        if (orderId == null || eventType.isEmpty() || status.isEmpty()) {
+            return null;
+        }
+        return new OrderStatusProjectionStore.OrderStatusUpdate(
+                orderId,
+                uuid(event.path("userId")),
+                status,
+                eventType,
+                event.path("totalAmount").isNumber() ? event.path("totalAmount").decimalValue() : null,
+                event.path("failureReason").isTextual() ? event.path("failureReason").asText() : null,
+                occurredAt(event.path("occurredAt"), received.receivedAtMs())
+        );
+    }
+
+    private static UUID uuid(JsonNode node) {
+        if (!node.isTextual()) {
+            return null;
+        }
+        try {
+            return UUID.fromString(node.asText());
+        } catch (IllegalArgumentException ex) {
+            return null;
+        }
+    }
+
+    private static Instant occurredAt(JsonNode node, long fallbackMs) {
+        if (node.isNumber()) {
+            // Jackson writes Instants as epoch seconds when WRITE_DATES_AS_TIMESTAMPS is on.
+            return Instant.ofEpochMilli((long) (node.asDouble() * 1000));
+        }
+        try {
+            return node.isTextual() ? Instant.parse(node.asText()) : Instant.ofEpochMilli(fallbackMs);
+        } catch (DateTimeParseException ex) {
+            return Instant.ofEpochMilli(fallbackMs);
+        }
+    }
+
+    private record Received(byte[] body, long receivedAtMs) {
     }
 }
@@ -0,0 +1,76 @@
+package com.example.payment.service;
+
+import com.example.payment.util.StructuredLogger;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.Map;
+
+/**
+ * Writes the previous UTC day's reconciliation report to {@code output-dir}. The file only appears under its
+ * final name once complete.
+ */
+@Component
+@ConditionalOnProperty(value = "payment.reconciliation.job.enabled", havingValue = "true")
+public class PaymentReconciliationJob {
+
+    private final PaymentReconciliationService reconciliationService;
+    private final StructuredLogger structuredLogger;
+    private final Path outputDir;
+    private final PaymentReconciliationService.Format format;
+
+    public PaymentReconciliationJob(
+            PaymentReconciliationService reconciliationService,
+            StructuredLogger structuredLogger,
+            @Value("${payment.reconciliation.job.output-dir:${java.io.tmpdir}/payment-reconciliation}") String outputDir,
+            @Value("${payment.reconciliation.job.format:csv}") String format
+    ) {
+        this.reconciliationService = reconciliationService;
+        this.structuredLogger = structuredLogger;
+        this.outputDir = Paths.get(outputDir);
+        this.format = PaymentReconciliationService.Format.parse(format);
+    }
+
+    @Scheduled(cron = "${payment.reconciliation.job.cron:0 15 0 * * *}", zone = "UTC")
+    public void runScheduled() {
+        run(LocalDate.now(ZoneOffset.UTC).minusDays(1));
+    }
+
+    public Path run(LocalDate day) {
+        Instant from = day.atStartOfDay(ZoneOffset.UTC).toInstant();
+        Instant to = day.plusDays(1).atStartOfDay(ZoneOffset.UTC).toInstant();
+        Path target = outputDir.resolve("reconciliation-" + day + "." + format.extension());
+        Path partial = outputDir.resolve(target.getFileName() + ".partial");
+        try {
+            Files.createDirectories(outputDir);
+            PaymentReconciliationService.ReportSummary summary;
+            try (Writer writer = Files.newBufferedWriter(partial, StandardCharsets.UTF_8)) {
+                summary = reconciliationService.writeReport(from, to, format, writer);
+            }
+            Files.move(partial, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            structuredLogger.info("payment.reconciliation.written", Map.of(
+                    "day", day.toString(),
+                    "file", target.toString(),
+                    "transactions", summary.transactions(),
+                    "unrefunded_pays", summary.unrefundedPays(),
+                    "unknown_order_status", summary.unknownOrderStatus()
+            ));
+            return target;
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Cannot write reconciliation report " + target, ex);
+        }
+    }
+}
@@ -0,0 +1,316 @@
+package com.example.payment.service;
+
+import com.example.payment.model.CurrencyUnit;
+import com.example.payment.model.Money;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Settlement and reconciliation report over {@code payment_transactions} for a time range.
+ * <p>
+ * Both sections are read with a server-side cursor ({@code fetch-size} rows at a time) and written as they
+ * are read. Daily totals per currency, operation and status are aggregated in one pass over rows ordered by
+ * {@code created_at}; a day's totals are written as soon as the next day starts, so memory depends on the
+ * number of currencies and statuses, not on the number of transactions. The second section lists PAID
+ * payments that were not fully refunded and whose order failed or was cancelled.
+ * <p>
+ * Order status comes from {@code order_status_projection}, which is built from {@code orders.events} and is
+ * not authoritative: it has no rows for orders older than migration 005, misses events dropped under
+ * backpressure and lags by a micro-batch. Payments without a projection row are listed with order status
+ * {@code UNKNOWN} for a manual check against order-service rather than left out.
+ */
+@Service
+public class PaymentReconciliationService {
+
+    static final String UNKNOWN_ORDER_STATUS = "UNKNOWN";
+
+    static final String CSV_HEADER =
+            "record_type,day,currency,operation_type,status,count,amount,payment_id,order_id,order_status,refunded_total";
+
+    private static final String TOTALS_SQL = """
+            SELECT created_at, currency, operation_type, status, amount
+            FROM payment_transactions
+            WHERE created_at >= ? AND created_at < ?
+            ORDER BY created_at
+            """;
+
+    private static final String UNREFUNDED_SQL = """
+            SELECT p.id, p.order_id, p.created_at, p.currency, p.amount, p.refunded_total, o.order_status
+            FROM payment_transactions p
+            LEFT JOIN order_status_projection o ON o.order_id = p.order_id
+            WHERE p.created_at >= ? AND p.created_at < ?
+              AND p.operation_type = 'PAY'
+              AND p.status = 'PAID'
+              AND p.refunded_total < p.amount
+              AND (o.order_id IS NULL OR o.order_status IN ('FAILED', 'CANCELLED'))
+            ORDER BY p.created_at
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private final int fetchSize;
+    private final long maxRangeDays;
+
+    public PaymentReconciliationService(
+            JdbcTemplate jdbcTemplate,
+            ObjectMapper objectMapper,
+            @Value("${payment.reconciliation.fetch-size:500}") int fetchSize,
+            @Value("${payment.reconciliation.max-range-days:31}") long maxRangeDays
+    ) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+        this.fetchSize = Math.max(fetchSize, 1);
+        this.maxRangeDays = Math.max(maxRangeDays, 1);
+    }
+
+    /**
+     * Checks a requested [from, to) range; call before any output is written so errors still map to a status.
+     */
+    public void validateRange(Instant from, Instant to) {
+        if (from == null || to == null || !to.isAfter(from)) {
+            throw new PaymentException(400, "INVALID_RANGE", "to must be after from");
+        }
+        if (Duration.between(from, to).compareTo(Duration.ofDays(maxRangeDays)) > 0) {
+            throw new PaymentException(400, "INVALID_RANGE", "Range exceeds " + maxRangeDays + " days");
+        }
+    }
+
+    /**
+     * Streams the report for [from, to) to {@code out}. The read-only transaction keeps the cursors open.
+     */
+    @Transactional(readOnly = true)
+    public ReportSummary writeReport(Instant from, Instant to, Format format, Writer out) {
+        validateRange(from, to);
+        RecordWriter writer = new RecordWriter(format, out, objectMapper);
+        writer.header();
+
+        DailyTotals totals = new DailyTotals(writer);
+        jdbcTemplate.query(rangeQuery(TOTALS_SQL, from, to), (RowCallbackHandler) rs -> totals.add(
+                rs.getTimestamp("created_at").toInstant(),
+                rs.getString("currency"),
+                rs.getString("operation_type"),
+                rs.getString("status"),
+                rs.getBigDecimal("amount")
+        ));
+        totals.flush();
+
+        long[] unrefunded = {0, 0};
+        jdbcTemplate.query(rangeQuery(UNREFUNDED_SQL, from, to), (RowCallbackHandler) rs -> {
+            if (!writer.unrefundedPay(rs)) {
+                unrefunded[1]++;
+            }
+            unrefunded[0]++;
+        });
+        writer.flush();
+        return new ReportSummary(totals.transactions, totals.rowsWritten, unrefunded[0], unrefunded[1]);
+    }
+
+    private PreparedStatementCreator rangeQuery(String sql, Instant from, Instant to) {
+        return connection -> {
+            PreparedStatement statement = connection.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            statement.setFetchSize(fetchSize);
+            statement.setTimestamp(1, Timestamp.from(from));
+            statement.setTimestamp(2, Timestamp.from(to));
+            return statement;
+        };
+    }
+
+    public enum Format {
+        CSV("text/csv", "csv"),
+        NDJSON("application/x-ndjson", "ndjson");
+
+        private final String contentType;
+        private final String extension;
+
+        Format(String contentType, String extension) {
+            this.contentType = contentType;
+            this.extension = extension;
+        }
+
+        public String contentType() {
+            return contentType;
+        }
+
+        public String extension() {
+            return extension;
+        }
+
+        public static Format parse(String value) {
+            try {
+                return Format.valueOf(value == null ? "CSV" : value.trim().toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException ex) {
+                throw new PaymentException(400, "INVALID_FORMAT", "format must be csv or ndjson");
+            }
+        }
+    }
+
+    public record ReportSummary(long transactions, long totalRows, long unrefundedPays, long unknownOrderStatus) {
+    }
+
+    /**
+     * Totals of the current UTC day only; rows arrive ordered by time.
+     */
+    private static final class DailyTotals {
+        private final RecordWriter writer;
+        private final Map<String, Totals> byKey = new TreeMap<>();
+        private LocalDate day;
+        private long transactions;
+        private long rowsWritten;
+
+        DailyTotals(RecordWriter writer) {
+            this.writer = writer;
+        }
+
+        void add(Instant createdAt, String currency, String operationType, String status, BigDecimal amount) {
+            LocalDate rowDay = LocalDate.ofInstant(createdAt, ZoneOffset.UTC);
+            if (!rowDay.equals(day)) {
+                flush();
+                day = rowDay;
+            }
+            Totals totals = byKey.computeIfAbsent(
+                    currency + '|' + operationType + '|' + status,
+                    key -> new Totals(currency, operationType, status)
+            );
+            totals.count++;
+            totals.minorUnits = Math.addExact(totals.minorUnits, Money.of(amount, CurrencyUnit.of(currency)).minorUnits());
+            transactions++;
+        }
+
+        void flush() {
+            for (Totals totals : byKey.values()) {
+                writer.dailyTotal(day, totals);
+                rowsWritten++;
+            }
+            byKey.clear();
+            writer.flush();
+        }
+    }
+
+    private static final class Totals {
+        private final String currency;
+        private final String operationType;
+        private final String status;
+        private long count;
+        private long minorUnits;
+
+        Totals(String currency, String operationType, String status) {
+            this.currency = currency;
+            this.operationType = operationType;
+            this.status = status;
+        }
+    }
+
+    private static final class RecordWriter {
+        private final Format format;
+        private final Writer out;
+        private final ObjectMapper objectMapper;
+
+        RecordWriter(Format format, Writer out, ObjectMapper objectMapper) {
+            this.format = format;
+            this.out = out;
+            this.objectMapper = objectMapper;
+        }
+
+        void header() {
+            if (format == Format.CSV) {
+                write(CSV_HEADER + "\n");
+            }
+        }
+
+        void dailyTotal(LocalDate day, Totals totals) {
+            String amount = Money.ofMinor(totals.minorUnits, CurrencyUnit.of(totals.currency)).toBigDecimal().toPlainString();
+            if (format == Format.CSV) {
+                write("daily_total," + day + "," + totals.currency + "," + totals.operationType + "," + totals.status + ","
+                        + totals.count + "," + amount + ",,,,\n");
+                return;
+            }
+            Map<String, Object> record = new LinkedHashMap<>();
+            record.put("recordType", "daily_total");
+            record.put("day", day.toString());
+            record.put("currency", totals.currency);
+            record.put("operationType", totals.operationType);
+            record.put("status", totals.status);
+            record.put("count", totals.count);
+            record.put("amount", amount);
+            json(record);
+        }
+
+        /**
+         * Returns false when the order status is unknown.
+         */
+        boolean unrefundedPay(ResultSet rs) throws SQLException {
+            String orderStatus = rs.getString("order_status");
+            boolean known = orderStatus != null;
+            if (!known) {
+                orderStatus = UNKNOWN_ORDER_STATUS;
+            }
+            String day = LocalDate.ofInstant(rs.getTimestamp("created_at").toInstant(), ZoneOffset.UTC).toString();
+            String currency = rs.getString("currency");
+            String amount = rs.getBigDecimal("amount").toPlainString();
+            String refunded = rs.getBigDecimal("refunded_total").toPlainString();
+            if (format == Format.CSV) {
+                write("unrefunded_pay," + day + "," + currency + ",PAY,PAID,1," + amount + "," + rs.getString("id") + ","
+                        + rs.getString("order_id") + "," + orderStatus + "," + refunded + "\n");
+                return known;
+            }
+            Map<String, Object> record = new LinkedHashMap<>();
+            record.put("recordType", "unrefunded_pay");
+            record.put("day", day);
+            record.put("currency", currency);
+            record.put("paymentId", rs.getString("id"));
+            record.put("orderId", rs.getString("order_id"));
+            record.put("orderStatus", orderStatus);
+            record.put("amount", amount);
+            record.put("refundedTotal", refunded);
+            json(record);
+            return known;
+        }
+
+        void flush() {
+            try {
+                out.flush();
+            } catch (IOException ex) {
+                throw new UncheckedIOException("Cannot write reconciliation report", ex);
+            }
+        }
+
+        private void json(Map<String, Object> record) {
+            try {
+                write(objectMapper.writeValueAsString(record) + "\n");
+            } catch (JsonProcessingException ex) {
+                throw new IllegalStateException("Cannot serialize reconciliation record", ex);
+            }
+        }
+
+        private void write(String line) {
+            try {
+                out.write(line);
+            } catch (IOException ex) {
+                throw new UncheckedIOException("Cannot write reconciliation report", ex);
+            }
+        }
+    }
+}
@@ -0,0 +1,145 @@
+package com.example.payment.service;
+
+import com.example.payment.model.PaymentStatus;
+import com.example.payment.model.PaymentTransaction;
+import com.example.payment.util.StructuredLogger;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Base64;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Completed pay/refund outcomes by idempotency key, so a replay is answered without touching the database.
+ * Entries are encoded {@link PaymentReplaySnapshot}s held in a Caffeine tier bounded by bytes and, when
+ * enabled, a shared Redis tier that lets a retry landing on another instance hit as well.
+ * Only PAID, REFUNDED and FAILED rows are stored; those never change, so nothing is ever evicted on write.
+ */
+@Component
+public class PaymentReplayCache {
+
+    private final StringRedisTemplate redisTemplate;
+    private final StructuredLogger structuredLogger;
+    private final boolean enabled;
+    private final boolean redisEnabled;
+    private final String redisKeyPrefix;
+    private final Duration redisTtl;
+    private final Cache<String, byte[]> local;
+    private final Counter redisHitCounter;
+    private final Counter redisMissCounter;
+    private final Counter redisErrorCounter;
+
+    public PaymentReplayCache(
+            MeterRegistry meterRegistry,
+            StringRedisTemplate redisTemplate,
+            StructuredLogger structuredLogger,
+            @Value("${payment.replay-cache.enabled:true}") boolean enabled,
+            @Value("${payment.replay-cache.maximum-bytes:16777216}") long maximumBytes,
+            @Value("${payment.replay-cache.ttl-ms:3600000}") long ttlMs,
+            @Value("${payment.replay-cache.redis.enabled:false}") boolean redisEnabled,
+            @Value("${payment.replay-cache.redis.key-prefix:payment:replay:}") String redisKeyPrefix,
+            @Value("${payment.replay-cache.redis.ttl-ms:86400000}") long redisTtlMs
+    ) {
+        this.redisTemplate = redisTemplate;
+        this.structuredLogger = structuredLogger;
+        this.enabled = enabled;
+        this.redisEnabled = enabled && redisEnabled && redisTemplate != null;
+        this.redisKeyPrefix = redisKeyPrefix;
+        this.redisTtl = Duration.ofMillis(Math.max(1, redisTtlMs));
+        this.local = Caffeine.newBuilder()
+                .maximumWeight(Math.max(1, maximumBytes))
+                .weigher((String key, byte[] value) -> key.length() * 2 + value.length)
+                .expireAfterWrite(Duration.ofMillis(Math.max(1, ttlMs)))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, local, "payment.replay");
+        this.redisHitCounter = Counter.builder("payment.replay.redis")
+                .tag("result", "hit")
+                .register(meterRegistry);
+        this.redisMissCounter = Counter.builder("payment.replay.redis")
+                .tag("result", "miss")
+                .register(meterRegistry);
+        this.redisErrorCounter = Counter.builder("payment.replay.redis")
+                .tag("result", "error")
+                .register(meterRegistry);
+    }
+
+    public Optional<PaymentReplaySnapshot> find(String idempotencyKey) {
+        if (!enabled) {
+            return Optional.empty();
+        }
+
+        byte[] encoded = local.getIfPresent(idempotencyKey);
+        if (encoded == null && redisEnabled) {
+            encoded = readShared(idempotencyKey);
+            if (encoded != null) {
+                local.put(idempotencyKey, encoded);
+            }
+        }
+        if (encoded == null) {
+            return Optional.empty();
+        }
+
+        try {
+            return Optional.of(PaymentReplaySnapshot.decode(encoded));
+        } catch (IllegalArgumentException ex) {
+            // Written by an incompatible version; fall back to the database and overwrite it from there.
+            local.invalidate(idempotencyKey);
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Stores the outcome of a completed attempt. PENDING attempts are skipped: their outcome is not known yet.
+     */
+    public void remember(PaymentTransaction transaction) {
+        if (!enabled || transaction.getStatus() == PaymentStatus.PENDING || transaction.getIdempotencyKey() == null) {
+            return;
+        }
+
+        String idempotencyKey = transaction.getIdempotencyKey();
+        byte[] encoded = PaymentReplaySnapshot.of(transaction).encode();
+        local.put(idempotencyKey, encoded);
+        if (redisEnabled) {
+            try {
+                redisTemplate.opsForValue().set(
+                        redisKeyPrefix + idempotencyKey,
+                        Base64.getEncoder().encodeToString(encoded),
+                        redisTtl
+                );
+            } catch (RuntimeException ex) {
+                redisErrorCounter.increment();
+                structuredLogger.warn("payment.replay_cache.redis_write_failed", Map.of(
+                        "error", ex.getClass().getSimpleName()
+                ));
+            }
+        }
+    }
+
+    private byte[] readShared(String idempotencyKey) {
+        try {
+            String value = redisTemplate.opsForValue().get(redisKeyPrefix + idempotencyKey);
+            if (value == null) {
+                redisMissCounter.increment();
+                return null;
+            }
+            redisHitCounter.increment();
+            return Base64.getDecoder().decode(value);
+        } catch (RuntimeException ex) {
+            // A shared tier outage only costs the database read it was meant to save.
+            redisErrorCounter.increment();
+            structuredLogger.warn("payment.replay_cache.redis_read_failed", Map.of(
+                    "error", ex.getClass().getSimpleName()
+            ));
+            return null;
+        }
+    }
+}
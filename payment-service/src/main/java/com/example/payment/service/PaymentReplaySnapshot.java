@@ -0,0 +1,151 @@
+package com.example.payment.service;
+
+import com.example.payment.dto.PaymentResponse;
+import com.example.payment.model.Money;
+import com.example.payment.model.PaymentOperationType;
+import com.example.payment.model.PaymentStatus;
+import com.example.payment.model.PaymentTransaction;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * What a replay needs from a completed pay/refund: the payload hash to validate the retried request
+ * against, and the fields of the original response. Encodes to about a hundred bytes.
+ */
+public record PaymentReplaySnapshot(
+        PaymentOperationType operation,
+        byte[] payloadHash,
+        UUID referencePaymentId,
+        UUID paymentId,
+        UUID orderId,
+        PaymentStatus status,
+        String providerRef,
+        Instant processedAt
+) {
+
+    private static final byte FORMAT_VERSION = 1;
+
+    static PaymentReplaySnapshot of(PaymentTransaction transaction) {
+        return new PaymentReplaySnapshot(
+                transaction.getOperationType(),
+                payloadHash(
+                        transaction.getOperationType(),
+                        transaction.getOrderId(),
+                        transaction.getUserId(),
+                        transaction.toMoney()
+                ),
+                transaction.getReferencePaymentId(),
+                transaction.getId(),
+                transaction.getOrderId(),
+                transaction.getStatus(),
+                transaction.getProviderRef(),
+                transaction.getUpdatedAt()
+        );
+    }
+
+    /**
+     * Covers the fields a replay must repeat exactly. A refund's user is taken from its payment rather
+     * than the request, so it is left out there.
+     */
+    static byte[] payloadHash(PaymentOperationType operation, UUID orderId, UUID userId, Money amount) {
+        String canonical = operation.name()
+                + '|' + orderId
+                + '|' + (operation == PaymentOperationType.PAY ? userId : "")
+                + '|' + amount.minorUnits()
+                + '|' + amount.currency().code();
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(canonical.getBytes(StandardCharsets.UTF_8));
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException("SHA-256 is not available", ex);
+        }
+    }
+
+    boolean matches(byte[] requestPayloadHash) {
+        return MessageDigest.isEqual(payloadHash, requestPayloadHash);
+    }
+
+    PaymentResponse toResponse(String correlationId) {
+        PaymentResponse response = new PaymentResponse();
+        response.setPaymentId(paymentId);
+        response.setOrderId(orderId);
+        response.setStatus(status.name());
+        response.setProviderRef(providerRef);
+        response.setIdempotentReplay(true);
+        response.setProcessedAt(processedAt == null ? Instant.now() : processedAt);
+        response.setCorrelationId(correlationId);
+        return response;
+    }
+
+    byte[] encode() {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(128);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeByte(FORMAT_VERSION);
+            out.writeUTF(operation.name());
+            out.writeByte(payloadHash.length);
+            out.write(payloadHash);
+            writeUuid(out, referencePaymentId);
+            writeUuid(out, paymentId);
+            writeUuid(out, orderId);
+            out.writeUTF(status.name());
+            out.writeBoolean(providerRef != null);
+            if (providerRef != null) {
+                out.writeUTF(providerRef);
+            }
+            out.writeBoolean(processedAt != null);
+            if (processedAt != null) {
+                out.writeLong(processedAt.getEpochSecond());
+                out.writeInt(processedAt.getNano());
+            }
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Throws {@link IllegalArgumentException} for bytes written by another format version or cut short.
+     */
+    static PaymentReplaySnapshot decode(byte[] encoded) {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(encoded))) {
+            if (in.readByte() != FORMAT_VERSION) {
+                throw new IllegalArgumentException("Unsupported replay snapshot version");
+            }
+            PaymentOperationType operation = PaymentOperationType.valueOf(in.readUTF());
+            byte[] payloadHash = new byte[in.readUnsignedByte()];
+            in.readFully(payloadHash);
+            UUID referencePaymentId = readUuid(in);
+            UUID paymentId = readUuid(in);
+            UUID orderId = readUuid(in);
+            PaymentStatus status = PaymentStatus.valueOf(in.readUTF());
+            String providerRef = in.readBoolean() ? in.readUTF() : null;
+            Instant processedAt = in.readBoolean() ? Instant.ofEpochSecond(in.readLong(), in.readInt()) : null;
+            return new PaymentReplaySnapshot(
+                    operation, payloadHash, referencePaymentId, paymentId, orderId, status, providerRef, processedAt
+            );
+        } catch (IOException ex) {
+            throw new IllegalArgumentException("Truncated replay snapshot", ex);
+        }
+    }
+
+    private static void writeUuid(DataOutputStream out, UUID value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeLong(value.getMostSignificantBits());
+            out.writeLong(value.getLeastSignificantBits());
+        }
+    }
+
+    private static UUID readUuid(DataInputStream in) throws IOException {
+        return in.readBoolean() ? new UUID(in.readLong(), in.readLong()) : null;
+    }
+}
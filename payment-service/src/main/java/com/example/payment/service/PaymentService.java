@@ -3,21 +3,24 @@ package com.example.payment.service;
 import com.example.payment.dto.PayRequest;
 import com.example.payment.dto.PaymentResponse;
 import com.example.payment.dto.RefundRequest;
+import com.example.payment.model.CurrencyUnit;
+import com.example.payment.model.Money;
 import com.example.payment.model.PaymentOperationType;
 import com.example.payment.model.PaymentStatus;
 import com.example.payment.model.PaymentTransaction;
+import com.example.payment.provider.PaymentProvider;
+import com.example.payment.provider.ProviderRequest;
+import com.example.payment.provider.ProviderResult;
+import com.example.payment.provider.ProviderUnavailableException;
 import com.example.payment.repository.PaymentTransactionRepository;
 import com.example.payment.util.StructuredLogger;
+import com.example.payment.util.UuidV7;
 import io.opentelemetry.api.trace.Span;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
-import java.math.RoundingMode;
 import java.time.Instant;
-import java.util.Currency;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Locale;
@@ -25,18 +28,22 @@ import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 @Service
 public class PaymentService {
 
-    private static final int MONEY_SCALE = 2;
-
     private final PaymentTransactionRepository repository;
+    private final PaymentAttemptStore attemptStore;
+    private final PaymentProvider paymentProvider;
+    private final PaymentReplayCache replayCache;
     private final StructuredLogger structuredLogger;
 
-    private final double paymentFailureProbability;
-    private final int paymentDelayMs;
     private final boolean chaosMode;
     private final double latencyProbability;
     private final double errorProbability;
@@ -44,53 +51,49 @@ public class PaymentService {
 
     public PaymentService(
             PaymentTransactionRepository repository,
+            PaymentAttemptStore attemptStore,
+            PaymentProvider paymentProvider,
+            PaymentReplayCache replayCache,
             StructuredLogger structuredLogger,
-            @Value("${payment.failure.probability:0.0}") double paymentFailureProbability,
-            @Value("${payment.delay.ms:200}") int paymentDelayMs,
             @Value("${chaos.mode:false}") boolean chaosMode,
             @Value("${chaos.latency.probability:0.0}") double latencyProbability,
             @Value("${chaos.error.probability:0.0}") double errorProbability,
             @Value("${chaos.delay.ms:0}") int chaosDelayMs
     ) {
         this.repository = repository;
+        this.attemptStore = attemptStore;
+        this.paymentProvider = paymentProvider;
+        this.replayCache = replayCache;
         this.structuredLogger = structuredLogger;
-        this.paymentFailureProbability = clamp(paymentFailureProbability);
-        this.paymentDelayMs = Math.max(paymentDelayMs, 0);
         this.chaosMode = chaosMode;
         this.latencyProbability = clamp(latencyProbability);
         this.errorProbability = clamp(errorProbability);
         this.chaosDelayMs = Math.max(chaosDelayMs, 0);
     }
 
-    @Transactional
     public PaymentResponse pay(PayRequest request, String idempotencyKeyHeader, String correlationId) {
         correlationId = normalizeCorrelationId(correlationId);
         String idempotencyKey = normalizeIdempotencyKey(idempotencyKeyHeader, request.getIdempotencyKey());
-        String currency = normalizeCurrency(request.getCurrency());
-        BigDecimal amount = normalizeAmount(request.getAmount());
+        Money amount = normalizeMoney(request.getAmount(), request.getCurrency());
 
         Span.current().setAttribute("order_id", request.getOrderId().toString());
         Span.current().setAttribute("saga_step", "PAYMENT_PAY");
         Span.current().setAttribute("compensation", false);
 
-        Optional<PaymentTransaction> existingByIdempotency = repository.findByIdempotencyKey(idempotencyKey);
-        if (existingByIdempotency.isPresent()) {
-            PaymentTransaction existing = existingByIdempotency.get();
-            validatePayReplay(existing, request, amount, currency);
-            if (existing.getStatus() == PaymentStatus.FAILED) {
-                throw new PaymentException(502, "PAYMENT_DECLINED", "Payment provider rejected transaction");
-            }
-            return toResponse(existing, true, correlationId);
+        Optional<PaymentReplaySnapshot> cached = replayCache.find(idempotencyKey);
+        if (cached.isPresent()) {
+            return replayPay(cached.get(), request, amount, correlationId);
         }
 
-        maybeInjectChaos("pay", correlationId);
-        maybeDelay(paymentDelayMs);
-
-        PaymentTransaction attempt = buildPayTransaction(request, amount, currency, idempotencyKey, correlationId, chance(paymentFailureProbability));
-        PersistResult persisted = insertFirstOrReplay(attempt);
-        PaymentTransaction transaction = persisted.transaction();
+        PaymentAttemptStore.PersistResult claimed = attemptStore.insertPending(
+                buildPayAttempt(request, amount, idempotencyKey, correlationId)
+        );
+        if (claimed.replay()) {
+            return replayPay(claimed.transaction(), request, amount, correlationId);
+        }
 
-        validatePayReplay(transaction, request, amount, currency);
+        PaymentTransaction transaction = callProvider(claimed.transaction(), "pay", correlationId);
+        replayCache.remember(transaction);
 
         if (transaction.getStatus() == PaymentStatus.FAILED) {
             structuredLogger.warn("payment.pay.failed", Map.of(
@@ -109,62 +112,43 @@ public class PaymentService {
                 "correlation_id", correlationId
         ));
 
-        return toResponse(transaction, persisted.replay(), correlationId);
+        return toResponse(transaction, false, correlationId);
     }
 
-    @Transactional
     public PaymentResponse refund(RefundRequest request, String idempotencyKeyHeader, String correlationId) {
         correlationId = normalizeCorrelationId(correlationId);
         String idempotencyKey = normalizeIdempotencyKey(idempotencyKeyHeader, request.getIdempotencyKey());
-        String currency = normalizeCurrency(request.getCurrency());
-        BigDecimal amount = normalizeAmount(request.getAmount());
+        Money amount = normalizeMoney(request.getAmount(), request.getCurrency());
 
         Span.current().setAttribute("order_id", request.getOrderId().toString());
         Span.current().setAttribute("saga_step", "PAYMENT_REFUND");
         Span.current().setAttribute("compensation", true);
 
-        Optional<PaymentTransaction> existingByIdempotency = repository.findByIdempotencyKey(idempotencyKey);
-        if (existingByIdempotency.isPresent()) {
-            PaymentTransaction existing = existingByIdempotency.get();
-            validateRefundReplay(existing, request, amount, currency);
-            if (existing.getStatus() == PaymentStatus.FAILED) {
-                throw new PaymentException(502, "REFUND_DECLINED", "Payment provider rejected refund");
-            }
-            return toResponse(existing, true, correlationId);
+        Optional<PaymentReplaySnapshot> cached = replayCache.find(idempotencyKey);
+        if (cached.isPresent()) {
+            return replayRefund(cached.get(), request, amount, correlationId);
         }
 
-        PaymentTransaction paidTransaction = findReferencePaymentForUpdate(request);
-        assertTransitionFromPayToRefund(paidTransaction, request.getOrderId());
-        assertCurrencyMatches(currency, paidTransaction.getCurrency());
-
-        BigDecimal refundedSoFar = Optional.ofNullable(
-                repository.sumRefundedAmountByReferencePaymentIdExcludingIdempotencyKey(
-                        paidTransaction.getId(),
-                        idempotencyKey
-                )
-        ).orElse(BigDecimal.ZERO).setScale(MONEY_SCALE, RoundingMode.HALF_UP);
-
-        BigDecimal afterRefund = refundedSoFar.add(amount);
-        if (afterRefund.compareTo(paidTransaction.getAmount()) > 0) {
-            throw new PaymentException(409, "REFUND_EXCEEDS_CAPTURED_AMOUNT", "Refund amount exceeds captured payment");
+        Optional<PaymentTransaction> existingByIdempotency = attemptStore.findByIdempotencyKey(idempotencyKey);
+        if (existingByIdempotency.isPresent()) {
+            PaymentTransaction existing = existingByIdempotency.get();
+            validateRefundReplay(existing, request, amount);
+            return replayRefund(existing, correlationId);
         }
 
-        maybeInjectChaos("refund", correlationId);
-        maybeDelay(Math.max(100, paymentDelayMs / 2));
-
-        PaymentTransaction attempt = buildRefundTransaction(
-                request,
-                paidTransaction,
-                amount,
-                currency,
-                idempotencyKey,
-                correlationId,
-                chance(paymentFailureProbability)
+        PaymentAttemptStore.RefundReservation reservation = attemptStore.reserveRefund(
+                buildRefundAttempt(request, amount, idempotencyKey, correlationId),
+                request
         );
-        PersistResult persisted = insertFirstOrReplay(attempt);
-        PaymentTransaction transaction = persisted.transaction();
+        PaymentTransaction paidTransaction = reservation.referencePayment();
+        PaymentAttemptStore.PersistResult claimed = reservation.persisted();
+        validateRefundReplay(claimed.transaction(), request, paidTransaction, amount);
+        if (claimed.replay()) {
+            return replayRefund(claimed.transaction(), correlationId);
+        }
 
-        validateRefundReplay(transaction, request, paidTransaction, amount, currency);
+        PaymentTransaction transaction = callProvider(claimed.transaction(), "refund", correlationId);
+        replayCache.remember(transaction);
 
         if (transaction.getStatus() == PaymentStatus.FAILED) {
             structuredLogger.warn("payment.refund.failed", Map.of(
@@ -183,7 +167,7 @@ public class PaymentService {
                 "correlation_id", correlationId
         ));
 
-        return toResponse(transaction, persisted.replay(), correlationId);
+        return toResponse(transaction, false, correlationId);
     }
 
     public Object simulateLoad(String type, int amount) {
@@ -208,137 +192,190 @@ public class PaymentService {
         return repository.findByOrderIdOrderByCreatedAtDesc(orderId);
     }
 
-    private PaymentTransaction buildPayTransaction(
+    /**
+     * Provider call, made with no transaction open. If the request never reached the provider (chaos, or
+     * the provider is unreachable) the PENDING attempt is released so the same idempotency key can be
+     * retried; if the outcome is unknown (timeout, provider error) it stays PENDING for recovery.
+     */
+    private PaymentTransaction callProvider(PaymentTransaction attempt, String stage, String correlationId) {
+        try {
+            maybeInjectChaos(stage, correlationId);
+        } catch (RuntimeException ex) {
+            attemptStore.release(attempt.getId());
+            throw ex;
+        }
+
+        ProviderResult result;
+        try {
+            result = awaitProvider(submitToProvider(attempt), attempt, correlationId);
+        } catch (PaymentException ex) {
+            if (neverReachedProvider(ex)) {
+                attemptStore.release(attempt.getId());
+            }
+            throw ex;
+        }
+        return attemptStore.complete(attempt.getId(), result.approved(), result.providerRef(), result.failureReason());
+    }
+
+    /**
+     * Sends the attempt without waiting, bounded by the provider's own timeout.
+     */
+    CompletableFuture<ProviderResult> submitToProvider(PaymentTransaction attempt) {
+        ProviderRequest request = ProviderRequest.from(attempt);
+        CompletableFuture<ProviderResult> call;
+        try {
+            call = attempt.getOperationType() == PaymentOperationType.PAY
+                    ? paymentProvider.authorize(request)
+                    : paymentProvider.refund(request);
+        } catch (RuntimeException ex) {
+            call = CompletableFuture.failedFuture(ex);
+        }
+        return call.orTimeout(paymentProvider.timeout().toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    ProviderResult awaitProvider(CompletableFuture<ProviderResult> call, PaymentTransaction attempt, String correlationId) {
+        try {
+            return call.join();
+        } catch (CompletionException | CancellationException ex) {
+            Throwable cause = ex instanceof CompletionException && ex.getCause() != null ? ex.getCause() : ex;
+            Map<String, Object> fields = new LinkedHashMap<>();
+            fields.put("provider", paymentProvider.name());
+            fields.put("payment_id", attempt.getId().toString());
+            fields.put("correlation_id", correlationId);
+            fields.put("error", cause.getClass().getSimpleName());
+            structuredLogger.warn("payment.provider.error", fields);
+
+            if (cause instanceof PaymentException paymentException) {
+                throw paymentException;
+            }
+            if (cause instanceof ProviderUnavailableException) {
+                throw new PaymentException(503, "PROVIDER_UNAVAILABLE", "Payment provider is unavailable");
+            }
+            if (cause instanceof TimeoutException) {
+                throw new PaymentException(504, "PROVIDER_TIMEOUT", "Payment provider did not answer in time");
+            }
+            throw new PaymentException(502, "PROVIDER_ERROR", "Payment provider call failed");
+        }
+    }
+
+    static boolean neverReachedProvider(PaymentException ex) {
+        return "PROVIDER_UNAVAILABLE".equals(ex.getCode()) || "CHAOS_FAILURE".equals(ex.getCode());
+    }
+
+    PaymentTransaction buildPayAttempt(
             PayRequest request,
-            BigDecimal amount,
-            String currency,
+            Money amount,
             String idempotencyKey,
-            String correlationId,
-            boolean providerRejected
+            String correlationId
     ) {
         PaymentTransaction transaction = new PaymentTransaction();
         transaction.setOrderId(request.getOrderId());
         transaction.setUserId(request.getUserId());
-        transaction.setAmount(amount);
-        transaction.setCurrency(currency);
+        transaction.setAmount(amount.toBigDecimal());
+        transaction.setCurrency(amount.currency().code());
+        transaction.setOperationType(PaymentOperationType.PAY);
         transaction.setIdempotencyKey(idempotencyKey);
         transaction.setCorrelationId(correlationId);
-
-        if (providerRejected) {
-            transitionToFailed(transaction, PaymentOperationType.PAY, "Provider rejected transaction");
-        } else {
-            transitionToPaid(transaction);
-            transaction.setProviderRef(newProviderRef("pay"));
-        }
-
         return transaction;
     }
 
-    private PaymentTransaction buildRefundTransaction(
+    PaymentTransaction buildRefundAttempt(
             RefundRequest request,
-            PaymentTransaction paidTransaction,
-            BigDecimal amount,
-            String currency,
+            Money amount,
             String idempotencyKey,
-            String correlationId,
-            boolean providerRejected
+            String correlationId
     ) {
         PaymentTransaction transaction = new PaymentTransaction();
         transaction.setOrderId(request.getOrderId());
-        transaction.setUserId(paidTransaction.getUserId());
-        transaction.setAmount(amount);
-        transaction.setCurrency(currency);
-        transaction.setReferencePaymentId(paidTransaction.getId());
+        transaction.setAmount(amount.toBigDecimal());
+        transaction.setCurrency(amount.currency().code());
+        transaction.setOperationType(PaymentOperationType.REFUND);
         transaction.setIdempotencyKey(idempotencyKey);
         transaction.setCorrelationId(correlationId);
-
-        if (providerRejected) {
-            transitionToFailed(transaction, PaymentOperationType.REFUND, "Provider rejected refund");
-        } else {
-            transitionToRefunded(transaction);
-            transaction.setProviderRef(newProviderRef("refund"));
-        }
-
         return transaction;
     }
 
-    private PaymentTransaction findReferencePaymentForUpdate(RefundRequest request) {
-        if (request.getPaymentId() != null) {
-            return repository.findByIdForUpdate(request.getPaymentId())
-                    .orElseThrow(() -> new PaymentException(404, "PAYMENT_NOT_FOUND", "Paid transaction not found"));
+    PaymentResponse replayPay(
+            PaymentTransaction existing,
+            PayRequest request,
+            Money amount,
+            String correlationId
+    ) {
+        validatePayReplay(existing, request, amount);
+        if (existing.getStatus() == PaymentStatus.PENDING) {
+            throw new PaymentException(409, "PAYMENT_IN_PROGRESS", "Payment with this idempotency key is still being processed");
         }
-
-        return repository.findLatestPaidByOrderIdForUpdate(request.getOrderId())
-                .orElseThrow(() -> new PaymentException(404, "PAYMENT_NOT_FOUND", "Paid transaction not found"));
-    }
-
-    private PersistResult insertFirstOrReplay(PaymentTransaction transaction) {
-        try {
-            return new PersistResult(repository.saveAndFlush(transaction), false);
-        } catch (DataIntegrityViolationException ex) {
-            return repository.findByIdempotencyKey(transaction.getIdempotencyKey())
-                    .map(existing -> new PersistResult(existing, true))
-                    .orElseThrow(() -> ex);
+        replayCache.remember(existing);
+        if (existing.getStatus() == PaymentStatus.FAILED) {
+            throw new PaymentException(502, "PAYMENT_DECLINED", "Payment provider rejected transaction");
         }
+        return toResponse(existing, true, correlationId);
     }
 
-    private void transitionToPaid(PaymentTransaction transaction) {
-        transaction.setOperationType(PaymentOperationType.PAY);
-        transaction.setStatus(PaymentStatus.PAID);
-        transaction.setFailureReason(null);
-    }
-
-    private void transitionToRefunded(PaymentTransaction transaction) {
-        transaction.setOperationType(PaymentOperationType.REFUND);
-        transaction.setStatus(PaymentStatus.REFUNDED);
-        transaction.setFailureReason(null);
-    }
-
-    private void transitionToFailed(PaymentTransaction transaction, PaymentOperationType operationType, String reason) {
-        transaction.setOperationType(operationType);
-        transaction.setStatus(PaymentStatus.FAILED);
-        transaction.setFailureReason(reason);
+    PaymentResponse replayRefund(PaymentTransaction existing, String correlationId) {
+        if (existing.getStatus() == PaymentStatus.PENDING) {
+            throw new PaymentException(409, "REFUND_IN_PROGRESS", "Refund with this idempotency key is still being processed");
+        }
+        replayCache.remember(existing);
+        if (existing.getStatus() == PaymentStatus.FAILED) {
+            throw new PaymentException(502, "REFUND_DECLINED", "Payment provider rejected refund");
+        }
+        return toResponse(existing, true, correlationId);
     }
 
-    private void assertTransitionFromPayToRefund(PaymentTransaction payment, UUID orderId) {
-        if (!Objects.equals(payment.getOrderId(), orderId)) {
-            throw new PaymentException(409, "PAYMENT_ORDER_MISMATCH", "Payment does not belong to this order");
+    /**
+     * Cached counterpart of the replay methods above: the same checks and errors, answered from the snapshot.
+     */
+    PaymentResponse replayPay(PaymentReplaySnapshot snapshot, PayRequest request, Money amount, String correlationId) {
+        if (snapshot.operation() != PaymentOperationType.PAY) {
+            throw new PaymentException(409, "IDEMPOTENCY_KEY_REUSED", "Idempotency key belongs to a different operation");
+        }
+        if (!snapshot.matches(PaymentReplaySnapshot.payloadHash(
+                PaymentOperationType.PAY, request.getOrderId(), request.getUserId(), amount))) {
+            throw new PaymentException(409, "IDEMPOTENCY_KEY_REUSED", "Idempotency key reused with different payload");
         }
-        if (payment.getOperationType() != PaymentOperationType.PAY || payment.getStatus() != PaymentStatus.PAID) {
-            throw new PaymentException(409, "INVALID_PAYMENT_STATE", "Only PAID transactions can be refunded");
+        if (snapshot.status() == PaymentStatus.FAILED) {
+            throw new PaymentException(502, "PAYMENT_DECLINED", "Payment provider rejected transaction");
         }
+        return snapshot.toResponse(correlationId);
     }
 
-    private void assertCurrencyMatches(String requestedCurrency, String paidCurrency) {
-        if (!requestedCurrency.equalsIgnoreCase(paidCurrency)) {
-            throw new PaymentException(409, "REFUND_CURRENCY_MISMATCH", "Refund currency does not match payment currency");
+    PaymentResponse replayRefund(PaymentReplaySnapshot snapshot, RefundRequest request, Money amount, String correlationId) {
+        if (snapshot.operation() != PaymentOperationType.REFUND) {
+            throw new PaymentException(409, "IDEMPOTENCY_KEY_REUSED", "Idempotency key belongs to a different operation");
+        }
+        if (!snapshot.matches(PaymentReplaySnapshot.payloadHash(
+                PaymentOperationType.REFUND, request.getOrderId(), null, amount))
+                || (request.getPaymentId() != null && !Objects.equals(request.getPaymentId(), snapshot.referencePaymentId()))) {
+            throw new PaymentException(409, "IDEMPOTENCY_KEY_REUSED", "Idempotency key reused with different payload");
+        }
+        if (snapshot.status() == PaymentStatus.FAILED) {
+            throw new PaymentException(502, "REFUND_DECLINED", "Payment provider rejected refund");
         }
+        return snapshot.toResponse(correlationId);
     }
 
-    private void validatePayReplay(PaymentTransaction existing, PayRequest request, BigDecimal amount, String currency) {
+    void validatePayReplay(PaymentTransaction existing, PayRequest request, Money amount) {
         if (existing.getOperationType() != PaymentOperationType.PAY) {
             throw new PaymentException(409, "IDEMPOTENCY_KEY_REUSED", "Idempotency key belongs to a different operation");
         }
         if (!Objects.equals(existing.getOrderId(), request.getOrderId())
                 || !Objects.equals(existing.getUserId(), request.getUserId())
-                || existing.getAmount().compareTo(amount) != 0
-                || !currency.equalsIgnoreCase(existing.getCurrency())) {
+                || !existing.toMoney().equals(amount)) {
             throw new PaymentException(409, "IDEMPOTENCY_KEY_REUSED", "Idempotency key reused with different payload");
         }
     }
 
-    private void validateRefundReplay(
+    void validateRefundReplay(
             PaymentTransaction existing,
             RefundRequest request,
-            BigDecimal amount,
-            String currency
+            Money amount
     ) {
         if (existing.getOperationType() != PaymentOperationType.REFUND) {
             throw new PaymentException(409, "IDEMPOTENCY_KEY_REUSED", "Idempotency key belongs to a different operation");
         }
         if (!Objects.equals(existing.getOrderId(), request.getOrderId())
-                || existing.getAmount().compareTo(amount) != 0
-                || !currency.equalsIgnoreCase(existing.getCurrency())) {
+                || !existing.toMoney().equals(amount)) {
             throw new PaymentException(409, "IDEMPOTENCY_KEY_REUSED", "Idempotency key reused with different payload");
         }
         if (request.getPaymentId() != null
@@ -351,21 +388,19 @@ public class PaymentService {
             PaymentTransaction existing,
             RefundRequest request,
             PaymentTransaction referencePayment,
-            BigDecimal amount,
-            String currency
+            Money amount
     ) {
         if (existing.getOperationType() != PaymentOperationType.REFUND) {
             throw new PaymentException(409, "IDEMPOTENCY_KEY_REUSED", "Idempotency key belongs to a different operation");
         }
         if (!Objects.equals(existing.getOrderId(), request.getOrderId())
                 || !Objects.equals(existing.getReferencePaymentId(), referencePayment.getId())
-                || existing.getAmount().compareTo(amount) != 0
-                || !currency.equalsIgnoreCase(existing.getCurrency())) {
+                || !existing.toMoney().equals(amount)) {
             throw new PaymentException(409, "IDEMPOTENCY_KEY_REUSED", "Idempotency key reused with different payload");
         }
     }
 
-    private PaymentResponse toResponse(PaymentTransaction tx, boolean idempotentReplay, String correlationId) {
+    PaymentResponse toResponse(PaymentTransaction tx, boolean idempotentReplay, String correlationId) {
         PaymentResponse response = new PaymentResponse();
         response.setPaymentId(tx.getId());
         response.setOrderId(tx.getOrderId());
@@ -377,7 +412,7 @@ public class PaymentService {
         return response;
     }
 
-    private String normalizeIdempotencyKey(String headerValue, String bodyValue) {
+    String normalizeIdempotencyKey(String headerValue, String bodyValue) {
         String key = headerValue;
         if (key == null || key.isBlank()) {
             key = bodyValue;
@@ -392,38 +427,43 @@ public class PaymentService {
         return normalized;
     }
 
-    private String normalizeCorrelationId(String value) {
+    String normalizeCorrelationId(String value) {
         if (value == null || value.isBlank()) {
-            return UUID.randomUUID().toString();
+            return UuidV7.next().toString();
         }
         return value.trim();
     }
 
-    private String normalizeCurrency(String value) {
-        if (value == null || value.isBlank()) {
+    /**
+     * The only place request amounts are converted; everything after this works on {@link Money}.
+     */
+    Money normalizeMoney(BigDecimal amount, String currencyCode) {
+        if (currencyCode == null || currencyCode.isBlank()) {
             throw new PaymentException(400, "INVALID_CURRENCY", "currency is required");
         }
-        String normalized = value.trim().toUpperCase(Locale.ROOT);
+        CurrencyUnit currency;
         try {
-            Currency.getInstance(normalized);
+            currency = CurrencyUnit.of(currencyCode);
         } catch (IllegalArgumentException ignored) {
             throw new PaymentException(400, "INVALID_CURRENCY", "Unsupported currency code");
         }
-        return normalized;
-    }
 
-    private BigDecimal normalizeAmount(BigDecimal value) {
-        if (value == null) {
+        if (amount == null) {
             throw new PaymentException(400, "INVALID_AMOUNT", "amount is required");
         }
-        BigDecimal normalized = value.setScale(MONEY_SCALE, RoundingMode.HALF_UP);
-        if (normalized.compareTo(BigDecimal.ZERO) <= 0) {
+        Money normalized;
+        try {
+            normalized = Money.of(amount, currency);
+        } catch (ArithmeticException ignored) {
+            throw new PaymentException(400, "INVALID_AMOUNT", "amount is too large");
+        }
+        if (!normalized.isPositive()) {
             throw new PaymentException(400, "INVALID_AMOUNT", "amount must be greater than 0");
         }
         return normalized;
     }
 
-    private void maybeInjectChaos(String stage, String correlationId) {
+    void maybeInjectChaos(String stage, String correlationId) {
         if (!chaosMode) {
             return;
         }
@@ -462,10 +502,4 @@ public class PaymentService {
         return Math.max(0.0, Math.min(1.0, value));
     }
 
-    private String newProviderRef(String prefix) {
-        return prefix + "-" + UUID.randomUUID();
-    }
-
-    private record PersistResult(PaymentTransaction transaction, boolean replay) {
-    }
 }
@@ -0,0 +1,108 @@
+package com.example.payment.service;
+
+import com.example.payment.model.PaymentTransaction;
+import com.example.payment.provider.PaymentProvider;
+import com.example.payment.provider.ProviderRequest;
+import com.example.payment.provider.ProviderResult;
+import com.example.payment.util.StructuredLogger;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Resolves attempts left PENDING when the process died between the provider call and completion, by asking
+ * the provider how the call ended. A capture or refund the provider made is recorded as such, so it can be
+ * refunded and shows up in reconciliation; only an attempt the provider never saw, or declined, is failed.
+ * While the provider cannot answer the attempt stays PENDING and is looked up again on the next run.
+ */
+@Component
+public class PendingPaymentRecovery {
+
+    static final String EXPIRED_REASON = "Provider has no record of the attempt; pending attempt expired";
+
+    private final PaymentAttemptStore attemptStore;
+    private final PaymentProvider paymentProvider;
+    private final StructuredLogger structuredLogger;
+    private final long expireAfterMs;
+    private final int batchSize;
+
+    public PendingPaymentRecovery(
+            PaymentAttemptStore attemptStore,
+            PaymentProvider paymentProvider,
+            StructuredLogger structuredLogger,
+            @Value("${payment.pending.expire-after-ms:60000}") long expireAfterMs,
+            @Value("${payment.pending.recovery-batch-size:100}") int batchSize
+    ) {
+        this.attemptStore = attemptStore;
+        this.paymentProvider = paymentProvider;
+        this.structuredLogger = structuredLogger;
+        this.expireAfterMs = Math.max(expireAfterMs, 1000);
+        this.batchSize = Math.max(batchSize, 1);
+    }
+
+    @Scheduled(fixedDelayString = "${payment.pending.recovery-interval-ms:30000}")
+    public void recoverScheduled() {
+        int resolved = recover(Instant.now().minusMillis(expireAfterMs));
+        if (resolved > 0) {
+            structuredLogger.warn("payment.pending.resolved", Map.of("count", resolved));
+        }
+    }
+
+    /**
+     * Returns the number of attempts resolved. Stops at the first batch with an attempt the provider could
+     * not answer for, since the next batch would start with that attempt again.
+     */
+    public int recover(Instant updatedBefore) {
+        int total = 0;
+        List<PaymentTransaction> stale;
+        int resolved;
+        do {
+            stale = attemptStore.findStalePending(updatedBefore, batchSize);
+            resolved = 0;
+            for (PaymentTransaction attempt : stale) {
+                if (resolve(attempt)) {
+                    resolved++;
+                }
+            }
+            total += resolved;
+        } while (stale.size() == batchSize && resolved == stale.size());
+        return total;
+    }
+
+    private boolean resolve(PaymentTransaction attempt) {
+        Optional<ProviderResult> outcome;
+        try {
+            outcome = paymentProvider.lookup(ProviderRequest.from(attempt))
+                    .get(paymentProvider.timeout().toMillis(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            return false;
+        } catch (ExecutionException | TimeoutException | RuntimeException ex) {
+            Throwable cause = ex instanceof ExecutionException && ex.getCause() != null ? ex.getCause() : ex;
+            structuredLogger.warn("payment.pending.lookup_failed", Map.of(
+                    "payment_id", attempt.getId().toString(),
+                    "provider", paymentProvider.name(),
+                    "error", String.valueOf(cause.getMessage())
+            ));
+            return false;
+        }
+
+        PaymentTransaction resolved = outcome
+                .map(result -> attemptStore.complete(attempt.getId(), result.approved(), result.providerRef(), result.failureReason()))
+                .orElseGet(() -> attemptStore.complete(attempt.getId(), false, null, EXPIRED_REASON));
+        structuredLogger.info("payment.pending.resolved_attempt", Map.of(
+                "payment_id", resolved.getId().toString(),
+                "status", resolved.getStatus().name(),
+                "provider_record", outcome.isPresent()
+        ));
+        return true;
+    }
+}
@@ -0,0 +1,45 @@
+package com.example.payment.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MoneyTest {
+
+    @Test
+    void convertsAtTwoDecimalPlacesWithHalfUpRounding() {
+        CurrencyUnit usd = CurrencyUnit.of("USD");
+
+        assertEquals(19995, Money.of(new BigDecimal("199.95"), usd).minorUnits());
+        assertEquals(4990, Money.of(new BigDecimal("49.9"), usd).minorUnits());
+        assertEquals(1, Money.of(new BigDecimal("0.005"), usd).minorUnits());
+        assertEquals(new BigDecimal("199.95"), Money.ofMinor(19995, usd).toBigDecimal());
+        assertFalse(Money.of(new BigDecimal("0.004"), usd).isPositive());
+    }
+
+    @Test
+    void currencyUnitsAreCachedAndNormalised() {
+        assertSame(CurrencyUnit.of("USD"), CurrencyUnit.of(" usd "));
+        assertEquals("EUR", CurrencyUnit.of("eur").code());
+        assertThrows(IllegalArgumentException.class, () -> CurrencyUnit.of("XYZ1"));
+    }
+
+    @Test
+    void arithmeticIsExactAndCurrencySafe() {
+        CurrencyUnit usd = CurrencyUnit.of("USD");
+        Money captured = Money.ofMinor(10000, usd);
+        Money refunded = Money.ofMinor(8000, usd).plus(Money.ofMinor(2000, usd));
+
+        assertEquals(0, refunded.compareTo(captured));
+        assertTrue(Money.ofMinor(1, usd).plus(refunded).compareTo(captured) > 0);
+        assertThrows(IllegalArgumentException.class, () -> captured.plus(Money.ofMinor(1, CurrencyUnit.of("EUR"))));
+        assertThrows(ArithmeticException.class, () -> Money.ofMinor(Long.MAX_VALUE, usd).plus(Money.ofMinor(1, usd)));
+        assertThrows(ArithmeticException.class, () -> Money.of(new BigDecimal("1E+30"), usd));
+    }
+}
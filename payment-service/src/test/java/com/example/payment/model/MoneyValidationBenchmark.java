@@ -0,0 +1,97 @@
+package com.example.payment.model;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Currency;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-request amount validation: the previous BigDecimal/{@link Currency} path against {@link Money}.
+ * Each benchmark normalises the request amount and currency, checks it against a stored payment as a
+ * replay would, and checks a refund against the captured amount. Run with (the GC profiler reports
+ * {@code gc.alloc.rate.norm}, bytes allocated per operation):
+ * <pre>
+ * mvn -q test-compile dependency:build-classpath -Dmdep.outputFile=target/cp.txt -Dmdep.includeScope=test
+ * java -cp target/test-classes:target/classes:$(cat target/cp.txt) com.example.payment.model.MoneyValidationBenchmark
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MoneyValidationBenchmark {
+
+    private static final int MONEY_SCALE = 2;
+
+    @Param({"199.95", "49.9"})
+    public String requestAmount;
+
+    @Param({"USD", "usd"})
+    public String requestCurrency;
+
+    private BigDecimal amount;
+    private BigDecimal storedAmount;
+    private String storedCurrency;
+    private BigDecimal refundedSoFar;
+    private Money storedMoney;
+    private Money refundedSoFarMoney;
+
+    @Setup
+    public void setUp() {
+        amount = new BigDecimal(requestAmount);
+        storedAmount = amount.setScale(MONEY_SCALE, RoundingMode.HALF_UP);
+        storedCurrency = "USD";
+        refundedSoFar = new BigDecimal("10.00");
+        storedMoney = Money.of(storedAmount, CurrencyUnit.of(storedCurrency));
+        refundedSoFarMoney = Money.of(refundedSoFar, CurrencyUnit.of(storedCurrency));
+    }
+
+    @Benchmark
+    public boolean bigDecimal() {
+        String currency = requestCurrency.trim().toUpperCase(Locale.ROOT);
+        Currency.getInstance(currency);
+        BigDecimal normalized = amount.setScale(MONEY_SCALE, RoundingMode.HALF_UP);
+        if (normalized.compareTo(BigDecimal.ZERO) <= 0) {
+            return false;
+        }
+        boolean replayMatches = storedAmount.compareTo(normalized) == 0 && currency.equalsIgnoreCase(storedCurrency);
+        BigDecimal afterRefund = refundedSoFar.setScale(MONEY_SCALE, RoundingMode.HALF_UP).add(normalized);
+        return replayMatches && afterRefund.compareTo(storedAmount) <= 0;
+    }
+
+    @Benchmark
+    public boolean money() {
+        Money normalized = Money.of(amount, CurrencyUnit.of(requestCurrency));
+        if (!normalized.isPositive()) {
+            return false;
+        }
+        boolean replayMatches = storedMoney.equals(normalized);
+        return replayMatches && refundedSoFarMoney.plus(normalized).compareTo(storedMoney) <= 0;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(MoneyValidationBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build()).run();
+    }
+}
@@ -0,0 +1,69 @@
+package com.example.payment.provider;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class StubPaymentProviderTest {
+
+    @Test
+    void callsStayInFlightConcurrentlyWithoutHoldingTheCaller() {
+        StubPaymentProvider provider = new StubPaymentProvider(0.0, LatencyModel.fixed(100), Duration.ofSeconds(5));
+
+        long startedAt = System.nanoTime();
+        List<CompletableFuture<ProviderResult>> calls = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            calls.add(provider.authorize(request()));
+        }
+        long submitMs = (System.nanoTime() - startedAt) / 1_000_000;
+        CompletableFuture.allOf(calls.toArray(CompletableFuture[]::new)).join();
+        long totalMs = (System.nanoTime() - startedAt) / 1_000_000;
+
+        // 100 sequential calls would take ten seconds.
+        assertTrue(submitMs < 1000, "submitting should not wait for the provider, took " + submitMs + "ms");
+        assertTrue(totalMs < 3000, "calls should overlap, took " + totalMs + "ms");
+        assertTrue(calls.stream().allMatch(call -> call.join().approved()));
+        assertTrue(calls.get(0).join().providerRef().startsWith("pay-"));
+    }
+
+    @Test
+    void declinesWithConfiguredProbability() {
+        StubPaymentProvider provider = new StubPaymentProvider(1.0, LatencyModel.fixed(0), Duration.ofSeconds(5));
+
+        ProviderResult result = provider.refund(request()).join();
+
+        assertFalse(result.approved());
+        assertEquals("Provider rejected refund", result.failureReason());
+    }
+
+    @Test
+    void logNormalLatencyRespectsCap() {
+        LatencyModel model = new LatencyModel(LatencyModel.Distribution.parse("log-normal"), 50, 2.0, 400);
+
+        for (int i = 0; i < 10_000; i++) {
+            long sample = model.sampleMs();
+            assertTrue(sample >= 0 && sample <= 400, "sample out of range: " + sample);
+        }
+    }
+
+    private static ProviderRequest request() {
+        return new ProviderRequest(
+                UUID.randomUUID(),
+                UUID.randomUUID(),
+                null,
+                new BigDecimal("10.00"),
+                "USD",
+                "stub-" + UUID.randomUUID(),
+                "corr-stub"
+        );
+    }
+}
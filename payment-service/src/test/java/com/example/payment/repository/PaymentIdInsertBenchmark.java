@@ -0,0 +1,155 @@
+package com.example.payment.repository;
+
+import com.example.payment.util.UuidV7;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Insert throughput of random (v4) against time-ordered (v7) primary keys. Rows go into a scratch copy of
+ * {@code payment_transactions} made with {@code LIKE ... INCLUDING ALL}, so the same primary key, unique
+ * idempotency index and secondary indexes are maintained. The table is preloaded so the primary key index
+ * outgrows a few hot pages before measuring; teardown prints its final size, where v4 page splits show up.
+ * Needs a migrated payment database (defaults match docker-compose). Run with:
+ * <pre>
+ * mvn -q test-compile dependency:build-classpath -Dmdep.outputFile=target/cp.txt -Dmdep.includeScope=test
+ * java -Dbench.db.url=jdbc:postgresql://localhost:5432/payment_db \
+ *      -cp target/test-classes:target/classes:$(cat target/cp.txt) com.example.payment.repository.PaymentIdInsertBenchmark
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 10)
+@Fork(1)
+public class PaymentIdInsertBenchmark {
+
+    private static final int ROWS_PER_BATCH = 100;
+
+    private static final String TABLE = "bench_payment_transactions";
+
+    private static final String INSERT_SQL = """
+            INSERT INTO bench_payment_transactions (
+                id, order_id, user_id, amount, currency, operation_type, status,
+                idempotency_key, correlation_id, refunded_total, created_at, updated_at
+            )
+            VALUES (?, ?, ?, ?, 'USD', 'PAY', 'PAID', ?, ?, 0, ?, ?)
+            """;
+
+    @Param({"v4", "v7"})
+    public String idVersion;
+
+    @Param({"500000"})
+    public int preloadRows;
+
+    private Connection connection;
+    private PreparedStatement insert;
+    private Supplier<UUID> ids;
+
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException {
+        connection = DriverManager.getConnection(
+                System.getProperty("bench.db.url", "jdbc:postgresql://localhost:5432/payment_db"),
+                System.getProperty("bench.db.user", "payment"),
+                System.getProperty("bench.db.password", "paymentpass")
+        );
+        connection.setAutoCommit(false);
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("DROP TABLE IF EXISTS " + TABLE);
+            statement.execute("CREATE TABLE " + TABLE + " (LIKE payment_transactions INCLUDING ALL)");
+        }
+        connection.commit();
+
+        ids = "v7".equals(idVersion) ? UuidV7::next : UUID::randomUUID;
+        insert = connection.prepareStatement(INSERT_SQL);
+        for (int loaded = 0; loaded < preloadRows; loaded += ROWS_PER_BATCH) {
+            insertBatch();
+        }
+        // VACUUM refuses to run inside a transaction block.
+        connection.setAutoCommit(true);
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("VACUUM ANALYZE " + TABLE);
+        }
+        connection.setAutoCommit(false);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet size = statement.executeQuery(
+                     "SELECT pg_size_pretty(pg_relation_size('" + TABLE + "_pkey'))")) {
+            if (size.next()) {
+                System.out.println(idVersion + " primary key index size: " + size.getString(1));
+            }
+            connection.rollback();
+            statement.execute("DROP TABLE IF EXISTS " + TABLE);
+            connection.commit();
+        } finally {
+            insert.close();
+            connection.close();
+        }
+    }
+
+    /**
+     * One committed JDBC batch, as {@code PaymentBatchStore} writes a chunk; the score is rows per second.
+     */
+    @Benchmark
+    @OperationsPerInvocation(ROWS_PER_BATCH)
+    public void insertBatch() throws SQLException {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        Timestamp now = Timestamp.from(Instant.now());
+        for (int i = 0; i < ROWS_PER_BATCH; i++) {
+            insert.setObject(1, ids.get());
+            insert.setObject(2, new UUID(random.nextLong(), random.nextLong()));
+            insert.setObject(3, new UUID(random.nextLong(), random.nextLong()));
+            insert.setBigDecimal(4, BigDecimal.valueOf(random.nextLong(100, 100_000), 2));
+            insert.setString(5, new UUID(random.nextLong(), random.nextLong()).toString());
+            insert.setString(6, "bench");
+            insert.setTimestamp(7, now);
+            insert.setTimestamp(8, now);
+            insert.addBatch();
+        }
+        insert.executeBatch();
+        connection.commit();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(PaymentIdInsertBenchmark.class.getSimpleName())
+                .jvmArgsAppend(
+                        "-Dbench.db.url=" + System.getProperty("bench.db.url", "jdbc:postgresql://localhost:5432/payment_db"),
+                        "-Dbench.db.user=" + System.getProperty("bench.db.user", "payment"),
+                        "-Dbench.db.password=" + System.getProperty("bench.db.password", "paymentpass")
+                )
+                .build()).run();
+    }
+}
@@ -0,0 +1,293 @@
+package com.example.payment.repository;
+
+import com.example.payment.dto.RefundRequest;
+import com.example.payment.model.PaymentOperationType;
+import com.example.payment.model.PaymentStatus;
+import com.example.payment.model.PaymentTransaction;
+import com.example.payment.service.PaymentAttemptStore;
+import com.example.payment.service.PaymentBatchStore;
+import com.example.payment.util.UuidV7;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Runs the hand-written Postgres statements (ON CONFLICT claims, guarded refund totals and the JDBC
+ * batches) against a real database. Every statement commits on its own so concurrent callers contend
+ * the way they do in production.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({PaymentAttemptStore.class, PaymentBatchStore.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Testcontainers(disabledWithoutDocker = true)
+class PaymentTransactionRepositoryPostgresTest {
+
+    private static final int THREADS = 8;
+
+    @Container
+    static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:16");
+
+    @DynamicPropertySource
+    static void datasource(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", POSTGRES::getJdbcUrl);
+        registry.add("spring.datasource.username", POSTGRES::getUsername);
+        registry.add("spring.datasource.password", POSTGRES::getPassword);
+        registry.add("spring.jpa.hibernate.ddl-auto", () -> "create-drop");
+    }
+
+    @Autowired
+    private PaymentTransactionRepository repository;
+
+    @Autowired
+    private PaymentBatchStore batchStore;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate tx;
+
+    @BeforeEach
+    void setUp() {
+        tx = new TransactionTemplate(transactionManager);
+        jdbcTemplate.update("DELETE FROM payment_transactions");
+    }
+
+    @Test
+    void insertOrFindReturnsTheRowThatOwnsTheKey() {
+        UUID orderId = UUID.randomUUID();
+        UUID firstId = UuidV7.next();
+
+        PaymentTransaction inserted = claim(firstId, attempt(orderId, "claim-once")).orElseThrow();
+        PaymentTransaction replayed = claim(UuidV7.next(), attempt(orderId, "claim-once")).orElseThrow();
+
+        assertEquals(firstId, inserted.getId());
+        assertEquals(firstId, replayed.getId());
+        assertEquals(PaymentStatus.PENDING, replayed.getStatus());
+        assertEquals(0, replayed.getRefundedTotal().compareTo(BigDecimal.ZERO));
+        assertEquals(1, countByKey("claim-once"));
+    }
+
+    @Test
+    void concurrentClaimsOfOneKeyInsertExactlyOneRow() throws Exception {
+        UUID orderId = UUID.randomUUID();
+        List<UUID> ids = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            ids.add(UuidV7.next());
+        }
+
+        List<Optional<PaymentTransaction>> results = concurrently(i -> claim(ids.get(i), attempt(orderId, "claim-race")));
+
+        assertEquals(1, countByKey("claim-race"));
+        UUID owner = jdbcTemplate.queryForObject(
+                "SELECT id FROM payment_transactions WHERE idempotency_key = 'claim-race'", UUID.class);
+        int winners = 0;
+        for (int i = 0; i < THREADS; i++) {
+            Optional<PaymentTransaction> result = results.get(i);
+            // Losers either see the owner or, if it committed after their snapshot, nothing at all.
+            result.ifPresent(row -> assertEquals(owner, row.getId()));
+            if (ids.get(i).equals(owner)) {
+                assertTrue(result.isPresent());
+                winners++;
+            }
+        }
+        assertEquals(1, winners);
+    }
+
+    @Test
+    void refundedTotalNeverExceedsTheCapturedAmount() {
+        PaymentTransaction payment = paidPayment("100.00");
+
+        assertEquals(1, addToRefundedTotal(payment.getId(), "60.00"));
+        assertEquals(0, addToRefundedTotal(payment.getId(), "50.00"));
+        assertEquals(1, addToRefundedTotal(payment.getId(), "40.00"));
+        assertEquals(0, addToRefundedTotal(payment.getId(), "0.01"));
+        assertRefundedTotal(payment.getId(), "100.00");
+
+        assertEquals(0, subtractFromRefundedTotal(payment.getId(), "100.01"));
+        assertEquals(1, subtractFromRefundedTotal(payment.getId(), "40.00"));
+        assertRefundedTotal(payment.getId(), "60.00");
+    }
+
+    @Test
+    void concurrentRefundsCannotOverRefund() throws Exception {
+        PaymentTransaction payment = paidPayment("100.00");
+
+        List<Integer> updated = concurrently(i -> addToRefundedTotal(payment.getId(), "30.00"));
+
+        assertEquals(3, updated.stream().mapToInt(Integer::intValue).sum());
+        assertRefundedTotal(payment.getId(), "90.00");
+    }
+
+    @Test
+    void batchInsertReportsExistingAndDuplicateKeysAsReplays() {
+        UUID orderId = UUID.randomUUID();
+        UUID existingId = claim(UuidV7.next(), attempt(orderId, "batch-existing")).orElseThrow().getId();
+
+        List<PaymentAttemptStore.PersistResult> results = batchStore.insertPending(List.of(
+                attempt(orderId, "batch-new"),
+                attempt(orderId, "batch-existing"),
+                attempt(orderId, "batch-new")
+        ));
+
+        assertFalse(results.get(0).replay());
+        assertTrue(results.get(1).replay());
+        assertEquals(existingId, results.get(1).transaction().getId());
+        assertTrue(results.get(2).replay());
+        assertEquals(results.get(0).transaction().getId(), results.get(2).transaction().getId());
+        assertEquals(1, countByKey("batch-new"));
+    }
+
+    @Test
+    void batchRefundsOfOnePaymentSeeEachOtherAndDeclinesGiveTheAmountBack() {
+        PaymentTransaction payment = paidPayment("100.00");
+        List<PaymentTransaction> attempts = List.of(
+                refundAttempt(payment, "refund-a", "60.00"),
+                refundAttempt(payment, "refund-b", "60.00"),
+                refundAttempt(payment, "refund-c", "40.00")
+        );
+
+        List<PaymentBatchStore.RefundSlot> slots = batchStore.reserveRefunds(
+                attempts,
+                attempts.stream().map(attempt -> refundRequest(payment, attempt)).toList()
+        );
+
+        assertNotNull(slots.get(0).reservation());
+        assertEquals("REFUND_EXCEEDS_CAPTURED_AMOUNT", slots.get(1).error().getCode());
+        assertNotNull(slots.get(2).reservation());
+        assertEquals(0, countByKey("refund-b"));
+        assertRefundedTotal(payment.getId(), "100.00");
+
+        PaymentTransaction declined = slots.get(0).reservation().persisted().transaction();
+        List<PaymentTransaction> stored = batchStore.complete(List.of(
+                new PaymentBatchStore.Outcome(declined, false, null, "card declined")
+        ));
+
+        assertEquals(PaymentStatus.FAILED, stored.get(0).getStatus());
+        assertRefundedTotal(payment.getId(), "40.00");
+    }
+
+    private Optional<PaymentTransaction> claim(UUID id, PaymentTransaction attempt) {
+        return tx.execute(status -> repository.insertOrFindByIdempotencyKey(id, attempt, Instant.now()));
+    }
+
+    private int addToRefundedTotal(UUID paymentId, String amount) {
+        return tx.execute(status -> repository.addToRefundedTotal(paymentId, new BigDecimal(amount)));
+    }
+
+    private int subtractFromRefundedTotal(UUID paymentId, String amount) {
+        return tx.execute(status -> repository.subtractFromRefundedTotal(paymentId, new BigDecimal(amount)));
+    }
+
+    private PaymentTransaction paidPayment(String amount) {
+        PaymentTransaction attempt = attempt(UUID.randomUUID(), "pay-" + UUID.randomUUID());
+        attempt.setAmount(new BigDecimal(amount));
+        attempt.setStatus(PaymentStatus.PAID);
+        return claim(UuidV7.next(), attempt).orElseThrow();
+    }
+
+    private <T> List<T> concurrently(IndexedCall<T> call) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<T>> futures = new ArrayList<>();
+            for (int i = 0; i < THREADS; i++) {
+                int index = i;
+                Callable<T> task = () -> {
+                    start.await();
+                    return call.run(index);
+                };
+                futures.add(executor.submit(task));
+            }
+            start.countDown();
+            List<T> results = new ArrayList<>();
+            for (Future<T> future : futures) {
+                results.add(future.get(30, TimeUnit.SECONDS));
+            }
+            return results;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private int countByKey(String idempotencyKey) {
+        Integer count = jdbcTemplate.queryForObject(
+                "SELECT count(*) FROM payment_transactions WHERE idempotency_key = ?", Integer.class, idempotencyKey);
+        return count == null ? 0 : count;
+    }
+
+    private void assertRefundedTotal(UUID paymentId, String expected) {
+        BigDecimal refunded = jdbcTemplate.queryForObject(
+                "SELECT refunded_total FROM payment_transactions WHERE id = ?", BigDecimal.class, paymentId);
+        assertEquals(0, new BigDecimal(expected).compareTo(refunded), "refunded_total was " + refunded);
+    }
+
+    private static PaymentTransaction attempt(UUID orderId, String idempotencyKey) {
+        PaymentTransaction attempt = new PaymentTransaction();
+        attempt.setOrderId(orderId);
+        attempt.setUserId(UUID.randomUUID());
+        attempt.setAmount(new BigDecimal("25.00"));
+        attempt.setCurrency("USD");
+        attempt.setOperationType(PaymentOperationType.PAY);
+        attempt.setStatus(PaymentStatus.PENDING);
+        attempt.setIdempotencyKey(idempotencyKey);
+        attempt.setCorrelationId("corr-" + idempotencyKey);
+        return attempt;
+    }
+
+    private static PaymentTransaction refundAttempt(PaymentTransaction payment, String idempotencyKey, String amount) {
+        PaymentTransaction attempt = attempt(payment.getOrderId(), idempotencyKey);
+        attempt.setOperationType(PaymentOperationType.REFUND);
+        attempt.setAmount(new BigDecimal(amount));
+        return attempt;
+    }
+
+    private static RefundRequest refundRequest(PaymentTransaction payment, PaymentTransaction attempt) {
+        RefundRequest request = new RefundRequest();
+        request.setOrderId(payment.getOrderId());
+        request.setPaymentId(payment.getId());
+        request.setAmount(attempt.getAmount());
+        request.setCurrency(attempt.getCurrency());
+        request.setIdempotencyKey(attempt.getIdempotencyKey());
+        return request;
+    }
+
+    @FunctionalInterface
+    private interface IndexedCall<T> {
+        T run(int index) throws Exception;
+    }
+}
@@ -0,0 +1,238 @@
+package com.example.payment.service;
+
+import com.example.payment.dto.BatchOperationRequest;
+import com.example.payment.dto.BatchPaymentRequest;
+import com.example.payment.dto.BatchPaymentResponse;
+import com.example.payment.model.PaymentOperationType;
+import com.example.payment.model.PaymentStatus;
+import com.example.payment.model.PaymentTransaction;
+import com.example.payment.provider.LatencyModel;
+import com.example.payment.provider.StubPaymentProvider;
+import com.example.payment.repository.PaymentTransactionRepository;
+import com.example.payment.util.StructuredLogger;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class PaymentBatchServiceTest {
+
+    private PaymentTransactionRepository repository;
+    private PaymentBatchStore batchStore;
+
+    @BeforeEach
+    void setUp() {
+        repository = mock(PaymentTransactionRepository.class);
+        batchStore = mock(PaymentBatchStore.class);
+    }
+
+    @Test
+    void batchShouldKeepPerItemIdempotencyAndErrors() {
+        PaymentTransaction alreadyPaid = transaction(PaymentOperationType.PAY, PaymentStatus.PAID, "batch-replay");
+        when(batchStore.insertPending(anyList())).thenAnswer(invocation -> {
+            List<PaymentTransaction> attempts = invocation.getArgument(0);
+            List<PaymentAttemptStore.PersistResult> results = new ArrayList<>();
+            for (PaymentTransaction attempt : attempts) {
+                if ("batch-replay".equals(attempt.getIdempotencyKey())) {
+                    results.add(new PaymentAttemptStore.PersistResult(alreadyPaid, true));
+                } else {
+                    setField(attempt, "id", UUID.randomUUID());
+                    attempt.setStatus(PaymentStatus.PENDING);
+                    results.add(new PaymentAttemptStore.PersistResult(attempt, false));
+                }
+            }
+            return results;
+        });
+        when(batchStore.complete(anyList())).thenAnswer(invocation -> {
+            List<PaymentBatchStore.Outcome> outcomes = invocation.getArgument(0);
+            return outcomes.stream().map(outcome -> {
+                PaymentTransaction tx = outcome.attempt();
+                tx.setStatus(PaymentStatus.PAID);
+                tx.setProviderRef(outcome.providerRef());
+                return tx;
+            }).toList();
+        });
+        when(batchStore.reserveRefunds(anyList(), anyList())).thenReturn(List.of(PaymentBatchStore.RefundSlot.rejected(
+                new PaymentException(409, "REFUND_EXCEEDS_CAPTURED_AMOUNT", "Refund amount exceeds captured payment")
+        )));
+
+        BatchOperationRequest missingUser = pay("batch-invalid", alreadyPaid.getUserId());
+        missingUser.setUserId(null);
+        BatchOperationRequest replay = pay("batch-replay", alreadyPaid.getUserId());
+        replay.setOrderId(alreadyPaid.getOrderId());
+        BatchOperationRequest refund = pay("batch-refund", null);
+        refund.setOperation(PaymentOperationType.REFUND);
+
+        BatchPaymentResponse response = service(0.0, 1000, 2).process(request(
+                pay("batch-new", UUID.randomUUID()),
+                missingUser,
+                pay("batch-new", UUID.randomUUID()),
+                replay,
+                refund
+        ), "corr-batch");
+
+        assertEquals(5, response.getTotal());
+        assertEquals(2, response.getSucceeded());
+        assertEquals(3, response.getFailed());
+
+        assertEquals(200, response.getResults().get(0).getHttpStatus());
+        assertEquals("PAID", response.getResults().get(0).getPayment().getStatus());
+        assertFalse(response.getResults().get(0).getPayment().isIdempotentReplay());
+        assertEquals("INVALID_REQUEST", response.getResults().get(1).getError().getCode());
+        assertEquals("userId is required", response.getResults().get(1).getError().getMessage());
+        assertEquals("DUPLICATE_IDEMPOTENCY_KEY", response.getResults().get(2).getError().getCode());
+        assertTrue(response.getResults().get(3).getPayment().isIdempotentReplay());
+        assertEquals(alreadyPaid.getId(), response.getResults().get(3).getPayment().getPaymentId());
+        assertEquals(409, response.getResults().get(4).getHttpStatus());
+        assertEquals("REFUND_EXCEEDS_CAPTURED_AMOUNT", response.getResults().get(4).getError().getCode());
+
+        // Both valid payments share one chunk: one batched insert, one completion.
+        verify(batchStore, times(1)).insertPending(anyList());
+        verify(batchStore, times(1)).complete(anyList());
+    }
+
+    @Test
+    void chaosFailureReleasesTheWholeChunk() {
+        when(batchStore.insertPending(anyList())).thenAnswer(invocation -> {
+            List<PaymentTransaction> attempts = invocation.getArgument(0);
+            return attempts.stream().map(attempt -> {
+                setField(attempt, "id", UUID.randomUUID());
+                return new PaymentAttemptStore.PersistResult(attempt, false);
+            }).toList();
+        });
+        PaymentService paymentService = new PaymentService(
+                repository,
+                new PaymentAttemptStore(repository),
+                new StubPaymentProvider(0.0, LatencyModel.fixed(0), Duration.ofSeconds(5)),
+                disabledReplayCache(),
+                new StructuredLogger(new ObjectMapper()),
+                true,
+                0.0,
+                1.0,
+                0
+        );
+        PaymentBatchService service = new PaymentBatchService(
+                paymentService,
+                batchStore,
+                Validation.buildDefaultValidatorFactory().getValidator(),
+                new StructuredLogger(new ObjectMapper()),
+                1000,
+                100
+        );
+
+        BatchPaymentResponse response = service.process(
+                request(pay("chaos-1", UUID.randomUUID()), pay("chaos-2", UUID.randomUUID())),
+                "corr-chaos"
+        );
+
+        assertEquals(2, response.getFailed());
+        assertEquals("CHAOS_FAILURE", response.getResults().get(0).getError().getCode());
+        assertEquals(500, response.getResults().get(1).getHttpStatus());
+        verify(batchStore).release(anyList());
+        verify(batchStore, never()).complete(any());
+    }
+
+    @Test
+    void batchShouldRejectMoreOperationsThanConfigured() {
+        PaymentException exception = assertThrows(
+                PaymentException.class,
+                () -> service(0.0, 1, 100).process(
+                        request(pay("too-many-1", UUID.randomUUID()), pay("too-many-2", UUID.randomUUID())),
+                        "corr-large"
+                )
+        );
+
+        assertEquals(400, exception.getStatus());
+        assertEquals("BATCH_TOO_LARGE", exception.getCode());
+    }
+
+    private PaymentBatchService service(double failureProbability, int maxOperations, int chunkSize) {
+        PaymentService paymentService = new PaymentService(
+                repository,
+                new PaymentAttemptStore(repository),
+                new StubPaymentProvider(failureProbability, LatencyModel.fixed(0), Duration.ofSeconds(5)),
+                disabledReplayCache(),
+                new StructuredLogger(new ObjectMapper()),
+                false,
+                0.0,
+                0.0,
+                0
+        );
+        return new PaymentBatchService(
+                paymentService,
+                batchStore,
+                Validation.buildDefaultValidatorFactory().getValidator(),
+                new StructuredLogger(new ObjectMapper()),
+                maxOperations,
+                chunkSize
+        );
+    }
+
+    private static PaymentReplayCache disabledReplayCache() {
+        return new PaymentReplayCache(
+                new SimpleMeterRegistry(), null, new StructuredLogger(new ObjectMapper()),
+                false, 1, 1, false, "payment:replay:", 1
+        );
+    }
+
+    private static BatchPaymentRequest request(BatchOperationRequest... operations) {
+        BatchPaymentRequest request = new BatchPaymentRequest();
+        request.setOperations(List.of(operations));
+        return request;
+    }
+
+    private static BatchOperationRequest pay(String idempotencyKey, UUID userId) {
+        BatchOperationRequest operation = new BatchOperationRequest();
+        operation.setOperation(PaymentOperationType.PAY);
+        operation.setOrderId(UUID.randomUUID());
+        operation.setUserId(userId);
+        operation.setAmount(new BigDecimal("15.00"));
+        operation.setCurrency("USD");
+        operation.setIdempotencyKey(idempotencyKey);
+        return operation;
+    }
+
+    private static PaymentTransaction transaction(PaymentOperationType operationType, PaymentStatus status, String key) {
+        PaymentTransaction transaction = new PaymentTransaction();
+        setField(transaction, "id", UUID.randomUUID());
+        setField(transaction, "updatedAt", Instant.now());
+        transaction.setOrderId(UUID.randomUUID());
+        transaction.setUserId(UUID.randomUUID());
+        transaction.setAmount(new BigDecimal("15.00"));
+        transaction.setCurrency("USD");
+        transaction.setOperationType(operationType);
+        transaction.setStatus(status);
+        transaction.setIdempotencyKey(key);
+        return transaction;
+    }
+
+    private static void setField(PaymentTransaction tx, String name, Object value) {
+        try {
+            var field = PaymentTransaction.class.getDeclaredField(name);
+            field.setAccessible(true);
+            field.set(tx, value);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("cannot set payment transaction " + name + " for test", e);
+        }
+    }
+}
@@ -0,0 +1,170 @@
+package com.example.payment.service;
+
+import com.example.payment.dto.PayRequest;
+import com.example.payment.dto.PaymentResponse;
+import com.example.payment.util.StructuredLogger;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.domain.Range;
+import org.springframework.data.redis.connection.RedisStreamCommands.XAddOptions;
+import org.springframework.data.redis.connection.stream.Consumer;
+import org.springframework.data.redis.connection.stream.MapRecord;
+import org.springframework.data.redis.connection.stream.PendingMessage;
+import org.springframework.data.redis.connection.stream.PendingMessages;
+import org.springframework.data.redis.connection.stream.PendingMessagesSummary;
+import org.springframework.data.redis.connection.stream.RecordId;
+import org.springframework.data.redis.connection.stream.StreamOffset;
+import org.springframework.data.redis.connection.stream.StreamReadOptions;
+import org.springframework.data.redis.connection.stream.StreamRecords;
+import org.springframework.data.redis.core.StreamOperations;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class PaymentCaptureConsumerTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private StreamOperations<String, Object, Object> streams;
+    private PaymentService paymentService;
+    private PaymentCaptureConsumer consumer;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        StringRedisTemplate redisTemplate = mock(StringRedisTemplate.class);
+        streams = mock(StreamOperations.class);
+        when(redisTemplate.opsForStream()).thenReturn(streams);
+        paymentService = mock(PaymentService.class);
+        when(paymentService.normalizeCorrelationId(any())).thenAnswer(invocation -> invocation.getArgument(0));
+        consumer = new PaymentCaptureConsumer(
+                redisTemplate,
+                paymentService,
+                Validation.buildDefaultValidatorFactory().getValidator(),
+                objectMapper,
+                new StructuredLogger(objectMapper),
+                "payments.requests",
+                "payments.results",
+                "payment-service",
+                "payment-1",
+                10,
+                2,
+                200,
+                0,
+                1000
+        );
+    }
+
+    @Test
+    void capturedPaymentIsPublishedAndAcknowledged() throws Exception {
+        UUID orderId = UUID.randomUUID();
+        MapRecord<String, Object, Object> request = request("1-0", orderId);
+        when(streams.read(any(Consumer.class), any(StreamReadOptions.class), any(StreamOffset.class))).thenReturn(List.of(request));
+        PaymentResponse response = new PaymentResponse();
+        response.setPaymentId(UUID.randomUUID());
+        response.setOrderId(orderId);
+        response.setStatus("PAID");
+        when(paymentService.pay(any(PayRequest.class), eq(null), eq("corr-1"))).thenReturn(response);
+
+        assertEquals(1, consumer.poll());
+
+        JsonNode result = publishedResult();
+        assertEquals("PAYMENT_CAPTURED", result.path("eventType").asText());
+        assertEquals(orderId.toString(), result.path("orderId").asText());
+        assertEquals(response.getPaymentId().toString(), result.path("paymentId").asText());
+        verify(streams).acknowledge("payments.requests", "payment-service", request.getId());
+        verify(streams).createGroup(eq("payments.requests"), any(), eq("payment-service"));
+    }
+
+    @Test
+    void declineIsFinalButProviderTimeoutStaysPending() throws Exception {
+        MapRecord<String, Object, Object> declined = request("1-0", UUID.randomUUID());
+        MapRecord<String, Object, Object> timedOut = request("2-0", UUID.randomUUID());
+        when(streams.read(any(Consumer.class), any(StreamReadOptions.class), any(StreamOffset.class))).thenReturn(List.of(declined, timedOut));
+        when(paymentService.pay(any(PayRequest.class), eq(null), anyString())).thenAnswer(invocation -> {
+            PayRequest payRequest = invocation.getArgument(0);
+            if (payRequest.getOrderId().toString().equals(declined.getValue().get("orderId"))) {
+                throw new PaymentException(502, "PAYMENT_DECLINED", "Payment provider rejected transaction");
+            }
+            throw new PaymentException(504, "PROVIDER_TIMEOUT", "Payment provider did not answer in time");
+        });
+
+        assertEquals(1, consumer.poll());
+
+        JsonNode result = publishedResult();
+        assertEquals("PAYMENT_DECLINED", result.path("eventType").asText());
+        assertEquals("PAYMENT_DECLINED", result.path("failureCode").asText());
+        verify(streams).acknowledge("payments.requests", "payment-service", declined.getId());
+        verify(streams, never()).acknowledge("payments.requests", "payment-service", timedOut.getId());
+    }
+
+    @Test
+    void requestLeftPendingByAGoneConsumerIsClaimedAndPaid() throws Exception {
+        UUID orderId = UUID.randomUUID();
+        MapRecord<String, Object, Object> stranded = request("1-0", orderId);
+        when(streams.read(any(Consumer.class), any(StreamReadOptions.class), any(StreamOffset.class))).thenReturn(List.of());
+        when(streams.pending("payments.requests", "payment-service")).thenReturn(new PendingMessagesSummary(
+                "payment-service", 1, Range.unbounded(), Map.of("payment-old", 1L)));
+        when(streams.pending(eq("payments.requests"), eq(Consumer.from("payment-service", "payment-old")), any(Range.class), eq(10L)))
+                .thenReturn(new PendingMessages("payment-service", List.of(new PendingMessage(
+                        stranded.getId(), Consumer.from("payment-service", "payment-old"), Duration.ofMinutes(5), 1))));
+        when(streams.claim(eq("payments.requests"), eq("payment-service"), eq("payment-1"), any(Duration.class), eq(stranded.getId())))
+                .thenReturn(List.of(stranded));
+        PaymentResponse response = new PaymentResponse();
+        response.setPaymentId(UUID.randomUUID());
+        response.setOrderId(orderId);
+        response.setStatus("PAID");
+        when(paymentService.pay(any(PayRequest.class), eq(null), eq("corr-1"))).thenReturn(response);
+
+        assertEquals(1, consumer.poll());
+
+        assertEquals("PAYMENT_CAPTURED", publishedResult().path("eventType").asText());
+        verify(streams).acknowledge("payments.requests", "payment-service", stranded.getId());
+    }
+
+    private MapRecord<String, Object, Object> request(String id, UUID orderId) throws Exception {
+        String payload = objectMapper.writeValueAsString(Map.of(
+                "eventType", "PAYMENT_REQUESTED",
+                "orderId", orderId.toString(),
+                "userId", UUID.randomUUID().toString(),
+                "amount", 25.5,
+                "currency", "USD",
+                "idempotencyKey", "order-" + orderId + ":payment:pay",
+                "correlationId", "corr-1"
+        ));
+        // Carry the order id outside the payload too, so a test can tell records apart.
+        return StreamRecords.<String, Object, Object>mapBacked(Map.of(
+                        PaymentCaptureConsumer.PAYLOAD_FIELD, payload,
+                        "orderId", orderId.toString()))
+                .withStreamKey("payments.requests")
+                .withId(RecordId.of(id));
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private JsonNode publishedResult() throws Exception {
+        ArgumentCaptor<MapRecord> captor = ArgumentCaptor.forClass(MapRecord.class);
+        ArgumentCaptor<XAddOptions> options = ArgumentCaptor.forClass(XAddOptions.class);
+        verify(streams).add(captor.capture(), options.capture());
+        MapRecord<String, String, String> record = captor.getValue();
+        assertEquals("payments.results", record.getStream());
+        assertEquals(1000L, options.getValue().getMaxlen());
+        assertTrue(options.getValue().isApproximateTrimming());
+        return objectMapper.readTree(record.getValue().get(PaymentCaptureConsumer.PAYLOAD_FIELD));
+    }
+}
@@ -0,0 +1,99 @@
+package com.example.payment.service;
+
+import com.example.payment.util.StructuredLogger;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.redis.connection.DefaultMessage;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+class PaymentEventSubscriberTest {
+
+    private OrderStatusProjectionStore projectionStore;
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        projectionStore = mock(OrderStatusProjectionStore.class);
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void batchKeepsTheNewestEventPerOrder() throws InterruptedException {
+        PaymentEventSubscriber subscriber = subscriber(10, 10);
+        UUID orderId = UUID.randomUUID();
+        UUID otherOrderId = UUID.randomUUID();
+
+        subscriber.onMessage(message(event("ORDER_CONFIRMED", orderId, "CONFIRMED", "2026-01-01T10:00:00Z")), null);
+        subscriber.onMessage(message(event("ORDER_CONFIRMED", otherOrderId, "CONFIRMED", "2026-01-01T10:00:01Z")), null);
+        subscriber.onMessage(message(event("ORDER_CANCELLED", orderId, "CANCELLED", "2026-01-01T11:00:00Z")), null);
+        // Arrives last but happened first; must not win.
+        subscriber.onMessage(message(event("ORDER_FAILED", orderId, "FAILED", "2026-01-01T09:00:00Z")), null);
+        subscriber.onMessage(message("not json"), null);
+
+        assertEquals(5, subscriber.drainOnce(0));
+
+        ArgumentCaptor<List<OrderStatusProjectionStore.OrderStatusUpdate>> captor = ArgumentCaptor.forClass(List.class);
+        verify(projectionStore, times(1)).apply(captor.capture());
+        List<OrderStatusProjectionStore.OrderStatusUpdate> updates = captor.getValue();
+        assertEquals(2, updates.size());
+        assertEquals(orderId, updates.get(0).orderId());
+        assertEquals("CANCELLED", updates.get(0).orderStatus());
+        assertEquals(otherOrderId, updates.get(1).orderId());
+        assertEquals(2.0, meterRegistry.counter("payment.events.applied").count());
+        assertEquals(1.0, meterRegistry.counter("payment.events.invalid").count());
+        assertEquals(0, subscriber.queueDepth());
+    }
+
+    @Test
+    void fullQueueDropsAndCountsEvents() throws InterruptedException {
+        PaymentEventSubscriber subscriber = subscriber(2, 10);
+        for (int i = 0; i < 5; i++) {
+            subscriber.onMessage(message(event("ORDER_CONFIRMED", UUID.randomUUID(), "CONFIRMED", "2026-01-01T10:00:00Z")), null);
+        }
+
+        assertEquals(2, subscriber.queueDepth());
+        assertEquals(2.0, meterRegistry.get("payment.events.queue.depth").gauge().value());
+        assertEquals(3.0, meterRegistry.counter("payment.events.dropped").count());
+
+        doThrow(new IllegalStateException("db down")).when(projectionStore).apply(anyList());
+        assertEquals(2, subscriber.drainOnce(0));
+        assertEquals(2.0, meterRegistry.counter("payment.events.failed").count());
+    }
+
+    private PaymentEventSubscriber subscriber(int queueCapacity, int batchSize) {
+        return new PaymentEventSubscriber(
+                projectionStore,
+                new ObjectMapper(),
+                new StructuredLogger(new ObjectMapper()),
+                meterRegistry,
+                queueCapacity,
+                batchSize,
+                0,
+                0
+        );
+    }
+
+    private static DefaultMessage message(String payload) {
+        return new DefaultMessage("orders.events".getBytes(StandardCharsets.UTF_8), payload.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String event(String eventType, UUID orderId, String status, String occurredAt) {
+        return """
+                {"eventType":"%s","occurredAt":"%s","orderId":"%s","userId":"%s","totalAmount":25.50,"status":"%s"}
+                """.formatted(eventType, occurredAt, orderId, UUID.randomUUID(), status);
+    }
+}
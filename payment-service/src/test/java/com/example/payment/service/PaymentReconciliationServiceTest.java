@@ -0,0 +1,149 @@
+package com.example.payment.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.jdbc.core.RowCallbackHandler;
+
+import java.io.StringWriter;
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class PaymentReconciliationServiceTest {
+
+    private JdbcTemplate jdbcTemplate;
+    private PaymentReconciliationService service;
+    private final List<List<Map<String, Object>>> queryResults = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate = mock(JdbcTemplate.class);
+        service = new PaymentReconciliationService(jdbcTemplate, new ObjectMapper(), 100, 31);
+        doAnswer(invocation -> {
+            RowCallbackHandler handler = invocation.getArgument(1);
+            for (Map<String, Object> row : queryResults.remove(0)) {
+                handler.processRow(resultSet(row));
+            }
+            return null;
+        }).when(jdbcTemplate).query(any(PreparedStatementCreator.class), any(RowCallbackHandler.class));
+    }
+
+    @Test
+    void totalsAreWrittenPerDayAndUnrefundedPaysAreListed() {
+        queryResults.add(List.of(
+                row("2026-03-01T09:00:00Z", "USD", "PAY", "PAID", "10.50"),
+                row("2026-03-01T10:00:00Z", "USD", "PAY", "PAID", "4.25"),
+                row("2026-03-01T11:00:00Z", "EUR", "REFUND", "REFUNDED", "3.00"),
+                row("2026-03-02T08:00:00Z", "USD", "PAY", "FAILED", "7.00")
+        ));
+        queryResults.add(List.of(Map.of(
+                "id", "p-1",
+                "order_id", "o-1",
+                "created_at", Timestamp.from(Instant.parse("2026-03-01T09:00:00Z")),
+                "currency", "USD",
+                "amount", new BigDecimal("10.50"),
+                "refunded_total", new BigDecimal("0.00"),
+                "order_status", "CANCELLED"
+        ), Map.of(
+                // No projection row: the left join yields a null order status.
+                "id", "p-2",
+                "order_id", "o-2",
+                "created_at", Timestamp.from(Instant.parse("2026-03-01T10:00:00Z")),
+                "currency", "USD",
+                "amount", new BigDecimal("4.25"),
+                "refunded_total", new BigDecimal("1.00")
+        )));
+
+        StringWriter out = new StringWriter();
+        PaymentReconciliationService.ReportSummary summary = service.writeReport(
+                Instant.parse("2026-03-01T00:00:00Z"),
+                Instant.parse("2026-03-03T00:00:00Z"),
+                PaymentReconciliationService.Format.CSV,
+                out
+        );
+
+        assertEquals(List.of(
+                PaymentReconciliationService.CSV_HEADER,
+                "daily_total,2026-03-01,EUR,REFUND,REFUNDED,1,3.00,,,,",
+                "daily_total,2026-03-01,USD,PAY,PAID,2,14.75,,,,",
+                "daily_total,2026-03-02,USD,PAY,FAILED,1,7.00,,,,",
+                "unrefunded_pay,2026-03-01,USD,PAY,PAID,1,10.50,p-1,o-1,CANCELLED,0.00",
+                "unrefunded_pay,2026-03-01,USD,PAY,PAID,1,4.25,p-2,o-2,UNKNOWN,1.00"
+        ), out.toString().lines().toList());
+        assertEquals(4, summary.transactions());
+        assertEquals(3, summary.totalRows());
+        assertEquals(2, summary.unrefundedPays());
+        assertEquals(1, summary.unknownOrderStatus());
+    }
+
+    @Test
+    void ndjsonWritesOneObjectPerLine() throws Exception {
+        queryResults.add(List.of(row("2026-03-01T09:00:00Z", "USD", "PAY", "PAID", "10.50")));
+        queryResults.add(List.of());
+
+        StringWriter out = new StringWriter();
+        service.writeReport(
+                Instant.parse("2026-03-01T00:00:00Z"),
+                Instant.parse("2026-03-02T00:00:00Z"),
+                PaymentReconciliationService.Format.NDJSON,
+                out
+        );
+
+        List<String> lines = out.toString().lines().toList();
+        assertEquals(1, lines.size());
+        var record = new ObjectMapper().readTree(lines.get(0));
+        assertEquals("daily_total", record.path("recordType").asText());
+        assertEquals("10.50", record.path("amount").asText());
+    }
+
+    @Test
+    void rangeIsValidatedBeforeAnythingIsRead() {
+        PaymentException exception = assertThrows(PaymentException.class, () -> service.validateRange(
+                Instant.parse("2026-01-01T00:00:00Z"),
+                Instant.parse("2026-03-01T00:00:00Z")
+        ));
+
+        assertEquals(400, exception.getStatus());
+        assertEquals("INVALID_RANGE", exception.getCode());
+    }
+
+    private static Map<String, Object> row(String createdAt, String currency, String operationType, String status, String amount) {
+        return Map.of(
+                "created_at", Timestamp.from(Instant.parse(createdAt)),
+                "currency", currency,
+                "operation_type", operationType,
+                "status", status,
+                "amount", new BigDecimal(amount)
+        );
+    }
+
+    private static ResultSet resultSet(Map<String, Object> row) throws SQLException {
+        ResultSet rs = mock(ResultSet.class);
+        for (Map.Entry<String, Object> column : row.entrySet()) {
+            Object value = column.getValue();
+            if (value instanceof Timestamp timestamp) {
+                when(rs.getTimestamp(column.getKey())).thenReturn(timestamp);
+            } else if (value instanceof BigDecimal decimal) {
+                when(rs.getBigDecimal(column.getKey())).thenReturn(decimal);
+            } else {
+                when(rs.getString(column.getKey())).thenReturn((String) value);
+            }
+        }
+        return rs;
+    }
+}
@@ -6,17 +6,27 @@ import com.example.payment.dto.RefundRequest;
 import com.example.payment.model.PaymentOperationType;
 import com.example.payment.model.PaymentStatus;
 import com.example.payment.model.PaymentTransaction;
+import com.example.payment.provider.LatencyModel;
+import com.example.payment.provider.PaymentProvider;
+import com.example.payment.provider.ProviderRequest;
+import com.example.payment.provider.ProviderResult;
+import com.example.payment.provider.StubPaymentProvider;
 import com.example.payment.repository.PaymentTransactionRepository;
 import com.example.payment.util.StructuredLogger;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
-import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Pageable;
 
 import java.math.BigDecimal;
+import java.time.Duration;
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.atomic.AtomicReference;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
@@ -24,6 +34,7 @@ import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -37,9 +48,10 @@ class PaymentServiceTest {
         repository = org.mockito.Mockito.mock(PaymentTransactionRepository.class);
         service = new PaymentService(
                 repository,
+                new PaymentAttemptStore(repository),
+                new StubPaymentProvider(0.0, LatencyModel.fixed(0), Duration.ofSeconds(5)),
+                replayCache(false),
                 new StructuredLogger(new ObjectMapper()),
-                0.0,
-                0,
                 false,
                 0.0,
                 0.0,
@@ -48,7 +60,7 @@ class PaymentServiceTest {
     }
 
     @Test
-    void payShouldReplayDuplicateRequestOnUniqueViolation() {
+    void payShouldReplayDuplicateRequestFromConflictingInsert() {
         UUID orderId = UUID.randomUUID();
         UUID userId = UUID.randomUUID();
         String idempotencyKey = "pay-duplicate-key";
@@ -69,24 +81,53 @@ class PaymentServiceTest {
                 idempotencyKey
         );
 
-        when(repository.saveAndFlush(any(PaymentTransaction.class)))
-                .thenThrow(new DataIntegrityViolationException("duplicate idempotency key"));
-        when(repository.findByIdempotencyKey(idempotencyKey)).thenReturn(Optional.of(existing));
+        when(repository.insertOrFindByIdempotencyKey(any(UUID.class), any(PaymentTransaction.class), any(Instant.class)))
+                .thenReturn(Optional.of(existing));
 
         PaymentResponse response = service.pay(request, idempotencyKey, "corr-1");
 
         assertTrue(response.isIdempotentReplay());
         assertEquals(existing.getId(), response.getPaymentId());
         assertEquals("PAID", response.getStatus());
+        verify(repository, never()).findByIdempotencyKey(idempotencyKey);
+        verify(repository, never()).saveAndFlush(any(PaymentTransaction.class));
+    }
+
+    @Test
+    void payShouldFallBackToSelectWhenConflictingRowCommittedAfterInsertSnapshot() {
+        UUID orderId = UUID.randomUUID();
+        UUID userId = UUID.randomUUID();
+        String idempotencyKey = "pay-race-key";
+        PaymentTransaction existing = buildTransaction(
+                orderId,
+                userId,
+                new BigDecimal("12.00"),
+                "USD",
+                PaymentOperationType.PAY,
+                PaymentStatus.PAID,
+                idempotencyKey
+        );
+        PayRequest request = payRequest(orderId, "12.00");
+        request.setUserId(userId);
+
+        when(repository.insertOrFindByIdempotencyKey(any(UUID.class), any(PaymentTransaction.class), any(Instant.class)))
+                .thenReturn(Optional.empty());
+        when(repository.findByIdempotencyKey(idempotencyKey)).thenReturn(Optional.of(existing));
+
+        PaymentResponse response = service.pay(request, idempotencyKey, "corr-9");
+
+        assertTrue(response.isIdempotentReplay());
+        assertEquals(existing.getId(), response.getPaymentId());
     }
 
     @Test
     void payShouldPersistFailedStateAndReplayFailure() {
         service = new PaymentService(
                 repository,
+                new PaymentAttemptStore(repository),
+                new StubPaymentProvider(1.0, LatencyModel.fixed(0), Duration.ofSeconds(5)),
+                replayCache(false),
                 new StructuredLogger(new ObjectMapper()),
-                1.0,
-                0,
                 false,
                 0.0,
                 0.0,
@@ -105,17 +146,9 @@ class PaymentServiceTest {
         request.setCurrency("USD");
         request.setIdempotencyKey(idempotencyKey);
 
-        when(repository.saveAndFlush(any(PaymentTransaction.class)))
-                .thenAnswer(invocation -> {
-                    PaymentTransaction tx = invocation.getArgument(0);
-                    setId(tx, UUID.randomUUID());
-                    setTimestamps(tx);
-                    firstPersisted.set(tx);
-                    return tx;
-                })
-                .thenThrow(new DataIntegrityViolationException("duplicate idempotency key"));
-
-        when(repository.findByIdempotencyKey(idempotencyKey))
+        stubInsert(firstPersisted, new ArrayList<>());
+        when(repository.saveAndFlush(any(PaymentTransaction.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(repository.findByIdForUpdate(any(UUID.class)))
                 .thenAnswer(invocation -> Optional.ofNullable(firstPersisted.get()));
 
         PaymentException first = assertThrows(
@@ -160,9 +193,10 @@ class PaymentServiceTest {
         request.setCurrency("USD");
         request.setIdempotencyKey("refund-over-limit-key");
 
-        when(repository.findByIdForUpdate(paymentId)).thenReturn(Optional.of(paid));
-        when(repository.sumRefundedAmountByReferencePaymentIdExcludingIdempotencyKey(paymentId, "refund-over-limit-key"))
-                .thenReturn(new BigDecimal("80.00"));
+        AtomicReference<PaymentTransaction> pendingRefund = new AtomicReference<>();
+        when(repository.findById(paymentId)).thenReturn(Optional.of(paid));
+        stubInsert(pendingRefund, new ArrayList<>());
+        when(repository.addToRefundedTotal(paymentId, new BigDecimal("30.00"))).thenReturn(0);
 
         PaymentException exception = assertThrows(
                 PaymentException.class,
@@ -171,11 +205,58 @@ class PaymentServiceTest {
 
         assertEquals(409, exception.getStatus());
         assertEquals("REFUND_EXCEEDS_CAPTURED_AMOUNT", exception.getCode());
+        assertEquals(paymentId, pendingRefund.get().getReferencePaymentId());
         verify(repository, never()).saveAndFlush(any(PaymentTransaction.class));
     }
 
     @Test
-    void refundShouldReplayDuplicateRefundOnUniqueViolation() {
+    void declinedRefundShouldReturnItsAmountToThePayment() {
+        service = new PaymentService(
+                repository,
+                new PaymentAttemptStore(repository),
+                new StubPaymentProvider(1.0, LatencyModel.fixed(0), Duration.ofSeconds(5)),
+                replayCache(false),
+                new StructuredLogger(new ObjectMapper()),
+                false,
+                0.0,
+                0.0,
+                0
+        );
+        UUID orderId = UUID.randomUUID();
+        PaymentTransaction paid = buildTransaction(
+                orderId,
+                UUID.randomUUID(),
+                new BigDecimal("100.00"),
+                "USD",
+                PaymentOperationType.PAY,
+                PaymentStatus.PAID,
+                "pay-key-3"
+        );
+        RefundRequest request = new RefundRequest();
+        request.setOrderId(orderId);
+        request.setAmount(new BigDecimal("40.00"));
+        request.setCurrency("USD");
+        AtomicReference<PaymentTransaction> stored = new AtomicReference<>();
+
+        when(repository.findLatestPaidByOrderId(orderId)).thenReturn(Optional.of(paid));
+        when(repository.findByIdempotencyKey("refund-declined-key")).thenReturn(Optional.empty());
+        stubInsert(stored, new ArrayList<>());
+        when(repository.addToRefundedTotal(paid.getId(), new BigDecimal("40.00"))).thenReturn(1);
+        when(repository.findByIdForUpdate(any(UUID.class))).thenAnswer(invocation -> Optional.of(stored.get()));
+        when(repository.saveAndFlush(any(PaymentTransaction.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        PaymentException exception = assertThrows(
+                PaymentException.class,
+                () -> service.refund(request, "refund-declined-key", "corr-10")
+        );
+
+        assertEquals("REFUND_DECLINED", exception.getCode());
+        assertEquals(PaymentStatus.FAILED, stored.get().getStatus());
+        verify(repository).subtractFromRefundedTotal(paid.getId(), new BigDecimal("40.00"));
+    }
+
+    @Test
+    void refundShouldReplayDuplicateRefundFromConflictingInsert() {
         UUID orderId = UUID.randomUUID();
         UUID paymentId = UUID.randomUUID();
         UUID userId = UUID.randomUUID();
@@ -210,18 +291,304 @@ class PaymentServiceTest {
         request.setCurrency("USD");
         request.setIdempotencyKey(idempotencyKey);
 
-        when(repository.findByIdForUpdate(paymentId)).thenReturn(Optional.of(paid));
-        when(repository.sumRefundedAmountByReferencePaymentIdExcludingIdempotencyKey(paymentId, idempotencyKey))
-                .thenReturn(BigDecimal.ZERO);
-        when(repository.saveAndFlush(any(PaymentTransaction.class)))
-                .thenThrow(new DataIntegrityViolationException("duplicate idempotency key"));
-        when(repository.findByIdempotencyKey(idempotencyKey)).thenReturn(Optional.of(existingRefund));
+        when(repository.findById(paymentId)).thenReturn(Optional.of(paid));
+        when(repository.findByIdempotencyKey(idempotencyKey)).thenReturn(Optional.empty());
+        when(repository.insertOrFindByIdempotencyKey(any(UUID.class), any(PaymentTransaction.class), any(Instant.class)))
+                .thenReturn(Optional.of(existingRefund));
 
         PaymentResponse response = service.refund(request, idempotencyKey, "corr-5");
 
         assertTrue(response.isIdempotentReplay());
         assertEquals(existingRefund.getId(), response.getPaymentId());
         assertEquals("REFUNDED", response.getStatus());
+        verify(repository, never()).addToRefundedTotal(any(UUID.class), any(BigDecimal.class));
+    }
+
+    @Test
+    void payShouldRecordPendingAttemptBeforeCompletingIt() {
+        UUID orderId = UUID.randomUUID();
+        String idempotencyKey = "pay-two-phase-key";
+        AtomicReference<PaymentTransaction> stored = new AtomicReference<>();
+        List<PaymentStatus> savedStatuses = new ArrayList<>();
+
+        stubInsert(stored, savedStatuses);
+        when(repository.saveAndFlush(any(PaymentTransaction.class))).thenAnswer(invocation -> {
+            PaymentTransaction tx = invocation.getArgument(0);
+            savedStatuses.add(tx.getStatus());
+            return tx;
+        });
+        when(repository.findByIdForUpdate(any(UUID.class))).thenAnswer(invocation -> Optional.of(stored.get()));
+
+        PaymentResponse response = service.pay(payRequest(orderId, "25.00"), idempotencyKey, "corr-6");
+
+        assertEquals("PAID", response.getStatus());
+        assertEquals(List.of(PaymentStatus.PENDING, PaymentStatus.PAID), savedStatuses);
+        assertTrue(stored.get().getProviderRef().startsWith("pay-"));
+    }
+
+    @Test
+    void payReplayShouldBeAnsweredFromCacheWithoutDatabaseReads() {
+        service = new PaymentService(
+                repository,
+                new PaymentAttemptStore(repository),
+                new StubPaymentProvider(0.0, LatencyModel.fixed(0), Duration.ofSeconds(5)),
+                replayCache(true),
+                new StructuredLogger(new ObjectMapper()),
+                false,
+                0.0,
+                0.0,
+                0
+        );
+        String idempotencyKey = "pay-cached-key";
+        AtomicReference<PaymentTransaction> stored = new AtomicReference<>();
+        stubInsert(stored, new ArrayList<>());
+        when(repository.findByIdForUpdate(any(UUID.class))).thenAnswer(invocation -> Optional.of(stored.get()));
+        when(repository.saveAndFlush(any(PaymentTransaction.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        PayRequest request = payRequest(UUID.randomUUID(), "40.00");
+
+        PaymentResponse first = service.pay(request, idempotencyKey, "corr-first");
+        PaymentResponse replay = service.pay(request, idempotencyKey, "corr-replay");
+
+        assertTrue(replay.isIdempotentReplay());
+        assertEquals(first.getPaymentId(), replay.getPaymentId());
+        assertEquals(first.getProviderRef(), replay.getProviderRef());
+        assertEquals(first.getProcessedAt(), replay.getProcessedAt());
+        assertEquals("corr-replay", replay.getCorrelationId());
+
+        request.setAmount(new BigDecimal("41.00"));
+        PaymentException conflict = assertThrows(
+                PaymentException.class,
+                () -> service.pay(request, idempotencyKey, "corr-conflict")
+        );
+        assertEquals("IDEMPOTENCY_KEY_REUSED", conflict.getCode());
+
+        // Only the first request reached the repository.
+        verify(repository, times(1)).insertOrFindByIdempotencyKey(any(UUID.class), any(PaymentTransaction.class), any(Instant.class));
+        verify(repository, times(1)).findByIdForUpdate(any(UUID.class));
+    }
+
+    @Test
+    void payShouldReleasePendingAttemptWhenProviderCallErrors() {
+        service = new PaymentService(
+                repository,
+                new PaymentAttemptStore(repository),
+                new StubPaymentProvider(0.0, LatencyModel.fixed(0), Duration.ofSeconds(5)),
+                replayCache(false),
+                new StructuredLogger(new ObjectMapper()),
+                true,
+                0.0,
+                1.0,
+                0
+        );
+        String idempotencyKey = "pay-chaos-key";
+        AtomicReference<PaymentTransaction> stored = new AtomicReference<>();
+
+        stubInsert(stored, new ArrayList<>());
+        when(repository.findByIdForUpdate(any(UUID.class))).thenAnswer(invocation -> Optional.of(stored.get()));
+
+        PaymentException exception = assertThrows(
+                PaymentException.class,
+                () -> service.pay(payRequest(UUID.randomUUID(), "10.00"), idempotencyKey, "corr-7")
+        );
+
+        assertEquals("CHAOS_FAILURE", exception.getCode());
+        verify(repository).delete(stored.get());
+    }
+
+    @Test
+    void providerTimeoutLeavesAttemptPendingForRecovery() {
+        PaymentProvider silentProvider = new PaymentProvider() {
+            @Override
+            public String name() {
+                return "silent";
+            }
+
+            @Override
+            public CompletableFuture<ProviderResult> authorize(ProviderRequest request) {
+                return new CompletableFuture<>();
+            }
+
+            @Override
+            public CompletableFuture<ProviderResult> refund(ProviderRequest request) {
+                return new CompletableFuture<>();
+            }
+
+            @Override
+            public CompletableFuture<Optional<ProviderResult>> lookup(ProviderRequest request) {
+                return new CompletableFuture<>();
+            }
+
+            @Override
+            public Duration timeout() {
+                return Duration.ofMillis(20);
+            }
+        };
+        service = new PaymentService(
+                repository,
+                new PaymentAttemptStore(repository),
+                silentProvider,
+                replayCache(false),
+                new StructuredLogger(new ObjectMapper()),
+                false,
+                0.0,
+                0.0,
+                0
+        );
+        AtomicReference<PaymentTransaction> stored = new AtomicReference<>();
+        stubInsert(stored, new ArrayList<>());
+
+        PaymentException exception = assertThrows(
+                PaymentException.class,
+                () -> service.pay(payRequest(UUID.randomUUID(), "10.00"), "pay-timeout-key", "corr-11")
+        );
+
+        assertEquals(504, exception.getStatus());
+        assertEquals("PROVIDER_TIMEOUT", exception.getCode());
+        assertEquals(PaymentStatus.PENDING, stored.get().getStatus());
+        verify(repository, never()).delete(any(PaymentTransaction.class));
+        verify(repository, never()).saveAndFlush(any(PaymentTransaction.class));
+    }
+
+    @Test
+    void pendingReplayAndLateCompletionKeepRecoveredState() {
+        UUID orderId = UUID.randomUUID();
+        UUID userId = UUID.randomUUID();
+        PaymentTransaction pending = buildTransaction(
+                orderId,
+                userId,
+                new BigDecimal("25.00"),
+                "USD",
+                PaymentOperationType.PAY,
+                PaymentStatus.PENDING,
+                "pay-pending-key"
+        );
+        PayRequest request = payRequest(orderId, "25.00");
+        request.setUserId(userId);
+        when(repository.insertOrFindByIdempotencyKey(any(UUID.class), any(PaymentTransaction.class), any(Instant.class)))
+                .thenReturn(Optional.of(pending));
+
+        PaymentException inProgress = assertThrows(
+                PaymentException.class,
+                () -> service.pay(request, "pay-pending-key", "corr-8")
+        );
+        assertEquals(409, inProgress.getStatus());
+        assertEquals("PAYMENT_IN_PROGRESS", inProgress.getCode());
+
+        when(repository.findByStatusUpdatedBefore(any(PaymentStatus.class), any(Instant.class), any(Pageable.class)))
+                .thenReturn(List.of(pending));
+        when(repository.findByIdForUpdate(pending.getId())).thenReturn(Optional.of(pending));
+        when(repository.saveAndFlush(any(PaymentTransaction.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        PaymentAttemptStore store = new PaymentAttemptStore(repository);
+        // The stub provider has no record of the attempt, so it is failed.
+        int expired = new PendingPaymentRecovery(
+                store,
+                new StubPaymentProvider(0.0, LatencyModel.fixed(0), Duration.ofSeconds(5)),
+                new StructuredLogger(new ObjectMapper()),
+                60000,
+                100
+        ).recover(Instant.now());
+        assertEquals(1, expired);
+        assertEquals(PaymentStatus.FAILED, pending.getStatus());
+
+        // The provider answer arrives after recovery gave up on the attempt: the recorded failure wins.
+        PaymentTransaction completed = store.complete(pending.getId(), true, "pay-late", null);
+        assertEquals(PaymentStatus.FAILED, completed.getStatus());
+    }
+
+    @Test
+    void recoveryRecordsCaptureTheProviderMadeAndWaitsWhenItCannotAnswer() {
+        PaymentTransaction captured = buildTransaction(
+                UUID.randomUUID(), UUID.randomUUID(), new BigDecimal("25.00"), "USD",
+                PaymentOperationType.PAY, PaymentStatus.PENDING, "pay-captured-key"
+        );
+        PaymentTransaction unknown = buildTransaction(
+                UUID.randomUUID(), UUID.randomUUID(), new BigDecimal("12.00"), "USD",
+                PaymentOperationType.PAY, PaymentStatus.PENDING, "pay-unknown-key"
+        );
+        when(repository.findByStatusUpdatedBefore(any(PaymentStatus.class), any(Instant.class), any(Pageable.class)))
+                .thenReturn(List.of(captured, unknown));
+        when(repository.findByIdForUpdate(captured.getId())).thenReturn(Optional.of(captured));
+        when(repository.saveAndFlush(any(PaymentTransaction.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        PaymentProvider provider = new PaymentProvider() {
+            @Override
+            public String name() {
+                return "remembering";
+            }
+
+            @Override
+            public CompletableFuture<ProviderResult> authorize(ProviderRequest request) {
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            public CompletableFuture<ProviderResult> refund(ProviderRequest request) {
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            public CompletableFuture<Optional<ProviderResult>> lookup(ProviderRequest request) {
+                if ("pay-captured-key".equals(request.idempotencyKey())) {
+                    return CompletableFuture.completedFuture(Optional.of(ProviderResult.approved("pay-ref-1")));
+                }
+                return CompletableFuture.failedFuture(new IllegalStateException("Payment provider answered HTTP 503"));
+            }
+
+            @Override
+            public Duration timeout() {
+                return Duration.ofSeconds(1);
+            }
+        };
+
+        int resolved = new PendingPaymentRecovery(
+                new PaymentAttemptStore(repository), provider, new StructuredLogger(new ObjectMapper()), 60000, 100
+        ).recover(Instant.now());
+
+        assertEquals(1, resolved);
+        assertEquals(PaymentStatus.PAID, captured.getStatus());
+        assertEquals("pay-ref-1", captured.getProviderRef());
+        assertEquals(PaymentStatus.PENDING, unknown.getStatus());
+        verify(repository, never()).findByIdForUpdate(unknown.getId());
+    }
+
+    /**
+     * Mimics the single-statement insert: the first call stores the attempt under the generated id,
+     * later calls return the stored row.
+     */
+    private void stubInsert(AtomicReference<PaymentTransaction> stored, List<PaymentStatus> insertedStatuses) {
+        when(repository.insertOrFindByIdempotencyKey(any(UUID.class), any(PaymentTransaction.class), any(Instant.class)))
+                .thenAnswer(invocation -> {
+                    if (stored.get() == null) {
+                        PaymentTransaction tx = invocation.getArgument(1);
+                        setId(tx, invocation.getArgument(0));
+                        setTimestamps(tx);
+                        insertedStatuses.add(tx.getStatus());
+                        stored.set(tx);
+                    }
+                    return Optional.of(stored.get());
+                });
+    }
+
+    private static PaymentReplayCache replayCache(boolean enabled) {
+        return new PaymentReplayCache(
+                new SimpleMeterRegistry(),
+                null,
+                new StructuredLogger(new ObjectMapper()),
+                enabled,
+                1024 * 1024,
+                60000,
+                false,
+                "payment:replay:",
+                60000
+        );
+    }
+
+    private static PayRequest payRequest(UUID orderId, String amount) {
+        PayRequest request = new PayRequest();
+        request.setOrderId(orderId);
+        request.setUserId(UUID.randomUUID());
+        request.setAmount(new BigDecimal(amount));
+        request.setCurrency("USD");
+        return request;
     }
 
     private static PaymentTransaction buildTransaction(
@@ -0,0 +1,37 @@
+package com.example.payment.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class UuidV7Test {
+
+    @Test
+    void idsCarryVersionVariantAndCurrentMillisecond() {
+        long before = System.currentTimeMillis();
+        UUID id = UuidV7.next();
+        long after = System.currentTimeMillis();
+
+        assertEquals(7, id.version());
+        assertEquals(2, id.variant());
+        long millis = id.getMostSignificantBits() >>> 16;
+        assertTrue(millis >= before && millis <= after + 1, "timestamp " + millis + " outside the call");
+    }
+
+    @Test
+    void idsIncreaseStrictlyWithinAThread() {
+        // Far more than 4096 ids per millisecond, so the counter overflows into the next millisecond too.
+        UUID previous = UuidV7.next();
+        for (int i = 0; i < 200_000; i++) {
+            UUID next = UuidV7.next();
+            assertTrue(
+                    Long.compareUnsigned(next.getMostSignificantBits(), previous.getMostSignificantBits()) > 0,
+                    previous + " then " + next
+            );
+            previous = next;
+        }
+    }
+}
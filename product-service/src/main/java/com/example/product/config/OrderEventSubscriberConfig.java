@@ -0,0 +1,35 @@
+package com.example.product.config;
+
+import com.example.product.service.ProductPopularityRanking;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Feeds order events into the best-seller ranking. Every instance subscribes and keeps its own copy.
+ */
+@Configuration
+@ConditionalOnProperty(value = "product.popularity.consumer.enabled", havingValue = "true", matchIfMissing = true)
+public class OrderEventSubscriberConfig {
+
+    @Bean
+    public RedisMessageListenerContainer orderEventListenerContainer(
+            RedisConnectionFactory connectionFactory,
+            ProductPopularityRanking popularityRanking,
+            @Value("${product.popularity.channel:orders.events}") String channel
+    ) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        container.addMessageListener(
+                (message, pattern) -> popularityRanking.onOrderEvent(new String(message.getBody(), StandardCharsets.UTF_8)),
+                new ChannelTopic(channel)
+        );
+        return container;
+    }
+}
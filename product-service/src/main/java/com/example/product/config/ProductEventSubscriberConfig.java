@@ -0,0 +1,37 @@
+package com.example.product.config;
+
+import com.example.product.service.ProductEventCacheInvalidator;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Feeds the servlet deployment's product events into the reactive-read caches. Every read instance subscribes.
+ */
+@Configuration
+@Profile("reactive-read")
+@ConditionalOnProperty(value = "product.events.consumer.enabled", havingValue = "true", matchIfMissing = true)
+public class ProductEventSubscriberConfig {
+
+    @Bean
+    public RedisMessageListenerContainer productEventListenerContainer(
+            RedisConnectionFactory connectionFactory,
+            ProductEventCacheInvalidator cacheInvalidator,
+            @Value("${outbox.publisher.channel:products.events}") String channel
+    ) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        container.addMessageListener(
+                (message, pattern) -> cacheInvalidator.onProductEvent(new String(message.getBody(), StandardCharsets.UTF_8)),
+                new ChannelTopic(channel)
+        );
+        return container;
+    }
+}
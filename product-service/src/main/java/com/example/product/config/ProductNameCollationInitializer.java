@@ -0,0 +1,66 @@
+package com.example.product.config;
+
+import com.example.product.repository.ProductReadRepository;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * The columnar read engine orders names by Unicode code point. When it is enabled on Postgres, SQL listings
+ * switch to {@code COLLATE "C"} so both paths agree on pages and cursors; otherwise names keep the
+ * database collation. The switch needs the matching {@code (name COLLATE "C", id)} index, so name listings
+ * stay index-ordered; if that index cannot be created the collation is left off.
+ */
+@Component
+@DependsOn("entityManagerFactory")
+public class ProductNameCollationInitializer {
+
+    private static final Logger log = LoggerFactory.getLogger(ProductNameCollationInitializer.class);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ProductReadRepository readRepository;
+    private final boolean columnarEnabled;
+
+    public ProductNameCollationInitializer(
+            JdbcTemplate jdbcTemplate,
+            ProductReadRepository readRepository,
+            @Value("${product.read-engine.columnar.enabled:false}") boolean columnarEnabled
+    ) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.readRepository = readRepository;
+        this.columnarEnabled = columnarEnabled;
+    }
+
+    @PostConstruct
+    public void ensureNameCollation() {
+        if (!columnarEnabled) {
+            return;
+        }
+        String databaseName = jdbcTemplate.execute(
+                (ConnectionCallback<String>) connection -> connection.getMetaData().getDatabaseProductName()
+        );
+        if (!"PostgreSQL".equalsIgnoreCase(databaseName)) {
+            return;
+        }
+
+        try {
+            jdbcTemplate.execute("""
+                CREATE INDEX IF NOT EXISTS idx_products_name_codepoint_id
+                ON products ((name COLLATE %s), id)
+            """.formatted(ProductReadRepository.NAME_COLLATION));
+        } catch (DataAccessException ex) {
+            log.warn("Cannot create code point name index, SQL and columnar name listings may differ in order: {}",
+                    ex.getMessage());
+            return;
+        }
+
+        readRepository.enableNameCollation();
+        log.info("Product name listings use code point order to match the columnar read engine");
+    }
+}
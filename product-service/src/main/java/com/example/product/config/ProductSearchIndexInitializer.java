@@ -0,0 +1,52 @@
+package com.example.product.config;
+
+import com.example.product.repository.ProductSearchRepository;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+@Component
+@DependsOn("entityManagerFactory")
+public class ProductSearchIndexInitializer {
+
+    private static final Logger log = LoggerFactory.getLogger(ProductSearchIndexInitializer.class);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ProductSearchRepository searchRepository;
+
+    public ProductSearchIndexInitializer(JdbcTemplate jdbcTemplate, ProductSearchRepository searchRepository) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.searchRepository = searchRepository;
+    }
+
+    @PostConstruct
+    public void ensureSearchIndexes() {
+        String databaseName = jdbcTemplate.execute(
+                (ConnectionCallback<String>) connection -> connection.getMetaData().getDatabaseProductName()
+        );
+        if (!"PostgreSQL".equalsIgnoreCase(databaseName)) {
+            log.info("Trigram product search unavailable on {}, using LIKE fallback", databaseName);
+            return;
+        }
+
+        try {
+            jdbcTemplate.execute("CREATE EXTENSION IF NOT EXISTS pg_trgm");
+
+            jdbcTemplate.execute("""
+                CREATE INDEX IF NOT EXISTS idx_products_name_trgm
+                ON products USING gin (lower(name) gin_trgm_ops)
+            """);
+        } catch (DataAccessException ex) {
+            log.warn("Cannot create pg_trgm search index, using LIKE fallback: {}", ex.getMessage());
+            return;
+        }
+
+        searchRepository.enableTrigramSearch();
+        log.info("Product trigram search index check completed");
+    }
+}
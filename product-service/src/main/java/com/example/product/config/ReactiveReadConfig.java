@@ -0,0 +1,73 @@
+package com.example.product.config;
+
+import com.example.product.controller.ProductReadHandler;
+import com.example.product.exception.ReactiveErrorResponses;
+import jakarta.annotation.PreDestroy;
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactoryOptions;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.web.reactive.function.server.RouterFunction;
+import org.springframework.web.reactive.function.server.RouterFunctions;
+import org.springframework.web.reactive.function.server.ServerResponse;
+
+import java.time.Duration;
+
+/**
+ * Read-only WebFlux deployment of product-service. With the reactive-read profile the service runs
+ * on Netty and only serves GET /products and GET /products/{id}; list and detail queries go through
+ * R2DBC while search and cursor listings reuse the JPA path on a bounded elastic scheduler.
+ * Writes and internal stock endpoints are left to the servlet deployment.
+ */
+@Configuration
+@Profile("reactive-read")
+public class ReactiveReadConfig {
+
+    // Not a bean on purpose: Boot backs off the JDBC DataSource, and with it JPA, when it sees an
+    // R2DBC ConnectionFactory in the context.
+    private ConnectionPool connectionPool;
+
+    @Bean
+    public DatabaseClient productDatabaseClient(
+            @Value("${product.r2dbc.url}") String url,
+            @Value("${product.r2dbc.username:${spring.datasource.username:}}") String username,
+            @Value("${product.r2dbc.password:${spring.datasource.password:}}") String password,
+            @Value("${product.r2dbc.pool.initial-size:4}") int initialSize,
+            @Value("${product.r2dbc.pool.max-size:16}") int maxSize,
+            @Value("${product.r2dbc.pool.max-idle-ms:60000}") long maxIdleMs
+    ) {
+        ConnectionFactoryOptions options = ConnectionFactoryOptions.parse(url).mutate()
+                .option(ConnectionFactoryOptions.USER, username)
+                .option(ConnectionFactoryOptions.PASSWORD, password)
+                .build();
+        ConnectionPoolConfiguration configuration = ConnectionPoolConfiguration.builder(ConnectionFactories.get(options))
+                .name("product-r2dbc")
+                .initialSize(Math.max(0, initialSize))
+                .maxSize(Math.max(1, maxSize))
+                .maxIdleTime(Duration.ofMillis(Math.max(1, maxIdleMs)))
+                .build();
+        connectionPool = new ConnectionPool(configuration);
+        return DatabaseClient.create(connectionPool);
+    }
+
+    @PreDestroy
+    public void closePool() {
+        if (connectionPool != null) {
+            connectionPool.dispose();
+        }
+    }
+
+    @Bean
+    public RouterFunction<ServerResponse> productReadRoutes(ProductReadHandler handler, ReactiveErrorResponses errors) {
+        return RouterFunctions.route()
+                .GET("/products", handler::list)
+                .GET("/products/{id}", handler::getById)
+                .onError(Throwable.class, errors::toResponse)
+                .build();
+    }
+}
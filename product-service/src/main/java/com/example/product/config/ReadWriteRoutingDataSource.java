@@ -0,0 +1,60 @@
+package com.example.product.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Sends read-only transactions to the replica pool and everything else to the primary.
+ * Must sit behind a LazyConnectionDataSourceProxy so the lookup runs after the transaction's
+ * read-only flag has been bound. Checking out a primary connection does not count as a write; the services
+ * that change rows report their commits to {@link ReplicaLagMonitor#recordPrimaryWriteOnCommit()}.
+ */
+public class ReadWriteRoutingDataSource extends AbstractRoutingDataSource {
+
+    enum Route {
+        PRIMARY,
+        REPLICA
+    }
+
+    private final ReplicaLagMonitor lagMonitor;
+    private final Counter primaryRoutes;
+    private final Counter replicaRoutes;
+
+    public ReadWriteRoutingDataSource(
+            DataSource primary,
+            DataSource replica,
+            ReplicaLagMonitor lagMonitor,
+            MeterRegistry meterRegistry
+    ) {
+        this.lagMonitor = lagMonitor;
+        this.primaryRoutes = routeCounter(meterRegistry, Route.PRIMARY);
+        this.replicaRoutes = routeCounter(meterRegistry, Route.REPLICA);
+        setTargetDataSources(Map.of(Route.PRIMARY, primary, Route.REPLICA, replica));
+        setDefaultTargetDataSource(primary);
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            if (lagMonitor.useReplica()) {
+                replicaRoutes.increment();
+                return Route.REPLICA;
+            }
+        }
+        primaryRoutes.increment();
+        return Route.PRIMARY;
+    }
+
+    private static Counter routeCounter(MeterRegistry meterRegistry, Route route) {
+        return Counter.builder("product.datasource.routing")
+                .description("Connections handed out by the read/write routing datasource")
+                .tag("target", route.name().toLowerCase(Locale.ROOT))
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,102 @@
+package com.example.product.config;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Decides whether read-only transactions may use the replica.
+ * The replica is skipped while its measured lag exceeds max-lag-ms, while it cannot be reached,
+ * and for read-after-write-ms after this instance commits a write, so a fresh write is not
+ * immediately reloaded into the local caches from a replica that has not replayed it yet.
+ */
+public class ReplicaLagMonitor {
+
+    private static final Logger log = LoggerFactory.getLogger(ReplicaLagMonitor.class);
+
+    private final JdbcTemplate replicaJdbcTemplate;
+    private final String lagQuery;
+    private final long maxLagMs;
+    private final long readAfterWriteMs;
+    private final AtomicLong lagMs = new AtomicLong(-1);
+    private final AtomicLong lastPrimaryWriteAt = new AtomicLong();
+    private volatile boolean replicaAvailable;
+
+    public ReplicaLagMonitor(
+            DataSource replicaDataSource,
+            MeterRegistry meterRegistry,
+            String lagQuery,
+            long maxLagMs,
+            long readAfterWriteMs
+    ) {
+        this.replicaJdbcTemplate = new JdbcTemplate(replicaDataSource);
+        this.lagQuery = lagQuery;
+        this.maxLagMs = maxLagMs;
+        this.readAfterWriteMs = readAfterWriteMs;
+
+        Gauge.builder("product.datasource.replica.lag", lagMs, AtomicLong::get)
+                .description("Last measured replica replay lag in milliseconds, -1 when unknown")
+                .baseUnit("milliseconds")
+                .register(meterRegistry);
+        Gauge.builder("product.datasource.replica.available", this, monitor -> monitor.replicaAvailable ? 1 : 0)
+                .description("Whether read-only transactions are currently allowed on the replica")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${product.datasource.replica.lag-check-ms:1000}")
+    public void checkLag() {
+        try {
+            Long measured = replicaJdbcTemplate.queryForObject(lagQuery, Long.class);
+            long lag = measured == null ? 0 : Math.max(0, measured);
+            lagMs.set(lag);
+            updateAvailability(lag <= maxLagMs, "lag " + lag + "ms");
+        } catch (DataAccessException ex) {
+            lagMs.set(-1);
+            updateAvailability(false, ex.getMessage());
+        }
+    }
+
+    public boolean useReplica() {
+        return replicaAvailable && System.currentTimeMillis() - lastPrimaryWriteAt.get() >= readAfterWriteMs;
+    }
+
+    public void recordPrimaryWrite() {
+        lastPrimaryWriteAt.set(System.currentTimeMillis());
+    }
+
+    /**
+     * Starts the read-after-write window now and again when the surrounding transaction commits.
+     * Only call this from code that changed rows; a rollback leaves nothing to wait for.
+     */
+    public void recordPrimaryWriteOnCommit() {
+        recordPrimaryWrite();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    recordPrimaryWrite();
+                }
+            });
+        }
+    }
+
+    private void updateAvailability(boolean available, String reason) {
+        if (available != replicaAvailable) {
+            if (available) {
+                log.info("Routing read-only transactions to replica ({})", reason);
+            } else {
+                log.warn("Routing read-only transactions to primary, replica unusable: {}", reason);
+            }
+        }
+        replicaAvailable = available;
+    }
+}
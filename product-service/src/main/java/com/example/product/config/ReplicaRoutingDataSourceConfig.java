@@ -0,0 +1,81 @@
+package com.example.product.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+
+/**
+ * Replaces the auto-configured datasource with a primary pool, a replica pool and a routing
+ * datasource in front of them. Only active when product.datasource.replica.enabled is true;
+ * otherwise the service keeps the single spring.datasource pool.
+ */
+@Configuration
+@ConditionalOnProperty(name = "product.datasource.replica.enabled", havingValue = "true")
+public class ReplicaRoutingDataSourceConfig {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("product-primary");
+        return dataSource;
+    }
+
+    @Bean
+    @ConfigurationProperties("product.datasource.replica.hikari")
+    public HikariDataSource replicaDataSource(
+            @Value("${product.datasource.replica.url}") String url,
+            @Value("${product.datasource.replica.username:${spring.datasource.username:}}") String username,
+            @Value("${product.datasource.replica.password:${spring.datasource.password:}}") String password
+    ) {
+        HikariDataSource dataSource = DataSourceBuilder.create()
+                .type(HikariDataSource.class)
+                .url(url)
+                .username(username)
+                .password(password)
+                .build();
+        dataSource.setPoolName("product-replica");
+        dataSource.setReadOnly(true);
+        return dataSource;
+    }
+
+    @Bean
+    public ReplicaLagMonitor replicaLagMonitor(
+            @Qualifier("replicaDataSource") DataSource replicaDataSource,
+            MeterRegistry meterRegistry,
+            @Value("${product.datasource.replica.lag-query}") String lagQuery,
+            @Value("${product.datasource.replica.max-lag-ms:5000}") long maxLagMs,
+            @Value("${product.datasource.replica.read-after-write-ms:1000}") long readAfterWriteMs
+    ) {
+        return new ReplicaLagMonitor(replicaDataSource, meterRegistry, lagQuery, maxLagMs, readAfterWriteMs);
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(
+            @Qualifier("primaryDataSource") DataSource primaryDataSource,
+            @Qualifier("replicaDataSource") DataSource replicaDataSource,
+            ReplicaLagMonitor replicaLagMonitor,
+            MeterRegistry meterRegistry
+    ) {
+        ReadWriteRoutingDataSource routing = new ReadWriteRoutingDataSource(
+                primaryDataSource,
+                replicaDataSource,
+                replicaLagMonitor,
+                meterRegistry
+        );
+        routing.afterPropertiesSet();
+        return new LazyConnectionDataSourceProxy(routing);
+    }
+}
@@ -1,40 +1,68 @@
 package com.example.product.controller;
 
 import com.example.product.dto.ProductCreateRequest;
+import com.example.product.dto.ProductImportResponse;
 import com.example.product.dto.ProductPatchRequest;
 import com.example.product.dto.ProductPageResponse;
 import com.example.product.dto.ProductResponse;
+import com.example.product.dto.ProductSliceResponse;
+import com.example.product.dto.TopProductResponse;
 import com.example.product.exception.BadRequestException;
 import com.example.product.exception.ForbiddenException;
+import com.example.product.service.ProductExportService;
+import com.example.product.service.ProductImportService;
 import com.example.product.service.ProductService;
+import com.example.product.service.StockDeltaAggregator;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.Max;
 import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.Size;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.validation.annotation.Validated;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.nio.charset.StandardCharsets;
 import java.security.MessageDigest;
+import java.time.Instant;
+import java.util.List;
 import java.util.UUID;
 
 @Validated
 @RestController
+@Profile("!reactive-read")
 @RequestMapping("/products")
 // ĐÃ XÓA @CrossOrigin để tránh lỗi Multiple Origin Not Allowed khi qua Gateway
 public class ProductController {
 
+    private static final String TEXT_CSV_VALUE = "text/csv";
+
     private final ProductService service;
+    private final ProductImportService importService;
+    private final ProductExportService exportService;
+    private final StockDeltaAggregator stockDeltaAggregator;
     private final String internalServiceToken;
 
     public ProductController(
             ProductService service,
+            ProductImportService importService,
+            ProductExportService exportService,
+            StockDeltaAggregator stockDeltaAggregator,
             @Value("${security.internal.token}") String internalServiceToken
     ) {
         this.service = service;
+        this.importService = importService;
+        this.exportService = exportService;
+        this.stockDeltaAggregator = stockDeltaAggregator;
         this.internalServiceToken = internalServiceToken == null ? "" : internalServiceToken.trim();
     }
 
@@ -91,6 +119,25 @@ public class ProductController {
         return ResponseEntity.noContent().build();
     }
 
+    // =========================
+    // BULK IMPORT (SELLER / ADMIN)
+    // =========================
+    @PostMapping(value = "/import", consumes = {MediaType.APPLICATION_NDJSON_VALUE, TEXT_CSV_VALUE})
+    public ProductImportResponse importProducts(
+            @RequestHeader(value = "X-User-Id", required = false) String userIdHeader,
+            @RequestHeader(value = "X-User-Role", required = false) String userRoleHeader,
+            @RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+            InputStream body
+    ) {
+        validateUserIdHeader(userIdHeader);
+
+        ProductImportService.Format format = MediaType.parseMediaType(contentType)
+                .isCompatibleWith(MediaType.parseMediaType(TEXT_CSV_VALUE))
+                ? ProductImportService.Format.CSV
+                : ProductImportService.Format.NDJSON;
+        return importService.importProducts(body, format, userRoleHeader);
+    }
+
     // =========================
     // QUERY
     // =========================
@@ -101,17 +148,68 @@ public class ProductController {
             @RequestParam(defaultValue = "createdAt") String sortBy,
             @RequestParam(defaultValue = "desc") String sortDir,
             @RequestParam(required = false) String name,
+            @RequestParam(required = false) @Size(max = 100, message = "q must be at most 100 characters") String q,
             @RequestParam(required = false) @Positive(message = "minPrice must be greater than 0") Double minPrice,
             @RequestParam(required = false) @Positive(message = "maxPrice must be greater than 0") Double maxPrice,
             @RequestParam(required = false) @Min(value = 0, message = "minStock must be greater than or equal to 0") Integer minStock,
             @RequestParam(required = false) @Min(value = 0, message = "maxStock must be greater than or equal to 0") Integer maxStock
     ) {
-        return service.findAll(page, size, sortBy, sortDir, name, minPrice, maxPrice, minStock, maxStock);
+        return service.findAll(page, size, sortBy, sortDir, name, q, minPrice, maxPrice, minStock, maxStock);
+    }
+
+    @GetMapping(params = "pagination=cursor")
+    public ProductSliceResponse getSlice(
+            @RequestParam(defaultValue = "20") @Min(value = 1, message = "size must be greater than 0") @Max(value = 100, message = "size must be less than or equal to 100") int size,
+            @RequestParam(defaultValue = "createdAt") String sortBy,
+            @RequestParam(defaultValue = "desc") String sortDir,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) String name,
+            @RequestParam(required = false) @Positive(message = "minPrice must be greater than 0") Double minPrice,
+            @RequestParam(required = false) @Positive(message = "maxPrice must be greater than 0") Double maxPrice,
+            @RequestParam(required = false) @Min(value = 0, message = "minStock must be greater than or equal to 0") Integer minStock,
+            @RequestParam(required = false) @Min(value = 0, message = "maxStock must be greater than or equal to 0") Integer maxStock,
+            @RequestParam(defaultValue = "false") boolean approximateTotal
+    ) {
+        return service.findSlice(size, sortBy, sortDir, cursor, name, minPrice, maxPrice, minStock, maxStock, approximateTotal);
+    }
+
+    @GetMapping("/top")
+    public List<TopProductResponse> getTop(
+            @RequestParam(defaultValue = "10") @Min(value = 1, message = "limit must be greater than 0") @Max(value = 100, message = "limit must be less than or equal to 100") int limit
+    ) {
+        return service.findTop(limit);
+    }
+
+    // =========================
+    // CATALOG EXPORT (INTERNAL)
+    // =========================
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public void export(
+            @RequestHeader(value = "X-Internal-Caller", required = false) String caller,
+            @RequestHeader(value = "X-Internal-Token", required = false) String internalToken,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant updatedSince,
+            HttpServletResponse response
+    ) throws IOException {
+        // GET /products/** is public at the gateway, so role headers cannot be trusted here.
+        if (!hasValidInternalToken(caller, internalToken)) {
+            throw new ForbiddenException("FORBIDDEN_INTERNAL_ENDPOINT", "Forbidden internal endpoint");
+        }
+
+        response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        exportService.export(updatedSince, response.getOutputStream());
     }
 
     @GetMapping("/{id}")
-    public ProductResponse getById(@PathVariable UUID id) {
-        return service.findById(id);
+    public ResponseEntity<ProductResponse> getById(@PathVariable UUID id) {
+        ProductResponse product = service.findById(id);
+        if (product.getVersion() == null) {
+            return ResponseEntity.ok(product);
+        }
+        // Spring answers If-None-Match with 304 when the ETag matches.
+        return ResponseEntity.ok()
+                .eTag("\"" + product.getVersion() + "\"")
+                .body(product);
     }
 
     // =========================
@@ -143,20 +241,20 @@ public class ProductController {
             throw new ForbiddenException("FORBIDDEN_INTERNAL_ENDPOINT", "Forbidden internal endpoint");
         }
 
-        service.increaseStock(id, quantity);
+        stockDeltaAggregator.increaseStock(id, quantity);
         return ResponseEntity.ok().build();
     }
 
     private boolean isAllowedInternalCaller(String caller, String internalToken) {
+        boolean allowedCaller = "order-service".equalsIgnoreCase(caller) || "inventory-service".equalsIgnoreCase(caller);
+        return allowedCaller && hasValidInternalToken(caller, internalToken);
+    }
+
+    private boolean hasValidInternalToken(String caller, String internalToken) {
         if (caller == null || caller.isBlank()) {
             return false;
         }
-        if (internalToken == null || internalToken.isBlank()) {
-            return false;
-        }
-
-        boolean allowedCaller = "order-service".equalsIgnoreCase(caller) || "inventory-service".equalsIgnoreCase(caller);
-        if (!allowedCaller) {
+        if (internalToken == null || internalToken.isBlank() || internalServiceToken.isEmpty()) {
             return false;
         }
 
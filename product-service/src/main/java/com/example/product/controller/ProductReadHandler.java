@@ -0,0 +1,163 @@
+package com.example.product.controller;
+
+import com.example.product.exception.BadRequestException;
+import com.example.product.service.ProductListingCache;
+import com.example.product.service.ProductService;
+import com.example.product.service.ReactiveProductReadService;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.convert.ConversionException;
+import org.springframework.core.convert.ConversionService;
+import org.springframework.core.convert.support.DefaultConversionService;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.server.ServerRequest;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * WebFlux handlers for the public product reads. Parameter binding and validation mirror
+ * {@link ProductController}, including the "method.parameter: message" validation format.
+ */
+@Component
+@Profile("reactive-read")
+public class ProductReadHandler {
+
+    private static final ConversionService CONVERSION = DefaultConversionService.getSharedInstance();
+
+    private final ProductService productService;
+    private final ReactiveProductReadService readService;
+
+    public ProductReadHandler(ProductService productService, ReactiveProductReadService readService) {
+        this.productService = productService;
+        this.readService = readService;
+    }
+
+    public Mono<ServerResponse> list(ServerRequest request) {
+        return Mono.defer(() -> {
+            if ("cursor".equals(request.queryParam("pagination").orElse(null))) {
+                return slice(request);
+            }
+
+            int page = param(request, "page", Integer.class, 0);
+            int size = param(request, "size", Integer.class, 20);
+            String sortBy = param(request, "sortBy", String.class, "createdAt");
+            String sortDir = param(request, "sortDir", String.class, "desc");
+            String name = param(request, "name", String.class, null);
+            String q = param(request, "q", String.class, null);
+            Double minPrice = param(request, "minPrice", Double.class, null);
+            Double maxPrice = param(request, "maxPrice", Double.class, null);
+            Integer minStock = param(request, "minStock", Integer.class, null);
+            Integer maxStock = param(request, "maxStock", Integer.class, null);
+
+            Violations violations = new Violations("getAll");
+            violations.check(page >= 0, "page", "page must be greater than or equal to 0");
+            checkSize(violations, size);
+            violations.check(q == null || q.length() <= 100, "q", "q must be at most 100 characters");
+            checkFilters(violations, minPrice, maxPrice, minStock, maxStock);
+            violations.throwIfAny();
+
+            ProductListingCache.ListingKey key = productService.listingKey(
+                    page, size, sortBy, sortDir, name, q, minPrice, maxPrice, minStock, maxStock
+            );
+            return json(readService.findAll(key));
+        });
+    }
+
+    public Mono<ServerResponse> getById(ServerRequest request) {
+        return Mono.defer(() -> {
+            UUID id = convert("id", request.pathVariable("id"), UUID.class);
+            return readService.findById(id).flatMap(product -> {
+                if (product.getVersion() == null) {
+                    return ServerResponse.ok().contentType(MediaType.APPLICATION_JSON).bodyValue(product);
+                }
+                String etag = "\"" + product.getVersion() + "\"";
+                // checkNotModified completes empty unless If-None-Match matches.
+                return request.checkNotModified(etag)
+                        .switchIfEmpty(Mono.defer(() -> ServerResponse.ok()
+                                .eTag(etag)
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .bodyValue(product)));
+            });
+        });
+    }
+
+    private Mono<ServerResponse> slice(ServerRequest request) {
+        int size = param(request, "size", Integer.class, 20);
+        String sortBy = param(request, "sortBy", String.class, "createdAt");
+        String sortDir = param(request, "sortDir", String.class, "desc");
+        String cursor = param(request, "cursor", String.class, null);
+        String name = param(request, "name", String.class, null);
+        Double minPrice = param(request, "minPrice", Double.class, null);
+        Double maxPrice = param(request, "maxPrice", Double.class, null);
+        Integer minStock = param(request, "minStock", Integer.class, null);
+        Integer maxStock = param(request, "maxStock", Integer.class, null);
+        boolean approximateTotal = param(request, "approximateTotal", Boolean.class, false);
+
+        Violations violations = new Violations("getSlice");
+        checkSize(violations, size);
+        checkFilters(violations, minPrice, maxPrice, minStock, maxStock);
+        violations.throwIfAny();
+
+        return json(readService.findSlice(
+                size, sortBy, sortDir, cursor, name, minPrice, maxPrice, minStock, maxStock, approximateTotal
+        ));
+    }
+
+    private static void checkSize(Violations violations, int size) {
+        violations.check(size >= 1, "size", "size must be greater than 0");
+        violations.check(size <= 100, "size", "size must be less than or equal to 100");
+    }
+
+    private static void checkFilters(Violations violations, Double minPrice, Double maxPrice, Integer minStock, Integer maxStock) {
+        violations.check(minPrice == null || minPrice > 0, "minPrice", "minPrice must be greater than 0");
+        violations.check(maxPrice == null || maxPrice > 0, "maxPrice", "maxPrice must be greater than 0");
+        violations.check(minStock == null || minStock >= 0, "minStock", "minStock must be greater than or equal to 0");
+        violations.check(maxStock == null || maxStock >= 0, "maxStock", "maxStock must be greater than or equal to 0");
+    }
+
+    private static Mono<ServerResponse> json(Mono<?> body) {
+        return body.flatMap(value -> ServerResponse.ok().contentType(MediaType.APPLICATION_JSON).bodyValue(value));
+    }
+
+    // Blank values fall back to the default, as @RequestParam(defaultValue = ...) does.
+    private static <T> T param(ServerRequest request, String name, Class<T> type, T defaultValue) {
+        String raw = request.queryParam(name).orElse(null);
+        if (raw == null || raw.isEmpty()) {
+            return defaultValue;
+        }
+        return convert(name, raw, type);
+    }
+
+    private static <T> T convert(String name, String raw, Class<T> type) {
+        try {
+            return CONVERSION.convert(raw, type);
+        } catch (ConversionException ex) {
+            throw new BadRequestException("VALIDATION_ERROR", "Invalid value for parameter '" + name + "'");
+        }
+    }
+
+    private static final class Violations {
+        private final String method;
+        private final List<String> messages = new ArrayList<>();
+
+        Violations(String method) {
+            this.method = method;
+        }
+
+        void check(boolean valid, String parameter, String message) {
+            if (!valid) {
+                messages.add(method + "." + parameter + ": " + message);
+            }
+        }
+
+        void throwIfAny() {
+            if (!messages.isEmpty()) {
+                throw new BadRequestException("VALIDATION_ERROR", String.join(", ", messages));
+            }
+        }
+    }
+}
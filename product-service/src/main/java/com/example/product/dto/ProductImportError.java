@@ -0,0 +1,25 @@
+package com.example.product.dto;
+
+public class ProductImportError {
+    private long line;
+    private String code;
+    private String message;
+
+    public ProductImportError(long line, String code, String message) {
+        this.line = line;
+        this.code = code;
+        this.message = message;
+    }
+
+    public long getLine() {
+        return line;
+    }
+
+    public String getCode() {
+        return code;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+}
@@ -0,0 +1,45 @@
+package com.example.product.dto;
+
+import java.util.List;
+
+public class ProductImportResponse {
+    private long totalRows;
+    private long importedRows;
+    private long failedRows;
+    private boolean errorsTruncated;
+    private List<ProductImportError> errors;
+
+    public ProductImportResponse(
+            long totalRows,
+            long importedRows,
+            long failedRows,
+            boolean errorsTruncated,
+            List<ProductImportError> errors
+    ) {
+        this.totalRows = totalRows;
+        this.importedRows = importedRows;
+        this.failedRows = failedRows;
+        this.errorsTruncated = errorsTruncated;
+        this.errors = errors;
+    }
+
+    public long getTotalRows() {
+        return totalRows;
+    }
+
+    public long getImportedRows() {
+        return importedRows;
+    }
+
+    public long getFailedRows() {
+        return failedRows;
+    }
+
+    public boolean isErrorsTruncated() {
+        return errorsTruncated;
+    }
+
+    public List<ProductImportError> getErrors() {
+        return errors;
+    }
+}
@@ -1,5 +1,7 @@
 package com.example.product.dto;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
 import java.time.Instant;
 import java.util.UUID;
 
@@ -10,12 +12,20 @@ public class ProductResponse {
     private Integer stock;
     private Instant createdAt;
 
+    @JsonIgnore
+    private Long version;
+
     public ProductResponse(UUID id, String name, Double price, Integer stock, Instant createdAt) {
+        this(id, name, price, stock, createdAt, null);
+    }
+
+    public ProductResponse(UUID id, String name, Double price, Integer stock, Instant createdAt, Long version) {
         this.id = id;
         this.name = name;
         this.price = price;
         this.stock = stock;
         this.createdAt = createdAt;
+        this.version = version;
     }
 
     public UUID getId() {
@@ -37,4 +47,8 @@ public class ProductResponse {
     public Instant getCreatedAt() {
         return createdAt;
     }
+
+    public Long getVersion() {
+        return version;
+    }
 }
@@ -0,0 +1,63 @@
+package com.example.product.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.List;
+
+public class ProductSliceResponse {
+    private List<ProductResponse> items;
+    private int size;
+    private String sortBy;
+    private String sortDir;
+    private boolean hasNext;
+    private String nextCursor;
+
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Long approximateTotal;
+
+    public ProductSliceResponse(
+            List<ProductResponse> items,
+            int size,
+            String sortBy,
+            String sortDir,
+            boolean hasNext,
+            String nextCursor,
+            Long approximateTotal
+    ) {
+        this.items = items;
+        this.size = size;
+        this.sortBy = sortBy;
+        this.sortDir = sortDir;
+        this.hasNext = hasNext;
+        this.nextCursor = nextCursor;
+        this.approximateTotal = approximateTotal;
+    }
+
+    public List<ProductResponse> getItems() {
+        return items;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public String getSortBy() {
+        return sortBy;
+    }
+
+    public String getSortDir() {
+        return sortDir;
+    }
+
+    public boolean isHasNext() {
+        return hasNext;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public Long getApproximateTotal() {
+        return approximateTotal;
+    }
+}
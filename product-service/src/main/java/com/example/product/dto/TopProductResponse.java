@@ -0,0 +1,49 @@
+package com.example.product.dto;
+
+import java.time.Instant;
+import java.util.UUID;
+
+public class TopProductResponse {
+    private UUID id;
+    private String name;
+    private Double price;
+    private Integer stock;
+    private Instant createdAt;
+    private double salesScore;
+
+    public TopProductResponse(ProductResponse product, double salesScore) {
+        this.id = product.getId();
+        this.name = product.getName();
+        this.price = product.getPrice();
+        this.stock = product.getStock();
+        this.createdAt = product.getCreatedAt();
+        this.salesScore = salesScore;
+    }
+
+    public UUID getId() {
+        return id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public Double getPrice() {
+        return price;
+    }
+
+    public Integer getStock() {
+        return stock;
+    }
+
+    public Instant getCreatedAt() {
+        return createdAt;
+    }
+
+    /**
+     * Units sold, with each sale's weight halving every configured half-life.
+     */
+    public double getSalesScore() {
+        return salesScore;
+    }
+}
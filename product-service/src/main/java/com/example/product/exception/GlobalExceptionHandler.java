@@ -3,6 +3,7 @@ package com.example.product.exception;
 import jakarta.persistence.OptimisticLockException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.ConstraintViolationException;
+import org.springframework.context.annotation.Profile;
 import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -17,6 +18,7 @@ import java.util.Comparator;
 import java.util.stream.Collectors;
 
 @RestControllerAdvice
+@Profile("!reactive-read")
 public class GlobalExceptionHandler {
 
     @ExceptionHandler(ApiException.class)
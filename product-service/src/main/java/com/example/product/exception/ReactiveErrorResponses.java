@@ -0,0 +1,36 @@
+package com.example.product.exception;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.server.ServerRequest;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import reactor.core.publisher.Mono;
+
+/**
+ * Reactive counterpart of {@link GlobalExceptionHandler}: same status codes, same error codes and
+ * the same {@link ErrorResponse} body, so clients cannot tell which stack answered.
+ */
+@Component
+@Profile("reactive-read")
+public class ReactiveErrorResponses {
+
+    private static final Logger log = LoggerFactory.getLogger(ReactiveErrorResponses.class);
+
+    public Mono<ServerResponse> toResponse(Throwable ex, ServerRequest request) {
+        if (ex instanceof ApiException apiException) {
+            return write(apiException.getStatus(), apiException.getCode(), apiException.getMessage(), request);
+        }
+        log.error("Unexpected error on {}", request.path(), ex);
+        return write(HttpStatus.INTERNAL_SERVER_ERROR, "INTERNAL_ERROR", "internal server error", request);
+    }
+
+    private static Mono<ServerResponse> write(HttpStatus status, String code, String message, ServerRequest request) {
+        return ServerResponse.status(status)
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(new ErrorResponse(code, message, request.path()));
+    }
+}
@@ -0,0 +1,8 @@
+package com.example.product.model;
+
+public enum OutboxStatus {
+    PENDING,
+    PUBLISHED,
+    FAILED,
+    COALESCED
+}
@@ -5,11 +5,20 @@ import java.time.Instant;
 import java.util.UUID;
 
 @Entity
-@Table(name = "products")
+@Table(
+        name = "products",
+        indexes = {
+                @Index(name = "idx_products_created_at_id", columnList = "created_at, id"),
+                @Index(name = "idx_products_price_id", columnList = "price, id"),
+                @Index(name = "idx_products_stock_id", columnList = "stock, id"),
+                @Index(name = "idx_products_name_id", columnList = "name, id"),
+                @Index(name = "idx_products_updated_at_id", columnList = "updated_at, id")
+        }
+)
 public class Product {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.AUTO)
+    @UuidV7Id
     private UUID id;
 
     @Column(nullable = false)
@@ -28,16 +37,27 @@ public class Product {
     @Column(name = "created_at", updatable = false)
     private Instant createdAt;
 
+    @Column(name = "updated_at")
+    private Instant updatedAt;
+
     @PrePersist
     public void prePersist() {
         if (createdAt == null) {
             createdAt = Instant.now();
         }
+        if (updatedAt == null) {
+            updatedAt = createdAt;
+        }
         if (version == null) {
             version = 0L;
         }
     }
 
+    @PreUpdate
+    public void preUpdate() {
+        updatedAt = Instant.now();
+    }
+
     public UUID getId() {
         return id;
     }
@@ -74,6 +94,14 @@ public class Product {
         return createdAt;
     }
 
+    public void setCreatedAt(Instant createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public Instant getUpdatedAt() {
+        return updatedAt;
+    }
+
     public Long getVersion() {
         return version;
     }
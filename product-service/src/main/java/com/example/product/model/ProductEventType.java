@@ -0,0 +1,8 @@
+package com.example.product.model;
+
+public enum ProductEventType {
+    PRODUCT_CREATED,
+    PRODUCT_UPDATED,
+    PRODUCT_DELETED,
+    PRODUCT_STOCK_CHANGED
+}
@@ -0,0 +1,43 @@
+package com.example.product.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Periodic snapshot of the in-memory best-seller counters, read back on startup.
+ * The score is the decayed sales count as of {@code snapshotAt}.
+ */
+@Entity
+@Table(name = "product_popularity")
+public class ProductPopularity {
+
+    @Id
+    @Column(name = "product_id")
+    private UUID productId;
+
+    @Column(nullable = false)
+    private double score;
+
+    @Column(name = "snapshot_at", nullable = false)
+    private Instant snapshotAt;
+
+    protected ProductPopularity() {
+    }
+
+    public UUID getProductId() {
+        return productId;
+    }
+
+    public double getScore() {
+        return score;
+    }
+
+    public Instant getSnapshotAt() {
+        return snapshotAt;
+    }
+}
@@ -0,0 +1,44 @@
+package com.example.product.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Marker row written in the same transaction as a write-behind stock flush, so a journal file
+ * replayed after a crash is never applied twice. Markers older than the configured retention are pruned.
+ */
+@Entity
+@Table(
+        name = "stock_delta_batches",
+        indexes = @Index(name = "idx_stock_delta_batches_applied_at", columnList = "applied_at")
+)
+public class StockDeltaBatch {
+
+    @Id
+    private UUID id;
+
+    @Column(name = "applied_at", nullable = false)
+    private Instant appliedAt;
+
+    protected StockDeltaBatch() {
+    }
+
+    public StockDeltaBatch(UUID id, Instant appliedAt) {
+        this.id = id;
+        this.appliedAt = appliedAt;
+    }
+
+    public UUID getId() {
+        return id;
+    }
+
+    public Instant getAppliedAt() {
+        return appliedAt;
+    }
+}
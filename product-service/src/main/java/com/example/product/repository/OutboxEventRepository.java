@@ -0,0 +1,31 @@
+package com.example.product.repository;
+
+import com.example.product.model.OutboxEvent;
+import com.example.product.model.OutboxStatus;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, UUID> {
+
+    @Query("""
+        select oe
+        from OutboxEvent oe
+        where oe.status in :statuses
+          and oe.nextAttemptAt <= :now
+          and oe.retryCount < :maxRetryAttempts
+        order by oe.createdAt asc
+    """)
+    List<OutboxEvent> findReadyForPublish(
+            @Param("statuses") Collection<OutboxStatus> statuses,
+            @Param("now") Instant now,
+            @Param("maxRetryAttempts") int maxRetryAttempts,
+            Pageable pageable
+    );
+}
@@ -0,0 +1,57 @@
+package com.example.product.repository;
+
+import com.example.product.model.Product;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Multi-row product inserts for the import path. On Postgres, pair with reWriteBatchedInserts=true on the
+ * JDBC URL so each batch becomes a handful of multi-value INSERT statements.
+ */
+@Repository
+public class ProductBulkRepository {
+
+    private static final String INSERT_SQL =
+            "insert into products (id, name, price, stock, created_at, updated_at, version) values (?, ?, ?, ?, ?, ?, 0)";
+
+    private static final String INCREMENT_STOCK_SQL =
+            "update products set stock = stock + ?, version = version + 1, updated_at = ? where id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public ProductBulkRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public void insertAll(List<Product> products) {
+        jdbcTemplate.batchUpdate(INSERT_SQL, products, products.size(), (ps, product) -> {
+            ps.setObject(1, product.getId());
+            ps.setString(2, product.getName());
+            ps.setDouble(3, product.getPrice());
+            ps.setInt(4, product.getStock());
+            Timestamp createdAt = Timestamp.from(product.getCreatedAt());
+            ps.setTimestamp(5, createdAt);
+            ps.setTimestamp(6, createdAt);
+        });
+    }
+
+    /**
+     * Adds each delta to its product's stock with one UPDATE per product, sent as a single JDBC batch.
+     */
+    public void incrementStock(Map<UUID, Long> deltas, Instant updatedAt) {
+        List<Map.Entry<UUID, Long>> entries = new ArrayList<>(deltas.entrySet());
+        Timestamp timestamp = Timestamp.from(updatedAt);
+        jdbcTemplate.batchUpdate(INCREMENT_STOCK_SQL, entries, entries.size(), (ps, entry) -> {
+            ps.setLong(1, entry.getValue());
+            ps.setTimestamp(2, timestamp);
+            ps.setObject(3, entry.getKey());
+        });
+    }
+}
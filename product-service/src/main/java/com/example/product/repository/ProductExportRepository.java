@@ -0,0 +1,46 @@
+package com.example.product.repository;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.sql.DataSource;
+import java.sql.Timestamp;
+import java.time.Instant;
+
+/**
+ * Forward-only scan of the products table for the export endpoint.
+ * The read-only transaction turns autocommit off, which lets the Postgres driver honour the fetch
+ * size and pull rows through a server-side cursor instead of materialising the whole result.
+ */
+@Repository
+@Transactional(readOnly = true)
+public class ProductExportRepository {
+
+    private static final String COLUMNS = "select id, name, price, stock, version, created_at, updated_at from products";
+
+    // Rows written before updated_at existed fall back to created_at.
+    private static final String UPDATED_SINCE_FILTER =
+            " where updated_at >= ? or (updated_at is null and created_at >= ?)";
+
+    // Matches idx_products_updated_at_id (ascending, nulls last on Postgres), so the scan streams in index order.
+    private static final String UPDATED_SINCE_ORDER = " order by updated_at nulls last, id";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public ProductExportRepository(DataSource dataSource, @Value("${product.export.fetch-size:1000}") int fetchSize) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.jdbcTemplate.setFetchSize(Math.max(1, fetchSize));
+    }
+
+    public void streamAll(Instant updatedSince, RowCallbackHandler handler) {
+        if (updatedSince == null) {
+            jdbcTemplate.query(COLUMNS, handler);
+            return;
+        }
+        Timestamp since = Timestamp.from(updatedSince);
+        jdbcTemplate.query(COLUMNS + UPDATED_SINCE_FILTER + UPDATED_SINCE_ORDER, handler, since, since);
+    }
+}
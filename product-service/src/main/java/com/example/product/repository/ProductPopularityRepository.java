@@ -0,0 +1,56 @@
+package com.example.product.repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Snapshot storage for the best-seller ranking. The table only holds products with a live score,
+ * so each snapshot replaces it wholesale with one batch insert.
+ */
+@Repository
+public class ProductPopularityRepository {
+
+    private static final String INSERT_SQL =
+            "insert into product_popularity (product_id, score, snapshot_at) values (?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public ProductPopularityRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Transactional
+    public void replaceAll(Map<UUID, Double> scores, Instant snapshotAt) {
+        jdbcTemplate.update("delete from product_popularity");
+        List<Map.Entry<UUID, Double>> entries = new ArrayList<>(scores.entrySet());
+        Timestamp timestamp = Timestamp.from(snapshotAt);
+        jdbcTemplate.batchUpdate(INSERT_SQL, entries, 500, (ps, entry) -> {
+            ps.setObject(1, entry.getKey());
+            ps.setDouble(2, entry.getValue());
+            ps.setTimestamp(3, timestamp);
+        });
+    }
+
+    @Transactional(readOnly = true)
+    public List<Snapshot> findAll() {
+        return jdbcTemplate.query(
+                "select product_id, score, snapshot_at from product_popularity",
+                (rs, rowNum) -> new Snapshot(
+                        rs.getObject("product_id", UUID.class),
+                        rs.getDouble("score"),
+                        rs.getTimestamp("snapshot_at").toInstant()
+                )
+        );
+    }
+
+    public record Snapshot(UUID productId, double score, Instant snapshotAt) {
+    }
+}
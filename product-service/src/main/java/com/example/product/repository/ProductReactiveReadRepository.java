@@ -0,0 +1,142 @@
+package com.example.product.repository;
+
+import com.example.product.dto.ProductPageResponse;
+import com.example.product.dto.ProductResponse;
+import com.example.product.service.ProductListingCache;
+import io.r2dbc.spi.Readable;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Mono;
+
+import java.time.OffsetDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * R2DBC twin of the JPA listing and detail queries, used by the reactive-read profile.
+ * The SQL mirrors what Hibernate generates for {@link ProductReadRepository}, so both stacks
+ * return the same rows in the same order, including the name collation when {@link ProductReadRepository} uses it.
+ */
+@Repository
+@Profile("reactive-read")
+public class ProductReactiveReadRepository {
+
+    private static final String COLUMNS = "select id, name, price, stock, created_at, version from products";
+
+    private final DatabaseClient databaseClient;
+    private final ProductReadRepository readRepository;
+
+    public ProductReactiveReadRepository(DatabaseClient productDatabaseClient, ProductReadRepository readRepository) {
+        this.databaseClient = productDatabaseClient;
+        this.readRepository = readRepository;
+    }
+
+    public Mono<ProductResponse> findById(UUID id) {
+        return databaseClient.sql(COLUMNS + " where id = :id")
+                .bind("id", id)
+                .map(ProductReactiveReadRepository::toResponse)
+                .one();
+    }
+
+    public Mono<ProductPageResponse> findPage(ProductListingCache.ListingKey key) {
+        Map<String, Object> params = new LinkedHashMap<>();
+        StringBuilder where = new StringBuilder();
+        if (key.name() != null) {
+            appendCondition(where, "lower(name) like :name");
+            params.put("name", "%" + key.name() + "%");
+        }
+        if (key.minPrice() != null) {
+            appendCondition(where, "price >= :minPrice");
+            params.put("minPrice", key.minPrice());
+        }
+        if (key.maxPrice() != null) {
+            appendCondition(where, "price <= :maxPrice");
+            params.put("maxPrice", key.maxPrice());
+        }
+        if (key.minStock() != null) {
+            appendCondition(where, "stock >= :minStock");
+            params.put("minStock", key.minStock());
+        }
+        if (key.maxStock() != null) {
+            appendCondition(where, "stock <= :maxStock");
+            params.put("maxStock", key.maxStock());
+        }
+
+        String direction = "ASC".equals(key.sortDir()) ? " asc" : " desc";
+        String orderBy = " order by " + sortColumn(key.sortBy()) + direction + ", id" + direction;
+        long offset = (long) key.page() * key.size();
+
+        DatabaseClient.GenericExecuteSpec itemsSpec = databaseClient.sql(COLUMNS + where + orderBy + " limit :limit offset :offset")
+                .bind("limit", key.size())
+                .bind("offset", offset);
+        Mono<List<ProductResponse>> items = bindAll(itemsSpec, params)
+                .map(ProductReactiveReadRepository::toResponse)
+                .all()
+                .collectList();
+
+        return items.flatMap(content -> {
+            // Same shortcut as Spring Data: a short page already tells us the total.
+            boolean shortPage = content.size() < key.size() && (offset == 0 || !content.isEmpty());
+            Mono<Long> total = shortPage
+                    ? Mono.just(offset + content.size())
+                    : bindAll(databaseClient.sql("select count(*) from products" + where), params)
+                    .map(row -> row.get(0, Long.class))
+                    .one();
+            return total.map(count -> toPageResponse(key, new PageImpl<>(content, PageRequest.of(key.page(), key.size()), count)));
+        });
+    }
+
+    private static ProductPageResponse toPageResponse(ProductListingCache.ListingKey key, Page<ProductResponse> result) {
+        return new ProductPageResponse(
+                result.getContent(),
+                result.getNumber(),
+                result.getSize(),
+                result.getTotalElements(),
+                result.getTotalPages(),
+                key.sortBy(),
+                key.sortDir(),
+                result.hasNext(),
+                result.hasPrevious()
+        );
+    }
+
+    private static DatabaseClient.GenericExecuteSpec bindAll(DatabaseClient.GenericExecuteSpec spec, Map<String, Object> params) {
+        for (Map.Entry<String, Object> param : params.entrySet()) {
+            spec = spec.bind(param.getKey(), param.getValue());
+        }
+        return spec;
+    }
+
+    private static void appendCondition(StringBuilder where, String condition) {
+        where.append(where.isEmpty() ? " where " : " and ").append(condition);
+    }
+
+    private static ProductResponse toResponse(Readable row) {
+        OffsetDateTime createdAt = row.get("created_at", OffsetDateTime.class);
+        return new ProductResponse(
+                row.get("id", UUID.class),
+                row.get("name", String.class),
+                row.get("price", Double.class),
+                row.get("stock", Integer.class),
+                createdAt == null ? null : createdAt.toInstant(),
+                row.get("version", Long.class)
+        );
+    }
+
+    private String sortColumn(String sortBy) {
+        return switch (sortBy) {
+            case "name" -> readRepository.isNameCollationEnabled()
+                    ? "name collate " + ProductReadRepository.NAME_COLLATION
+                    : "name";
+            case "price" -> "price";
+            case "stock" -> "stock";
+            default -> "created_at";
+        };
+    }
+}
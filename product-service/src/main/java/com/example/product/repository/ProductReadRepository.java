@@ -0,0 +1,134 @@
+package com.example.product.repository;
+
+import com.example.product.dto.ProductResponse;
+import com.example.product.model.Product;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Order;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.hibernate.query.criteria.HibernateCriteriaBuilder;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.support.PageableExecutionUtils;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Listing queries that select straight into {@link ProductResponse}.
+ * No entities are loaded, so Hibernate keeps no managed instances or dirty-checking snapshots for them.
+ * When the columnar read engine is enabled on Postgres, names sort and compare with {@link #NAME_COLLATION}
+ * (Unicode code point order) rather than the database's linguistic collation, so both paths return the same
+ * order; {@link com.example.product.config.ProductNameCollationInitializer} turns this on.
+ */
+@Repository
+@Transactional(readOnly = true)
+public class ProductReadRepository {
+
+    public static final String NAME_COLLATION = "\"C\"";
+
+    private final EntityManager entityManager;
+    private volatile boolean collateNames;
+
+    public ProductReadRepository(EntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+
+    public void enableNameCollation() {
+        this.collateNames = true;
+    }
+
+    public boolean isNameCollationEnabled() {
+        return collateNames;
+    }
+
+    public Page<ProductResponse> findPage(Specification<Product> spec, Pageable pageable) {
+        List<ProductResponse> content = entityManager.createQuery(select(spec, pageable.getSort()))
+                .setFirstResult((int) pageable.getOffset())
+                .setMaxResults(pageable.getPageSize())
+                .getResultList();
+        return PageableExecutionUtils.getPage(content, pageable, () -> count(spec));
+    }
+
+    public Slice<ProductResponse> findSlice(Specification<Product> spec, int size, Sort sort) {
+        List<ProductResponse> content = entityManager.createQuery(select(spec, sort))
+                .setMaxResults(size + 1)
+                .getResultList();
+        boolean hasNext = content.size() > size;
+        return new SliceImpl<>(hasNext ? content.subList(0, size) : content, Pageable.ofSize(size), hasNext);
+    }
+
+    /**
+     * Rows [offset, offset + limit) in the given order, for callers that page over a partial result.
+     */
+    public List<ProductResponse> findRange(Specification<Product> spec, Sort sort, long offset, int limit) {
+        return entityManager.createQuery(select(spec, sort))
+                .setFirstResult((int) offset)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+    public List<ProductResponse> findAll(Specification<Product> spec) {
+        return entityManager.createQuery(select(spec, Sort.unsorted())).getResultList();
+    }
+
+    private CriteriaQuery<ProductResponse> select(Specification<Product> spec, Sort sort) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<ProductResponse> query = cb.createQuery(ProductResponse.class);
+        Root<Product> root = query.from(Product.class);
+        query.select(cb.construct(
+                ProductResponse.class,
+                root.get("id"),
+                root.get("name"),
+                root.get("price"),
+                root.get("stock"),
+                root.get("createdAt"),
+                root.get("version")
+        ));
+        Predicate predicate = spec.toPredicate(root, query, cb);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        query.orderBy(toOrders(sort, root, cb));
+        return query;
+    }
+
+    /**
+     * The expression listings sort and keyset-compare names by.
+     */
+    public Expression<String> nameSortKey(Root<Product> root, CriteriaBuilder cb) {
+        Path<String> name = root.get("name");
+        return collateNames ? ((HibernateCriteriaBuilder) cb).collate(name, NAME_COLLATION) : name;
+    }
+
+    private List<Order> toOrders(Sort sort, Root<Product> root, CriteriaBuilder cb) {
+        List<Order> orders = new ArrayList<>();
+        for (Sort.Order order : sort) {
+            Expression<?> key = "name".equals(order.getProperty()) ? nameSortKey(root, cb) : root.get(order.getProperty());
+            orders.add(order.isAscending() ? cb.asc(key) : cb.desc(key));
+        }
+        return orders;
+    }
+
+    public long count(Specification<Product> spec) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> query = cb.createQuery(Long.class);
+        Root<Product> root = query.from(Product.class);
+        query.select(cb.count(root));
+        Predicate predicate = spec.toPredicate(root, query, cb);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        return entityManager.createQuery(query).getSingleResult();
+    }
+}
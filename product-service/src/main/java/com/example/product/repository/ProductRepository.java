@@ -1,9 +1,27 @@
 package com.example.product.repository;
 
+import com.example.product.dto.ProductResponse;
 import com.example.product.model.Product;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Optional;
 import java.util.UUID;
 
-public interface ProductRepository extends JpaRepository<Product, UUID>, JpaSpecificationExecutor<Product> {}
+public interface ProductRepository extends JpaRepository<Product, UUID>, JpaSpecificationExecutor<Product> {
+
+    @Transactional(readOnly = true)
+    @Query(value = "select cast(reltuples as bigint) from pg_class where relname = 'products'", nativeQuery = true)
+    Long estimateRowCount();
+
+    @Query("""
+            select new com.example.product.dto.ProductResponse(p.id, p.name, p.price, p.stock, p.createdAt, p.version)
+            from Product p
+            where p.id = :id
+            """)
+    @Transactional(readOnly = true)
+    Optional<ProductResponse> findResponseById(@Param("id") UUID id);
+}
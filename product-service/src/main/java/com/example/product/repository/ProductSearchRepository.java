@@ -0,0 +1,134 @@
+package com.example.product.repository;
+
+import com.example.product.dto.ProductResponse;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Relevance-ranked product name search.
+ * On Postgres the query is served by the pg_trgm GIN index on lower(name): substring matches
+ * and word-similarity (typo tolerant) matches both use it. Other databases fall back to
+ * per-token LIKE matching so tests keep the same contract.
+ */
+@Repository
+@Transactional(readOnly = true)
+public class ProductSearchRepository {
+
+    private static final String COLUMNS = "p.id, p.name, p.price, p.stock, p.created_at, p.version";
+
+    private static final RowMapper<ProductResponse> ROW_MAPPER = (rs, rowNum) -> {
+        Timestamp createdAt = rs.getTimestamp("created_at");
+        return new ProductResponse(
+                rs.getObject("id", UUID.class),
+                rs.getString("name"),
+                rs.getDouble("price"),
+                rs.getInt("stock"),
+                createdAt == null ? null : createdAt.toInstant(),
+                rs.getLong("version")
+        );
+    };
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private volatile boolean trigramEnabled;
+
+    public ProductSearchRepository(NamedParameterJdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public void enableTrigramSearch() {
+        this.trigramEnabled = true;
+    }
+
+    public Page<ProductResponse> search(
+            String normalizedQuery,
+            String nameFilter,
+            Double minPrice,
+            Double maxPrice,
+            Integer minStock,
+            Integer maxStock,
+            int page,
+            int size
+    ) {
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("q", normalizedQuery)
+                .addValue("pattern", "%" + escapeLike(normalizedQuery) + "%")
+                .addValue("prefix", escapeLike(normalizedQuery) + "%")
+                .addValue("limit", size)
+                .addValue("offset", (long) page * size);
+
+        StringBuilder where = new StringBuilder();
+        String ranking;
+        if (trigramEnabled) {
+            where.append(" where (lower(p.name) like :pattern or :q <% lower(p.name))");
+            ranking = """
+                 order by case when lower(p.name) like :prefix then 1 else 0 end desc,
+                          word_similarity(:q, lower(p.name)) desc,
+                          p.name asc,
+                          p.id asc
+                """;
+        } else {
+            String[] tokens = normalizedQuery.split(" ");
+            where.append(" where (lower(p.name) like :pattern");
+            where.append(" or (");
+            for (int i = 0; i < tokens.length; i++) {
+                if (i > 0) {
+                    where.append(" and ");
+                }
+                where.append("lower(p.name) like :token").append(i);
+                params.addValue("token" + i, "%" + escapeLike(tokens[i]) + "%");
+            }
+            where.append("))");
+            params.addValue("firstToken", tokens[0]);
+            ranking = """
+                 order by case when lower(p.name) like :prefix then 1 else 0 end desc,
+                          locate(:firstToken, lower(p.name)) asc,
+                          p.name asc,
+                          p.id asc
+                """;
+        }
+
+        if (nameFilter != null) {
+            where.append(" and lower(p.name) like :nameFilter");
+            params.addValue("nameFilter", "%" + escapeLike(nameFilter) + "%");
+        }
+        if (minPrice != null) {
+            where.append(" and p.price >= :minPrice");
+            params.addValue("minPrice", minPrice);
+        }
+        if (maxPrice != null) {
+            where.append(" and p.price <= :maxPrice");
+            params.addValue("maxPrice", maxPrice);
+        }
+        if (minStock != null) {
+            where.append(" and p.stock >= :minStock");
+            params.addValue("minStock", minStock);
+        }
+        if (maxStock != null) {
+            where.append(" and p.stock <= :maxStock");
+            params.addValue("maxStock", maxStock);
+        }
+
+        List<ProductResponse> items = jdbcTemplate.query(
+                "select " + COLUMNS + " from products p" + where + ranking + " limit :limit offset :offset",
+                params,
+                ROW_MAPPER
+        );
+        Long total = jdbcTemplate.queryForObject("select count(*) from products p" + where, params, Long.class);
+
+        return new PageImpl<>(items, PageRequest.of(page, size), total == null ? 0 : total);
+    }
+
+    private static String escapeLike(String value) {
+        return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+}
@@ -0,0 +1,17 @@
+package com.example.product.repository;
+
+import com.example.product.model.StockDeltaBatch;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.Instant;
+import java.util.UUID;
+
+public interface StockDeltaBatchRepository extends JpaRepository<StockDeltaBatch, UUID> {
+
+    @Modifying
+    @Query("delete from StockDeltaBatch b where b.appliedAt < :cutoff")
+    int deleteAppliedBefore(@Param("cutoff") Instant cutoff);
+}
@@ -0,0 +1,439 @@
+package com.example.product.service;
+
+import com.example.product.dto.ProductPageResponse;
+import com.example.product.dto.ProductResponse;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.IntPredicate;
+import java.util.stream.IntStream;
+
+/**
+ * Columnar in-memory copy of the catalog used to answer listing queries without the database.
+ * <p>
+ * Rows live in a large immutable base snapshot (primitive columns plus one sorted permutation per
+ * sortable field) and a small delta snapshot holding rows written since the last rebuild. Queries
+ * merge both in sort order, skipping base rows shadowed by the delta. Writes only copy the delta,
+ * and the base is rebuilt once the delta grows past {@code maxDeltaSize}.
+ * <p>
+ * Ties are broken by id, and both comparisons follow the SQL listing path so pages and their
+ * boundaries are identical whichever path answers: names by Unicode code point (the SQL side sorts
+ * with {@code COLLATE "C"} on Postgres) and ids as unsigned bytes, as Postgres compares uuids.
+ */
+final class ColumnarCatalogIndex {
+
+    private static final long NO_TIMESTAMP = Long.MIN_VALUE;
+
+    private final int maxDeltaSize;
+    private final AtomicReference<State> state = new AtomicReference<>(State.EMPTY);
+    private long writeSequence;
+
+    ColumnarCatalogIndex(int maxDeltaSize) {
+        this.maxDeltaSize = Math.max(1, maxDeltaSize);
+    }
+
+    record Row(UUID id, String name, double price, int stock, Instant createdAt, long version, boolean deleted) {
+
+        static Row tombstone(UUID id) {
+            return new Row(id, null, 0, 0, null, Long.MAX_VALUE, true);
+        }
+    }
+
+    private record Pending(Row row, long sequence) {
+    }
+
+    int size() {
+        State current = state.get();
+        return current.base.size - current.shadowedInBase + current.delta.size;
+    }
+
+    synchronized long writeSequence() {
+        return writeSequence;
+    }
+
+    /**
+     * Installs a fresh base loaded from the database. Writes applied after {@code loadedAfterSequence}
+     * may not be visible in {@code rows}, so they stay in the delta.
+     */
+    synchronized void replaceAll(Collection<Row> rows, long loadedAfterSequence) {
+        Map<UUID, Pending> pending = new HashMap<>();
+        for (Pending write : state.get().pending.values()) {
+            if (write.sequence() > loadedAfterSequence) {
+                pending.put(write.row().id(), write);
+            }
+        }
+        state.set(State.of(Snapshot.of(rows), pending));
+    }
+
+    synchronized void apply(Row row) {
+        State current = state.get();
+        if (!row.deleted() && isStale(current, row)) {
+            // A late after-commit callback must not roll back a newer version.
+            return;
+        }
+
+        Map<UUID, Pending> pending = new HashMap<>(current.pending);
+        pending.put(row.id(), new Pending(row, ++writeSequence));
+        if (pending.size() > maxDeltaSize) {
+            state.set(State.of(current.merge(pending), Map.of()));
+        } else {
+            state.set(State.of(current.base, pending));
+        }
+    }
+
+    private static boolean isStale(State state, Row row) {
+        Pending known = state.pending.get(row.id());
+        if (known != null) {
+            return known.row().version() > row.version();
+        }
+        Integer position = state.base.positions.get(row.id());
+        return position != null && state.base.versions[position] > row.version();
+    }
+
+    ProductPageResponse query(ProductListingCache.ListingKey key) {
+        State current = state.get();
+        Snapshot base = current.base;
+        Snapshot delta = current.delta;
+        boolean ascending = "ASC".equals(key.sortDir());
+
+        Ordering baseOrder = base.ordering(key.sortBy());
+        Ordering deltaOrder = delta.ordering(key.sortBy());
+        int[] baseRange = baseOrder.range(key);
+
+        long offset = (long) key.page() * key.size();
+        long matched = 0;
+        List<ProductResponse> items = new ArrayList<>(key.size());
+
+        int baseCursor = ascending ? baseRange[0] : baseRange[1] - 1;
+        int baseStep = ascending ? 1 : -1;
+        int deltaCursor = ascending ? 0 : delta.size - 1;
+
+        // Without filters the total is known up front, so the scan can stop once the page is full.
+        boolean unfiltered = key.name() == null
+                && key.minPrice() == null
+                && key.maxPrice() == null
+                && key.minStock() == null
+                && key.maxStock() == null;
+
+        int nextBase = nextBaseMatch(current, baseOrder, baseCursor, baseStep, baseRange, key);
+        int nextDelta = nextDeltaMatch(delta, deltaOrder, deltaCursor, ascending ? 1 : -1, key);
+
+        while (nextBase >= 0 || nextDelta >= 0) {
+            if (unfiltered && items.size() == key.size()) {
+                break;
+            }
+
+            boolean takeBase;
+            if (nextDelta < 0) {
+                takeBase = true;
+            } else if (nextBase < 0) {
+                takeBase = false;
+            } else {
+                int cmp = compare(base, baseOrder.rows[nextBase], delta, deltaOrder.rows[nextDelta], key.sortBy());
+                takeBase = ascending ? cmp <= 0 : cmp >= 0;
+            }
+
+            if (matched >= offset && items.size() < key.size()) {
+                items.add(takeBase
+                        ? base.toResponse(baseOrder.rows[nextBase])
+                        : delta.toResponse(deltaOrder.rows[nextDelta]));
+            }
+            matched++;
+
+            if (takeBase) {
+                nextBase = nextBaseMatch(current, baseOrder, nextBase + baseStep, baseStep, baseRange, key);
+            } else {
+                nextDelta = nextDeltaMatch(delta, deltaOrder, nextDelta + (ascending ? 1 : -1), ascending ? 1 : -1, key);
+            }
+        }
+
+        if (unfiltered) {
+            matched = current.base.size - current.shadowedInBase + delta.size;
+        }
+        int totalPages = matched == 0 ? 0 : (int) ((matched + key.size() - 1) / key.size());
+        return new ProductPageResponse(
+                items,
+                key.page(),
+                key.size(),
+                matched,
+                totalPages,
+                key.sortBy(),
+                key.sortDir(),
+                key.page() + 1 < totalPages,
+                key.page() > 0
+        );
+    }
+
+    private static int nextBaseMatch(
+            State state,
+            Ordering order,
+            int position,
+            int step,
+            int[] range,
+            ProductListingCache.ListingKey key
+    ) {
+        Snapshot base = state.base;
+        boolean shadowing = !state.pending.isEmpty();
+        for (int p = position; p >= range[0] && p < range[1]; p += step) {
+            if (base.matches(order, p, key)
+                    && !(shadowing && state.pending.containsKey(base.ids[order.rows[p]]))) {
+                return p;
+            }
+        }
+        return -1;
+    }
+
+    private static int nextDeltaMatch(
+            Snapshot delta,
+            Ordering order,
+            int position,
+            int step,
+            ProductListingCache.ListingKey key
+    ) {
+        for (int p = position; p >= 0 && p < delta.size; p += step) {
+            if (delta.matches(order, p, key)) {
+                return p;
+            }
+        }
+        return -1;
+    }
+
+    private static int compare(Snapshot a, int i, Snapshot b, int j, String sortBy) {
+        int cmp = switch (sortBy) {
+            case "name" -> compareNames(a.names[i], b.names[j]);
+            case "price" -> Double.compare(a.prices[i], b.prices[j]);
+            case "stock" -> Integer.compare(a.stocks[i], b.stocks[j]);
+            default -> Long.compare(a.createdAtNanos[i], b.createdAtNanos[j]);
+        };
+        return cmp != 0 ? cmp : compareIds(a.ids[i], b.ids[j]);
+    }
+
+    /**
+     * Code point order. {@link String#compareTo} compares UTF-16 units, which puts supplementary
+     * characters before U+E000..U+FFFF.
+     */
+    static int compareNames(String a, String b) {
+        int i = 0;
+        int j = 0;
+        while (i < a.length() && j < b.length()) {
+            int left = a.codePointAt(i);
+            int right = b.codePointAt(j);
+            if (left != right) {
+                return Integer.compare(left, right);
+            }
+            i += Character.charCount(left);
+            j += Character.charCount(right);
+        }
+        return Integer.compare(a.length() - i, b.length() - j);
+    }
+
+    /**
+     * Unsigned order of the uuid bytes. {@link UUID#compareTo} compares the halves as signed longs.
+     */
+    static int compareIds(UUID a, UUID b) {
+        int cmp = Long.compareUnsigned(a.getMostSignificantBits(), b.getMostSignificantBits());
+        return cmp != 0 ? cmp : Long.compareUnsigned(a.getLeastSignificantBits(), b.getLeastSignificantBits());
+    }
+
+    private record State(Snapshot base, Snapshot delta, Map<UUID, Pending> pending, int shadowedInBase) {
+
+        static final State EMPTY = new State(Snapshot.of(List.of()), Snapshot.of(List.of()), Map.of(), 0);
+
+        static State of(Snapshot base, Map<UUID, Pending> pending) {
+            List<Row> live = pending.values().stream()
+                    .map(Pending::row)
+                    .filter(row -> !row.deleted())
+                    .toList();
+            int shadowed = 0;
+            for (UUID id : pending.keySet()) {
+                if (base.positions.containsKey(id)) {
+                    shadowed++;
+                }
+            }
+            return new State(base, Snapshot.of(live), Map.copyOf(pending), shadowed);
+        }
+
+        Snapshot merge(Map<UUID, Pending> pending) {
+            List<Row> rows = new ArrayList<>(base.size + pending.size());
+            for (int i = 0; i < base.size; i++) {
+                if (!pending.containsKey(base.ids[i])) {
+                    rows.add(base.row(i));
+                }
+            }
+            for (Pending write : pending.values()) {
+                if (!write.row().deleted()) {
+                    rows.add(write.row());
+                }
+            }
+            return Snapshot.of(rows);
+        }
+    }
+
+    private static final class Snapshot {
+        final int size;
+        final UUID[] ids;
+        final String[] names;
+        final String[] lowerNames;
+        final double[] prices;
+        final int[] stocks;
+        final long[] createdAtNanos;
+        final long[] versions;
+        Ordering byName;
+        Ordering byPrice;
+        Ordering byStock;
+        Ordering byCreatedAt;
+        final Map<UUID, Integer> positions;
+
+        private Snapshot(int size) {
+            this.size = size;
+            this.ids = new UUID[size];
+            this.names = new String[size];
+            this.lowerNames = new String[size];
+            this.prices = new double[size];
+            this.stocks = new int[size];
+            this.createdAtNanos = new long[size];
+            this.versions = new long[size];
+            this.positions = new HashMap<>(Math.max(16, size * 2));
+        }
+
+        static Snapshot of(Collection<Row> rows) {
+            Snapshot snapshot = new Snapshot(rows.size());
+            int i = 0;
+            for (Row row : rows) {
+                snapshot.ids[i] = row.id();
+                snapshot.names[i] = row.name();
+                snapshot.lowerNames[i] = row.name().toLowerCase(Locale.ROOT);
+                snapshot.prices[i] = row.price();
+                snapshot.stocks[i] = row.stock();
+                snapshot.createdAtNanos[i] = toNanos(row.createdAt());
+                snapshot.versions[i] = row.version();
+                snapshot.positions.put(row.id(), i);
+                i++;
+            }
+            snapshot.byName = snapshot.sorted((a, b) -> compareNames(snapshot.names[a], snapshot.names[b]));
+            snapshot.byPrice = snapshot.sorted((a, b) -> Double.compare(snapshot.prices[a], snapshot.prices[b]));
+            snapshot.byStock = snapshot.sorted((a, b) -> Integer.compare(snapshot.stocks[a], snapshot.stocks[b]));
+            snapshot.byCreatedAt = snapshot.sorted((a, b) -> Long.compare(snapshot.createdAtNanos[a], snapshot.createdAtNanos[b]));
+            return snapshot;
+        }
+
+        private Ordering sorted(Comparator<Integer> byColumn) {
+            Comparator<Integer> total = byColumn.thenComparing((a, b) -> compareIds(ids[a], ids[b]));
+            int[] rows = IntStream.range(0, size).boxed().sorted(total).mapToInt(Integer::intValue).toArray();
+            return new Ordering(rows, prices, stocks);
+        }
+
+        Ordering ordering(String sortBy) {
+            return switch (sortBy) {
+                case "name" -> byName;
+                case "price" -> byPrice;
+                case "stock" -> byStock;
+                default -> byCreatedAt;
+            };
+        }
+
+        boolean matches(Ordering order, int position, ProductListingCache.ListingKey key) {
+            if (key.minPrice() != null && order.prices[position] < key.minPrice()) {
+                return false;
+            }
+            if (key.maxPrice() != null && order.prices[position] > key.maxPrice()) {
+                return false;
+            }
+            if (key.minStock() != null && order.stocks[position] < key.minStock()) {
+                return false;
+            }
+            if (key.maxStock() != null && order.stocks[position] > key.maxStock()) {
+                return false;
+            }
+            return key.name() == null || lowerNames[order.rows[position]].contains(key.name());
+        }
+
+        Row row(int i) {
+            return new Row(ids[i], names[i], prices[i], stocks[i], toInstant(createdAtNanos[i]), versions[i], false);
+        }
+
+        ProductResponse toResponse(int i) {
+            return new ProductResponse(ids[i], names[i], prices[i], stocks[i], toInstant(createdAtNanos[i]), versions[i]);
+        }
+
+        private static long toNanos(Instant instant) {
+            if (instant == null) {
+                return NO_TIMESTAMP;
+            }
+            return Math.addExact(Math.multiplyExact(instant.getEpochSecond(), 1_000_000_000L), instant.getNano());
+        }
+
+        private static Instant toInstant(long nanos) {
+            if (nanos == NO_TIMESTAMP) {
+                return null;
+            }
+            return Instant.ofEpochSecond(Math.floorDiv(nanos, 1_000_000_000L), Math.floorMod(nanos, 1_000_000_000L));
+        }
+    }
+
+    /**
+     * One sort order over a snapshot. The numeric filter columns are copied into the same order
+     * so filtered scans read memory sequentially instead of jumping through the row permutation.
+     */
+    private static final class Ordering {
+        final int[] rows;
+        final double[] prices;
+        final int[] stocks;
+
+        Ordering(int[] rows, double[] sourcePrices, int[] sourceStocks) {
+            this.rows = rows;
+            this.prices = new double[rows.length];
+            this.stocks = new int[rows.length];
+            for (int p = 0; p < rows.length; p++) {
+                prices[p] = sourcePrices[rows[p]];
+                stocks[p] = sourceStocks[rows[p]];
+            }
+        }
+
+        /**
+         * Narrows the scan to [from, to) when the sort column is also range-filtered.
+         */
+        int[] range(ProductListingCache.ListingKey key) {
+            int from = 0;
+            int to = rows.length;
+            if ("price".equals(key.sortBy())) {
+                if (key.minPrice() != null) {
+                    from = firstPosition(p -> prices[p] >= key.minPrice());
+                }
+                if (key.maxPrice() != null) {
+                    to = firstPosition(p -> prices[p] > key.maxPrice());
+                }
+            } else if ("stock".equals(key.sortBy())) {
+                if (key.minStock() != null) {
+                    from = firstPosition(p -> stocks[p] >= key.minStock());
+                }
+                if (key.maxStock() != null) {
+                    to = firstPosition(p -> stocks[p] > key.maxStock());
+                }
+            }
+            return new int[]{from, Math.max(from, to)};
+        }
+
+        private int firstPosition(IntPredicate reached) {
+            int lo = 0;
+            int hi = rows.length;
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                if (reached.test(mid)) {
+                    hi = mid;
+                } else {
+                    lo = mid + 1;
+                }
+            }
+            return lo;
+        }
+    }
+}
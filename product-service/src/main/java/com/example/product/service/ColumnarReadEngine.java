@@ -0,0 +1,150 @@
+package com.example.product.service;
+
+import com.example.product.dto.ProductPageResponse;
+import com.example.product.model.Product;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Optional read engine that answers plain product listings from {@link ColumnarCatalogIndex}.
+ * The index is loaded from the database at startup, kept current from committed product writes,
+ * and fully reloaded on a fixed delay to pick up writes made by other instances.
+ */
+@Component
+public class ColumnarReadEngine {
+
+    private static final Logger log = LoggerFactory.getLogger(ColumnarReadEngine.class);
+    private static final String SELECT_ROWS = "select id, name, price, stock, created_at, version from products";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final boolean enabled;
+    private final ColumnarCatalogIndex index;
+    private volatile boolean ready;
+
+    public ColumnarReadEngine(
+            JdbcTemplate jdbcTemplate,
+            MeterRegistry meterRegistry,
+            @Value("${product.read-engine.columnar.enabled:false}") boolean enabled,
+            @Value("${product.read-engine.columnar.max-delta-size:4096}") int maxDeltaSize
+    ) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.enabled = enabled;
+        this.index = new ColumnarCatalogIndex(maxDeltaSize);
+        Gauge.builder("product.read_engine.columnar.rows", index, ColumnarCatalogIndex::size)
+                .description("Products held by the columnar read engine")
+                .register(meterRegistry);
+    }
+
+    public Optional<ProductPageResponse> query(ProductListingCache.ListingKey key) {
+        if (!enabled || !ready) {
+            return Optional.empty();
+        }
+        return Optional.of(index.query(key));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadOnStartup() {
+        reload();
+    }
+
+    @Scheduled(fixedDelayString = "${product.read-engine.columnar.full-refresh-ms:60000}")
+    public void reloadScheduled() {
+        if (ready) {
+            reload();
+        }
+    }
+
+    public void reload() {
+        if (!enabled) {
+            return;
+        }
+
+        long loadedAfterSequence = index.writeSequence();
+        List<ColumnarCatalogIndex.Row> rows = new ArrayList<>();
+        jdbcTemplate.query(SELECT_ROWS, rs -> {
+            rows.add(toRow(rs));
+        });
+        index.replaceAll(rows, loadedAfterSequence);
+        if (!ready) {
+            log.info("Columnar read engine loaded {} products", rows.size());
+        }
+        ready = true;
+    }
+
+    /**
+     * Re-reads one product and applies it, or a tombstone if it is gone. Used for writes committed elsewhere.
+     */
+    public void refresh(UUID id) {
+        if (!enabled || !ready) {
+            return;
+        }
+        List<ColumnarCatalogIndex.Row> rows = jdbcTemplate.query(SELECT_ROWS + " where id = ?", (rs, rowNum) -> toRow(rs), id);
+        index.apply(rows.isEmpty() ? ColumnarCatalogIndex.Row.tombstone(id) : rows.get(0));
+    }
+
+    public void onSaved(Product product) {
+        if (!enabled) {
+            return;
+        }
+        afterCommit(() -> index.apply(new ColumnarCatalogIndex.Row(
+                product.getId(),
+                product.getName(),
+                product.getPrice(),
+                product.getStock(),
+                product.getCreatedAt(),
+                product.getVersion() == null ? 0L : product.getVersion(),
+                false
+        )));
+    }
+
+    public void onDeleted(UUID id) {
+        if (!enabled) {
+            return;
+        }
+        afterCommit(() -> index.apply(ColumnarCatalogIndex.Row.tombstone(id)));
+    }
+
+    private static ColumnarCatalogIndex.Row toRow(ResultSet rs) throws SQLException {
+        Timestamp createdAt = rs.getTimestamp("created_at");
+        return new ColumnarCatalogIndex.Row(
+                rs.getObject("id", UUID.class),
+                rs.getString("name"),
+                rs.getDouble("price"),
+                rs.getInt("stock"),
+                createdAt == null ? null : createdAt.toInstant(),
+                rs.getLong("version"),
+                false
+        );
+    }
+
+    private void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+}
@@ -0,0 +1,132 @@
+package com.example.product.service;
+
+import com.example.product.model.OutboxEvent;
+import com.example.product.model.OutboxStatus;
+import com.example.product.model.ProductEventType;
+import com.example.product.repository.OutboxEventRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+@Component
+@ConditionalOnProperty(value = "outbox.publisher.enabled", havingValue = "true", matchIfMissing = true)
+public class OutboxPublisherWorker {
+
+    private static final Logger log = LoggerFactory.getLogger(OutboxPublisherWorker.class);
+    private static final List<OutboxStatus> RETRIABLE_STATUSES = List.of(OutboxStatus.PENDING, OutboxStatus.FAILED);
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final ProductEventPublisher productEventPublisher;
+    private final String outboxChannel;
+    private final int outboxBatchSize;
+    private final int maxRetryAttempts;
+    private final long initialBackoffMs;
+
+    public OutboxPublisherWorker(
+            OutboxEventRepository outboxEventRepository,
+            ProductEventPublisher productEventPublisher,
+            @Value("${outbox.publisher.channel:products.events}") String outboxChannel,
+            @Value("${outbox.publisher.batch-size:200}") int outboxBatchSize,
+            @Value("${outbox.publisher.max-retry-attempts:8}") int maxRetryAttempts,
+            @Value("${outbox.publisher.initial-backoff-ms:500}") long initialBackoffMs
+    ) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.productEventPublisher = productEventPublisher;
+        this.outboxChannel = outboxChannel;
+        this.outboxBatchSize = Math.max(1, outboxBatchSize);
+        this.maxRetryAttempts = Math.max(1, maxRetryAttempts);
+        this.initialBackoffMs = Math.max(100, initialBackoffMs);
+    }
+
+    @Scheduled(fixedDelayString = "${outbox.publisher.fixed-delay-ms:250}")
+    @Transactional
+    public void runScheduled() {
+        publishAvailableEvents();
+    }
+
+    public int publishAvailableEvents() {
+        Instant now = Instant.now();
+        List<OutboxEvent> readyEvents = outboxEventRepository.findReadyForPublish(
+                RETRIABLE_STATUSES,
+                now,
+                maxRetryAttempts,
+                PageRequest.of(0, outboxBatchSize)
+        );
+        if (readyEvents.isEmpty()) {
+            return 0;
+        }
+
+        // Stock events carry the absolute stock level, so only the newest one per product matters.
+        Map<UUID, OutboxEvent> latestStockEvent = new HashMap<>();
+        for (OutboxEvent event : readyEvents) {
+            if (isStockEvent(event)) {
+                latestStockEvent.put(event.getAggregateId(), event);
+            }
+        }
+
+        List<OutboxEvent> toPublish = new ArrayList<>(readyEvents.size());
+        for (OutboxEvent event : readyEvents) {
+            if (isStockEvent(event) && latestStockEvent.get(event.getAggregateId()) != event) {
+                markCoalesced(event, now);
+            } else {
+                toPublish.add(event);
+            }
+        }
+
+        List<String> payloads = toPublish.stream().map(OutboxEvent::getPayload).toList();
+        if (productEventPublisher.publishBatch(outboxChannel, payloads)) {
+            toPublish.forEach(event -> markPublished(event, now));
+        } else {
+            toPublish.forEach(event -> markFailed(event, "Publisher returned unsuccessful result"));
+        }
+        return readyEvents.size();
+    }
+
+    private static boolean isStockEvent(OutboxEvent event) {
+        return ProductEventType.PRODUCT_STOCK_CHANGED.name().equals(event.getEventType());
+    }
+
+    private void markCoalesced(OutboxEvent event, Instant now) {
+        event.setStatus(OutboxStatus.COALESCED);
+        event.setPublishedAt(now);
+        event.setLastError(null);
+        outboxEventRepository.save(event);
+    }
+
+    private void markPublished(OutboxEvent event, Instant now) {
+        event.setStatus(OutboxStatus.PUBLISHED);
+        event.setPublishedAt(now);
+        event.setLastError(null);
+        outboxEventRepository.save(event);
+    }
+
+    private void markFailed(OutboxEvent event, String error) {
+        int currentRetryCount = event.getRetryCount() == null ? 0 : event.getRetryCount();
+        int nextRetryCount = currentRetryCount + 1;
+        event.setStatus(OutboxStatus.FAILED);
+        event.setRetryCount(nextRetryCount);
+        event.setLastError(error);
+        event.setNextAttemptAt(Instant.now().plusMillis(computeBackoffMs(nextRetryCount)));
+        outboxEventRepository.save(event);
+
+        log.warn("Product outbox publish failed: event_id={} aggregate_id={} retry_count={}",
+                event.getId(), event.getAggregateId(), nextRetryCount);
+    }
+
+    private long computeBackoffMs(int attemptNumber) {
+        long backoffMs = initialBackoffMs * (1L << Math.max(0, attemptNumber - 1));
+        return Math.min(backoffMs, 30000);
+    }
+}
@@ -0,0 +1,67 @@
+package com.example.product.service;
+
+import com.example.product.exception.BadRequestException;
+import com.example.product.dto.ProductResponse;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.UUID;
+
+/**
+ * Opaque keyset position: the sort key and id of the last product on the previous slice.
+ * Encoded as URL-safe base64 so clients can pass it back verbatim.
+ */
+record ProductCursor(String sortBy, String sortDir, UUID lastId, Comparable<?> lastValue) {
+
+    private static final String SEPARATOR = "\n";
+
+    static ProductCursor after(ProductResponse product, String sortBy, String sortDir) {
+        Comparable<?> value = switch (sortBy) {
+            case "name" -> product.getName();
+            case "price" -> product.getPrice();
+            case "stock" -> product.getStock();
+            default -> product.getCreatedAt();
+        };
+        return new ProductCursor(sortBy, sortDir, product.getId(), value);
+    }
+
+    static ProductCursor decode(String token, String expectedSortBy, String expectedSortDir) {
+        String[] parts;
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            parts = raw.split(SEPARATOR, 4);
+        } catch (IllegalArgumentException ex) {
+            throw invalidCursor();
+        }
+        if (parts.length != 4) {
+            throw invalidCursor();
+        }
+        if (!parts[0].equals(expectedSortBy) || !parts[1].equals(expectedSortDir)) {
+            throw new BadRequestException("INVALID_CURSOR", "cursor does not match sortBy/sortDir");
+        }
+
+        try {
+            UUID lastId = UUID.fromString(parts[2]);
+            Comparable<?> lastValue = switch (parts[0]) {
+                case "name" -> parts[3];
+                case "price" -> Double.valueOf(parts[3]);
+                case "stock" -> Integer.valueOf(parts[3]);
+                default -> Instant.parse(parts[3]);
+            };
+            return new ProductCursor(parts[0], parts[1], lastId, lastValue);
+        } catch (IllegalArgumentException | DateTimeParseException ex) {
+            throw invalidCursor();
+        }
+    }
+
+    String encode() {
+        String raw = sortBy + SEPARATOR + sortDir + SEPARATOR + lastId + SEPARATOR + lastValue;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static BadRequestException invalidCursor() {
+        return new BadRequestException("INVALID_CURSOR", "cursor is malformed");
+    }
+}
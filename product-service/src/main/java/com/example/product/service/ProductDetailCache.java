@@ -0,0 +1,117 @@
+package com.example.product.service;
+
+import com.example.product.dto.ProductResponse;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Bounded in-process cache for product detail reads.
+ * Caffeine uses W-TinyLFU admission, so one-off lookups do not push hot products out.
+ * Entries are evicted on every product write and again after commit. Each eviction also bumps a
+ * generation; a loaded row is only kept if no eviction happened since its load started, so a reader
+ * that saw the pre-commit row cannot put it back after the post-commit eviction.
+ */
+@Component
+public class ProductDetailCache {
+
+    private final boolean enabled;
+    private final Cache<UUID, ProductResponse> cache;
+    private final AtomicLong generation = new AtomicLong();
+
+    public ProductDetailCache(
+            MeterRegistry meterRegistry,
+            @Value("${product.cache.detail.enabled:true}") boolean enabled,
+            @Value("${product.cache.detail.maximum-size:10000}") long maximumSize,
+            @Value("${product.cache.detail.ttl-ms:30000}") long ttlMs
+    ) {
+        this.enabled = enabled;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(Math.max(1, maximumSize))
+                .expireAfterWrite(Duration.ofMillis(Math.max(1, ttlMs)))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "product.detail");
+    }
+
+    public Optional<ProductResponse> get(UUID id, Function<UUID, Optional<ProductResponse>> loader) {
+        if (!enabled) {
+            return loader.apply(id);
+        }
+
+        ProductResponse cached = cache.getIfPresent(id);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+
+        long loadGeneration = generation.get();
+        Optional<ProductResponse> loaded = loader.apply(id);
+        loaded.ifPresent(response -> putIfCurrent(id, response, loadGeneration));
+        return loaded;
+    }
+
+    public Mono<ProductResponse> getReactive(UUID id, Function<UUID, Mono<ProductResponse>> loader) {
+        if (!enabled) {
+            return loader.apply(id);
+        }
+
+        ProductResponse cached = cache.getIfPresent(id);
+        if (cached != null) {
+            return Mono.just(cached);
+        }
+        long loadGeneration = generation.get();
+        return loader.apply(id).doOnNext(response -> putIfCurrent(id, response, loadGeneration));
+    }
+
+    public void evict(UUID id) {
+        if (id == null) {
+            return;
+        }
+
+        invalidate(id);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    invalidate(id);
+                }
+            });
+        }
+    }
+
+    public void clear() {
+        generation.incrementAndGet();
+        cache.invalidateAll();
+    }
+
+    private void invalidate(UUID id) {
+        generation.incrementAndGet();
+        cache.invalidate(id);
+    }
+
+    /**
+     * Puts first and re-checks after: an eviction racing the put either sees the entry and removes it,
+     * or bumped the generation before the re-check, in which case the entry is taken back out here.
+     */
+    private void putIfCurrent(UUID id, ProductResponse response, long loadGeneration) {
+        if (generation.get() != loadGeneration) {
+            return;
+        }
+        cache.put(id, response);
+        if (generation.get() != loadGeneration) {
+            cache.asMap().remove(id, response);
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package com.example.product.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import java.util.UUID;
+
+/**
+ * Keeps the caches of the reactive-read deployment in step with writes made by the servlet deployment.
+ * Each product event evicts the product's detail entry, drops the cached listings and re-reads the row
+ * into the columnar engine. Pub/sub delivery is best effort, so the cache TTLs and the columnar full
+ * refresh still bound how long a missed event can be served.
+ */
+@Component
+@Profile("reactive-read")
+public class ProductEventCacheInvalidator {
+
+    private static final Logger log = LoggerFactory.getLogger(ProductEventCacheInvalidator.class);
+
+    private final ProductDetailCache detailCache;
+    private final ProductListingCache listingCache;
+    private final ColumnarReadEngine columnarReadEngine;
+    private final ObjectMapper objectMapper;
+    private final Counter eventsCounter;
+
+    public ProductEventCacheInvalidator(
+            ProductDetailCache detailCache,
+            ProductListingCache listingCache,
+            ColumnarReadEngine columnarReadEngine,
+            ObjectMapper objectMapper,
+            MeterRegistry meterRegistry
+    ) {
+        this.detailCache = detailCache;
+        this.listingCache = listingCache;
+        this.columnarReadEngine = columnarReadEngine;
+        this.objectMapper = objectMapper;
+        this.eventsCounter = Counter.builder("product.cache.invalidation.events")
+                .description("Product events applied to the read caches")
+                .register(meterRegistry);
+    }
+
+    public void onProductEvent(String payload) {
+        UUID productId;
+        try {
+            JsonNode event = objectMapper.readTree(payload);
+            productId = UUID.fromString(event.path("productId").asText());
+        } catch (Exception ex) {
+            log.warn("Ignoring unreadable product event: {}", ex.getMessage());
+            return;
+        }
+
+        detailCache.evict(productId);
+        listingCache.invalidateAll();
+        columnarReadEngine.refresh(productId);
+        eventsCounter.increment();
+    }
+}
@@ -0,0 +1,52 @@
+package com.example.product.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+@Component
+public class ProductEventPublisher {
+
+    private static final Logger log = LoggerFactory.getLogger(ProductEventPublisher.class);
+
+    private final StringRedisTemplate redisTemplate;
+
+    public ProductEventPublisher(ObjectProvider<StringRedisTemplate> redisTemplateProvider) {
+        this.redisTemplate = redisTemplateProvider.getIfAvailable();
+    }
+
+    /**
+     * Publishes all payloads in one pipelined round trip. The batch succeeds or fails as a whole.
+     */
+    public boolean publishBatch(String channel, List<String> payloads) {
+        if (redisTemplate == null || payloads.isEmpty()) {
+            return true;
+        }
+
+        byte[] channelBytes = channel.getBytes(StandardCharsets.UTF_8);
+        try {
+            redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                publishAll(connection, channelBytes, payloads);
+                return null;
+            });
+            log.debug("Published {} product events to {}", payloads.size(), channel);
+            return true;
+        } catch (Exception e) {
+            log.warn("Cannot publish {} product events to {}: {}", payloads.size(), channel, e.getMessage());
+            return false;
+        }
+    }
+
+    private static void publishAll(RedisConnection connection, byte[] channel, List<String> payloads) {
+        for (String payload : payloads) {
+            connection.publish(channel, payload.getBytes(StandardCharsets.UTF_8));
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package com.example.product.service;
+
+import com.example.product.repository.ProductExportRepository;
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.util.MinimalPrettyPrinter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Writes the catalog as NDJSON, one product per line, straight from the JDBC cursor to the
+ * response stream. Rows are never collected, so heap use does not depend on catalog size.
+ */
+@Service
+public class ProductExportService {
+
+    private static final Logger log = LoggerFactory.getLogger(ProductExportService.class);
+
+    private final ProductExportRepository exportRepository;
+    private final ObjectMapper objectMapper;
+
+    public ProductExportService(ProductExportRepository exportRepository, ObjectMapper objectMapper) {
+        this.exportRepository = exportRepository;
+        this.objectMapper = objectMapper;
+    }
+
+    public long export(Instant updatedSince, OutputStream out) throws IOException {
+        long startedAt = System.nanoTime();
+        long[] rows = {0};
+
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out, JsonEncoding.UTF8)) {
+            generator.setPrettyPrinter(new MinimalPrettyPrinter("\n"));
+            try {
+                exportRepository.streamAll(updatedSince, rs -> {
+                    writeRow(generator, rs);
+                    rows[0]++;
+                });
+            } catch (UncheckedIOException ex) {
+                throw ex.getCause();
+            }
+            if (rows[0] > 0) {
+                generator.writeRaw('\n');
+            }
+        }
+
+        log.info("Product export finished: rows={} updatedSince={} durationMs={}",
+                rows[0], updatedSince, (System.nanoTime() - startedAt) / 1_000_000);
+        return rows[0];
+    }
+
+    private static void writeRow(JsonGenerator generator, ResultSet rs) throws SQLException {
+        try {
+            generator.writeStartObject();
+            generator.writeStringField("id", rs.getObject("id", UUID.class).toString());
+            generator.writeStringField("name", rs.getString("name"));
+            generator.writeNumberField("price", rs.getDouble("price"));
+            generator.writeNumberField("stock", rs.getInt("stock"));
+            generator.writeNumberField("version", rs.getLong("version"));
+            writeInstant(generator, "createdAt", rs.getTimestamp("created_at"));
+            writeInstant(generator, "updatedAt", rs.getTimestamp("updated_at"));
+            generator.writeEndObject();
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    private static void writeInstant(JsonGenerator generator, String field, Timestamp value) throws IOException {
+        if (value == null) {
+            generator.writeNullField(field);
+        } else {
+            generator.writeStringField(field, value.toInstant().toString());
+        }
+    }
+}
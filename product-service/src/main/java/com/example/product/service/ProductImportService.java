@@ -0,0 +1,375 @@
+package com.example.product.service;
+
+import com.example.product.dto.ProductCreateRequest;
+import com.example.product.dto.ProductImportError;
+import com.example.product.dto.ProductImportResponse;
+import com.example.product.exception.BadRequestException;
+import com.example.product.model.Product;
+import com.example.product.util.UuidV7;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Streams NDJSON or CSV product rows from the request body, validates each row like
+ * {@link ProductCreateRequest}, and writes valid rows in fixed-size batches. Only one batch and a
+ * bounded error list are held in memory, whatever the size of the upload.
+ */
+@Service
+public class ProductImportService {
+
+    public enum Format {
+        NDJSON,
+        CSV
+    }
+
+    private static final Logger log = LoggerFactory.getLogger(ProductImportService.class);
+    private static final int MAX_LINE_LENGTH = 16 * 1024;
+
+    private final ProductService productService;
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+    private final int batchSize;
+    private final int maxReportedErrors;
+
+    public ProductImportService(
+            ProductService productService,
+            ObjectMapper objectMapper,
+            Validator validator,
+            @Value("${product.import.batch-size:1000}") int batchSize,
+            @Value("${product.import.max-reported-errors:1000}") int maxReportedErrors
+    ) {
+        this.productService = productService;
+        this.objectMapper = objectMapper;
+        this.validator = validator;
+        this.batchSize = Math.max(1, batchSize);
+        this.maxReportedErrors = Math.max(0, maxReportedErrors);
+    }
+
+    public ProductImportResponse importProducts(InputStream body, Format format, String userRole) {
+        productService.validateProductManagerRole(userRole);
+
+        Report report = new Report(maxReportedErrors);
+        List<Product> batch = new ArrayList<>(batchSize);
+        List<Long> batchLines = new ArrayList<>(batchSize);
+        LineReader lines = new LineReader(new InputStreamReader(body, StandardCharsets.UTF_8));
+        CsvColumns columns = null;
+
+        try {
+            String line;
+            while ((line = lines.next()) != null) {
+                long lineNumber = lines.lineNumber();
+                if (lineNumber == 1 && line.startsWith("\uFEFF")) {
+                    line = line.substring(1);
+                }
+                if (line.isBlank()) {
+                    continue;
+                }
+                if (format == Format.CSV && columns == null) {
+                    columns = CsvColumns.fromHeader(line);
+                    continue;
+                }
+
+                report.totalRows++;
+                if (lines.truncated()) {
+                    report.reject(lineNumber, "LINE_TOO_LONG", "line exceeds " + MAX_LINE_LENGTH + " characters");
+                    continue;
+                }
+
+                ProductCreateRequest request;
+                try {
+                    request = format == Format.CSV ? columns.toRequest(line) : parseJson(line);
+                } catch (InvalidRowException ex) {
+                    report.reject(lineNumber, ex.code, ex.getMessage());
+                    continue;
+                }
+
+                String violations = violations(request);
+                if (violations != null) {
+                    report.reject(lineNumber, "VALIDATION_ERROR", violations);
+                    continue;
+                }
+
+                batch.add(toProduct(request));
+                batchLines.add(lineNumber);
+                if (batch.size() == batchSize) {
+                    writeBatch(batch, batchLines, report);
+                }
+            }
+        } catch (IOException ex) {
+            throw new BadRequestException("IMPORT_READ_FAILED", "Cannot read import body");
+        }
+        writeBatch(batch, batchLines, report);
+
+        log.info("Product import finished: total={} imported={} failed={}",
+                report.totalRows, report.importedRows, report.failedRows);
+        return report.toResponse();
+    }
+
+    private ProductCreateRequest parseJson(String line) {
+        try {
+            ProductCreateRequest request = objectMapper.readValue(line, ProductCreateRequest.class);
+            if (request == null) {
+                throw new InvalidRowException("INVALID_JSON", "line must be a JSON object");
+            }
+            return request;
+        } catch (JsonProcessingException ex) {
+            throw new InvalidRowException("INVALID_JSON", "line must be a JSON object");
+        }
+    }
+
+    private String violations(ProductCreateRequest request) {
+        Set<ConstraintViolation<ProductCreateRequest>> violations = validator.validate(request);
+        if (violations.isEmpty()) {
+            return null;
+        }
+        return violations.stream()
+                .sorted(Comparator.comparing(v -> v.getPropertyPath().toString()))
+                .map(v -> v.getPropertyPath() + ": " + v.getMessage())
+                .collect(Collectors.joining(", "));
+    }
+
+    private void writeBatch(List<Product> batch, List<Long> batchLines, Report report) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        try {
+            productService.importBatch(batch);
+            report.importedRows += batch.size();
+        } catch (DataAccessException ex) {
+            log.warn("Product import batch of {} rows failed: {}", batch.size(), ex.getMostSpecificCause().getMessage());
+            for (Long line : batchLines) {
+                report.reject(line, "IMPORT_FAILED", "row could not be stored");
+            }
+        }
+        batch.clear();
+        batchLines.clear();
+    }
+
+    private static Product toProduct(ProductCreateRequest request) {
+        Product product = new Product();
+        product.setId(UuidV7.next());
+        product.setName(request.getName().trim());
+        product.setPrice(request.getPrice());
+        product.setStock(request.getStock());
+        product.setCreatedAt(Instant.now());
+        return product;
+    }
+
+    private static final class Report {
+        private final int maxErrors;
+        private final List<ProductImportError> errors = new ArrayList<>();
+        private long totalRows;
+        private long importedRows;
+        private long failedRows;
+        private boolean errorsTruncated;
+
+        Report(int maxErrors) {
+            this.maxErrors = maxErrors;
+        }
+
+        void reject(long line, String code, String message) {
+            failedRows++;
+            if (errors.size() < maxErrors) {
+                errors.add(new ProductImportError(line, code, message));
+            } else {
+                errorsTruncated = true;
+            }
+        }
+
+        ProductImportResponse toResponse() {
+            return new ProductImportResponse(totalRows, importedRows, failedRows, errorsTruncated, errors);
+        }
+    }
+
+    private record CsvColumns(int name, int price, int stock) {
+
+        static CsvColumns fromHeader(String headerLine) {
+            List<String> header;
+            try {
+                header = splitCsv(headerLine);
+            } catch (InvalidRowException ex) {
+                throw invalidHeader();
+            }
+            List<String> normalized = header.stream().map(h -> h.trim().toLowerCase(Locale.ROOT)).toList();
+            int name = normalized.indexOf("name");
+            int price = normalized.indexOf("price");
+            int stock = normalized.indexOf("stock");
+            if (name < 0 || price < 0 || stock < 0) {
+                throw invalidHeader();
+            }
+            return new CsvColumns(name, price, stock);
+        }
+
+        ProductCreateRequest toRequest(String line) {
+            List<String> fields = splitCsv(line);
+            int required = Math.max(name, Math.max(price, stock)) + 1;
+            if (fields.size() < required) {
+                throw new InvalidRowException("INVALID_CSV", "expected at least " + required + " columns");
+            }
+
+            ProductCreateRequest request = new ProductCreateRequest();
+            request.setName(fields.get(name));
+            request.setPrice(parseNumber(fields.get(price), "price", Double::valueOf));
+            request.setStock(parseNumber(fields.get(stock), "stock", Integer::valueOf));
+            if (request.getPrice() != null && !Double.isFinite(request.getPrice())) {
+                throw new InvalidRowException("INVALID_VALUE", "price must be a number");
+            }
+            return request;
+        }
+
+        private static <T> T parseNumber(String raw, String field, Function<String, T> parser) {
+            String value = raw.trim();
+            if (value.isEmpty()) {
+                return null;
+            }
+            try {
+                return parser.apply(value);
+            } catch (NumberFormatException ex) {
+                throw new InvalidRowException("INVALID_VALUE", field + " must be a number");
+            }
+        }
+
+        private static BadRequestException invalidHeader() {
+            return new BadRequestException("INVALID_CSV_HEADER", "CSV header must contain name, price and stock columns");
+        }
+    }
+
+    /**
+     * Splits one CSV record. Quoted fields may contain commas and doubled quotes, but not line breaks.
+     */
+    private static List<String> splitCsv(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"') {
+                    if (i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                        field.append('"');
+                        i++;
+                    } else {
+                        quoted = false;
+                    }
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        if (quoted) {
+            throw new InvalidRowException("INVALID_CSV", "unterminated quoted field");
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    /**
+     * Reads lines with a hard length cap so a single oversized line cannot grow the heap.
+     */
+    private static final class LineReader {
+        private final Reader reader;
+        private final char[] chunk = new char[8192];
+        private final StringBuilder line = new StringBuilder();
+        private int position;
+        private int limit;
+        private long lineNumber;
+        private boolean truncated;
+        private boolean endOfStream;
+
+        LineReader(Reader reader) {
+            this.reader = reader;
+        }
+
+        String next() throws IOException {
+            if (endOfStream) {
+                return null;
+            }
+            line.setLength(0);
+            truncated = false;
+
+            boolean readAny = false;
+            int c;
+            while ((c = read()) != -1) {
+                readAny = true;
+                if (c == '\n') {
+                    break;
+                }
+                if (line.length() < MAX_LINE_LENGTH) {
+                    line.append((char) c);
+                } else {
+                    truncated = true;
+                }
+            }
+            if (c == -1) {
+                endOfStream = true;
+                if (!readAny) {
+                    return null;
+                }
+            }
+
+            lineNumber++;
+            int length = line.length();
+            if (length > 0 && line.charAt(length - 1) == '\r') {
+                line.setLength(length - 1);
+            }
+            return line.toString();
+        }
+
+        long lineNumber() {
+            return lineNumber;
+        }
+
+        boolean truncated() {
+            return truncated;
+        }
+
+        private int read() throws IOException {
+            if (position == limit) {
+                limit = reader.read(chunk, 0, chunk.length);
+                position = 0;
+                if (limit <= 0) {
+                    limit = 0;
+                    return -1;
+                }
+            }
+            return chunk[position++];
+        }
+    }
+
+    private static final class InvalidRowException extends RuntimeException {
+        private final String code;
+
+        InvalidRowException(String code, String message) {
+            super(message);
+            this.code = code;
+        }
+    }
+}
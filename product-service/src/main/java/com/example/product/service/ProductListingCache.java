@@ -0,0 +1,134 @@
+package com.example.product.service;
+
+import com.example.product.dto.ProductPageResponse;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Query-result cache for product listing pages.
+ * Every key carries the catalog version it was computed at; any product write bumps the
+ * version, so older pages can never be served again and simply age out of the cache.
+ */
+@Component
+public class ProductListingCache {
+
+    private final boolean enabled;
+    private final AtomicLong catalogVersion = new AtomicLong();
+    private final Cache<ListingKey, ProductPageResponse> cache;
+
+    public ProductListingCache(
+            MeterRegistry meterRegistry,
+            @Value("${product.cache.listing.enabled:true}") boolean enabled,
+            @Value("${product.cache.listing.maximum-size:2000}") long maximumSize,
+            @Value("${product.cache.listing.ttl-ms:10000}") long ttlMs
+    ) {
+        this.enabled = enabled;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(Math.max(1, maximumSize))
+                .expireAfterWrite(Duration.ofMillis(Math.max(1, ttlMs)))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "product.listing");
+        Gauge.builder("product.catalog.version", catalogVersion, AtomicLong::get)
+                .description("Catalog version counter bumped on every product write")
+                .register(meterRegistry);
+    }
+
+    public ProductPageResponse get(ListingKey key, Supplier<ProductPageResponse> loader) {
+        if (!enabled) {
+            return loader.get();
+        }
+
+        ListingKey versionedKey = key.withCatalogVersion(catalogVersion.get());
+        ProductPageResponse cached = cache.getIfPresent(versionedKey);
+        if (cached != null) {
+            return cached;
+        }
+
+        ProductPageResponse loaded = loader.get();
+        // A write that committed while we were loading makes this page stale; do not keep it.
+        if (versionedKey.catalogVersion() == catalogVersion.get()) {
+            cache.put(versionedKey, loaded);
+        }
+        return loaded;
+    }
+
+    public Mono<ProductPageResponse> getReactive(ListingKey key, Supplier<Mono<ProductPageResponse>> loader) {
+        if (!enabled) {
+            return loader.get();
+        }
+
+        ListingKey versionedKey = key.withCatalogVersion(catalogVersion.get());
+        ProductPageResponse cached = cache.getIfPresent(versionedKey);
+        if (cached != null) {
+            return Mono.just(cached);
+        }
+
+        return loader.get().doOnNext(loaded -> {
+            if (versionedKey.catalogVersion() == catalogVersion.get()) {
+                cache.put(versionedKey, loaded);
+            }
+        });
+    }
+
+    public void invalidateAll() {
+        catalogVersion.incrementAndGet();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    catalogVersion.incrementAndGet();
+                }
+            });
+        }
+    }
+
+    public long catalogVersion() {
+        return catalogVersion.get();
+    }
+
+    public record ListingKey(
+            long catalogVersion,
+            int page,
+            int size,
+            String sortBy,
+            String sortDir,
+            String name,
+            String query,
+            Double minPrice,
+            Double maxPrice,
+            Integer minStock,
+            Integer maxStock
+    ) {
+        public static ListingKey of(
+                int page,
+                int size,
+                String sortBy,
+                String sortDir,
+                String name,
+                String query,
+                Double minPrice,
+                Double maxPrice,
+                Integer minStock,
+                Integer maxStock
+        ) {
+            return new ListingKey(0L, page, size, sortBy, sortDir, name, query, minPrice, maxPrice, minStock, maxStock);
+        }
+
+        ListingKey withCatalogVersion(long version) {
+            return new ListingKey(version, page, size, sortBy, sortDir, name, query, minPrice, maxPrice, minStock, maxStock);
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.example.product.service;
+
+import com.example.product.model.OutboxEvent;
+import com.example.product.model.OutboxStatus;
+import com.example.product.model.Product;
+import com.example.product.model.ProductEventType;
+import com.example.product.repository.OutboxEventRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+
+@Component
+public class ProductOutboxService {
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final ObjectMapper objectMapper;
+    private final long stockCoalesceWindowMs;
+
+    public ProductOutboxService(
+            OutboxEventRepository outboxEventRepository,
+            ObjectMapper objectMapper,
+            @Value("${outbox.publisher.stock-coalesce-window-ms:500}") long stockCoalesceWindowMs
+    ) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.objectMapper = objectMapper;
+        this.stockCoalesceWindowMs = Math.max(0, stockCoalesceWindowMs);
+    }
+
+    public void enqueueProductEvent(ProductEventType eventType, Product product) {
+        Map<String, Object> payload = basePayload(eventType, product.getId());
+        payload.put("name", product.getName());
+        payload.put("price", product.getPrice());
+        payload.put("stock", product.getStock());
+        payload.put("version", product.getVersion());
+        enqueue(eventType, product.getId(), payload);
+    }
+
+    public void enqueueProductDeleted(UUID productId) {
+        enqueue(ProductEventType.PRODUCT_DELETED, productId, basePayload(ProductEventType.PRODUCT_DELETED, productId));
+    }
+
+    private void enqueue(ProductEventType eventType, UUID productId, Map<String, Object> payload) {
+        Instant now = Instant.now();
+        OutboxEvent outboxEvent = new OutboxEvent();
+        outboxEvent.setAggregateType("PRODUCT");
+        outboxEvent.setAggregateId(productId);
+        outboxEvent.setEventType(eventType.name());
+        outboxEvent.setPayload(serialize(payload));
+        outboxEvent.setStatus(OutboxStatus.PENDING);
+        outboxEvent.setRetryCount(0);
+        // Stock events wait out the coalescing window so a burst of orders on one product
+        // leaves a single, latest stock event for the publisher.
+        outboxEvent.setNextAttemptAt(eventType == ProductEventType.PRODUCT_STOCK_CHANGED
+                ? now.plusMillis(stockCoalesceWindowMs)
+                : now);
+        outboxEventRepository.save(outboxEvent);
+    }
+
+    private Map<String, Object> basePayload(ProductEventType eventType, UUID productId) {
+        Map<String, Object> payload = new LinkedHashMap<>();
+        payload.put("eventType", eventType.name());
+        payload.put("occurredAt", Instant.now());
+        payload.put("productId", productId);
+        return payload;
+    }
+
+    private String serialize(Map<String, Object> payload) {
+        try {
+            return objectMapper.writeValueAsString(payload);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot serialize outbox payload", e);
+        }
+    }
+}
@@ -0,0 +1,319 @@
+package com.example.product.service;
+
+import com.example.product.repository.ProductPopularityRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.TreeSet;
+import java.util.UUID;
+
+/**
+ * Best-seller ranking kept in memory from {@code ORDER_CONFIRMED} / {@code ORDER_CANCELLED} events.
+ * <p>
+ * Sales decay exponentially with a configurable half-life. Scores use forward decay: each sale is
+ * stored as {@code quantity * e^((t - landmark) / tau)}, so older sales never need rewriting and the
+ * relative order of products only changes when an event arrives. The top K products are kept in a
+ * sorted set updated per event; a cancellation that lowers a member marks it for a heap rebuild on
+ * the next read. Scores are snapshotted to {@code product_popularity} and reloaded on startup.
+ */
+@Component
+public class ProductPopularityRanking {
+
+    private static final Logger log = LoggerFactory.getLogger(ProductPopularityRanking.class);
+    // Re-anchor before forward-decayed weights get anywhere near double overflow.
+    private static final double MAX_EXPONENT = 40.0;
+    private static final Comparator<Ranked> BY_SCORE_DESC = Comparator
+            .comparingDouble(Ranked::score).reversed()
+            .thenComparing(Ranked::productId);
+
+    private final ProductPopularityRepository repository;
+    private final ObjectMapper objectMapper;
+    private final double tauMillis;
+    private final int topK;
+    private final double minScore;
+    private final int maxTrackedOrders;
+    private final Counter eventsCounter;
+
+    private final Map<UUID, Double> weights = new HashMap<>();
+    private final TreeSet<Ranked> top = new TreeSet<>(BY_SCORE_DESC);
+    private final Map<UUID, CountedOrder> countedOrders;
+    private long landmarkMillis = System.currentTimeMillis();
+    private boolean topStale;
+    private boolean changedSinceSnapshot;
+    private boolean loaded;
+
+    public ProductPopularityRanking(
+            ProductPopularityRepository repository,
+            ObjectMapper objectMapper,
+            MeterRegistry meterRegistry,
+            @Value("${product.popularity.half-life-hours:72}") double halfLifeHours,
+            @Value("${product.popularity.top-k:1000}") int topK,
+            @Value("${product.popularity.min-score:0.01}") double minScore,
+            @Value("${product.popularity.max-tracked-orders:100000}") int maxTrackedOrders
+    ) {
+        this.repository = repository;
+        this.objectMapper = objectMapper;
+        this.tauMillis = Math.max(1.0, halfLifeHours) * 3_600_000 / Math.log(2);
+        this.topK = Math.max(1, topK);
+        this.minScore = Math.max(0, minScore);
+        this.maxTrackedOrders = Math.max(1, maxTrackedOrders);
+        // Remembers what each recent confirmation added, so a duplicate delivery is ignored and a
+        // cancellation subtracts exactly that weight.
+        this.countedOrders = new LinkedHashMap<>() {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<UUID, CountedOrder> eldest) {
+                return size() > ProductPopularityRanking.this.maxTrackedOrders;
+            }
+        };
+
+        this.eventsCounter = Counter.builder("product.popularity.events")
+                .description("Order events applied to the best-seller ranking")
+                .register(meterRegistry);
+        Gauge.builder("product.popularity.tracked_products", this, ProductPopularityRanking::trackedProducts)
+                .description("Products with a live best-seller score")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Applies one {@code orders.events} payload. Other event types and malformed payloads are ignored.
+     */
+    public void onOrderEvent(String payload) {
+        JsonNode event;
+        try {
+            event = objectMapper.readTree(payload);
+        } catch (Exception ex) {
+            log.warn("Ignoring unreadable order event: {}", ex.getMessage());
+            return;
+        }
+
+        String eventType = event.path("eventType").asText("");
+        UUID orderId = uuid(event.path("orderId"));
+        if (orderId == null) {
+            return;
+        }
+        switch (eventType) {
+            case "ORDER_CONFIRMED" -> {
+                UUID productId = uuid(event.path("productId"));
+                int quantity = event.path("quantity").asInt(0);
+                if (productId != null && quantity > 0) {
+                    recordSale(orderId, productId, quantity, occurredAt(event.path("occurredAt")));
+                }
+            }
+            case "ORDER_CANCELLED" -> retractSale(orderId);
+            default -> {
+                return;
+            }
+        }
+        eventsCounter.increment();
+    }
+
+    public synchronized void recordSale(UUID orderId, UUID productId, int quantity, Instant occurredAt) {
+        if (countedOrders.containsKey(orderId)) {
+            return;
+        }
+        long at = Math.min(occurredAt.toEpochMilli(), System.currentTimeMillis());
+        countedOrders.put(orderId, new CountedOrder(productId, quantity, at));
+        adjust(productId, quantity * weightAt(at));
+    }
+
+    public synchronized void retractSale(UUID orderId) {
+        CountedOrder order = countedOrders.remove(orderId);
+        if (order != null) {
+            adjust(order.productId(), -order.quantity() * weightAt(order.occurredAtMillis()));
+        }
+    }
+
+    /**
+     * Best sellers by current decayed score, highest first.
+     */
+    public synchronized List<Ranked> top(int limit) {
+        List<Ranked> result = new ArrayList<>(Math.min(limit, topK));
+        double decay = currentDecay();
+        for (Ranked ranked : topSet()) {
+            if (result.size() >= limit) {
+                break;
+            }
+            result.add(new Ranked(ranked.productId(), ranked.score() * decay));
+        }
+        return result;
+    }
+
+    /**
+     * Product ids of the top K in rank order, as used by {@code sortBy=popularity}.
+     */
+    public synchronized List<UUID> rankedIds() {
+        List<UUID> ids = new ArrayList<>(top.size());
+        for (Ranked ranked : topSet()) {
+            ids.add(ranked.productId());
+        }
+        return ids;
+    }
+
+    public synchronized int trackedProducts() {
+        return weights.size();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void loadSnapshot() {
+        long now = System.currentTimeMillis();
+        // Events consumed before the application was ready are kept on top of the snapshot.
+        reanchor(now);
+        for (ProductPopularityRepository.Snapshot row : repository.findAll()) {
+            double score = row.score() * Math.exp(-(now - row.snapshotAt().toEpochMilli()) / tauMillis);
+            if (score >= minScore) {
+                weights.merge(row.productId(), score, Double::sum);
+            }
+        }
+        loaded = true;
+        log.info("Best-seller ranking loaded {} products from snapshot", weights.size());
+    }
+
+    @Scheduled(fixedDelayString = "${product.popularity.snapshot-interval-ms:60000}")
+    public void snapshotScheduled() {
+        snapshot();
+    }
+
+    @PreDestroy
+    public void snapshot() {
+        Map<UUID, Double> scores;
+        synchronized (this) {
+            if (!loaded || !changedSinceSnapshot) {
+                return;
+            }
+            scores = currentScores();
+            changedSinceSnapshot = false;
+        }
+        try {
+            repository.replaceAll(scores, Instant.now());
+        } catch (RuntimeException ex) {
+            synchronized (this) {
+                changedSinceSnapshot = true;
+            }
+            log.warn("Best-seller snapshot failed, will retry: {}", ex.getMessage());
+        }
+    }
+
+    private Map<UUID, Double> currentScores() {
+        double decay = currentDecay();
+        Map<UUID, Double> scores = new HashMap<>();
+        weights.entrySet().removeIf(entry -> entry.getValue() * decay < minScore);
+        weights.forEach((productId, weight) -> scores.put(productId, weight * decay));
+        topStale = true;
+        return scores;
+    }
+
+    private void adjust(UUID productId, double delta) {
+        Double previous = weights.get(productId);
+        double updated = (previous == null ? 0 : previous) + delta;
+        if (updated <= 0) {
+            weights.remove(productId);
+        } else {
+            weights.put(productId, updated);
+        }
+        changedSinceSnapshot = true;
+
+        if (topStale) {
+            return;
+        }
+        boolean wasTop = previous != null && top.remove(new Ranked(productId, previous));
+        if (delta < 0 && wasTop) {
+            // A member dropped; some product outside the set may now outrank it.
+            topStale = true;
+            return;
+        }
+        if (updated > 0) {
+            offer(new Ranked(productId, updated));
+        }
+    }
+
+    private TreeSet<Ranked> topSet() {
+        if (topStale) {
+            PriorityQueue<Ranked> heap = new PriorityQueue<>(BY_SCORE_DESC.reversed());
+            weights.forEach((productId, weight) -> {
+                heap.add(new Ranked(productId, weight));
+                if (heap.size() > topK) {
+                    heap.poll();
+                }
+            });
+            top.clear();
+            top.addAll(heap);
+            topStale = false;
+        }
+        return top;
+    }
+
+    private void offer(Ranked ranked) {
+        if (top.size() < topK) {
+            top.add(ranked);
+        } else if (BY_SCORE_DESC.compare(ranked, top.last()) < 0) {
+            top.pollLast();
+            top.add(ranked);
+        }
+    }
+
+    private double weightAt(long epochMillis) {
+        double exponent = (epochMillis - landmarkMillis) / tauMillis;
+        if (exponent > MAX_EXPONENT) {
+            reanchor(epochMillis);
+            exponent = 0;
+        }
+        return Math.exp(exponent);
+    }
+
+    private void reanchor(long newLandmarkMillis) {
+        double factor = Math.exp(-(newLandmarkMillis - landmarkMillis) / tauMillis);
+        weights.replaceAll((productId, weight) -> weight * factor);
+        landmarkMillis = newLandmarkMillis;
+        topStale = true;
+    }
+
+    private double currentDecay() {
+        return Math.exp(-(System.currentTimeMillis() - landmarkMillis) / tauMillis);
+    }
+
+    private static UUID uuid(JsonNode node) {
+        try {
+            return node.isTextual() ? UUID.fromString(node.asText()) : null;
+        } catch (IllegalArgumentException ex) {
+            return null;
+        }
+    }
+
+    private static Instant occurredAt(JsonNode node) {
+        if (node.isNumber()) {
+            // Jackson writes Instants as epoch seconds when WRITE_DATES_AS_TIMESTAMPS is on.
+            return Instant.ofEpochMilli((long) (node.asDouble() * 1000));
+        }
+        try {
+            return node.isTextual() ? Instant.parse(node.asText()) : Instant.now();
+        } catch (DateTimeParseException ex) {
+            return Instant.now();
+        }
+    }
+
+    public record Ranked(UUID productId, double score) {
+    }
+
+    private record CountedOrder(UUID productId, int quantity, long occurredAtMillis) {
+    }
+}
@@ -1,51 +1,125 @@
 package com.example.product.service;
 
+import com.example.product.config.ReplicaLagMonitor;
 import com.example.product.dto.ProductCreateRequest;
 import com.example.product.dto.ProductPatchRequest;
 import com.example.product.dto.ProductPageResponse;
 import com.example.product.dto.ProductResponse;
+import com.example.product.dto.ProductSliceResponse;
+import com.example.product.dto.TopProductResponse;
 import com.example.product.exception.BadRequestException;
 import com.example.product.exception.ConflictException;
 import com.example.product.exception.ForbiddenException;
 import com.example.product.exception.NotFoundException;
 import com.example.product.model.Product;
+import com.example.product.model.ProductEventType;
+import com.example.product.model.StockDeltaBatch;
+import com.example.product.repository.ProductBulkRepository;
+import com.example.product.repository.ProductReadRepository;
 import com.example.product.repository.ProductRepository;
+import com.example.product.repository.ProductSearchRepository;
+import com.example.product.repository.StockDeltaBatchRepository;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Predicate;
 import jakarta.transaction.Transactional;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.dao.DataAccessException;
 import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
 import java.util.UUID;
 
 @Service
 public class ProductService {
 
+    private static final String RELEVANCE_SORT = "relevance";
+    private static final String POPULARITY_SORT = "popularity";
+
     private final ProductRepository repository;
-    
-    public ProductService(ProductRepository repository) {
+    private final ProductReadRepository readRepository;
+    private final ProductBulkRepository bulkRepository;
+    private final ProductDetailCache detailCache;
+    private final ProductListingCache listingCache;
+    private final ProductSearchRepository searchRepository;
+    private final ColumnarReadEngine columnarReadEngine;
+    private final ProductOutboxService outboxService;
+    private final StockDeltaBatchRepository stockDeltaBatchRepository;
+    private final ProductPopularityRanking popularityRanking;
+    private final ReplicaLagMonitor replicaLagMonitor;
+
+    public ProductService(
+            ProductRepository repository,
+            ProductReadRepository readRepository,
+            ProductBulkRepository bulkRepository,
+            ProductDetailCache detailCache,
+            ProductListingCache listingCache,
+            ProductSearchRepository searchRepository,
+            ColumnarReadEngine columnarReadEngine,
+            ProductOutboxService outboxService,
+            StockDeltaBatchRepository stockDeltaBatchRepository,
+            ProductPopularityRanking popularityRanking,
+            ObjectProvider<ReplicaLagMonitor> replicaLagMonitorProvider
+    ) {
         this.repository = repository;
+        this.readRepository = readRepository;
+        this.bulkRepository = bulkRepository;
+        this.detailCache = detailCache;
+        this.listingCache = listingCache;
+        this.searchRepository = searchRepository;
+        this.columnarReadEngine = columnarReadEngine;
+        this.outboxService = outboxService;
+        this.stockDeltaBatchRepository = stockDeltaBatchRepository;
+        this.popularityRanking = popularityRanking;
+        this.replicaLagMonitor = replicaLagMonitorProvider.getIfAvailable();
     }
 
     // =========================
     // CREATE PRODUCT (SELLER / ADMIN)
     // =========================
+    @Transactional
     public ProductResponse create(ProductCreateRequest request, String userRole) {
         Product product = new Product();
         applyFullUpdate(product, request, userRole);
 
-        return toResponse(repository.save(product));
+        Product saved = repository.save(product);
+        productChanged(saved, ProductEventType.PRODUCT_CREATED);
+        return toResponse(saved);
+    }
+
+    /**
+     * Inserts already validated products in one transaction. Used by the bulk import, one call per batch.
+     */
+    @Transactional
+    public void importBatch(List<Product> products) {
+        bulkRepository.insertAll(products);
+        for (Product product : products) {
+            outboxService.enqueueProductEvent(ProductEventType.PRODUCT_CREATED, product);
+            columnarReadEngine.onSaved(product);
+        }
+        listingCache.invalidateAll();
+        primaryWritten();
     }
 
     @Transactional
     public ProductResponse replace(UUID id, ProductCreateRequest request, String userRole) {
         Product product = getProductOrThrow(id);
         applyFullUpdate(product, request, userRole);
-        return toResponse(repository.save(product));
+        Product saved = repository.saveAndFlush(product);
+        productChanged(saved, ProductEventType.PRODUCT_UPDATED);
+        return toResponse(saved);
     }
 
     @Transactional
@@ -70,7 +144,9 @@ public class ProductService {
             product.setStock(request.getStock());
         }
 
-        return toResponse(repository.save(product));
+        Product saved = repository.saveAndFlush(product);
+        productChanged(saved, ProductEventType.PRODUCT_UPDATED);
+        return toResponse(saved);
     }
 
     @Transactional
@@ -79,6 +155,7 @@ public class ProductService {
         Product product = getProductOrThrow(id);
         repository.delete(product);
         repository.flush();
+        productDeleted(id);
     }
 
     // =========================
@@ -90,6 +167,49 @@ public class ProductService {
             String sortBy,
             String sortDir,
             String name,
+            String q,
+            Double minPrice,
+            Double maxPrice,
+            Integer minStock,
+            Integer maxStock
+    ) {
+        return findPage(listingKey(page, size, sortBy, sortDir, name, q, minPrice, maxPrice, minStock, maxStock));
+    }
+
+    public ProductPageResponse findPage(ProductListingCache.ListingKey key) {
+        return listingCache.get(key, () -> {
+            if (key.query() != null) {
+                return searchPage(key);
+            }
+            if (POPULARITY_SORT.equals(key.sortBy())) {
+                return popularityPage(key);
+            }
+            return columnarReadEngine.query(key).orElseGet(() -> queryPage(key));
+        });
+    }
+
+    /**
+     * Best sellers from the in-memory ranking. Products deleted since their last sale are skipped.
+     */
+    public List<TopProductResponse> findTop(int limit) {
+        List<TopProductResponse> result = new ArrayList<>(limit);
+        for (ProductPopularityRanking.Ranked ranked : popularityRanking.top(limit)) {
+            detailCache.get(ranked.productId(), repository::findResponseById)
+                    .ifPresent(product -> result.add(new TopProductResponse(product, ranked.score())));
+        }
+        return result;
+    }
+
+    /**
+     * Validates and normalizes listing parameters into the key shared by every read path.
+     */
+    public ProductListingCache.ListingKey listingKey(
+            int page,
+            int size,
+            String sortBy,
+            String sortDir,
+            String name,
+            String q,
             Double minPrice,
             Double maxPrice,
             Integer minStock,
@@ -98,52 +218,189 @@ public class ProductService {
         validateRange(minPrice, maxPrice, "price");
         validateRange(minStock, maxStock, "stock");
 
-        String normalizedSortBy = normalizeSortBy(sortBy);
-        Sort.Direction direction = normalizeSortDirection(sortDir);
+        String normalizedQuery = normalizeSearchQuery(q);
+        // Search results are always ranked by relevance; sortBy/sortDir only apply to plain listings.
+        String normalizedSortBy = normalizedQuery == null ? normalizeSortBy(sortBy, true) : RELEVANCE_SORT;
+        // Popularity, like relevance, only makes sense best first.
+        Sort.Direction direction = normalizedQuery == null && !POPULARITY_SORT.equals(normalizedSortBy)
+                ? normalizeSortDirection(sortDir)
+                : Sort.Direction.DESC;
+        String normalizedName = name == null || name.isBlank() ? null : name.trim().toLowerCase(Locale.ROOT);
 
-        PageRequest pageRequest = PageRequest.of(
+        return ProductListingCache.ListingKey.of(
                 page,
                 size,
-                Sort.by(direction, normalizedSortBy)
+                normalizedSortBy,
+                direction.name(),
+                normalizedName,
+                normalizedQuery,
+                minPrice,
+                maxPrice,
+                minStock,
+                maxStock
         );
+    }
 
-        Specification<Product> spec = Specification.where(null);
-        if (name != null && !name.isBlank()) {
-            String keyword = "%" + name.trim().toLowerCase(Locale.ROOT) + "%";
-            spec = spec.and((root, query, cb) -> cb.like(cb.lower(root.get("name")), keyword));
-        }
-        if (minPrice != null) {
-            spec = spec.and((root, query, cb) -> cb.greaterThanOrEqualTo(root.get("price"), minPrice));
-        }
-        if (maxPrice != null) {
-            spec = spec.and((root, query, cb) -> cb.lessThanOrEqualTo(root.get("price"), maxPrice));
-        }
-        if (minStock != null) {
-            spec = spec.and((root, query, cb) -> cb.greaterThanOrEqualTo(root.get("stock"), minStock));
-        }
-        if (maxStock != null) {
-            spec = spec.and((root, query, cb) -> cb.lessThanOrEqualTo(root.get("stock"), maxStock));
-        }
+    private ProductPageResponse searchPage(ProductListingCache.ListingKey key) {
+        Page<ProductResponse> result = searchRepository.search(
+                key.query(),
+                key.name(),
+                key.minPrice(),
+                key.maxPrice(),
+                key.minStock(),
+                key.maxStock(),
+                key.page(),
+                key.size()
+        );
+        return new ProductPageResponse(
+                result.getContent(),
+                result.getNumber(),
+                result.getSize(),
+                result.getTotalElements(),
+                result.getTotalPages(),
+                key.sortBy(),
+                key.sortDir(),
+                result.hasNext(),
+                result.hasPrevious()
+        );
+    }
+
+    private ProductPageResponse queryPage(ProductListingCache.ListingKey key) {
+        PageRequest pageRequest = PageRequest.of(
+                key.page(),
+                key.size(),
+                Sort.by(Sort.Direction.valueOf(key.sortDir()), key.sortBy())
+                        .and(Sort.by(Sort.Direction.valueOf(key.sortDir()), "id"))
+        );
+
+        Specification<Product> spec = filterSpec(
+                key.name(),
+                key.minPrice(),
+                key.maxPrice(),
+                key.minStock(),
+                key.maxStock()
+        );
 
-        Page<Product> result = repository.findAll(spec, pageRequest);
-        List<ProductResponse> items = result.getContent().stream().map(this::toResponse).toList();
+        Page<ProductResponse> result = readRepository.findPage(spec, pageRequest);
 
         return new ProductPageResponse(
-                items,
+                result.getContent(),
                 result.getNumber(),
                 result.getSize(),
                 result.getTotalElements(),
                 result.getTotalPages(),
+                key.sortBy(),
+                key.sortDir(),
+                result.hasNext(),
+                result.hasPrevious()
+        );
+    }
+
+    /**
+     * Ranked products come first in rank order, then every unranked product newest first. The ranked
+     * part is at most the ranking's top K, so it is filtered with one id lookup and paged in memory.
+     */
+    private ProductPageResponse popularityPage(ProductListingCache.ListingKey key) {
+        Specification<Product> spec = filterSpec(
+                key.name(),
+                key.minPrice(),
+                key.maxPrice(),
+                key.minStock(),
+                key.maxStock()
+        );
+        List<UUID> rankedIds = popularityRanking.rankedIds();
+
+        List<ProductResponse> ranked = List.of();
+        Specification<Product> unrankedSpec = spec;
+        if (!rankedIds.isEmpty()) {
+            Map<UUID, ProductResponse> matches = new HashMap<>();
+            for (ProductResponse product : readRepository.findAll(spec.and((root, query, cb) -> root.get("id").in(rankedIds)))) {
+                matches.put(product.getId(), product);
+            }
+            ranked = rankedIds.stream().map(matches::get).filter(Objects::nonNull).toList();
+            unrankedSpec = spec.and((root, query, cb) -> cb.not(root.get("id").in(rankedIds)));
+        }
+
+        long offset = (long) key.page() * key.size();
+        List<ProductResponse> items = new ArrayList<>(key.size());
+        if (offset < ranked.size()) {
+            items.addAll(ranked.subList((int) offset, (int) Math.min(ranked.size(), offset + key.size())));
+        }
+        if (items.size() < key.size()) {
+            long unrankedOffset = Math.max(0, offset - ranked.size());
+            Sort newestFirst = Sort.by(Sort.Direction.DESC, "createdAt").and(Sort.by(Sort.Direction.DESC, "id"));
+            items.addAll(readRepository.findRange(unrankedSpec, newestFirst, unrankedOffset, key.size() - items.size()));
+        }
+
+        long total = ranked.size() + readRepository.count(unrankedSpec);
+        int totalPages = (int) ((total + key.size() - 1) / key.size());
+        return new ProductPageResponse(
+                items,
+                key.page(),
+                key.size(),
+                total,
+                totalPages,
+                key.sortBy(),
+                key.sortDir(),
+                key.page() + 1 < totalPages,
+                key.page() > 0
+        );
+    }
+
+    public ProductSliceResponse findSlice(
+            int size,
+            String sortBy,
+            String sortDir,
+            String cursor,
+            String name,
+            Double minPrice,
+            Double maxPrice,
+            Integer minStock,
+            Integer maxStock,
+            boolean includeApproximateTotal
+    ) {
+        validateRange(minPrice, maxPrice, "price");
+        validateRange(minStock, maxStock, "stock");
+
+        String normalizedSortBy = normalizeSortBy(sortBy, false);
+        Sort.Direction direction = normalizeSortDirection(sortDir);
+        String normalizedName = name == null || name.isBlank() ? null : name.trim().toLowerCase(Locale.ROOT);
+
+        Specification<Product> spec = filterSpec(normalizedName, minPrice, maxPrice, minStock, maxStock);
+        if (cursor != null && !cursor.isBlank()) {
+            ProductCursor position = ProductCursor.decode(cursor.trim(), normalizedSortBy, direction.name());
+            spec = spec.and(keysetSpec(position, direction));
+        }
+
+        // Tie-break on id so (sortKey, id) is a total order and the keyset predicate never skips rows.
+        Sort sort = Sort.by(direction, normalizedSortBy).and(Sort.by(direction, "id"));
+        Slice<ProductResponse> result = readRepository.findSlice(spec, size, sort);
+
+        List<ProductResponse> items = result.getContent();
+        String nextCursor = result.hasNext() && !items.isEmpty()
+                ? ProductCursor.after(items.get(items.size() - 1), normalizedSortBy, direction.name()).encode()
+                : null;
+
+        boolean unfiltered = normalizedName == null
+                && minPrice == null
+                && maxPrice == null
+                && minStock == null
+                && maxStock == null;
+        Long approximateTotal = includeApproximateTotal && unfiltered ? estimateCatalogSize() : null;
+
+        return new ProductSliceResponse(
+                items,
+                size,
                 normalizedSortBy,
                 direction.name(),
                 result.hasNext(),
-                result.hasPrevious()
+                nextCursor,
+                approximateTotal
         );
     }
 
     public ProductResponse findById(UUID id) {
-        return repository.findById(id)
-                .map(this::toResponse)
+        return detailCache.get(id, repository::findResponseById)
                 .orElseThrow(() -> new NotFoundException("PRODUCT_NOT_FOUND", "Product not found"));
     }
 
@@ -169,6 +426,7 @@ public class ProductService {
         } catch (OptimisticLockingFailureException ex) {
             throw new ConflictException("STOCK_UPDATE_CONFLICT", "Concurrent stock update detected. Please retry.");
         }
+        productChanged(product, ProductEventType.PRODUCT_STOCK_CHANGED);
     }
 
     @Transactional
@@ -185,6 +443,41 @@ public class ProductService {
         } catch (OptimisticLockingFailureException ex) {
             throw new ConflictException("STOCK_UPDATE_CONFLICT", "Concurrent stock update detected. Please retry.");
         }
+        productChanged(product, ProductEventType.PRODUCT_STOCK_CHANGED);
+    }
+
+    /**
+     * Applies one write-behind batch of stock increments. Returns false when the batch was already
+     * applied, which happens when a journal is replayed after a crash that followed the commit.
+     */
+    @Transactional
+    public boolean applyStockIncrements(UUID batchId, Map<UUID, Long> deltas) {
+        if (stockDeltaBatchRepository.existsById(batchId)) {
+            return false;
+        }
+        Instant now = Instant.now();
+        stockDeltaBatchRepository.save(new StockDeltaBatch(batchId, now));
+        if (deltas.isEmpty()) {
+            return true;
+        }
+
+        bulkRepository.incrementStock(deltas, now);
+        for (Product product : repository.findAllById(deltas.keySet())) {
+            productChanged(product, ProductEventType.PRODUCT_STOCK_CHANGED);
+        }
+        return true;
+    }
+
+    /**
+     * Drops write-behind batch markers applied before the cutoff. Returns the number removed.
+     */
+    @Transactional
+    public int pruneStockDeltaBatches(Instant appliedBefore) {
+        return stockDeltaBatchRepository.deleteAppliedBefore(appliedBefore);
+    }
+
+    public boolean exists(UUID productId) {
+        return repository.existsById(productId);
     }
 
     private void applyFullUpdate(Product product, ProductCreateRequest request, String userRole) {
@@ -194,12 +487,100 @@ public class ProductService {
         product.setStock(request.getStock());
     }
 
+    private Specification<Product> filterSpec(
+            String normalizedName,
+            Double minPrice,
+            Double maxPrice,
+            Integer minStock,
+            Integer maxStock
+    ) {
+        Specification<Product> spec = Specification.where(null);
+        if (normalizedName != null) {
+            String keyword = "%" + normalizedName + "%";
+            spec = spec.and((root, query, cb) -> cb.like(cb.lower(root.get("name")), keyword));
+        }
+        if (minPrice != null) {
+            spec = spec.and((root, query, cb) -> cb.greaterThanOrEqualTo(root.get("price"), minPrice));
+        }
+        if (maxPrice != null) {
+            spec = spec.and((root, query, cb) -> cb.lessThanOrEqualTo(root.get("price"), maxPrice));
+        }
+        if (minStock != null) {
+            spec = spec.and((root, query, cb) -> cb.greaterThanOrEqualTo(root.get("stock"), minStock));
+        }
+        if (maxStock != null) {
+            spec = spec.and((root, query, cb) -> cb.lessThanOrEqualTo(root.get("stock"), maxStock));
+        }
+        return spec;
+    }
+
+    private Specification<Product> keysetSpec(ProductCursor cursor, Sort.Direction direction) {
+        return (root, query, cb) -> switch (cursor.sortBy()) {
+            case "name" -> afterPosition(cb, readRepository.nameSortKey(root, cb), (String) cursor.lastValue(), root.get("id"), cursor.lastId(), direction);
+            case "price" -> afterPosition(cb, root.get("price"), (Double) cursor.lastValue(), root.get("id"), cursor.lastId(), direction);
+            case "stock" -> afterPosition(cb, root.get("stock"), (Integer) cursor.lastValue(), root.get("id"), cursor.lastId(), direction);
+            default -> afterPosition(cb, root.get("createdAt"), (Instant) cursor.lastValue(), root.get("id"), cursor.lastId(), direction);
+        };
+    }
+
+    private <Y extends Comparable<? super Y>> Predicate afterPosition(
+            CriteriaBuilder cb,
+            Expression<? extends Y> sortKey,
+            Y lastValue,
+            Expression<UUID> id,
+            UUID lastId,
+            Sort.Direction direction
+    ) {
+        if (direction.isAscending()) {
+            return cb.or(
+                    cb.greaterThan(sortKey, lastValue),
+                    cb.and(cb.equal(sortKey, lastValue), cb.greaterThan(id, lastId))
+            );
+        }
+        return cb.or(
+                cb.lessThan(sortKey, lastValue),
+                cb.and(cb.equal(sortKey, lastValue), cb.lessThan(id, lastId))
+        );
+    }
+
+    private Long estimateCatalogSize() {
+        try {
+            Long estimate = repository.estimateRowCount();
+            return estimate == null || estimate < 0 ? null : estimate;
+        } catch (DataAccessException ex) {
+            // Planner statistics are Postgres-only; other databases simply omit the estimate.
+            return null;
+        }
+    }
+
+    private void productChanged(Product product, ProductEventType eventType) {
+        outboxService.enqueueProductEvent(eventType, product);
+        detailCache.evict(product.getId());
+        listingCache.invalidateAll();
+        columnarReadEngine.onSaved(product);
+        primaryWritten();
+    }
+
+    private void productDeleted(UUID id) {
+        outboxService.enqueueProductDeleted(id);
+        detailCache.evict(id);
+        listingCache.invalidateAll();
+        columnarReadEngine.onDeleted(id);
+        primaryWritten();
+    }
+
+    private void primaryWritten() {
+        if (replicaLagMonitor != null) {
+            replicaLagMonitor.recordPrimaryWriteOnCommit();
+        }
+    }
+
     private Product getProductOrThrow(UUID id) {
         return repository.findById(id)
                 .orElseThrow(() -> new NotFoundException("PRODUCT_NOT_FOUND", "Product not found"));
     }
 
-    private void validateProductManagerRole(String userRole) {
+    void validateProductManagerRole(String userRole) {
         if (userRole == null || userRole.isBlank()) {
             throw new ForbiddenException("MISSING_ROLE", "Missing user role");
         }
@@ -225,15 +606,34 @@ public class ProductService {
         }
     }
 
-    private String normalizeSortBy(String sortBy) {
+    private String normalizeSearchQuery(String q) {
+        if (q == null || q.isBlank()) {
+            return null;
+        }
+        return q.trim().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+    }
+
+    private String normalizeSortBy(String sortBy, boolean allowPopularity) {
         if (sortBy == null || sortBy.isBlank()) {
             return "createdAt";
         }
         return switch (sortBy) {
             case "name", "price", "stock", "createdAt" -> sortBy;
+            case POPULARITY_SORT -> {
+                if (!allowPopularity) {
+                    // Cursor pages need a stored sort key; the ranking lives in memory.
+                    throw new BadRequestException(
+                            "INVALID_SORT_FIELD",
+                            "sortBy=popularity is not supported with cursor pagination"
+                    );
+                }
+                yield sortBy;
+            }
             default -> throw new BadRequestException(
                     "INVALID_SORT_FIELD",
-                    "sortBy must be one of: name, price, stock, createdAt"
+                    allowPopularity
+                            ? "sortBy must be one of: name, price, stock, createdAt, popularity"
+                            : "sortBy must be one of: name, price, stock, createdAt"
             );
         };
     }
@@ -257,7 +657,8 @@ public class ProductService {
                 product.getName(),
                 product.getPrice(),
                 product.getStock(),
-                product.getCreatedAt()
+                product.getCreatedAt(),
+                product.getVersion()
         );
     }
 
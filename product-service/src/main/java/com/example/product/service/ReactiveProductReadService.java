@@ -0,0 +1,79 @@
+package com.example.product.service;
+
+import com.example.product.dto.ProductPageResponse;
+import com.example.product.dto.ProductResponse;
+import com.example.product.dto.ProductSliceResponse;
+import com.example.product.exception.NotFoundException;
+import com.example.product.repository.ProductReactiveReadRepository;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.UUID;
+import java.util.concurrent.Callable;
+
+/**
+ * Non-blocking counterpart of the {@link ProductService} read methods. Plain listings and detail
+ * reads use the same caches and columnar engine as the servlet path, then fall through to R2DBC.
+ * Trigram search, popularity ordering and keyset slices stay on JPA, off the event loop.
+ */
+@Service
+@Profile("reactive-read")
+public class ReactiveProductReadService {
+
+    private final ProductService productService;
+    private final ProductListingCache listingCache;
+    private final ProductDetailCache detailCache;
+    private final ColumnarReadEngine columnarReadEngine;
+    private final ProductReactiveReadRepository repository;
+
+    public ReactiveProductReadService(
+            ProductService productService,
+            ProductListingCache listingCache,
+            ProductDetailCache detailCache,
+            ColumnarReadEngine columnarReadEngine,
+            ProductReactiveReadRepository repository
+    ) {
+        this.productService = productService;
+        this.listingCache = listingCache;
+        this.detailCache = detailCache;
+        this.columnarReadEngine = columnarReadEngine;
+        this.repository = repository;
+    }
+
+    public Mono<ProductPageResponse> findAll(ProductListingCache.ListingKey key) {
+        if (key.query() != null || "popularity".equals(key.sortBy())) {
+            return blocking(() -> productService.findPage(key));
+        }
+        return listingCache.getReactive(key, () -> columnarReadEngine.query(key)
+                .map(Mono::just)
+                .orElseGet(() -> repository.findPage(key)));
+    }
+
+    public Mono<ProductSliceResponse> findSlice(
+            int size,
+            String sortBy,
+            String sortDir,
+            String cursor,
+            String name,
+            Double minPrice,
+            Double maxPrice,
+            Integer minStock,
+            Integer maxStock,
+            boolean includeApproximateTotal
+    ) {
+        return blocking(() -> productService.findSlice(
+                size, sortBy, sortDir, cursor, name, minPrice, maxPrice, minStock, maxStock, includeApproximateTotal
+        ));
+    }
+
+    public Mono<ProductResponse> findById(UUID id) {
+        return detailCache.getReactive(id, repository::findById)
+                .switchIfEmpty(Mono.error(() -> new NotFoundException("PRODUCT_NOT_FOUND", "Product not found")));
+    }
+
+    private static <T> Mono<T> blocking(Callable<T> call) {
+        return Mono.fromCallable(call).subscribeOn(Schedulers.boundedElastic());
+    }
+}
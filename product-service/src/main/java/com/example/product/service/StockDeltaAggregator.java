@@ -0,0 +1,390 @@
+package com.example.product.service;
+
+import com.example.product.exception.BadRequestException;
+import com.example.product.exception.NotFoundException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.channels.FileChannel;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Optional write-behind path for stock increments (order compensation releases and restocks).
+ * <p>
+ * Each increment is appended to a local journal and added to a striped in-memory map, then the
+ * scheduled flush applies the summed delta with one UPDATE per product. The journal is sealed and
+ * tagged with a batch id before each flush; the id is stored in the flush transaction, so journals
+ * left behind by a crash are replayed on startup exactly once. Decrements never go through here.
+ * <p>
+ * The journal directory must be set explicitly and should sit on persistent storage; a container's
+ * temp directory does not survive the restart that replays it. Batch markers only matter while a
+ * journal carrying their id can still be replayed, so each successful flush prunes markers older
+ * than the batch retention.
+ */
+@Component
+public class StockDeltaAggregator {
+
+    private static final Logger log = LoggerFactory.getLogger(StockDeltaAggregator.class);
+    private static final String ACTIVE_JOURNAL = "stock-deltas.journal";
+    private static final String SEALED_SUFFIX = ".sealed";
+    private static final String BATCH_HEADER = "batch ";
+
+    private final ProductService productService;
+    private final boolean enabled;
+    private final Path journalDir;
+    private final boolean fsync;
+    private final Duration batchRetention;
+    private final ConcurrentHashMap<UUID, Long>[] stripes;
+    private final ReentrantReadWriteLock journalLock = new ReentrantReadWriteLock();
+    private final Object flushMonitor = new Object();
+    private final Counter bufferedCounter;
+    private final Counter flushedRowsCounter;
+
+    private Journal journal;
+    private SealedBatch pendingBatch;
+
+    @SuppressWarnings("unchecked")
+    public StockDeltaAggregator(
+            ProductService productService,
+            MeterRegistry meterRegistry,
+            @Value("${product.stock.write-behind.enabled:false}") boolean enabled,
+            @Value("${product.stock.write-behind.journal-dir:}") String journalDir,
+            @Value("${product.stock.write-behind.fsync:true}") boolean fsync,
+            @Value("${product.stock.write-behind.stripes:16}") int stripes,
+            @Value("${product.stock.write-behind.batch-retention-ms:604800000}") long batchRetentionMs
+    ) {
+        if (enabled && (journalDir == null || journalDir.isBlank())) {
+            throw new IllegalStateException(
+                    "product.stock.write-behind.journal-dir must be set to a persistent directory when write-behind is enabled");
+        }
+        this.productService = productService;
+        this.enabled = enabled;
+        this.journalDir = enabled ? Paths.get(journalDir) : null;
+        this.fsync = fsync;
+        this.batchRetention = Duration.ofMillis(Math.max(0, batchRetentionMs));
+        this.stripes = new ConcurrentHashMap[Integer.highestOneBit(Math.max(1, stripes))];
+        for (int i = 0; i < this.stripes.length; i++) {
+            this.stripes[i] = new ConcurrentHashMap<>();
+        }
+
+        this.bufferedCounter = Counter.builder("product.stock.write_behind.buffered")
+                .description("Stock increments accepted into the write-behind buffer")
+                .register(meterRegistry);
+        this.flushedRowsCounter = Counter.builder("product.stock.write_behind.flushed_rows")
+                .description("Product rows updated by write-behind flushes")
+                .register(meterRegistry);
+        Gauge.builder("product.stock.write_behind.pending_products", this, StockDeltaAggregator::pendingProducts)
+                .description("Products with a buffered stock increment")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            Files.createDirectories(journalDir);
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Cannot create stock journal directory " + journalDir, ex);
+        }
+        recover();
+        journalLock.writeLock().lock();
+        try {
+            journal = Journal.open(journalDir.resolve(ACTIVE_JOURNAL), UUID.randomUUID(), fsync);
+        } finally {
+            journalLock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Increases stock, either through the buffer or synchronously when write-behind is disabled.
+     */
+    public void increaseStock(UUID productId, int quantity) {
+        if (!enabled) {
+            productService.increaseStock(productId, quantity);
+            return;
+        }
+        if (quantity <= 0) {
+            throw new BadRequestException("INVALID_QUANTITY", "Quantity must be greater than 0");
+        }
+        if (!productService.exists(productId)) {
+            throw new NotFoundException("PRODUCT_NOT_FOUND", "Product not found");
+        }
+
+        journalLock.readLock().lock();
+        try {
+            journal.append(productId, quantity);
+            stripeFor(productId).merge(productId, (long) quantity, Long::sum);
+        } finally {
+            journalLock.readLock().unlock();
+        }
+        bufferedCounter.increment();
+    }
+
+    @Scheduled(fixedDelayString = "${product.stock.write-behind.flush-interval-ms:200}")
+    public void flushScheduled() {
+        if (enabled) {
+            flush();
+        }
+    }
+
+    /**
+     * Applies everything buffered so far. Returns the number of products updated.
+     */
+    public int flush() {
+        synchronized (flushMonitor) {
+            if (pendingBatch != null && !apply(pendingBatch)) {
+                return 0;
+            }
+            pendingBatch = null;
+
+            SealedBatch batch = sealActiveJournal();
+            if (batch == null) {
+                return 0;
+            }
+            if (!apply(batch)) {
+                pendingBatch = batch;
+                return 0;
+            }
+            pruneAppliedBatches();
+            return batch.deltas().size();
+        }
+    }
+
+    public int pendingProducts() {
+        int pending = 0;
+        for (Map<UUID, Long> stripe : stripes) {
+            pending += stripe.size();
+        }
+        return pending;
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (!enabled) {
+            return;
+        }
+        flush();
+        journalLock.writeLock().lock();
+        try {
+            journal.close();
+        } finally {
+            journalLock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Replays journals left by a previous process. Batches that were already committed are skipped.
+     */
+    public void recover() {
+        Path active = journalDir.resolve(ACTIVE_JOURNAL);
+        List<Path> leftovers = new ArrayList<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(journalDir, "stock-deltas*")) {
+            files.forEach(leftovers::add);
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Cannot list stock journals in " + journalDir, ex);
+        }
+
+        for (Path file : leftovers) {
+            if (file.equals(active) && journal != null) {
+                continue;
+            }
+            SealedBatch batch = SealedBatch.read(file);
+            if (batch == null) {
+                deleteQuietly(file);
+                continue;
+            }
+            boolean applied = productService.applyStockIncrements(batch.batchId(), batch.deltas());
+            log.info("Recovered stock journal {}: batch={} products={} applied={}",
+                    file.getFileName(), batch.batchId(), batch.deltas().size(), applied);
+            deleteQuietly(file);
+        }
+    }
+
+    private SealedBatch sealActiveJournal() {
+        journalLock.writeLock().lock();
+        try {
+            Map<UUID, Long> drained = new HashMap<>();
+            for (ConcurrentHashMap<UUID, Long> stripe : stripes) {
+                drained.putAll(stripe);
+                stripe.clear();
+            }
+            if (drained.isEmpty()) {
+                return null;
+            }
+
+            UUID batchId = journal.batchId();
+            Path sealed = journalDir.resolve("stock-deltas-" + batchId + SEALED_SUFFIX);
+            journal.close();
+            Files.move(journal.path(), sealed, StandardCopyOption.ATOMIC_MOVE);
+            journal = Journal.open(journalDir.resolve(ACTIVE_JOURNAL), UUID.randomUUID(), fsync);
+            return new SealedBatch(batchId, drained, sealed);
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Cannot seal stock journal", ex);
+        } finally {
+            journalLock.writeLock().unlock();
+        }
+    }
+
+    private boolean apply(SealedBatch batch) {
+        try {
+            productService.applyStockIncrements(batch.batchId(), batch.deltas());
+        } catch (RuntimeException ex) {
+            log.warn("Stock write-behind flush failed for batch {}, will retry: {}", batch.batchId(), ex.getMessage());
+            return false;
+        }
+        flushedRowsCounter.increment(batch.deltas().size());
+        deleteQuietly(batch.path());
+        return true;
+    }
+
+    private void pruneAppliedBatches() {
+        try {
+            int pruned = productService.pruneStockDeltaBatches(Instant.now().minus(batchRetention));
+            if (pruned > 0) {
+                log.debug("Pruned {} stock delta batch markers older than {}", pruned, batchRetention);
+            }
+        } catch (RuntimeException ex) {
+            log.warn("Cannot prune stock delta batch markers: {}", ex.getMessage());
+        }
+    }
+
+    private ConcurrentHashMap<UUID, Long> stripeFor(UUID productId) {
+        return stripes[productId.hashCode() & (stripes.length - 1)];
+    }
+
+    private static void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException ex) {
+            log.warn("Cannot delete stock journal {}: {}", file, ex.getMessage());
+        }
+    }
+
+    /**
+     * Append-only journal file: a batch id header followed by one "productId quantity" line per increment.
+     */
+    private static final class Journal {
+        private final Path path;
+        private final UUID batchId;
+        private final FileChannel channel;
+        private final boolean fsync;
+
+        private Journal(Path path, UUID batchId, FileChannel channel, boolean fsync) {
+            this.path = path;
+            this.batchId = batchId;
+            this.channel = channel;
+            this.fsync = fsync;
+        }
+
+        static Journal open(Path path, UUID batchId, boolean fsync) {
+            try {
+                FileChannel channel = FileChannel.open(path,
+                        StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+                Journal journal = new Journal(path, batchId, channel, fsync);
+                journal.write(BATCH_HEADER + batchId + "\n");
+                return journal;
+            } catch (IOException ex) {
+                throw new UncheckedIOException("Cannot open stock journal " + path, ex);
+            }
+        }
+
+        void append(UUID productId, int quantity) {
+            write(productId + " " + quantity + "\n");
+        }
+
+        private void write(String record) {
+            try {
+                ByteBuffer buffer = ByteBuffer.wrap(record.getBytes(StandardCharsets.US_ASCII));
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+                if (fsync) {
+                    channel.force(false);
+                }
+            } catch (IOException ex) {
+                throw new UncheckedIOException("Cannot append to stock journal " + path, ex);
+            }
+        }
+
+        Path path() {
+            return path;
+        }
+
+        UUID batchId() {
+            return batchId;
+        }
+
+        void close() {
+            try {
+                channel.close();
+            } catch (IOException ex) {
+                log.warn("Cannot close stock journal {}: {}", path, ex.getMessage());
+            }
+        }
+    }
+
+    private record SealedBatch(UUID batchId, Map<UUID, Long> deltas, Path path) {
+
+        /**
+         * Parses a journal file. A torn last line from a crash mid-append is ignored, since that
+         * increment was never acknowledged to the caller.
+         */
+        static SealedBatch read(Path file) {
+            String content;
+            try {
+                content = Files.readString(file, StandardCharsets.US_ASCII);
+            } catch (IOException ex) {
+                throw new UncheckedIOException("Cannot read stock journal " + file, ex);
+            }
+            // Only newline-terminated records are complete.
+            int end = content.lastIndexOf('\n');
+            List<String> lines = end < 0 ? List.of() : content.substring(0, end).lines().toList();
+            if (lines.isEmpty() || !lines.get(0).startsWith(BATCH_HEADER)) {
+                return null;
+            }
+
+            UUID batchId = UUID.fromString(lines.get(0).substring(BATCH_HEADER.length()).trim());
+            Map<UUID, Long> deltas = new HashMap<>();
+            for (int i = 1; i < lines.size(); i++) {
+                String[] parts = lines.get(i).trim().split(" ");
+                if (parts.length != 2) {
+                    continue;
+                }
+                try {
+                    deltas.merge(UUID.fromString(parts[0]), Long.parseLong(parts[1]), Long::sum);
+                } catch (IllegalArgumentException ex) {
+                    log.warn("Skipping malformed stock journal line {} in {}", i + 1, file.getFileName());
+                }
+            }
+            return new SealedBatch(batchId, deltas, file);
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package com.example.product;
+
+import com.example.product.dto.ProductResponse;
+import com.example.product.repository.OutboxEventRepository;
+import com.example.product.repository.ProductRepository;
+import com.example.product.service.ColumnarReadEngine;
+import com.example.product.service.ProductListingCache;
+import com.example.product.service.ProductService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doCallRealMethod;
+import static org.mockito.Mockito.doReturn;
+
+@SpringBootTest(properties = {
+        "product.read-engine.columnar.enabled=true",
+        "product.cache.listing.enabled=false"
+})
+@ActiveProfiles("test")
+class ColumnarListingOrderIntegrationTest {
+
+    private static final String[] NAMES = {
+            "apple", "Apple", "Zebra", "zebra", "Äpfel", "éclair", "Eclair", "Œuvre", "ß", "apple"
+    };
+
+    private static final String[] IDS = {
+            "00000000-0000-7000-8000-000000000001",
+            "7fffffff-ffff-7fff-bfff-ffffffffffff",
+            "80000000-0000-7000-8000-000000000000",
+            "ffffffff-ffff-7fff-bfff-fffffffffffe",
+            "c0000000-0000-7000-c000-000000000000",
+            "40000000-0000-7000-8000-000000000000",
+            "fffffffe-0000-7000-8000-000000000000",
+            "00000001-0000-7000-f000-000000000000",
+            "a0000000-0000-7000-8000-000000000000",
+            "00000000-0000-7000-ffff-000000000000",
+            "80000000-0000-7000-ffff-000000000000",
+            "80000000-0000-7000-0fff-000000000000"
+    };
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private ProductRepository repository;
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @SpyBean
+    private ColumnarReadEngine columnarReadEngine;
+
+    @BeforeEach
+    void setUp() {
+        doCallRealMethod().when(columnarReadEngine).query(any());
+        outboxEventRepository.deleteAll();
+        repository.deleteAll();
+    }
+
+    @Test
+    void columnarPagesMatchTheSqlPathForMixedNamesAndHighBitIds() {
+        Instant createdAt = Instant.parse("2026-01-01T00:00:00Z");
+        for (int i = 0; i < IDS.length; i++) {
+            jdbcTemplate.update(
+                    "insert into products (id, name, price, stock, version, created_at, updated_at) values (?, ?, ?, ?, 0, ?, ?)",
+                    UUID.fromString(IDS[i]),
+                    NAMES[i % NAMES.length],
+                    (double) (i % 3),
+                    5,
+                    Timestamp.from(createdAt),
+                    Timestamp.from(createdAt)
+            );
+        }
+        columnarReadEngine.reload();
+
+        for (String sortBy : List.of("name", "price", "stock")) {
+            for (String sortDir : List.of("ASC", "DESC")) {
+                for (int page = 0; page < 3; page++) {
+                    ProductListingCache.ListingKey key = productService.listingKey(
+                            page, 5, sortBy, sortDir, null, null, null, null, null, null
+                    );
+
+                    List<UUID> columnar = ids(columnarReadEngine.query(key).orElseThrow().getItems());
+                    doReturn(Optional.empty()).when(columnarReadEngine).query(any());
+                    List<UUID> sql = ids(productService.findPage(key).getItems());
+                    doCallRealMethod().when(columnarReadEngine).query(any());
+
+                    assertThat(columnar).as(key.toString()).isEqualTo(sql);
+                }
+            }
+        }
+    }
+
+    @Test
+    void refreshPicksUpRowsChangedOutsideThisInstance() {
+        Instant createdAt = Instant.parse("2026-01-01T00:00:00Z");
+        for (int i = 0; i < 3; i++) {
+            jdbcTemplate.update(
+                    "insert into products (id, name, price, stock, version, created_at, updated_at) values (?, ?, ?, ?, 0, ?, ?)",
+                    UUID.fromString(IDS[i]), NAMES[i], 10.0, 5, Timestamp.from(createdAt), Timestamp.from(createdAt)
+            );
+        }
+        columnarReadEngine.reload();
+        ProductListingCache.ListingKey key = productService.listingKey(
+                0, 10, "stock", "DESC", null, null, null, null, null, null
+        );
+
+        jdbcTemplate.update("update products set stock = 99, version = 1 where id = ?", UUID.fromString(IDS[2]));
+        jdbcTemplate.update("delete from products where id = ?", UUID.fromString(IDS[0]));
+        columnarReadEngine.refresh(UUID.fromString(IDS[2]));
+        columnarReadEngine.refresh(UUID.fromString(IDS[0]));
+
+        List<ProductResponse> items = columnarReadEngine.query(key).orElseThrow().getItems();
+        assertThat(ids(items)).containsExactly(UUID.fromString(IDS[2]), UUID.fromString(IDS[1]));
+        assertThat(items.get(0).getStock()).isEqualTo(99);
+    }
+
+    private static List<UUID> ids(List<ProductResponse> items) {
+        return items.stream().map(ProductResponse::getId).toList();
+    }
+}
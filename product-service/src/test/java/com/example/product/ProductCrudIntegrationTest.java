@@ -2,6 +2,10 @@ package com.example.product;
 
 import com.example.product.model.Product;
 import com.example.product.repository.ProductRepository;
+import com.example.product.service.ProductListingCache;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -11,11 +15,16 @@ import org.springframework.http.MediaType;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.servlet.MockMvc;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -34,9 +43,19 @@ class ProductCrudIntegrationTest {
     @Autowired
     private ProductRepository repository;
 
+    @Autowired
+    private ProductListingCache listingCache;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
     @BeforeEach
     void setUp() {
         repository.deleteAll();
+        listingCache.invalidateAll();
     }
 
     @Test
@@ -133,6 +152,164 @@ class ProductCrudIntegrationTest {
         assertThat(repository.findById(product.getId())).isPresent();
     }
 
+    @Test
+    void getByIdReturnsEtagAndHonoursIfNoneMatch() throws Exception {
+        Product product = saveProduct("Cached Product", 30.0, 6);
+
+        String etag = mockMvc.perform(get("/products/{id}", product.getId()))
+                .andExpect(status().isOk())
+                .andExpect(header().exists("ETag"))
+                .andExpect(jsonPath("$.version").doesNotExist())
+                .andReturn()
+                .getResponse()
+                .getHeader("ETag");
+
+        mockMvc.perform(get("/products/{id}", product.getId()).header("If-None-Match", etag))
+                .andExpect(status().isNotModified());
+    }
+
+    @Test
+    void getByIdReflectsWritesAfterCaching() throws Exception {
+        Product product = saveProduct("Cache Invalidation", 15.0, 5);
+
+        String etag = mockMvc.perform(get("/products/{id}", product.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.price").value(15.0))
+                .andReturn()
+                .getResponse()
+                .getHeader("ETag");
+
+        mockMvc.perform(patch("/products/{id}", product.getId())
+                        .header("X-User-Id", ACTOR_ID)
+                        .header("X-User-Role", SELLER_ROLE)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"price\": 17.5}"))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/products/{id}", product.getId()).header("If-None-Match", etag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.price").value(17.5));
+
+        mockMvc.perform(post("/products/{id}/increase-stock", product.getId())
+                        .header("X-Internal-Caller", "order-service")
+                        .header("X-Internal-Token", "test-internal-token")
+                        .param("quantity", "3"))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/products/{id}", product.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.stock").value(8));
+    }
+
+    @Test
+    void listingIsServedFromCacheUntilCatalogChanges() throws Exception {
+        saveProduct("Listed Product", 20.0, 3);
+        listingCache.invalidateAll();
+
+        mockMvc.perform(get("/products").param("name", "  LISTED "))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalElements").value(1));
+
+        double hitsBefore = listingCacheHits();
+        mockMvc.perform(get("/products").param("name", "listed"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalElements").value(1));
+        assertThat(listingCacheHits()).isEqualTo(hitsBefore + 1);
+
+        mockMvc.perform(post("/products")
+                        .header("X-User-Id", ACTOR_ID)
+                        .header("X-User-Role", SELLER_ROLE)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("""
+                                {
+                                  "name": "Listed Product Two",
+                                  "price": 22.0,
+                                  "stock": 1
+                                }
+                                """))
+                .andExpect(status().isCreated());
+
+        mockMvc.perform(get("/products").param("name", "listed"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalElements").value(2));
+    }
+
+    @Test
+    void cursorPaginationWalksAllProductsWithoutGaps() throws Exception {
+        saveProduct("Scroll A", 5.0, 1);
+        saveProduct("Scroll B", 7.0, 1);
+        saveProduct("Scroll C", 7.0, 1);
+        saveProduct("Scroll D", 9.0, 1);
+        saveProduct("Scroll E", 11.0, 1);
+
+        List<String> seen = new ArrayList<>();
+        String cursor = null;
+        boolean hasNext = true;
+        while (hasNext) {
+            var request = get("/products")
+                    .param("pagination", "cursor")
+                    .param("size", "2")
+                    .param("sortBy", "price")
+                    .param("sortDir", "asc");
+            if (cursor != null) {
+                request.param("cursor", cursor);
+            }
+            String body = mockMvc.perform(request)
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.totalElements").doesNotExist())
+                    .andReturn()
+                    .getResponse()
+                    .getContentAsString();
+
+            JsonNode slice = objectMapper.readTree(body);
+            slice.get("items").forEach(item -> seen.add(item.get("name").asText()));
+            hasNext = slice.get("hasNext").asBoolean();
+            cursor = slice.get("nextCursor").isNull() ? null : slice.get("nextCursor").asText();
+        }
+
+        assertThat(seen).hasSize(5);
+        assertThat(seen.get(0)).isEqualTo("Scroll A");
+        assertThat(seen.subList(1, 3)).containsExactlyInAnyOrder("Scroll B", "Scroll C");
+        assertThat(seen.subList(3, 5)).containsExactly("Scroll D", "Scroll E");
+    }
+
+    @Test
+    void cursorPaginationRejectsMalformedCursor() throws Exception {
+        mockMvc.perform(get("/products")
+                        .param("pagination", "cursor")
+                        .param("cursor", "not-a-cursor"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error.code").value("INVALID_CURSOR"));
+    }
+
+    @Test
+    void searchRanksPrefixMatchesFirstAndAppliesFilters() throws Exception {
+        saveProduct("Cloud Hoodie", 45.0, 3);
+        saveProduct("Hoodie Classic", 39.0, 8);
+        saveProduct("Denim Shirt", 29.0, 5);
+        saveProduct("Zip Hoodie", 99.0, 2);
+
+        mockMvc.perform(get("/products").param("q", "  HOODIE ").param("maxPrice", "50"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.sortBy").value("relevance"))
+                .andExpect(jsonPath("$.totalElements").value(2))
+                .andExpect(jsonPath("$.items[0].name").value("Hoodie Classic"))
+                .andExpect(jsonPath("$.items[1].name").value("Cloud Hoodie"));
+
+        mockMvc.perform(get("/products").param("q", "cloud hood"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalElements").value(1))
+                .andExpect(jsonPath("$.items[0].name").value("Cloud Hoodie"));
+    }
+
+    private double listingCacheHits() {
+        return meterRegistry.get("cache.gets")
+                .tag("cache", "product.listing")
+                .tag("result", "hit")
+                .functionCounter()
+                .count();
+    }
+
     private Product saveProduct(String name, double price, int stock) {
         Product product = new Product();
         product.setName(name);
@@ -0,0 +1,167 @@
+package com.example.product;
+
+import com.example.product.repository.OutboxEventRepository;
+import com.example.product.repository.ProductRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = "product.export.fetch-size=2")
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class ProductExportIntegrationTest {
+
+    private static final String INTERNAL_TOKEN = "test-internal-token";
+    private static final String ACTOR_ID = "3df3f75a-b388-4e59-ad55-df62cdef7f83";
+    private static final Instant OLD = Instant.parse("2026-01-01T00:00:00Z");
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ProductRepository repository;
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @BeforeEach
+    void setUp() {
+        outboxEventRepository.deleteAll();
+        repository.deleteAll();
+    }
+
+    @Test
+    void exportStreamsEveryProductAsNdjson() throws Exception {
+        for (int i = 0; i < 5; i++) {
+            insert("Export Tee " + i, OLD, OLD);
+        }
+
+        String body = mockMvc.perform(get("/products/export")
+                        .header("X-Internal-Caller", "search-indexer")
+                        .header("X-Internal-Token", INTERNAL_TOKEN))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON))
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+
+        List<JsonNode> rows = parse(body);
+        assertThat(body).endsWith("\n");
+        assertThat(rows).hasSize(5);
+        assertThat(rows.get(0).get("price").asDouble()).isEqualTo(9.99);
+        assertThat(rows.get(0).get("updatedAt").asText()).isEqualTo(OLD.toString());
+    }
+
+    @Test
+    void updatedSinceReturnsOnlyRecentlyChangedProducts() throws Exception {
+        UUID edited = insert("Edited Hoodie", OLD, OLD);
+        insert("Untouched Cap", OLD, OLD);
+        insert("Legacy Row", Instant.now(), null);
+        Instant since = Instant.now().minusSeconds(60);
+
+        mockMvc.perform(patch("/products/{id}", edited)
+                        .header("X-User-Id", ACTOR_ID)
+                        .header("X-User-Role", "SELLER")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"stock\": 8}"))
+                .andExpect(status().isOk());
+
+        String body = mockMvc.perform(get("/products/export")
+                        .param("updatedSince", since.toString())
+                        .header("X-Internal-Caller", "search-indexer")
+                        .header("X-Internal-Token", INTERNAL_TOKEN))
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+
+        assertThat(parse(body)).extracting(row -> row.get("name").asText())
+                .containsExactlyInAnyOrder("Edited Hoodie", "Legacy Row");
+    }
+
+    @Test
+    void updatedSinceStreamsInUpdatedAtThenIdOrder() throws Exception {
+        Instant since = Instant.parse("2026-02-01T00:00:00Z");
+        UUID tieHigh = UUID.fromString("ffffffff-0000-7000-8000-000000000000");
+        UUID tieLow = UUID.fromString("00000000-0000-7000-8000-000000000000");
+        jdbcTemplate.update(
+                "insert into products (id, name, price, stock, version, created_at, updated_at) values (?, ?, ?, ?, 0, ?, ?)",
+                tieHigh, "Tie High", 9.99, 5, Timestamp.from(OLD), Timestamp.from(since.plusSeconds(10))
+        );
+        insert("Latest", OLD, since.plusSeconds(30));
+        insert("Legacy Row", since.plusSeconds(5), null);
+        insert("Earliest", OLD, since.plusSeconds(1));
+        jdbcTemplate.update(
+                "insert into products (id, name, price, stock, version, created_at, updated_at) values (?, ?, ?, ?, 0, ?, ?)",
+                tieLow, "Tie Low", 9.99, 5, Timestamp.from(OLD), Timestamp.from(since.plusSeconds(10))
+        );
+
+        String body = mockMvc.perform(get("/products/export")
+                        .param("updatedSince", since.toString())
+                        .header("X-Internal-Caller", "search-indexer")
+                        .header("X-Internal-Token", INTERNAL_TOKEN))
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+
+        assertThat(parse(body)).extracting(row -> row.get("name").asText())
+                .containsExactly("Earliest", "Tie Low", "Tie High", "Latest", "Legacy Row");
+    }
+
+    @Test
+    void exportRequiresInternalToken() throws Exception {
+        mockMvc.perform(get("/products/export")
+                        .header("X-User-Role", "ADMIN")
+                        .header("X-Internal-Caller", "search-indexer")
+                        .header("X-Internal-Token", "wrong-token"))
+                .andExpect(status().isForbidden())
+                .andExpect(jsonPath("$.error.code").value("FORBIDDEN_INTERNAL_ENDPOINT"));
+    }
+
+    private UUID insert(String name, Instant createdAt, Instant updatedAt) {
+        UUID id = UUID.randomUUID();
+        jdbcTemplate.update(
+                "insert into products (id, name, price, stock, version, created_at, updated_at) values (?, ?, ?, ?, 0, ?, ?)",
+                id, name, 9.99, 5, Timestamp.from(createdAt), updatedAt == null ? null : Timestamp.from(updatedAt)
+        );
+        return id;
+    }
+
+    private List<JsonNode> parse(String body) throws Exception {
+        List<JsonNode> rows = new ArrayList<>();
+        for (String line : body.split("\n")) {
+            if (!line.isBlank()) {
+                rows.add(objectMapper.readTree(line));
+            }
+        }
+        return rows;
+    }
+}
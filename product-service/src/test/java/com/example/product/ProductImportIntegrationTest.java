@@ -0,0 +1,154 @@
+package com.example.product;
+
+import com.example.product.model.Product;
+import com.example.product.repository.OutboxEventRepository;
+import com.example.product.repository.ProductRepository;
+import com.example.product.service.ProductListingCache;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.Comparator;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {
+        "product.import.batch-size=2",
+        "product.import.max-reported-errors=2"
+})
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class ProductImportIntegrationTest {
+
+    private static final String SELLER_ROLE = "SELLER";
+    private static final String CUSTOMER_ROLE = "CUSTOMER";
+    private static final String ACTOR_ID = "3df3f75a-b388-4e59-ad55-df62cdef7f83";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ProductRepository repository;
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @Autowired
+    private ProductListingCache listingCache;
+
+    @BeforeEach
+    void setUp() {
+        outboxEventRepository.deleteAll();
+        repository.deleteAll();
+        listingCache.invalidateAll();
+    }
+
+    @Test
+    void ndjsonImportStoresValidRowsAndReportsInvalidOnes() throws Exception {
+        // Warm the listing cache so the import has to invalidate it.
+        mockMvc.perform(get("/products")).andExpect(jsonPath("$.totalElements").value(0));
+
+        String body = """
+                {"name": " Import Hoodie ", "price": 25.5, "stock": 4}
+                {"name": "", "price": 10, "stock": 1}
+
+                not json
+                {"name": "Import Cap", "price": 9.99, "stock": 0}
+                {"name": "Import Tee", "price": -1, "stock": 3}
+                {"name": "Import Socks", "price": 3.5, "stock": 12}
+                """;
+
+        mockMvc.perform(post("/products/import")
+                        .header("X-User-Id", ACTOR_ID)
+                        .header("X-User-Role", SELLER_ROLE)
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .content(body))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalRows").value(6))
+                .andExpect(jsonPath("$.importedRows").value(3))
+                .andExpect(jsonPath("$.failedRows").value(3))
+                .andExpect(jsonPath("$.errorsTruncated").value(true))
+                .andExpect(jsonPath("$.errors.length()").value(2))
+                .andExpect(jsonPath("$.errors[0].line").value(2))
+                .andExpect(jsonPath("$.errors[0].code").value("VALIDATION_ERROR"))
+                .andExpect(jsonPath("$.errors[0].message").value("name: name is required"))
+                .andExpect(jsonPath("$.errors[1].line").value(4))
+                .andExpect(jsonPath("$.errors[1].code").value("INVALID_JSON"));
+
+        List<String> names = repository.findAll().stream()
+                .map(Product::getName)
+                .sorted(Comparator.naturalOrder())
+                .toList();
+        assertThat(names).containsExactly("Import Cap", "Import Hoodie", "Import Socks");
+        assertThat(outboxEventRepository.findAll())
+                .hasSize(3)
+                .allSatisfy(event -> assertThat(event.getEventType()).isEqualTo("PRODUCT_CREATED"));
+
+        mockMvc.perform(get("/products"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalElements").value(3));
+    }
+
+    @Test
+    void csvImportHandlesQuotedFieldsAndColumnOrder() throws Exception {
+        String body = "\uFEFFstock,name,price\r\n"
+                + "5,\"Hoodie, \"\"Cloud\"\" edition\",30\r\n"
+                + "2,Plain Tee,abc\r\n"
+                + "1,\"Broken,4\r\n"
+                + "7,Denim Shirt,45.25\r\n";
+
+        mockMvc.perform(post("/products/import")
+                        .header("X-User-Id", ACTOR_ID)
+                        .header("X-User-Role", SELLER_ROLE)
+                        .contentType("text/csv")
+                        .content(body))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalRows").value(4))
+                .andExpect(jsonPath("$.importedRows").value(2))
+                .andExpect(jsonPath("$.errors[0].line").value(3))
+                .andExpect(jsonPath("$.errors[0].code").value("INVALID_VALUE"))
+                .andExpect(jsonPath("$.errors[0].message").value("price must be a number"))
+                .andExpect(jsonPath("$.errors[1].line").value(4))
+                .andExpect(jsonPath("$.errors[1].code").value("INVALID_CSV"));
+
+        Product hoodie = repository.findAll().stream()
+                .filter(product -> product.getStock() == 5)
+                .findFirst()
+                .orElseThrow();
+        assertThat(hoodie.getName()).isEqualTo("Hoodie, \"Cloud\" edition");
+        assertThat(hoodie.getPrice()).isEqualTo(30.0);
+    }
+
+    @Test
+    void csvImportRejectsMissingHeaderColumns() throws Exception {
+        mockMvc.perform(post("/products/import")
+                        .header("X-User-Id", ACTOR_ID)
+                        .header("X-User-Role", SELLER_ROLE)
+                        .contentType("text/csv")
+                        .content("title,price\nHoodie,10\n"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error.code").value("INVALID_CSV_HEADER"));
+    }
+
+    @Test
+    void importRequiresProductManagerRole() throws Exception {
+        mockMvc.perform(post("/products/import")
+                        .header("X-User-Id", ACTOR_ID)
+                        .header("X-User-Role", CUSTOMER_ROLE)
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .content("{\"name\": \"Nope\", \"price\": 1, \"stock\": 1}\n"))
+                .andExpect(status().isForbidden());
+
+        assertThat(repository.count()).isZero();
+    }
+}
@@ -0,0 +1,149 @@
+package com.example.product;
+
+import com.example.product.dto.ProductCreateRequest;
+import com.example.product.dto.ProductResponse;
+import com.example.product.exception.BadRequestException;
+import com.example.product.model.OutboxEvent;
+import com.example.product.model.OutboxStatus;
+import com.example.product.repository.OutboxEventRepository;
+import com.example.product.repository.ProductRepository;
+import com.example.product.service.OutboxPublisherWorker;
+import com.example.product.service.ProductEventPublisher;
+import com.example.product.service.ProductService;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.Comparator;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class ProductOutboxIntegrationTest {
+
+    private static final String SELLER_ROLE = "SELLER";
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @Autowired
+    private OutboxPublisherWorker outboxPublisherWorker;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @MockBean
+    private ProductEventPublisher productEventPublisher;
+
+    @BeforeEach
+    void setUp() {
+        outboxEventRepository.deleteAll();
+        productRepository.deleteAll();
+    }
+
+    @Test
+    void productWritesEnqueueEventsAndRolledBackWritesDoNot() {
+        ProductResponse created = productService.create(createRequest("Outbox Hoodie", 20.0, 1), SELLER_ROLE);
+        productService.replace(created.getId(), createRequest("Outbox Hoodie v2", 22.0, 1), SELLER_ROLE);
+
+        assertThatThrownBy(() -> productService.checkAndDecreaseStock(created.getId(), 5))
+                .isInstanceOf(BadRequestException.class);
+
+        productService.delete(created.getId(), SELLER_ROLE);
+
+        List<OutboxEvent> events = eventsInOrder();
+        assertThat(events).extracting(OutboxEvent::getEventType)
+                .containsExactly("PRODUCT_CREATED", "PRODUCT_UPDATED", "PRODUCT_DELETED");
+        assertThat(events).allSatisfy(event -> {
+            assertThat(event.getAggregateId()).isEqualTo(created.getId());
+            assertThat(event.getStatus()).isEqualTo(OutboxStatus.PENDING);
+        });
+
+        JsonNode updated = readPayload(events.get(1));
+        assertThat(updated.get("name").asText()).isEqualTo("Outbox Hoodie v2");
+        assertThat(updated.get("version").asLong()).isEqualTo(1);
+    }
+
+    @Test
+    void publisherSendsOneBatchAndCoalescesStockEventsPerProduct() throws Exception {
+        when(productEventPublisher.publishBatch(eq("products.events"), anyList())).thenReturn(true);
+
+        ProductResponse created = productService.create(createRequest("Coalesced Tee", 10.0, 10), SELLER_ROLE);
+        productService.checkAndDecreaseStock(created.getId(), 1);
+        productService.checkAndDecreaseStock(created.getId(), 2);
+        productService.increaseStock(created.getId(), 5);
+
+        int processed = outboxPublisherWorker.publishAvailableEvents();
+
+        assertThat(processed).isEqualTo(4);
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<String>> payloads = ArgumentCaptor.forClass(List.class);
+        verify(productEventPublisher).publishBatch(eq("products.events"), payloads.capture());
+        assertThat(payloads.getValue()).hasSize(2);
+
+        JsonNode stockEvent = objectMapper.readTree(payloads.getValue().get(1));
+        assertThat(stockEvent.get("eventType").asText()).isEqualTo("PRODUCT_STOCK_CHANGED");
+        assertThat(stockEvent.get("stock").asInt()).isEqualTo(12);
+
+        assertThat(eventsInOrder()).extracting(OutboxEvent::getStatus).containsExactly(
+                OutboxStatus.PUBLISHED,
+                OutboxStatus.COALESCED,
+                OutboxStatus.COALESCED,
+                OutboxStatus.PUBLISHED
+        );
+    }
+
+    @Test
+    void failedBatchIsScheduledForRetry() {
+        when(productEventPublisher.publishBatch(eq("products.events"), anyList())).thenReturn(false);
+
+        productService.create(createRequest("Retry Cap", 5.0, 3), SELLER_ROLE);
+        outboxPublisherWorker.publishAvailableEvents();
+
+        OutboxEvent event = eventsInOrder().get(0);
+        assertThat(event.getStatus()).isEqualTo(OutboxStatus.FAILED);
+        assertThat(event.getRetryCount()).isEqualTo(1);
+        assertThat(event.getNextAttemptAt()).isAfter(event.getCreatedAt());
+    }
+
+    private List<OutboxEvent> eventsInOrder() {
+        return outboxEventRepository.findAll().stream()
+                .sorted(Comparator.comparing(OutboxEvent::getCreatedAt))
+                .toList();
+    }
+
+    private JsonNode readPayload(OutboxEvent event) {
+        try {
+            return objectMapper.readTree(event.getPayload());
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static ProductCreateRequest createRequest(String name, double price, int stock) {
+        ProductCreateRequest request = new ProductCreateRequest();
+        request.setName(name);
+        request.setPrice(price);
+        request.setStock(stock);
+        return request;
+    }
+}
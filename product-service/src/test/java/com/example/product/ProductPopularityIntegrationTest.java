@@ -0,0 +1,150 @@
+package com.example.product;
+
+import com.example.product.model.Product;
+import com.example.product.repository.OutboxEventRepository;
+import com.example.product.repository.ProductPopularityRepository;
+import com.example.product.repository.ProductRepository;
+import com.example.product.service.ProductListingCache;
+import com.example.product.service.ProductPopularityRanking;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.Instant;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.closeTo;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class ProductPopularityIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ProductRepository repository;
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @Autowired
+    private ProductListingCache listingCache;
+
+    @Autowired
+    private ProductPopularityRanking ranking;
+
+    @Autowired
+    private ProductPopularityRepository popularityRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private Product hoodie;
+    private Product cap;
+    private Product tee;
+    private Product socks;
+
+    @BeforeEach
+    void setUp() {
+        outboxEventRepository.deleteAll();
+        repository.deleteAll();
+        listingCache.invalidateAll();
+        Instant start = Instant.parse("2026-03-01T00:00:00Z");
+        hoodie = save("Popular Hoodie", 10, start);
+        cap = save("Popular Cap", 0, start.plusSeconds(1));
+        tee = save("Quiet Tee", 4, start.plusSeconds(2));
+        socks = save("Quiet Socks", 6, start.plusSeconds(3));
+    }
+
+    @Test
+    void orderEventsDriveTopProductsAndPopularitySort() throws Exception {
+        UUID cancelledOrder = UUID.randomUUID();
+        UUID capOrder = UUID.randomUUID();
+        ranking.onOrderEvent(event("ORDER_CONFIRMED", cancelledOrder, tee, 9));
+        ranking.onOrderEvent(event("ORDER_CONFIRMED", UUID.randomUUID(), hoodie, 5));
+        ranking.onOrderEvent(event("ORDER_CONFIRMED", capOrder, cap, 3));
+        // Redelivered confirmation and an unrelated event type change nothing.
+        ranking.onOrderEvent(event("ORDER_CONFIRMED", capOrder, cap, 3));
+        ranking.onOrderEvent(event("ORDER_FAILED", UUID.randomUUID(), socks, 50));
+        ranking.onOrderEvent(event("ORDER_CANCELLED", cancelledOrder, tee, 9));
+
+        mockMvc.perform(get("/products/top").param("limit", "5"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[0].name").value("Popular Hoodie"))
+                .andExpect(jsonPath("$[1].name").value("Popular Cap"))
+                .andExpect(jsonPath("$[1].salesScore").value(closeTo(3.0, 0.01)));
+
+        mockMvc.perform(get("/products").param("sortBy", "popularity").param("size", "3"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.sortBy").value("popularity"))
+                .andExpect(jsonPath("$.sortDir").value("DESC"))
+                .andExpect(jsonPath("$.totalElements").value(4))
+                .andExpect(jsonPath("$.items[0].name").value("Popular Hoodie"))
+                .andExpect(jsonPath("$.items[1].name").value("Popular Cap"))
+                .andExpect(jsonPath("$.items[2].name").value("Quiet Socks"));
+
+        mockMvc.perform(get("/products").param("sortBy", "popularity").param("size", "3").param("page", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items.length()").value(1))
+                .andExpect(jsonPath("$.items[0].name").value("Quiet Tee"))
+                .andExpect(jsonPath("$.hasNext").value(false));
+
+        mockMvc.perform(get("/products").param("sortBy", "popularity").param("minStock", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalElements").value(3))
+                .andExpect(jsonPath("$.items[0].name").value("Popular Hoodie"))
+                .andExpect(jsonPath("$.items[1].name").value("Quiet Socks"));
+    }
+
+    @Test
+    void snapshotRestoresRankingAfterRestart() {
+        ranking.onOrderEvent(event("ORDER_CONFIRMED", UUID.randomUUID(), socks, 7));
+        ranking.onOrderEvent(event("ORDER_CONFIRMED", UUID.randomUUID(), tee, 2));
+        ranking.snapshot();
+
+        ProductPopularityRanking restarted = new ProductPopularityRanking(
+                popularityRepository, objectMapper, new SimpleMeterRegistry(), 72, 1000, 0.01, 1000);
+        restarted.loadSnapshot();
+
+        assertThat(restarted.rankedIds()).containsSubsequence(socks.getId(), tee.getId());
+        assertThat(restarted.top(1).get(0).score()).isGreaterThan(6.99);
+    }
+
+    @Test
+    void popularitySortIsRejectedForCursorPages() throws Exception {
+        mockMvc.perform(get("/products").param("pagination", "cursor").param("sortBy", "popularity"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error.code").value("INVALID_SORT_FIELD"));
+
+        mockMvc.perform(get("/products/top").param("limit", "0"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error.code").value("VALIDATION_ERROR"));
+    }
+
+    private String event(String eventType, UUID orderId, Product product, int quantity) {
+        return "{\"eventType\":\"" + eventType + "\",\"occurredAt\":\"" + Instant.now() + "\",\"orderId\":\"" + orderId
+                + "\",\"productId\":\"" + product.getId() + "\",\"quantity\":" + quantity + ",\"status\":\"CONFIRMED\"}";
+    }
+
+    private Product save(String name, int stock, Instant createdAt) {
+        Product product = new Product();
+        product.setName(name);
+        product.setPrice(20.0);
+        product.setStock(stock);
+        product.setCreatedAt(createdAt);
+        return repository.save(product);
+    }
+}
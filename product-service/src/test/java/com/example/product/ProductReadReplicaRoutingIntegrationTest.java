@@ -0,0 +1,180 @@
+package com.example.product;
+
+import com.example.product.config.ReplicaLagMonitor;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import javax.sql.DataSource;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Two separate H2 databases stand in for the primary and the replica. Nothing replicates between
+ * them, so the rows a request sees tell which pool served it.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:productprimary;MODE=PostgreSQL;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+        "product.datasource.replica.enabled=true",
+        "product.datasource.replica.url=jdbc:h2:mem:productreplica;MODE=PostgreSQL;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+        "product.datasource.replica.username=sa",
+        "product.datasource.replica.password=",
+        "product.datasource.replica.lag-query=select lag_ms from replica_status",
+        "product.datasource.replica.lag-check-ms=3600000",
+        "product.datasource.replica.max-lag-ms=1000",
+        "product.datasource.replica.read-after-write-ms=0",
+        "product.cache.detail.enabled=false",
+        "product.cache.listing.enabled=false"
+})
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class ProductReadReplicaRoutingIntegrationTest {
+
+    private static final String SELLER_ROLE = "SELLER";
+    private static final String ACTOR_ID = "3df3f75a-b388-4e59-ad55-df62cdef7f83";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    @Qualifier("primaryDataSource")
+    private DataSource primaryDataSource;
+
+    @Autowired
+    @Qualifier("replicaDataSource")
+    private DataSource replicaDataSource;
+
+    @Autowired
+    private ReplicaLagMonitor lagMonitor;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private JdbcTemplate primary;
+    private JdbcTemplate replica;
+
+    @BeforeEach
+    void setUp() {
+        primary = new JdbcTemplate(primaryDataSource);
+        replica = new JdbcTemplate(replicaDataSource);
+
+        replica.execute("""
+                create table if not exists products (
+                    id uuid primary key,
+                    name varchar(255) not null,
+                    price float(53) not null,
+                    stock integer not null,
+                    version bigint default 0 not null,
+                    created_at timestamp(6) with time zone
+                )
+                """);
+        replica.execute("create table if not exists replica_status (lag_ms bigint)");
+        replica.update("delete from products");
+        replica.update("delete from replica_status");
+        replica.update("insert into replica_status (lag_ms) values (0)");
+        primary.update("delete from products");
+    }
+
+    @Test
+    void writesGoToPrimaryAndReadsGoToReplica() throws Exception {
+        UUID replicaOnlyId = insertIntoReplica("Replica Hoodie");
+        lagMonitor.checkLag();
+
+        mockMvc.perform(post("/products")
+                        .header("X-User-Id", ACTOR_ID)
+                        .header("X-User-Role", SELLER_ROLE)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("""
+                                {
+                                  "name": "Primary Tee",
+                                  "price": 12.5,
+                                  "stock": 3
+                                }
+                                """))
+                .andExpect(status().isCreated());
+
+        assertThat(primary.queryForList("select name from products", String.class)).containsExactly("Primary Tee");
+
+        mockMvc.perform(get("/products"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalElements").value(1))
+                .andExpect(jsonPath("$.items[0].name").value("Replica Hoodie"));
+
+        mockMvc.perform(get("/products/{id}", replicaOnlyId))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.name").value("Replica Hoodie"));
+
+        mockMvc.perform(get("/products").param("pagination", "cursor"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[0].name").value("Replica Hoodie"));
+
+        assertThat(meterRegistry.get("product.datasource.routing").tag("target", "replica").counter().count())
+                .isGreaterThan(0);
+        assertThat(meterRegistry.get("hikaricp.connections").tag("pool", "product-replica").gauge()).isNotNull();
+        assertThat(meterRegistry.get("hikaricp.connections").tag("pool", "product-primary").gauge()).isNotNull();
+    }
+
+    @Test
+    void readsFallBackToPrimaryWhileReplicaLags() throws Exception {
+        insertIntoReplica("Replica Hoodie");
+        primary.update(
+                "insert into products (id, name, price, stock, version, created_at) values (?, ?, ?, ?, 0, ?)",
+                UUID.randomUUID(), "Primary Tee", 12.5, 3, Timestamp.from(Instant.now())
+        );
+
+        replica.update("update replica_status set lag_ms = 30000");
+        lagMonitor.checkLag();
+
+        assertThat(lagMonitor.useReplica()).isFalse();
+        assertThat(meterRegistry.get("product.datasource.replica.lag").gauge().value()).isEqualTo(30000);
+        mockMvc.perform(get("/products"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[0].name").value("Primary Tee"));
+
+        replica.update("update replica_status set lag_ms = 0");
+        lagMonitor.checkLag();
+
+        mockMvc.perform(get("/products"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[0].name").value("Replica Hoodie"));
+    }
+
+    @Test
+    void unreachableReplicaFallsBackToPrimary() throws Exception {
+        primary.update(
+                "insert into products (id, name, price, stock, version, created_at) values (?, ?, ?, ?, 0, ?)",
+                UUID.randomUUID(), "Primary Tee", 12.5, 3, Timestamp.from(Instant.now())
+        );
+        replica.execute("drop table replica_status");
+        lagMonitor.checkLag();
+
+        assertThat(meterRegistry.get("product.datasource.replica.available").gauge().value()).isZero();
+        mockMvc.perform(get("/products"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[0].name").value("Primary Tee"));
+    }
+
+    private UUID insertIntoReplica(String name) {
+        UUID id = UUID.randomUUID();
+        replica.update(
+                "insert into products (id, name, price, stock, version, created_at) values (?, ?, ?, ?, 0, ?)",
+                id, name, 9.99, 5, Timestamp.from(Instant.now())
+        );
+        return id;
+    }
+}
@@ -0,0 +1,125 @@
+package com.example.product;
+
+import com.example.product.config.ReplicaLagMonitor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import javax.sql.DataSource;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Keeps the default read-after-write window and lets the outbox poller run every few milliseconds,
+ * as it does in production. Its transactions change no product rows and must not hold reads on the primary.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:productrawprimary;MODE=PostgreSQL;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+        "product.datasource.replica.enabled=true",
+        "product.datasource.replica.url=jdbc:h2:mem:productrawreplica;MODE=PostgreSQL;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+        "product.datasource.replica.username=sa",
+        "product.datasource.replica.password=",
+        "product.datasource.replica.lag-query=select lag_ms from replica_status",
+        "product.datasource.replica.lag-check-ms=3600000",
+        "product.cache.detail.enabled=false",
+        "product.cache.listing.enabled=false",
+        "outbox.publisher.fixed-delay-ms=20"
+})
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class ProductReplicaReadAfterWriteIntegrationTest {
+
+    private static final String SELLER_ROLE = "SELLER";
+    private static final String ACTOR_ID = "3df3f75a-b388-4e59-ad55-df62cdef7f83";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    @Qualifier("primaryDataSource")
+    private DataSource primaryDataSource;
+
+    @Autowired
+    @Qualifier("replicaDataSource")
+    private DataSource replicaDataSource;
+
+    @Autowired
+    private ReplicaLagMonitor lagMonitor;
+
+    private JdbcTemplate primary;
+    private JdbcTemplate replica;
+
+    @BeforeEach
+    void setUp() {
+        primary = new JdbcTemplate(primaryDataSource);
+        replica = new JdbcTemplate(replicaDataSource);
+
+        replica.execute("""
+                create table if not exists products (
+                    id uuid primary key,
+                    name varchar(255) not null,
+                    price float(53) not null,
+                    stock integer not null,
+                    version bigint default 0 not null,
+                    created_at timestamp(6) with time zone
+                )
+                """);
+        replica.execute("create table if not exists replica_status (lag_ms bigint)");
+        replica.update("delete from products");
+        replica.update("delete from replica_status");
+        replica.update("insert into replica_status (lag_ms) values (0)");
+        primary.update("delete from outbox_events");
+        primary.update("delete from products");
+        replica.update(
+                "insert into products (id, name, price, stock, version, created_at) values (?, ?, ?, ?, 0, ?)",
+                UUID.randomUUID(), "Replica Hoodie", 9.99, 5, Timestamp.from(Instant.now())
+        );
+        lagMonitor.checkLag();
+    }
+
+    @Test
+    void outboxPollingDoesNotPinReadsToThePrimary() throws Exception {
+        // Longer than the default window, with dozens of poller transactions in between.
+        Thread.sleep(1200);
+
+        assertThat(lagMonitor.useReplica()).isTrue();
+        mockMvc.perform(get("/products"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[0].name").value("Replica Hoodie"));
+    }
+
+    @Test
+    void committedProductWriteReadsFromThePrimaryInsideTheWindow() throws Exception {
+        mockMvc.perform(post("/products")
+                        .header("X-User-Id", ACTOR_ID)
+                        .header("X-User-Role", SELLER_ROLE)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("""
+                                {
+                                  "name": "Primary Tee",
+                                  "price": 12.5,
+                                  "stock": 3
+                                }
+                                """))
+                .andExpect(status().isCreated());
+
+        assertThat(lagMonitor.useReplica()).isFalse();
+        mockMvc.perform(get("/products"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[0].name").value("Primary Tee"));
+    }
+}
@@ -0,0 +1,215 @@
+package com.example.product;
+
+import com.example.product.model.Product;
+import com.example.product.repository.ProductRepository;
+import com.example.product.service.ProductEventCacheInvalidator;
+import com.example.product.service.ProductListingCache;
+import com.example.product.service.ProductService;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import java.time.Instant;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:productreactive;MODE=PostgreSQL;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+        "product.r2dbc.url=r2dbc:h2:mem:///productreactive?options=MODE=PostgreSQL;DB_CLOSE_DELAY=-1",
+        "product.r2dbc.username=sa",
+        "product.r2dbc.password=",
+        "product.events.consumer.enabled=false"
+})
+@AutoConfigureWebTestClient
+@ActiveProfiles({"test", "reactive-read"})
+class ReactiveReadProfileIntegrationTest {
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @Autowired
+    private ProductRepository repository;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private ProductListingCache listingCache;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private ProductEventCacheInvalidator cacheInvalidator;
+
+    @BeforeEach
+    void setUp() {
+        repository.deleteAll();
+        listingCache.invalidateAll();
+        Instant start = Instant.parse("2026-03-01T00:00:00Z");
+        String[] names = {"Cloud Hoodie", "Denim Shirt", "Grey Tee", "White Cap", "Navy Hoodie"};
+        for (int i = 0; i < names.length; i++) {
+            Product product = new Product();
+            product.setName(names[i]);
+            product.setPrice(10.0 + i * 5);
+            product.setStock(i * 3);
+            product.setCreatedAt(start.plusSeconds(i));
+            repository.save(product);
+        }
+    }
+
+    @Test
+    void listingMatchesTheServletPathByteForByte() throws Exception {
+        byte[] body = webTestClient.get()
+                .uri("/products?page=1&size=2&sortBy=price&sortDir=asc&minStock=1")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .returnResult()
+                .getResponseBody();
+
+        JsonNode reactive = objectMapper.readTree(body);
+        listingCache.invalidateAll();
+        JsonNode servlet = objectMapper.readTree(objectMapper.writeValueAsBytes(
+                productService.findAll(1, 2, "price", "asc", null, null, null, null, 1, null)));
+
+        assertThat(reactive).isEqualTo(servlet);
+        assertThat(reactive.get("totalElements").asLong()).isEqualTo(4);
+        assertThat(reactive.get("items").get(0).get("name").asText()).isEqualTo("White Cap");
+    }
+
+    @Test
+    void detailReadSupportsEtagAndErrorContract() {
+        Product product = repository.findAll().get(0);
+
+        String etag = webTestClient.get()
+                .uri("/products/{id}", product.getId())
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.name").isEqualTo(product.getName())
+                .jsonPath("$.version").doesNotExist()
+                .returnResult()
+                .getResponseHeaders()
+                .getETag();
+        assertThat(etag).isEqualTo("\"0\"");
+
+        webTestClient.get()
+                .uri("/products/{id}", product.getId())
+                .header(HttpHeaders.IF_NONE_MATCH, etag)
+                .exchange()
+                .expectStatus().isNotModified();
+
+        webTestClient.get()
+                .uri("/products/{id}", "3df3f75a-b388-4e59-ad55-df62cdef7f83")
+                .exchange()
+                .expectStatus().isNotFound()
+                .expectBody()
+                .jsonPath("$.error.code").isEqualTo("PRODUCT_NOT_FOUND")
+                .jsonPath("$.path").isEqualTo("/products/3df3f75a-b388-4e59-ad55-df62cdef7f83");
+
+        webTestClient.get()
+                .uri("/products/not-a-uuid")
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody()
+                .jsonPath("$.error.code").isEqualTo("VALIDATION_ERROR")
+                .jsonPath("$.error.message").isEqualTo("Invalid value for parameter 'id'");
+    }
+
+    @Test
+    void invalidParametersUseTheServletErrorCodes() {
+        webTestClient.get()
+                .uri("/products?size=0")
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody()
+                .jsonPath("$.error.code").isEqualTo("VALIDATION_ERROR")
+                .jsonPath("$.error.message").isEqualTo("getAll.size: size must be greater than 0");
+
+        webTestClient.get()
+                .uri("/products?sortBy=colour")
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody()
+                .jsonPath("$.error.code").isEqualTo("INVALID_SORT_FIELD");
+
+        webTestClient.get()
+                .uri("/products?minPrice=50&maxPrice=10")
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody()
+                .jsonPath("$.error.code").isEqualTo("INVALID_RANGE");
+    }
+
+    @Test
+    void searchAndCursorListingsFallBackToJpa() {
+        webTestClient.get()
+                .uri("/products?q=hoodie")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.sortBy").isEqualTo("relevance")
+                .jsonPath("$.totalElements").isEqualTo(2);
+
+        webTestClient.get()
+                .uri("/products?pagination=cursor&size=3")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.items.length()").isEqualTo(3)
+                .jsonPath("$.hasNext").isEqualTo(true)
+                .jsonPath("$.nextCursor").isNotEmpty();
+    }
+
+    @Test
+    void productEventsEvictWritesMadeByTheServletDeployment() {
+        Product product = repository.findAll().get(0);
+        int originalStock = product.getStock();
+        webTestClient.get().uri("/products/{id}", product.getId()).exchange()
+                .expectBody().jsonPath("$.stock").isEqualTo(originalStock);
+        webTestClient.get().uri("/products?sortBy=price&sortDir=asc").exchange()
+                .expectBody().jsonPath("$.totalElements").isEqualTo(5);
+
+        // The servlet deployment commits the changes; this instance only sees their outbox events.
+        product.setStock(42);
+        repository.save(product);
+        Product deleted = repository.findAll().stream()
+                .filter(candidate -> !candidate.getId().equals(product.getId()))
+                .findFirst()
+                .orElseThrow();
+        repository.delete(deleted);
+        webTestClient.get().uri("/products/{id}", product.getId()).exchange()
+                .expectBody().jsonPath("$.stock").isEqualTo(originalStock);
+
+        cacheInvalidator.onProductEvent(event("PRODUCT_STOCK_CHANGED", product));
+        cacheInvalidator.onProductEvent(event("PRODUCT_DELETED", deleted));
+
+        webTestClient.get().uri("/products/{id}", product.getId()).exchange()
+                .expectBody().jsonPath("$.stock").isEqualTo(42);
+        webTestClient.get().uri("/products?sortBy=price&sortDir=asc").exchange()
+                .expectBody().jsonPath("$.totalElements").isEqualTo(4);
+    }
+
+    @Test
+    void writesAreNotServedByTheReadProfile() {
+        webTestClient.post()
+                .uri("/products")
+                .header("X-User-Id", "3df3f75a-b388-4e59-ad55-df62cdef7f83")
+                .header("X-User-Role", "SELLER")
+                .bodyValue("{\"name\":\"Nope\",\"price\":1,\"stock\":1}")
+                .exchange()
+                .expectStatus().isNotFound();
+    }
+
+    private static String event(String eventType, Product product) {
+        return "{\"eventType\":\"" + eventType + "\",\"productId\":\"" + product.getId() + "\"}";
+    }
+}
@@ -0,0 +1,173 @@
+package com.example.product;
+
+import com.example.product.model.OutboxEvent;
+import com.example.product.model.Product;
+import com.example.product.model.StockDeltaBatch;
+import com.example.product.repository.OutboxEventRepository;
+import com.example.product.repository.ProductRepository;
+import com.example.product.repository.StockDeltaBatchRepository;
+import com.example.product.service.StockDeltaAggregator;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {
+        "product.stock.write-behind.enabled=true",
+        "product.stock.write-behind.flush-interval-ms=3600000",
+        "product.stock.write-behind.batch-retention-ms=86400000"
+})
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class StockWriteBehindIntegrationTest {
+
+    private static final Path JOURNAL_DIR = createJournalDir();
+
+    @DynamicPropertySource
+    static void journalDir(DynamicPropertyRegistry registry) {
+        registry.add("product.stock.write-behind.journal-dir", JOURNAL_DIR::toString);
+    }
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ProductRepository repository;
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @Autowired
+    private StockDeltaAggregator aggregator;
+
+    @Autowired
+    private StockDeltaBatchRepository stockDeltaBatchRepository;
+
+    @BeforeEach
+    void setUp() {
+        aggregator.flush();
+        outboxEventRepository.deleteAll();
+        repository.deleteAll();
+    }
+
+    @Test
+    void increasesAreBufferedThenFlushedAsOneUpdatePerProduct() throws Exception {
+        Product product = saveProduct("Restock Hoodie", 2);
+
+        for (int quantity : new int[]{1, 3, 5}) {
+            increase(product.getId(), quantity).andExpect(status().isOk());
+        }
+
+        assertThat(repository.findById(product.getId()).orElseThrow().getStock()).isEqualTo(2);
+        assertThat(aggregator.pendingProducts()).isEqualTo(1);
+        assertThat(Files.readAllLines(JOURNAL_DIR.resolve("stock-deltas.journal"))).hasSize(4);
+
+        assertThat(aggregator.flush()).isEqualTo(1);
+
+        Product flushed = repository.findById(product.getId()).orElseThrow();
+        assertThat(flushed.getStock()).isEqualTo(11);
+        assertThat(flushed.getVersion()).isEqualTo(1);
+        assertThat(aggregator.pendingProducts()).isZero();
+        assertThat(outboxEventRepository.findAll())
+                .extracting(OutboxEvent::getEventType)
+                .containsExactly("PRODUCT_STOCK_CHANGED");
+    }
+
+    @Test
+    void leftoverJournalIsReplayedExactlyOnce() throws Exception {
+        Product product = saveProduct("Recovered Cap", 1);
+        UUID batchId = UUID.randomUUID();
+        String journal = "batch " + batchId + "\n"
+                + product.getId() + " 2\n"
+                + product.getId() + " 4\n"
+                + product.getId() + " 9";
+
+        Files.writeString(JOURNAL_DIR.resolve("stock-deltas-" + batchId + ".sealed"), journal, StandardCharsets.US_ASCII);
+        aggregator.recover();
+        assertThat(repository.findById(product.getId()).orElseThrow().getStock()).isEqualTo(7);
+
+        // Same batch left behind again, as after a crash between commit and journal deletion.
+        Files.writeString(JOURNAL_DIR.resolve("stock-deltas-" + batchId + ".sealed"), journal, StandardCharsets.US_ASCII);
+        aggregator.recover();
+        assertThat(repository.findById(product.getId()).orElseThrow().getStock()).isEqualTo(7);
+        assertThat(listJournals()).containsExactly("stock-deltas.journal");
+    }
+
+    @Test
+    void successfulFlushPrunesBatchMarkersPastRetention() throws Exception {
+        Product product = saveProduct("Pruned Scarf", 1);
+        UUID expired = stockDeltaBatchRepository.save(
+                new StockDeltaBatch(UUID.randomUUID(), Instant.now().minus(Duration.ofDays(2)))).getId();
+        UUID recent = stockDeltaBatchRepository.save(
+                new StockDeltaBatch(UUID.randomUUID(), Instant.now().minus(Duration.ofHours(1)))).getId();
+
+        increase(product.getId(), 2).andExpect(status().isOk());
+        assertThat(aggregator.flush()).isEqualTo(1);
+
+        assertThat(stockDeltaBatchRepository.existsById(expired)).isFalse();
+        assertThat(stockDeltaBatchRepository.existsById(recent)).isTrue();
+    }
+
+    @Test
+    void enablingWriteBehindWithoutJournalDirFailsFast() {
+        assertThatThrownBy(() -> new StockDeltaAggregator(null, new SimpleMeterRegistry(), true, " ", true, 16, 0))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("journal-dir");
+    }
+
+    @Test
+    void unknownProductIsRejectedWithoutBuffering() throws Exception {
+        increase(UUID.randomUUID(), 1).andExpect(status().isNotFound());
+        assertThat(aggregator.pendingProducts()).isZero();
+    }
+
+    private ResultActions increase(UUID id, int quantity) throws Exception {
+        return mockMvc.perform(post("/products/{id}/increase-stock", id)
+                .param("quantity", String.valueOf(quantity))
+                .header("X-Internal-Caller", "order-service")
+                .header("X-Internal-Token", "test-internal-token"));
+    }
+
+    private Product saveProduct(String name, int stock) {
+        Product product = new Product();
+        product.setName(name);
+        product.setPrice(10.0);
+        product.setStock(stock);
+        return repository.save(product);
+    }
+
+    private static List<String> listJournals() throws IOException {
+        try (var files = Files.list(JOURNAL_DIR)) {
+            return files.map(path -> path.getFileName().toString()).toList();
+        }
+    }
+
+    private static Path createJournalDir() {
+        try {
+            return Files.createTempDirectory("product-stock-journal");
+        } catch (IOException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+}
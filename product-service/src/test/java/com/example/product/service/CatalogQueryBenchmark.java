@@ -0,0 +1,146 @@
+package com.example.product.service;
+
+import com.example.product.ProductServiceApplication;
+import com.example.product.dto.ProductPageResponse;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the JPA Specification listing path with {@link ColumnarCatalogIndex} on the same data.
+ * Run with:
+ * <pre>
+ * mvn -q test-compile dependency:build-classpath -Dmdep.outputFile=target/cp.txt -Dmdep.includeScope=test
+ * java -cp target/test-classes:target/classes:$(cat target/cp.txt) com.example.product.service.CatalogQueryBenchmark
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = {"-Xmx4g"})
+public class CatalogQueryBenchmark {
+
+    private static final String[] NAMES = {"Cloud Hoodie", "Denim Shirt", "Grey Tee", "White Cap", "Navy Pants"};
+
+    @Param({"10000", "100000", "1000000"})
+    public int catalogSize;
+
+    @Param({"homepage", "priceRange"})
+    public String shape;
+
+    private ConfigurableApplicationContext context;
+    private ProductService productService;
+    private ColumnarCatalogIndex index;
+    private ProductListingCache.ListingKey key;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(ProductServiceApplication.class)
+                .profiles("test")
+                .run(
+                        "--product.cache.listing.enabled=false",
+                        "--product.read-engine.columnar.enabled=false",
+                        "--logging.level.root=WARN"
+                );
+        productService = context.getBean(ProductService.class);
+        JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+
+        Random random = new Random(7);
+        Instant start = Instant.parse("2026-01-01T00:00:00Z");
+        List<ColumnarCatalogIndex.Row> rows = new ArrayList<>(catalogSize);
+        for (int i = 0; i < catalogSize; i++) {
+            rows.add(new ColumnarCatalogIndex.Row(
+                    UUID.randomUUID(),
+                    NAMES[random.nextInt(NAMES.length)] + " " + i,
+                    1 + random.nextInt(50_000) / 100.0,
+                    random.nextInt(500),
+                    start.plusMillis(i),
+                    0,
+                    false
+            ));
+        }
+
+        List<Object[]> batch = new ArrayList<>(1000);
+        for (ColumnarCatalogIndex.Row row : rows) {
+            batch.add(new Object[]{row.id(), row.name(), row.price(), row.stock(), Timestamp.from(row.createdAt())});
+            if (batch.size() == 1000) {
+                insert(jdbcTemplate, batch);
+                batch.clear();
+            }
+        }
+        insert(jdbcTemplate, batch);
+
+        index = new ColumnarCatalogIndex(4096);
+        index.replaceAll(rows, index.writeSequence());
+
+        key = "homepage".equals(shape)
+                ? ProductListingCache.ListingKey.of(0, 20, "createdAt", "DESC", null, null, null, null, null, null)
+                : ProductListingCache.ListingKey.of(5, 20, "price", "ASC", null, null, 100.0, 200.0, 10, null);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public ProductPageResponse jpaSpecification() {
+        return productService.findAll(
+                key.page(),
+                key.size(),
+                key.sortBy(),
+                key.sortDir(),
+                key.name(),
+                key.query(),
+                key.minPrice(),
+                key.maxPrice(),
+                key.minStock(),
+                key.maxStock()
+        );
+    }
+
+    @Benchmark
+    public ProductPageResponse columnarIndex() {
+        return index.query(key);
+    }
+
+    private static void insert(JdbcTemplate jdbcTemplate, List<Object[]> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(
+                "insert into products (id, name, price, stock, created_at, version) values (?, ?, ?, ?, ?, 0)",
+                batch
+        );
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(CatalogQueryBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -0,0 +1,187 @@
+package com.example.product.service;
+
+import com.example.product.dto.ProductPageResponse;
+import com.example.product.dto.ProductResponse;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ColumnarCatalogIndexTest {
+
+    private static final String[] NAMES = {"Cloud Hoodie", "Denim Shirt", "Grey Tee", "White Cap", "Navy Pants"};
+    private static final String[] SORT_FIELDS = {"name", "price", "stock", "createdAt"};
+
+    @Test
+    void queryMatchesNaiveFilterSortAndPageAcrossWrites() {
+        Random random = new Random(42);
+        ColumnarCatalogIndex index = new ColumnarCatalogIndex(16);
+        Map<UUID, ColumnarCatalogIndex.Row> expected = new HashMap<>();
+
+        List<ColumnarCatalogIndex.Row> initial = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            ColumnarCatalogIndex.Row row = randomRow(random, UUID.randomUUID(), 0);
+            initial.add(row);
+            expected.put(row.id(), row);
+        }
+        index.replaceAll(initial, index.writeSequence());
+
+        for (int round = 0; round < 60; round++) {
+            applyRandomWrite(random, index, expected);
+            for (int q = 0; q < 10; q++) {
+                ProductListingCache.ListingKey key = randomKey(random);
+                assertPage(naive(expected, key), index.query(key), key);
+            }
+        }
+    }
+
+    @Test
+    void reloadKeepsWritesAppliedWhileLoading() {
+        ColumnarCatalogIndex index = new ColumnarCatalogIndex(16);
+        ColumnarCatalogIndex.Row original = new ColumnarCatalogIndex.Row(
+                UUID.randomUUID(), "Grey Tee", 10.0, 5, Instant.parse("2026-01-01T00:00:00Z"), 0, false
+        );
+        index.replaceAll(List.of(original), index.writeSequence());
+
+        long loadStartedAt = index.writeSequence();
+        ColumnarCatalogIndex.Row updated = new ColumnarCatalogIndex.Row(
+                original.id(), "Grey Tee", 12.0, 4, original.createdAt(), 1, false
+        );
+        index.apply(updated);
+        index.replaceAll(List.of(original), loadStartedAt);
+
+        ProductPageResponse page = index.query(ProductListingCache.ListingKey.of(
+                0, 10, "price", "ASC", null, null, null, null, null, null
+        ));
+        assertEquals(1, page.getTotalElements());
+        assertEquals(12.0, page.getItems().get(0).getPrice());
+    }
+
+    @Test
+    void namesAndIdsCompareLikePostgres() {
+        // U+1F600 sorts after U+FF21 by code point (and in COLLATE "C"), but before it as UTF-16 units.
+        assertTrue(ColumnarCatalogIndex.compareNames("\uD83D\uDE00", "\uFF21") > 0);
+        assertTrue(ColumnarCatalogIndex.compareNames("Zebra", "apple") < 0);
+        assertTrue(ColumnarCatalogIndex.compareNames("apple", "apple pie") < 0);
+        assertTrue(ColumnarCatalogIndex.compareIds(
+                UUID.fromString("80000000-0000-7000-8000-000000000000"),
+                UUID.fromString("7fffffff-ffff-7fff-bfff-ffffffffffff")
+        ) > 0);
+        assertTrue(ColumnarCatalogIndex.compareIds(
+                UUID.fromString("00000000-0000-7000-f000-000000000000"),
+                UUID.fromString("00000000-0000-7000-8000-000000000000")
+        ) > 0);
+    }
+
+    private static void applyRandomWrite(
+            Random random,
+            ColumnarCatalogIndex index,
+            Map<UUID, ColumnarCatalogIndex.Row> expected
+    ) {
+        List<UUID> ids = new ArrayList<>(expected.keySet());
+        int action = random.nextInt(3);
+        if (action == 0 || ids.isEmpty()) {
+            ColumnarCatalogIndex.Row row = randomRow(random, UUID.randomUUID(), 0);
+            expected.put(row.id(), row);
+            index.apply(row);
+        } else if (action == 1) {
+            UUID id = ids.get(random.nextInt(ids.size()));
+            ColumnarCatalogIndex.Row current = expected.get(id);
+            ColumnarCatalogIndex.Row row = new ColumnarCatalogIndex.Row(
+                    id,
+                    current.name(),
+                    1 + random.nextInt(50),
+                    random.nextInt(20),
+                    current.createdAt(),
+                    current.version() + 1,
+                    false
+            );
+            expected.put(id, row);
+            index.apply(row);
+        } else {
+            UUID id = ids.get(random.nextInt(ids.size()));
+            expected.remove(id);
+            index.apply(ColumnarCatalogIndex.Row.tombstone(id));
+        }
+    }
+
+    private static ColumnarCatalogIndex.Row randomRow(Random random, UUID id, long version) {
+        return new ColumnarCatalogIndex.Row(
+                id,
+                NAMES[random.nextInt(NAMES.length)] + " " + random.nextInt(5),
+                1 + random.nextInt(50),
+                random.nextInt(20),
+                Instant.parse("2026-01-01T00:00:00Z").plusSeconds(random.nextInt(1000)),
+                version,
+                false
+        );
+    }
+
+    private static ProductListingCache.ListingKey randomKey(Random random) {
+        Double minPrice = random.nextBoolean() ? null : (double) (1 + random.nextInt(25));
+        Double maxPrice = random.nextBoolean() ? null : (double) (25 + random.nextInt(25));
+        Integer minStock = random.nextBoolean() ? null : random.nextInt(10);
+        Integer maxStock = random.nextBoolean() ? null : 10 + random.nextInt(10);
+        String name = random.nextInt(4) == 0 ? "hoodie" : null;
+        return ProductListingCache.ListingKey.of(
+                random.nextInt(4),
+                1 + random.nextInt(15),
+                SORT_FIELDS[random.nextInt(SORT_FIELDS.length)],
+                random.nextBoolean() ? "ASC" : "DESC",
+                name,
+                null,
+                minPrice,
+                maxPrice,
+                minStock,
+                maxStock
+        );
+    }
+
+    private static List<ColumnarCatalogIndex.Row> naive(
+            Map<UUID, ColumnarCatalogIndex.Row> rows,
+            ProductListingCache.ListingKey key
+    ) {
+        Comparator<ColumnarCatalogIndex.Row> order = switch (key.sortBy()) {
+            case "name" -> Comparator.comparing(ColumnarCatalogIndex.Row::name, ColumnarCatalogIndex::compareNames);
+            case "price" -> Comparator.comparingDouble(ColumnarCatalogIndex.Row::price);
+            case "stock" -> Comparator.comparingInt(ColumnarCatalogIndex.Row::stock);
+            default -> Comparator.comparing(ColumnarCatalogIndex.Row::createdAt);
+        };
+        order = order.thenComparing(ColumnarCatalogIndex.Row::id, ColumnarCatalogIndex::compareIds);
+        if ("DESC".equals(key.sortDir())) {
+            order = order.reversed();
+        }
+
+        return rows.values().stream()
+                .filter(row -> key.name() == null || row.name().toLowerCase(Locale.ROOT).contains(key.name()))
+                .filter(row -> key.minPrice() == null || row.price() >= key.minPrice())
+                .filter(row -> key.maxPrice() == null || row.price() <= key.maxPrice())
+                .filter(row -> key.minStock() == null || row.stock() >= key.minStock())
+                .filter(row -> key.maxStock() == null || row.stock() <= key.maxStock())
+                .sorted(order)
+                .toList();
+    }
+
+    private static void assertPage(
+            List<ColumnarCatalogIndex.Row> expected,
+            ProductPageResponse actual,
+            ProductListingCache.ListingKey key
+    ) {
+        assertEquals(expected.size(), actual.getTotalElements(), key.toString());
+        int from = Math.min(expected.size(), key.page() * key.size());
+        int to = Math.min(expected.size(), from + key.size());
+        List<UUID> expectedIds = expected.subList(from, to).stream().map(ColumnarCatalogIndex.Row::id).toList();
+        List<UUID> actualIds = actual.getItems().stream().map(ProductResponse::getId).toList();
+        assertEquals(expectedIds, actualIds, key.toString());
+    }
+}
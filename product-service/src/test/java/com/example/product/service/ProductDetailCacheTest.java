@@ -0,0 +1,56 @@
+package com.example.product.service;
+
+import com.example.product.dto.ProductResponse;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ProductDetailCacheTest {
+
+    @Test
+    void rowLoadedBeforeAnEvictionIsNotCached() {
+        ProductDetailCache cache = new ProductDetailCache(new SimpleMeterRegistry(), true, 100, 30_000);
+        UUID id = UUID.randomUUID();
+        AtomicInteger loads = new AtomicInteger();
+
+        // The write commits and evicts while this reader still holds the pre-commit row.
+        cache.get(id, ignored -> {
+            loads.incrementAndGet();
+            cache.evict(id);
+            return Optional.of(response(id, 1L));
+        });
+        ProductResponse next = cache.get(id, ignored -> {
+            loads.incrementAndGet();
+            return Optional.of(response(id, 2L));
+        }).orElseThrow();
+
+        assertEquals(2, loads.get());
+        assertEquals(2L, next.getVersion());
+    }
+
+    @Test
+    void rowLoadedWithoutConcurrentWritesIsCached() {
+        ProductDetailCache cache = new ProductDetailCache(new SimpleMeterRegistry(), true, 100, 30_000);
+        UUID id = UUID.randomUUID();
+        AtomicInteger loads = new AtomicInteger();
+
+        for (int i = 0; i < 3; i++) {
+            cache.get(id, ignored -> {
+                loads.incrementAndGet();
+                return Optional.of(response(id, 1L));
+            });
+        }
+
+        assertEquals(1, loads.get());
+    }
+
+    private static ProductResponse response(UUID id, long version) {
+        return new ProductResponse(id, "Grey Tee", 10.0, 5, Instant.EPOCH, version);
+    }
+}
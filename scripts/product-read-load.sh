@@ -0,0 +1,83 @@
+#!/usr/bin/env bash
+set -euo pipefail
+
+usage() {
+  cat <<'EOF'
+Usage:
+  ./scripts/product-read-load.sh
+
+Compares the servlet (product-service) and reactive (product-read-service) read stacks.
+Start both first:
+  docker compose --profile reactive-read up -d product-service product-read-service
+
+For each container it runs `hey` from a sidecar on the same network and samples `docker stats`,
+then prints throughput per busy core and resident memory added per concurrent connection.
+
+Environment:
+  CONCURRENCY   concurrent connections (default 256)
+  DURATION      load duration per target (default 60s)
+  READ_PATH     request path (default /products?page=1&size=20&sortBy=createdAt&sortDir=desc)
+  HEY_IMAGE     load generator image (default williamyeh/hey)
+EOF
+}
+
+if [[ "${1:-}" == "-h" || "${1:-}" == "--help" ]]; then
+  usage
+  exit 0
+fi
+
+CONCURRENCY="${CONCURRENCY:-256}"
+DURATION="${DURATION:-60s}"
+READ_PATH="${READ_PATH:-/products?page=1&size=20&sortBy=createdAt&sortDir=desc}"
+HEY_IMAGE="${HEY_IMAGE:-williamyeh/hey}"
+TMP_DIR="$(mktemp -d)"
+trap 'rm -rf "$TMP_DIR"' EXIT
+
+to_mib() {
+  awk -v v="$1" 'BEGIN {
+    n = v + 0; u = v; sub(/^[0-9.]+/, "", u)
+    if (u == "GiB") n *= 1024; else if (u == "KiB") n /= 1024; else if (u == "B") n /= 1048576
+    printf "%.1f", n
+  }'
+}
+
+mem_mib() {
+  to_mib "$(docker stats --no-stream --format '{{.MemUsage}}' "$1" | awk '{print $1}')"
+}
+
+run_target() {
+  local container="$1"
+  local network
+  network="$(docker inspect -f '{{range $k, $v := .NetworkSettings.Networks}}{{$k}}{{end}}' "$container")"
+  local url="http://$container:8080$READ_PATH"
+
+  # Warm caches and JIT before measuring.
+  docker run --rm --network "$network" "$HEY_IMAGE" -z 10s -c 32 "$url" >/dev/null
+  local idle_mem
+  idle_mem="$(mem_mib "$container")"
+
+  docker stats --format '{{.CPUPerc}} {{.MemUsage}}' "$container" > "$TMP_DIR/$container.stats" &
+  local stats_pid=$!
+  docker run --rm --network "$network" "$HEY_IMAGE" -z "$DURATION" -c "$CONCURRENCY" "$url" > "$TMP_DIR/$container.hey"
+  kill "$stats_pid" 2>/dev/null || true
+  wait "$stats_pid" 2>/dev/null || true
+
+  local rps cpu peak_mem
+  rps="$(awk '/Requests\/sec/ {print $2}' "$TMP_DIR/$container.hey")"
+  cpu="$(sed 's/\x1b\[[0-9;]*[A-Za-z]//g' "$TMP_DIR/$container.stats" \
+    | awk '{gsub("%", "", $1); if ($1 > 0) {s += $1; n++}} END {printf "%.2f", n ? s / n / 100 : 0}')"
+  peak_mem="$(sed 's/\x1b\[[0-9;]*[A-Za-z]//g' "$TMP_DIR/$container.stats" | awk '{print $2}' \
+    | while read -r m; do to_mib "$m"; echo; done | sort -n | tail -1)"
+
+  awk -v c="$container" -v rps="$rps" -v cpu="$cpu" -v idle="$idle_mem" -v peak="$peak_mem" -v conn="$CONCURRENCY" \
+    -v errors="$(grep -c '^\s*\[[45][0-9][0-9]\]' "$TMP_DIR/$container.hey" || true)" 'BEGIN {
+      printf "%-22s rps=%-10.1f cores=%-6.2f rps/core=%-10.1f idleMiB=%-8.1f peakMiB=%-8.1f KiB/conn=%-8.1f errorStatuses=%s\n",
+        c, rps, cpu, (cpu > 0 ? rps / cpu : 0), idle, peak, (peak - idle) * 1024 / conn, errors
+    }'
+}
+
+echo "GET $READ_PATH  concurrency=$CONCURRENCY duration=$DURATION"
+for container in product-service product-read-service; do
+  docker inspect "$container" >/dev/null 2>&1 || { echo "[FAIL] Container not running: $container"; exit 1; }
+  run_target "$container"
+done